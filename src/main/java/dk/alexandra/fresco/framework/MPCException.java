@@ -38,4 +38,8 @@ public class MPCException extends RuntimeException {
 		super(msg, e);
 	}
 
+	public MPCException(String msg, Throwable e) {
+		super(msg, e);
+	}
+
 }
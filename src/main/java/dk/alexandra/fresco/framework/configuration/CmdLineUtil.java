@@ -55,7 +55,10 @@ import dk.alexandra.fresco.framework.sce.resources.storage.StorageStrategy;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
 import dk.alexandra.fresco.suite.dummy.DummyConfiguration;
+import dk.alexandra.fresco.suite.lr15.configuration.LR15Configuration;
+import dk.alexandra.fresco.suite.replicated.configuration.ReplicatedConfiguration;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
+import dk.alexandra.fresco.suite.spdz2k.configuration.Spdz2kConfiguration;
 
 
 /**
@@ -396,12 +399,21 @@ public class CmdLineUtil {
 			case "bgw":
 				this.psConf = BgwConfiguration.fromCmdArgs(this.sceConf, remainingArgs);
 				break;
+			case "replicated":
+				this.psConf = ReplicatedConfiguration.fromCmdArgs(this.sceConf, remainingArgs);
+				break;
 			case "dummy":
 				this.psConf = DummyConfiguration.fromCmdArgs(this.sceConf, remainingArgs);
 				break;
 			case "spdz":
 				this.psConf = SpdzConfiguration.fromCmdArgs(this.sceConf, remainingArgs);
 				break;
+			case "spdz2k":
+				this.psConf = Spdz2kConfiguration.fromCmdArgs(this.sceConf, remainingArgs);
+				break;
+			case "lr15":
+				this.psConf = LR15Configuration.fromCmdArgs(this.sceConf, remainingArgs);
+				break;
 			default:
 				throw new MPCException("Unknown protocol suite: " + this.getSCEConfiguration().getProtocolSuiteName());
 			}
@@ -27,7 +27,6 @@
 package dk.alexandra.fresco.framework.sce;
 
 import java.io.IOException;
-import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.Map;
 import java.util.Random;
@@ -53,15 +52,24 @@ import dk.alexandra.fresco.framework.sce.resources.threads.ThreadPoolImpl;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.BgwFactory;
 import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
-import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
 import dk.alexandra.fresco.suite.bgw.configuration.BgwConfigurationFromProperties;
+import dk.alexandra.fresco.suite.dummy.DummyBitSlicedFactory;
 import dk.alexandra.fresco.suite.dummy.DummyConfiguration;
 import dk.alexandra.fresco.suite.dummy.DummyFactory;
+import dk.alexandra.fresco.suite.lr15.LR15Factory;
+import dk.alexandra.fresco.suite.lr15.LR15ProtocolSuite;
+import dk.alexandra.fresco.suite.lr15.configuration.LR15ConfigurationFromProperties;
 import dk.alexandra.fresco.suite.dummy.DummyProtocolSuite;
+import dk.alexandra.fresco.suite.replicated.ReplicatedFactory;
+import dk.alexandra.fresco.suite.replicated.ReplicatedProtocolSuite;
+import dk.alexandra.fresco.suite.replicated.configuration.ReplicatedConfigurationFromProperties;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfigurationFromProperties;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.utils.SpdzFactory;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kFactory;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kProtocolSuite;
+import dk.alexandra.fresco.suite.spdz2k.configuration.Spdz2kConfigurationFromProperties;
 
 /**
  * Secure Computation Engine - responsible for having the overview of things and
@@ -155,8 +163,7 @@ public class SCEImpl implements SCE {
 		String runtime = sceConf.getProtocolSuiteName();
 		switch (runtime.toLowerCase()) {
 		case "spdz":
-			this.protocolSuite = SpdzProtocolSuite
-					.getInstance(this.resourcePool.getMyId());
+			this.protocolSuite = new SpdzProtocolSuite();
 			if (psConf == null) {
 				psConf = new SpdzConfigurationFromProperties();
 			}
@@ -167,18 +174,47 @@ public class SCEImpl implements SCE {
 					.getStore(0);
 			int maxBitLength = ((SpdzConfiguration) psConf).getMaxBitLength();
 			this.protocolFactory = new SpdzFactory(spdzStorage,
+					((SpdzProtocolSuite) this.protocolSuite).getModulus(),
 					this.resourcePool.getMyId(), maxBitLength);
 			break;
 		case "bgw":
-			this.protocolSuite = BgwProtocolSuite.getInstance();
+			this.protocolSuite = new BgwProtocolSuite();
 			if (psConf == null) {
 				psConf = new BgwConfigurationFromProperties();
 			}
 			this.protocolSuite.init(this.resourcePool, psConf);
-			int threshold = ((BgwConfiguration) psConf).getThreshold();
-			BigInteger modulus = ((BgwConfiguration) psConf).getModulus();
 			this.protocolFactory = new BgwFactory(this.resourcePool.getMyId(),
-					this.resourcePool.getNoOfParties(), threshold, modulus);
+					this.resourcePool.getNoOfParties(),
+					(BgwProtocolSuite) this.protocolSuite);
+			break;
+		case "replicated":
+			this.protocolSuite = new ReplicatedProtocolSuite();
+			if (psConf == null) {
+				psConf = new ReplicatedConfigurationFromProperties();
+			}
+			this.protocolSuite.init(this.resourcePool, psConf);
+			this.protocolFactory = new ReplicatedFactory(
+					this.resourcePool.getMyId(),
+					(ReplicatedProtocolSuite) this.protocolSuite);
+			break;
+		case "spdz2k":
+			this.protocolSuite = new Spdz2kProtocolSuite();
+			if (psConf == null) {
+				psConf = new Spdz2kConfigurationFromProperties();
+			}
+			this.protocolSuite.init(this.resourcePool, psConf);
+			this.protocolFactory = new Spdz2kFactory(
+					this.resourcePool.getMyId(),
+					(Spdz2kProtocolSuite) this.protocolSuite);
+			break;
+		case "lr15":
+			this.protocolSuite = new LR15ProtocolSuite();
+			if (psConf == null) {
+				psConf = new LR15ConfigurationFromProperties();
+			}
+			this.protocolSuite.init(this.resourcePool, psConf);
+			this.protocolFactory = new LR15Factory(
+					(LR15ProtocolSuite) this.protocolSuite);
 			break;
 		case "dummy":
 			this.protocolSuite = new DummyProtocolSuite();
@@ -186,11 +222,16 @@ public class SCEImpl implements SCE {
 				psConf = new DummyConfiguration();
 			}
 			this.protocolSuite.init(this.resourcePool, psConf);
-			this.protocolFactory = new DummyFactory();
+			int instances = ((DummyConfiguration) psConf).getInstances();
+			if (instances > 1) {
+				this.protocolFactory = new DummyBitSlicedFactory(instances);
+			} else {
+				this.protocolFactory = new DummyFactory();
+			}
 			break;
 		default:
 			throw new IllegalArgumentException(
-					"Could not understand the specified runtime. This framework currently supports:\n\t-spdz\n\t-bgw\n\t-dummy");
+					"Could not understand the specified runtime. This framework currently supports:\n\t-spdz\n\t-spdz2k\n\t-bgw\n\t-replicated\n\t-lr15\n\t-dummy");
 		}
 
 		this.setup = true;
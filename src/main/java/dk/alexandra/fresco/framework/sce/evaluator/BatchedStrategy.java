@@ -71,10 +71,14 @@ public class BatchedStrategy {
 				// send phase
 				Map<Integer, Queue<Serializable>> output = sceNetwork
 						.getOutputFromThisRound();
-				for (int pId : output.keySet()) {
+				for (int pId : queues.keySet()) {
+					// The receiver finds the messages of protocol i at index
+					// i, so add an entry even if nothing is sent to pId.
+					Queue<Serializable> q = output.get(pId);
 					// send array since queue is not serializable
 					queues.get(pId).add(
-							output.get(pId).toArray(new Serializable[0]));
+							q == null ? new Serializable[0] : q
+									.toArray(new Serializable[0]));
 				}
 			}
 			// actual send
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+/**
+ * A PRF from a key and an index to elements of a prime field, built from
+ * SHA-256 in counter mode: the output is SHA-256(key || index || block) for
+ * block = 0, 1, ..., cut into one sample per element.
+ */
+public final class FieldPrf {
+
+	/**
+	 * The PRF is evaluated by the threads evaluating protocols, so each
+	 * thread gets its own digest rather than looking one up per call.
+	 */
+	private static final ThreadLocal<MessageDigest> digests = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new MPCException("SHA-256 is not available", e);
+			}
+		}
+	};
+
+	private FieldPrf() {
+	}
+
+	/**
+	 * Returns the element with the given index.
+	 */
+	public static BigInteger element(byte[] key, long index, BigInteger modulus) {
+		return elements(key, index, 1, modulus)[0];
+	}
+
+	/**
+	 * Returns the given amount of elements for the given index.
+	 */
+	public static BigInteger[] elements(byte[] key, long index, int amount,
+			BigInteger modulus) {
+		MessageDigest digest = digests.get();
+		// Oversample by 64 bits to make the reduction close to uniform.
+		int sampleBytes = (modulus.bitLength() + 64 + 7) / 8;
+		byte[] out = new byte[amount * sampleBytes];
+		ByteBuffer counter = ByteBuffer.allocate(12).putLong(index);
+		int filled = 0;
+		for (int block = 0; filled < out.length; block++) {
+			counter.putInt(8, block);
+			digest.update(key);
+			digest.update(counter.array());
+			byte[] hash = digest.digest();
+			int len = Math.min(hash.length, out.length - filled);
+			System.arraycopy(hash, 0, out, filled, len);
+			filled += len;
+		}
+		byte[] sample = new byte[sampleBytes];
+		BigInteger[] res = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			System.arraycopy(out, i * sampleBytes, sample, 0, sampleBytes);
+			res[i] = new BigInteger(1, sample).mod(modulus);
+		}
+		return res;
+	}
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A prime field whose elements fit in a long, i.e. a prime of at most 61
+ * bits. Elements are longs in [0, p), and the arithmetic neither allocates
+ * nor uses BigInteger: products are reduced by folding for p = 2^61 - 1 and
+ * by Barrett reduction for any other prime. See {@link ModularReducer} for
+ * the reduction of BigIntegers.
+ */
+public final class LongPrimeField {
+
+	/**
+	 * The largest bit length of a modulus supported.
+	 */
+	public static final int MAX_BIT_LENGTH = 61;
+
+	private static final long MERSENNE_61 = (1L << 61) - 1;
+
+	private static final Map<BigInteger, LongPrimeField> fields = new ConcurrentHashMap<BigInteger, LongPrimeField>();
+	private static volatile LongPrimeField last;
+
+	private final BigInteger bigModulus;
+	private final long p;
+	private final int k;
+	private final long mu;
+	private final long mask;
+
+	private LongPrimeField(BigInteger modulus) {
+		this.bigModulus = modulus;
+		this.p = modulus.longValue();
+		this.k = modulus.bitLength();
+		// mu = floor(2^2k / p) < 2^(k+1)
+		this.mu = BigInteger.ONE.shiftLeft(2 * k).divide(modulus).longValue();
+		this.mask = (1L << k) - 1;
+	}
+
+	/**
+	 * Returns the field for the modulus, or null if the modulus is too large
+	 * to be represented by longs.
+	 */
+	public static LongPrimeField forModulus(BigInteger modulus) {
+		LongPrimeField field = last;
+		if (field != null && field.bigModulus.equals(modulus)) {
+			return field;
+		}
+		if (modulus.bitLength() > MAX_BIT_LENGTH || modulus.bitLength() < 3) {
+			return null;
+		}
+		field = fields.get(modulus);
+		if (field == null) {
+			field = new LongPrimeField(modulus);
+			fields.put(modulus, field);
+		}
+		last = field;
+		return field;
+	}
+
+	public long getModulus() {
+		return p;
+	}
+
+	public BigInteger getBigModulus() {
+		return bigModulus;
+	}
+
+	/**
+	 * Converts a BigInteger to an element of the field.
+	 */
+	public long toElement(BigInteger x) {
+		if (x.signum() >= 0 && x.bitLength() < 64) {
+			return x.longValue() % p;
+		}
+		return x.mod(bigModulus).longValue();
+	}
+
+	public long add(long a, long b) {
+		long r = a + b;
+		return r >= p ? r - p : r;
+	}
+
+	public long subtract(long a, long b) {
+		long r = a - b;
+		return r < 0 ? r + p : r;
+	}
+
+	public long multiply(long a, long b) {
+		return reduce(multiplyHigh(a, b), a * b);
+	}
+
+	/**
+	 * Returns a^e for a non-negative exponent.
+	 */
+	public long pow(long a, long e) {
+		long res = 1;
+		long base = a;
+		while (e > 0) {
+			if ((e & 1) != 0) {
+				res = multiply(res, base);
+			}
+			base = multiply(base, base);
+			e >>>= 1;
+		}
+		return res;
+	}
+
+	/**
+	 * Returns the inverse of a non-zero element.
+	 */
+	public long invert(long a) {
+		if (a == 0) {
+			throw new ArithmeticException("Zero has no inverse");
+		}
+		return pow(a, p - 2);
+	}
+
+	/**
+	 * Returns a square root of a quadratic residue by the algorithm of Tonelli
+	 * and Shanks, which for p = 3 mod 4, such as 2^61 - 1, is a single
+	 * exponentiation. Both parties computing the root of the same value get
+	 * the same root.
+	 */
+	public long sqrt(long a) {
+		if (a == 0) {
+			return 0;
+		}
+		if (pow(a, (p - 1) / 2) != 1) {
+			throw new ArithmeticException(a + " is not a square modulo " + p);
+		}
+		long q = p - 1;
+		int s = 0;
+		while ((q & 1) == 0) {
+			q >>>= 1;
+			s++;
+		}
+		if (s == 1) {
+			return pow(a, (p + 1) / 4);
+		}
+		long z = 2;
+		while (pow(z, (p - 1) / 2) != p - 1) {
+			z++;
+		}
+		int m = s;
+		long c = pow(z, q);
+		long t = pow(a, q);
+		long r = pow(a, (q + 1) / 2);
+		while (t != 1) {
+			int i = 0;
+			long t2 = t;
+			while (t2 != 1) {
+				t2 = multiply(t2, t2);
+				i++;
+			}
+			long b = c;
+			for (int j = 0; j < m - i - 1; j++) {
+				b = multiply(b, b);
+			}
+			m = i;
+			c = multiply(b, b);
+			t = multiply(t, c);
+			r = multiply(r, b);
+		}
+		return r;
+	}
+
+	/**
+	 * Returns the element given by the low bits of a random long, or -1 if
+	 * they are not an element and another long must be drawn. Drawing until
+	 * an element is found gives a uniformly random element.
+	 */
+	public long fromRandomBits(long bits) {
+		long r = bits & mask;
+		return r < p ? r : -1;
+	}
+
+	/**
+	 * Returns a uniformly random element of the field.
+	 */
+	public long random(Random rand) {
+		long r;
+		do {
+			r = fromRandomBits(rand.nextLong());
+		} while (r < 0);
+		return r;
+	}
+
+	/**
+	 * Reduces the 128 bit value hi * 2^64 + lo, which must be less than p^2.
+	 */
+	private long reduce(long hi, long lo) {
+		if (p == MERSENNE_61) {
+			long r = (lo & MERSENNE_61) + ((hi << 3) | (lo >>> 61));
+			return r >= p ? r - p : r;
+		}
+		// Barrett: q = floor(floor(x / 2^(k-1)) * mu / 2^(k+1)) is at most 2
+		// less than floor(x / p), and the remainder is less than 3p < 2^63,
+		// so it can be computed in the low 64 bits.
+		long q1 = (hi << (65 - k)) | (lo >>> (k - 1));
+		long q2hi = multiplyHigh(q1, mu);
+		long q2lo = q1 * mu;
+		long q = (q2hi << (63 - k)) | (q2lo >>> (k + 1));
+		long r = lo - q * p;
+		while (r >= p) {
+			r -= p;
+		}
+		return r;
+	}
+
+	/**
+	 * The high 64 bits of the product of two non-negative longs.
+	 */
+	private static long multiplyHigh(long x, long y) {
+		long x1 = x >>> 32;
+		long x2 = x & 0xFFFFFFFFL;
+		long y1 = y >>> 32;
+		long y2 = y & 0xFFFFFFFFL;
+		long z2 = x2 * y2;
+		long t = x1 * y2 + (z2 >>> 32);
+		long z1 = (t & 0xFFFFFFFFL) + x2 * y1;
+		return x1 * y1 + (t >>> 32) + (z1 >>> 32);
+	}
+}
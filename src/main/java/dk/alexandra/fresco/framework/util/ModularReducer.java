@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reduces integers modulo a fixed modulus.
+ * 
+ * For a Mersenne modulus 2^k - 1 or a pseudo-Mersenne modulus 2^k - c with a
+ * small c, such as 2^61 - 1, 2^89 - 1 or 2^127 - 1, the reduction is done by
+ * shifts and additions: as 2^k = c mod p, the bits above position k are
+ * multiplied by c and added to the lower k bits until the value fits in k
+ * bits. This avoids the long division done by {@link BigInteger#mod}. For any
+ * other modulus {@link BigInteger#mod} is used.
+ */
+public abstract class ModularReducer {
+
+	private static final Map<BigInteger, ModularReducer> reducers = new ConcurrentHashMap<BigInteger, ModularReducer>();
+	// The reducer returned last, so a computation using one modulus does not
+	// have to look it up for every operation.
+	private static volatile ModularReducer last;
+
+	protected final BigInteger modulus;
+
+	private ModularReducer(BigInteger modulus) {
+		this.modulus = modulus;
+	}
+
+	/**
+	 * Returns the reducer for the given modulus, using shift-add reduction if
+	 * the modulus is of the form 2^k - c with c < 2^(k/2).
+	 */
+	public static ModularReducer forModulus(BigInteger modulus) {
+		ModularReducer reducer = last;
+		if (reducer != null && reducer.modulus == modulus) {
+			return reducer;
+		}
+		reducer = reducers.get(modulus);
+		if (reducer == null) {
+			reducer = create(modulus);
+			reducers.put(modulus, reducer);
+		}
+		last = reducer;
+		return reducer;
+	}
+
+	private static ModularReducer create(BigInteger modulus) {
+		if (modulus.signum() <= 0) {
+			throw new IllegalArgumentException("The modulus must be positive: "
+					+ modulus);
+		}
+		int k = modulus.bitLength();
+		BigInteger c = BigInteger.ONE.shiftLeft(k).subtract(modulus);
+		if (k > 2 && c.bitLength() <= k / 2) {
+			return new PseudoMersenne(modulus, k, c);
+		}
+		return new Generic(modulus);
+	}
+
+	/**
+	 * Shorthand for <code>forModulus(modulus).reduce(x)</code>.
+	 */
+	public static BigInteger reduce(BigInteger x, BigInteger modulus) {
+		return forModulus(modulus).reduce(x);
+	}
+
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * Tells whether this reducer uses shift-add reduction.
+	 */
+	public abstract boolean isSpecial();
+
+	/**
+	 * Returns x mod p in the range [0, p).
+	 */
+	public abstract BigInteger reduce(BigInteger x);
+
+	private static class Generic extends ModularReducer {
+
+		Generic(BigInteger modulus) {
+			super(modulus);
+		}
+
+		@Override
+		public boolean isSpecial() {
+			return false;
+		}
+
+		@Override
+		public BigInteger reduce(BigInteger x) {
+			return x.mod(modulus);
+		}
+	}
+
+	private static class PseudoMersenne extends ModularReducer {
+
+		private final int k;
+		private final BigInteger c;
+		private final BigInteger mask;
+		private final boolean mersenne;
+
+		PseudoMersenne(BigInteger modulus, int k, BigInteger c) {
+			super(modulus);
+			this.k = k;
+			this.c = c;
+			this.mask = BigInteger.ONE.shiftLeft(k).subtract(BigInteger.ONE);
+			this.mersenne = c.equals(BigInteger.ONE);
+		}
+
+		@Override
+		public boolean isSpecial() {
+			return true;
+		}
+
+		@Override
+		public BigInteger reduce(BigInteger x) {
+			if (x.signum() < 0) {
+				BigInteger r = reduce(x.negate());
+				return r.signum() == 0 ? r : modulus.subtract(r);
+			}
+			while (x.bitLength() > k) {
+				BigInteger high = x.shiftRight(k);
+				if (!mersenne) {
+					high = high.multiply(c);
+				}
+				x = x.and(mask).add(high);
+			}
+			// Now x < 2^k = p + c < 2p.
+			if (x.compareTo(modulus) >= 0) {
+				x = x.subtract(modulus);
+			}
+			return x;
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util.ot;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * A batch of random 1-out-of-2 oblivious transfers of 128 bit keys, following
+ * the "simplest OT" of Chou and Orlandi in the 2048 bit MODP group of RFC
+ * 3526. These are only used to seed an {@link OTExtensionSender} and
+ * {@link OTExtensionReceiver}, so their cost is paid once per pair of
+ * parties.
+ * 
+ * The group is the subgroup of prime order q = (p - 1) / 2 of the integers
+ * modulo the safe prime p, generated by 2. Every group element received is
+ * checked to be in that subgroup, and the keys are hashed together with the
+ * messages of both parties, such that a malicious party cannot relate the
+ * keys of different OTs.
+ */
+public class BaseOT {
+
+	static final BigInteger P = new BigInteger(
+			"FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD1"
+					+ "29024E088A67CC74020BBEA63B139B22514A08798E3404DD"
+					+ "EF9519B3CD3A431B302B0A6DF25F14374FE1356D6D51C245"
+					+ "E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED"
+					+ "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3D"
+					+ "C2007CB8A163BF0598DA48361C55D39A69163FA8FD24CF5F"
+					+ "83655D23DCA3AD961C62F356208552BB9ED529077096966D"
+					+ "670C354E4ABC9804F1746C08CA18217C32905E462E36CE3B"
+					+ "E39E772C180E86039B2783A2EC07A28FB5C55DF06F4C52C9"
+					+ "DE2BCBF6955817183995497CEA956AE515D2261898FA0510"
+					+ "15728E5A8AACAA68FFFFFFFFFFFFFFFF", 16);
+	static final BigInteger Q = P.subtract(BigInteger.ONE).shiftRight(1);
+	// 2 is a quadratic residue as p = 7 mod 8, so it generates the subgroup
+	// of order q.
+	static final BigInteger G = BigInteger.valueOf(2);
+	private static final int EXPONENT_BITS = 256;
+
+	private final Network network;
+	private final String channel;
+	private final SecureRandom rand;
+
+	public BaseOT(Network network, String channel, SecureRandom rand) {
+		this.network = network;
+		this.channel = channel;
+		this.rand = rand;
+	}
+
+	/**
+	 * Acts as sender in count random OTs with the given party.
+	 * 
+	 * @return The pairs of keys, indexed by OT and then by choice bit
+	 */
+	long[][][] send(int partyId, int count) throws IOException {
+		BigInteger a = new BigInteger(EXPONENT_BITS, rand);
+		BigInteger bigA = G.modPow(a, P);
+		network.send(channel, partyId, bigA);
+		BigInteger[] bigB = network.receive(channel, partyId);
+		if (bigB.length != count) {
+			throw new MPCException("Expected " + count + " base OTs, but got "
+					+ bigB.length);
+		}
+		BigInteger aInvA = bigA.modInverse(P).modPow(a, P);
+		long[][][] keys = new long[count][2][];
+		for (int i = 0; i < count; i++) {
+			checkElement(bigB[i], partyId);
+			BigInteger k0 = bigB[i].modPow(a, P);
+			keys[i][0] = key(i, bigA, bigB[i], k0);
+			keys[i][1] = key(i, bigA, bigB[i], k0.multiply(aInvA).mod(P));
+		}
+		return keys;
+	}
+
+	/**
+	 * Acts as receiver in random OTs with the given party.
+	 * 
+	 * @return The keys chosen by the given choice bits
+	 */
+	long[][] receive(int partyId, boolean[] choices) throws IOException {
+		BigInteger bigA = network.receive(channel, partyId);
+		checkElement(bigA, partyId);
+		BigInteger[] bigB = new BigInteger[choices.length];
+		BigInteger[] b = new BigInteger[choices.length];
+		for (int i = 0; i < choices.length; i++) {
+			b[i] = new BigInteger(EXPONENT_BITS, rand);
+			bigB[i] = G.modPow(b[i], P);
+			if (choices[i]) {
+				bigB[i] = bigB[i].multiply(bigA).mod(P);
+			}
+		}
+		network.send(channel, partyId, bigB);
+		long[][] keys = new long[choices.length][];
+		for (int i = 0; i < choices.length; i++) {
+			keys[i] = key(i, bigA, bigB[i], bigA.modPow(b[i], P));
+		}
+		return keys;
+	}
+
+	/**
+	 * Checks that an element received is in the subgroup of order q, and is
+	 * not the identity. Elements outside it, e.g. of order 2, would let the
+	 * other party learn the choices or make the keys predictable.
+	 */
+	static void checkElement(BigInteger x, int partyId) {
+		if (x == null || x.compareTo(BigInteger.ONE) <= 0
+				|| x.compareTo(P) >= 0 || !x.modPow(Q, P).equals(BigInteger.ONE)) {
+			throw new MPCException("Party " + partyId
+					+ " sent an invalid group element in the base OTs");
+		}
+	}
+
+	private static long[] key(int index, BigInteger bigA, BigInteger bigB,
+			BigInteger element) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new MPCException("SHA-256 is needed for oblivious transfer", e);
+		}
+		update(digest, BigInteger.valueOf(index));
+		update(digest, bigA);
+		update(digest, bigB);
+		update(digest, element);
+		byte[] h = digest.digest();
+		long k0 = 0, k1 = 0;
+		for (int i = 0; i < 8; i++) {
+			k0 = (k0 << 8) | (h[i] & 0xff);
+			k1 = (k1 << 8) | (h[8 + i] & 0xff);
+		}
+		return new long[] { k0, k1 };
+	}
+
+	/**
+	 * Hashes the length of x followed by x, so the encodings of different
+	 * sequences of numbers never collide.
+	 */
+	private static void update(MessageDigest digest, BigInteger x) {
+		byte[] bytes = x.toByteArray();
+		digest.update(new byte[] { (byte) (bytes.length >>> 24),
+				(byte) (bytes.length >>> 16), (byte) (bytes.length >>> 8),
+				(byte) bytes.length });
+		digest.update(bytes);
+	}
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util.ot;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * One direction of IKNP oblivious transfer extension between two parties. A
+ * fixed number of base OTs, run once with the roles reversed, are stretched
+ * into any number of random OTs of 128 bit keys using AES in counter mode as
+ * the PRG.
+ * 
+ * Each extension ends with the correlation check of Keller, Orsini and
+ * Scholl (CRYPTO 2015): the receiver proves, for a random linear combination
+ * over GF(2^128) of the rows of its matrix, that it used the same choice bits
+ * for every column. The combination is chosen by coin tossing after the
+ * receiver has sent its matrix. To hide its choice bits in the combination,
+ * the receiver pads every extension with PADDING random OTs, which are
+ * discarded. Instances are not thread safe.
+ */
+abstract class OTExtension {
+
+	static final int KAPPA = 128;
+	static final int PADDING = KAPPA + 64;
+
+	protected final Network network;
+	protected final String channel;
+	protected final int partyId;
+	private final MessageDigest digest;
+
+	/**
+	 * The index of the next random OT, such that no two OTs hash their keys
+	 * the same way.
+	 */
+	protected long tweak = 0;
+
+	OTExtension(Network network, String channel, int partyId) {
+		this.network = network;
+		this.channel = channel;
+		this.partyId = partyId;
+		try {
+			this.digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new MPCException("SHA-256 is needed for oblivious transfer", e);
+		}
+	}
+
+	static Cipher prg(long[] key) {
+		byte[] k = new byte[16];
+		putLong(k, 0, key[0]);
+		putLong(k, 8, key[1]);
+		try {
+			Cipher c = Cipher.getInstance("AES/CTR/NoPadding");
+			c.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(k, "AES"),
+					new IvParameterSpec(new byte[16]));
+			return c;
+		} catch (GeneralSecurityException e) {
+			throw new MPCException(
+					"AES in counter mode is needed for oblivious transfer", e);
+		}
+	}
+
+	/**
+	 * The next words 64 bit words of the stream of the PRG.
+	 */
+	static long[] next(Cipher prg, int words) {
+		byte[] bytes = prg.update(new byte[words * 8]);
+		long[] res = new long[words];
+		for (int w = 0; w < words; w++) {
+			long v = 0;
+			for (int i = 0; i < 8; i++) {
+				v = (v << 8) | (bytes[8 * w + i] & 0xff);
+			}
+			res[w] = v;
+		}
+		return res;
+	}
+
+	/**
+	 * Transposes the KAPPA columns of m bits into m rows of KAPPA bits.
+	 */
+	static long[][] transpose(long[][] columns, int m) {
+		long[][] rows = new long[m][KAPPA / 64];
+		for (int i = 0; i < KAPPA; i++) {
+			long[] column = columns[i];
+			long bit = 1L << (i & 63);
+			int word = i >>> 6;
+			for (int j = 0; j < m; j++) {
+				if (((column[j >>> 6] >>> (j & 63)) & 1) != 0) {
+					rows[j][word] |= bit;
+				}
+			}
+		}
+		return rows;
+	}
+
+	static int words(int m) {
+		return (m + 63) / 64;
+	}
+
+	/**
+	 * The coefficients of the random linear combination of the rows of an
+	 * extension of m OTs, as elements of GF(2^128), from a seed agreed on by
+	 * both parties.
+	 */
+	static long[][] challenges(long[] seed, int m) {
+		long[] stream = next(prg(seed), 2 * m);
+		long[][] chi = new long[m][];
+		for (int j = 0; j < m; j++) {
+			chi[j] = new long[] { stream[2 * j], stream[2 * j + 1] };
+		}
+		return chi;
+	}
+
+	/**
+	 * Adds the product of a and b, as polynomials over GF(2) of degree below
+	 * 128, to the 256 bit accumulator acc. The products are not reduced, as
+	 * the check only needs the map from rows to combinations to be linear.
+	 */
+	static void addProduct(long[] acc, long[] a, long[] b) {
+		for (int i = 0; i < 2; i++) {
+			for (int k = 0; k < 2; k++) {
+				long lo = 0, hi = 0;
+				long x = a[i], y = b[k];
+				for (int bit = 0; bit < 64; bit++) {
+					if (((x >>> bit) & 1) != 0) {
+						lo ^= y << bit;
+						if (bit > 0) {
+							hi ^= y >>> (64 - bit);
+						}
+					}
+				}
+				acc[i + k] ^= lo;
+				acc[i + k + 1] ^= hi;
+			}
+		}
+	}
+
+	/**
+	 * A hash of the given words, used to commit to the seed of the challenges.
+	 */
+	byte[] hash(long... words) {
+		byte[] bytes = new byte[8 * words.length];
+		for (int i = 0; i < words.length; i++) {
+			putLong(bytes, 8 * i, words[i]);
+		}
+		return digest.digest(bytes);
+	}
+
+	/**
+	 * Hashes a row of the transposed matrix into a key of 128 bits. The row
+	 * and the row xor the correlation are only related through the
+	 * correlation, which the hash breaks.
+	 */
+	long[] key(long index, long[] row) {
+		byte[] bytes = new byte[24];
+		putLong(bytes, 0, index);
+		putLong(bytes, 8, row[0]);
+		putLong(bytes, 16, row[1]);
+		byte[] h = digest.digest(bytes);
+		long k0 = 0, k1 = 0;
+		for (int i = 0; i < 8; i++) {
+			k0 = (k0 << 8) | (h[i] & 0xff);
+			k1 = (k1 << 8) | (h[8 + i] & 0xff);
+		}
+		return new long[] { k0, k1 };
+	}
+
+	private static void putLong(byte[] b, int off, long v) {
+		for (int i = 0; i < 8; i++) {
+			b[off + i] = (byte) (v >>> (56 - 8 * i));
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util.ot;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * The receiving end of an {@link OTExtension}, which chooses one of the two
+ * keys of each random OT.
+ */
+public class OTExtensionReceiver extends OTExtension {
+
+	private final Cipher[] prgs0 = new Cipher[KAPPA];
+	private final Cipher[] prgs1 = new Cipher[KAPPA];
+	private final SecureRandom rand;
+
+	/**
+	 * Runs the base OTs, in which the receiver of the extension acts as
+	 * sender.
+	 */
+	public OTExtensionReceiver(Network network, String channel, int partyId,
+			BaseOT baseOT, SecureRandom rand) throws IOException {
+		super(network, channel, partyId);
+		this.rand = rand;
+		long[][][] keys = baseOT.send(partyId, KAPPA);
+		for (int i = 0; i < KAPPA; i++) {
+			prgs0[i] = prg(keys[i][0]);
+			prgs1[i] = prg(keys[i][1]);
+		}
+	}
+
+	/**
+	 * Runs a random OT for each choice bit, and proves to the sender that the
+	 * same choice bits were used throughout.
+	 * 
+	 * @return The chosen key of each OT
+	 */
+	public long[][] extend(boolean[] choices) throws IOException {
+		int m = choices.length;
+		int total = m + PADDING;
+		int words = words(total);
+		long[] r = new long[words];
+		for (int j = 0; j < total; j++) {
+			if (j < m ? choices[j] : rand.nextBoolean()) {
+				r[j >>> 6] |= 1L << (j & 63);
+			}
+		}
+		long[][] t = new long[KAPPA][];
+		long[][] u = new long[KAPPA][];
+		for (int i = 0; i < KAPPA; i++) {
+			t[i] = next(prgs0[i], words);
+			u[i] = next(prgs1[i], words);
+			for (int w = 0; w < words; w++) {
+				u[i][w] ^= t[i][w] ^ r[w];
+			}
+		}
+		long[] seed = new long[] { rand.nextLong(), rand.nextLong() };
+		long[] salt = new long[] { rand.nextLong(), rand.nextLong() };
+		network.send(channel, partyId, u);
+		network.send(channel, partyId, hash(seed[0], seed[1], salt[0], salt[1]));
+		long[][] rows = transpose(t, total);
+
+		long[] theirSeed = network.receive(channel, partyId);
+		long[][] chi = challenges(new long[] { seed[0] ^ theirSeed[0],
+				seed[1] ^ theirSeed[1] }, total);
+		long[] x = new long[2];
+		long[] tSum = new long[4];
+		for (int j = 0; j < total; j++) {
+			if (((r[j >>> 6] >>> (j & 63)) & 1) != 0) {
+				x[0] ^= chi[j][0];
+				x[1] ^= chi[j][1];
+			}
+			addProduct(tSum, chi[j], rows[j]);
+		}
+		network.send(channel, partyId, new long[] { seed[0], seed[1],
+				salt[0], salt[1], x[0], x[1], tSum[0], tSum[1], tSum[2],
+				tSum[3] });
+
+		long[][] res = new long[m][];
+		for (int j = 0; j < m; j++) {
+			res[j] = key(tweak + j, rows[j]);
+		}
+		tweak += m;
+		return res;
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util.ot;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * The sending end of an {@link OTExtension}, which learns both keys of each
+ * random OT.
+ */
+public class OTExtensionSender extends OTExtension {
+
+	private final long[] delta = new long[KAPPA / 64];
+	private final boolean[] deltaBits = new boolean[KAPPA];
+	private final Cipher[] prgs = new Cipher[KAPPA];
+	private final SecureRandom rand;
+
+	/**
+	 * Runs the base OTs, in which the sender of the extension acts as
+	 * receiver with a random correlation as choice bits.
+	 */
+	public OTExtensionSender(Network network, String channel, int partyId,
+			BaseOT baseOT, SecureRandom rand) throws IOException {
+		super(network, channel, partyId);
+		this.rand = rand;
+		for (int i = 0; i < KAPPA; i++) {
+			deltaBits[i] = rand.nextBoolean();
+			if (deltaBits[i]) {
+				delta[i >>> 6] |= 1L << (i & 63);
+			}
+		}
+		long[][] keys = baseOT.receive(partyId, deltaBits);
+		for (int i = 0; i < KAPPA; i++) {
+			prgs[i] = prg(keys[i]);
+		}
+	}
+
+	/**
+	 * Runs m random OTs, and checks that the receiver behaved consistently.
+	 * 
+	 * @return Both keys of each OT, indexed by OT and then choice bit
+	 * @throws MPCException
+	 *             if the receiver fails the correlation check
+	 */
+	public long[][][] extend(int m) throws IOException {
+		int total = m + PADDING;
+		int words = words(total);
+		long[][] u = network.receive(channel, partyId);
+		byte[] commitment = network.receive(channel, partyId);
+		if (u.length != KAPPA || u[0].length != words) {
+			throw new MPCException("Expected an extension of " + m + " OTs");
+		}
+		long[][] q = new long[KAPPA][];
+		for (int i = 0; i < KAPPA; i++) {
+			q[i] = next(prgs[i], words);
+			if (deltaBits[i]) {
+				for (int w = 0; w < words; w++) {
+					q[i][w] ^= u[i][w];
+				}
+			}
+		}
+		long[][] rows = transpose(q, total);
+
+		// The correlation check: sum chi_j * q_j = t + x * delta.
+		long[] seed = new long[] { rand.nextLong(), rand.nextLong() };
+		network.send(channel, partyId, seed);
+		long[] proof = network.receive(channel, partyId);
+		if (proof.length != 10
+				|| !Arrays.equals(commitment, hash(proof[0], proof[1],
+						proof[2], proof[3]))) {
+			throw new MPCException("Party " + partyId
+					+ " did not open its OT extension challenge seed");
+		}
+		long[][] chi = challenges(new long[] { seed[0] ^ proof[0],
+				seed[1] ^ proof[1] }, total);
+		long[] qSum = new long[4];
+		for (int j = 0; j < total; j++) {
+			addProduct(qSum, chi[j], rows[j]);
+		}
+		long[] expected = Arrays.copyOfRange(proof, 6, 10);
+		addProduct(expected, new long[] { proof[4], proof[5] }, delta);
+		if (!Arrays.equals(qSum, expected)) {
+			throw new MPCException("Party " + partyId
+					+ " failed the OT extension correlation check");
+		}
+
+		long[][][] res = new long[m][2][];
+		long[] flipped = new long[KAPPA / 64];
+		for (int j = 0; j < m; j++) {
+			for (int w = 0; w < flipped.length; w++) {
+				flipped[w] = rows[j][w] ^ delta[w];
+			}
+			res[j][0] = key(tweak + j, rows[j]);
+			res[j][1] = key(tweak + j, flipped);
+		}
+		tweak += m;
+		return res;
+	}
+}
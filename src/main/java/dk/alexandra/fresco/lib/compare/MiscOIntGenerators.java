@@ -30,6 +30,7 @@ import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 
+import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
@@ -73,7 +74,12 @@ public class MiscOIntGenerators {
 			// Generate a new set of OInts and store them...
 			result = new OInt[l+1];
 
-			BigInteger[] coefficients = Util.constructPolynomial(l);
+			BigInteger modulus = provider.getModulus();
+			if (modulus == null) {
+				throw new MPCException("The polynomial can only be computed "
+						+ "in a field with a known modulus");
+			}
+			BigInteger[] coefficients = Util.constructPolynomial(l, modulus);
 			for (int i=0; i<=l ; i++) {
 				result[i] = provider.getOInt();
 				result[i].setValue(coefficients[coefficients.length - 1 - i]);
@@ -159,7 +159,7 @@ ExpFromOIntFactory expFromOIntProvider) {
 	private SInt[] loadRandomMultiplicativeMask() {
 		// R[0] = r^{-1}
 		// R[i] = R^i
-		SInt[] R = expProvider.getExponentiationPipe();
+		SInt[] R = expProvider.getExponentiationPipe(bitLength + 1);
 		return R;
 	}
 
@@ -109,7 +109,8 @@ public class ZeroTestBruteforceCircuitImpl implements ZeroTestBruteforceCircuit
 			switch (round){
 			case 0:
 				// load rand, addOne, mult and unmask
-				R = expProvider.getExponentiationPipe();
+				// R[0] = R^-1 and R[i] = R^i for the maxInput powers needed
+				R = expProvider.getExponentiationPipe(maxInput + 1);
 
 				SInt increased = provider.getSInt();
 				SInt masked_S = provider.getSInt();
@@ -26,12 +26,17 @@
  *******************************************************************************/
 package dk.alexandra.fresco.lib.field.integer;
 
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.OIntFactory;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.SIntFactory;
 import dk.alexandra.fresco.lib.field.integer.generic.AddProtocolFactory;
 import dk.alexandra.fresco.lib.field.integer.generic.IOIntProtocolFactory;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 
 /**
  * A factory that produces protocols that operate on elements in a finite field.
@@ -48,6 +53,16 @@ public interface BasicNumericFactory extends SIntFactory, OIntFactory,
 	 */
 	public int getMaxBitLength();
 
+	/**
+	 * Returns the modulus of the field, or null if the protocol suite does
+	 * not compute in a prime field.
+	 * 
+	 * @return
+	 */
+	public default BigInteger getModulus() {
+		return null;
+	}
+
 	/**
 	 * Returns the largest possible value containable in the field that we can
 	 * still multiply with and get no overflow.
@@ -55,4 +70,32 @@ public interface BasicNumericFactory extends SIntFactory, OIntFactory,
 	 * @return
 	 */
 	public SInt getSqrtOfMaxValue();
+
+	/**
+	 * Returns a protocol that multiplies two vectors element-wise, i.e.,
+	 * out[i] = a[i] * b[i]. Protocol suites can use this to process all the
+	 * multiplications at once instead of using one protocol per element; by
+	 * default there is one multiplication protocol per element.
+	 * 
+	 * @param a
+	 *            the lefthand input vector
+	 * @param b
+	 *            the righthand input vector, at least as long as a
+	 * @param out
+	 *            the output vector, as long as a
+	 * @return a protocol producer computing the products
+	 */
+	public default ProtocolProducer getMultCircuit(SInt[] a, SInt[] b,
+			SInt[] out) {
+		if (b.length < a.length || out.length != a.length) {
+			throw new MPCException(
+					"Vectors of lengths " + a.length + ", " + b.length
+							+ " and " + out.length + " cannot be multiplied");
+		}
+		ParallelProtocolProducer par = new ParallelProtocolProducer();
+		for (int i = 0; i < a.length; i++) {
+			par.append(getMultCircuit(a[i], b[i], out[i]));
+		}
+		return par;
+	}
 }
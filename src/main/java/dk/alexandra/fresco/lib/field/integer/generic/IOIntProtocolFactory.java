@@ -28,6 +28,7 @@ package dk.alexandra.fresco.lib.field.integer.generic;
 
 import java.math.BigInteger;
 
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
@@ -62,6 +63,22 @@ public interface IOIntProtocolFactory {
 	 */
 	CloseIntProtocol getCloseCircuit(int source, OInt open, SInt closed);
 
+	/**
+	 * Gets a new circuit that closes a vector of integers all provided by the
+	 * same player. Protocol suites can use this to send all the inputs in a
+	 * single message instead of using one protocol per element.
+	 * 
+	 * @param open
+	 *            the known values, or null if this player is not the inputter
+	 * @param closed
+	 *            the closed values
+	 * @param targetID
+	 *            the id of the specific player that provides the input.
+	 * @return the circuit to do the transformation
+	 */
+	ProtocolProducer getCloseCircuit(BigInteger[] open, SInt[] closed,
+			int targetID);
+
 	
 	/**
 	 * Gets a new open circuit that opens up the integer to all.
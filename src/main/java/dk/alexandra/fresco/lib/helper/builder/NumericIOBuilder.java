@@ -138,7 +138,7 @@ public class NumericIOBuilder extends AbstractProtocolBuilder {
 		for (int i = 0; i < sis.length; i++) {
 			sis[i] = sip.getSInt();
 		}
-		append(new InputArray(is, sis, targetID));
+		append(iop.getCloseCircuit(is, sis, targetID));
 		return sis;
 	}
 	
@@ -175,56 +175,10 @@ public class NumericIOBuilder extends AbstractProtocolBuilder {
 		for (int i = 0; i < length; i++) {
 			sis[i] = sip.getSInt();
 		}
-		append(new InputArray(sis, targetID));
+		append(iop.getCloseCircuit(null, sis, targetID));
 		return sis;
 	}
 
-	/**
-	 * A class to efficiently handle large amounts of inputs.
-	 * 
-	 * @author psn
-	 */
-	private class InputArray extends AbstractRepeatProtocol {
-
-		BigInteger[] is;
-		SInt[] sis;
-		int length;
-		int targetID;
-		int i = 0;
-
-		public InputArray(SInt[] sis, int targetID) {
-			this.length = sis.length;
-			this.is = null;
-			this.sis = sis;
-			this.targetID = targetID;
-		}
-
-		public InputArray(BigInteger[] is, SInt[] sis, int targetID) {
-			if (is.length != sis.length) {
-				throw new IllegalArgumentException(
-						"Array dimensions do not match.");
-			}
-			this.is = is;
-			this.length = sis.length;
-			this.sis = sis;
-			this.targetID = targetID;
-		}
-
-		@Override
-		protected ProtocolProducer getNextGateProducer() {
-			ProtocolProducer input = null;
-			if (i < length) {
-				OInt oi = oip.getOInt();
-				if (is != null) {
-					oi.setValue(is[i]);
-				}
-				input = iop.getCloseCircuit(targetID, oi, sis[i]);
-				i++;
-			}
-			return input;
-		}
-	}
-
 	/**
 	 * Appends a circuit to input a single BigInteger
 	 * 
@@ -381,17 +381,12 @@ public class NumericProtocolBuilder extends AbstractProtocolBuilder {
 	 *         Note this array has the same length as lefthand input array.
 	 */
 	public SInt[] mult(SInt[] left, SInt[] right) {
-		SInt[] out = new SInt[left.length];
-		beginParScope();
-		try {
-			for (int i = 0; i < left.length; i++) {
-				out[i] = mult(left[i], right[i]);
-			}
-		} catch (IndexOutOfBoundsException e) {
+		if (right.length < left.length) {
 			throw new IllegalArgumentException("The righthand input array "
-					+ "most be at least as long as the left hand input arry", e);
+					+ "most be at least as long as the left hand input arry");
 		}
-		endCurScope();
+		SInt[] out = getSIntArray(left.length);
+		append(bnp.getMultCircuit(left, right, out));
 		return out;
 	}
 
@@ -31,4 +31,14 @@ import dk.alexandra.fresco.framework.value.SInt;
 public interface PreprocessedExpPipeFactory {
 
 	public SInt[] getExponentiationPipe();
+
+	/**
+	 * Returns the first elements R^-1, R, ..., R^(length-1) of a fresh
+	 * exponentiation pipe.
+	 * 
+	 * @param length
+	 *            the number of elements needed
+	 * @return the prefix of the pipe
+	 */
+	public SInt[] getExponentiationPipe(int length);
 }
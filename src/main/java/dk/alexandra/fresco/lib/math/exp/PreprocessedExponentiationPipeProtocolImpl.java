@@ -45,7 +45,7 @@ public class PreprocessedExponentiationPipeProtocolImpl extends AbstractSimplePr
 
 	@Override
 	protected ProtocolProducer initializeGateProducer() {
-		SInt[] exp = this.preproExpPipeFactory.getExponentiationPipe();
+		SInt[] exp = this.preproExpPipeFactory.getExponentiationPipe(this.expPipe.length);
 		ParallelProtocolProducer par = new ParallelProtocolProducer();
 		for(int i = 0; i < this.expPipe.length; i++) {
 			par.append(new CopyProtocolImpl<Value>(exp[i], expPipe[i]));
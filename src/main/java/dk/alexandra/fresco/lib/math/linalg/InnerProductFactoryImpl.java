@@ -30,6 +30,10 @@ import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
 
+/**
+ * Computes inner products as a dot product followed by a sum, unless the
+ * basic factory has its own inner product, in which case that is used.
+ */
 public class InnerProductFactoryImpl implements InnerProductFactory{
 
 	private final BasicNumericFactory bnf;
@@ -43,12 +47,20 @@ public class InnerProductFactoryImpl implements InnerProductFactory{
 	@Override
 	public InnerProductCircuit getInnerProductCircuit(SInt[] aVector,
 			SInt[] bVector, SInt result) {
+		if (bnf instanceof InnerProductFactory) {
+			return ((InnerProductFactory) bnf).getInnerProductCircuit(aVector,
+					bVector, result);
+		}
 		return new InnerProductCircuitImpl(aVector, bVector, result, bnf, dotProductFactory);
 	}
 
 	@Override
 	public InnerProductCircuit getInnerProductCircuit(SInt[] aVector,
 			OInt[] bVector, SInt result) {
+		if (bnf instanceof InnerProductFactory) {
+			return ((InnerProductFactory) bnf).getInnerProductCircuit(aVector,
+					bVector, result);
+		}
 		return new InnerProductCircuitImpl(aVector, bVector, result, bnf, dotProductFactory);
 	}
 
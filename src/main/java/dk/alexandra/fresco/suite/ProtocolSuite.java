@@ -34,7 +34,10 @@ import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguratio
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 import dk.alexandra.fresco.suite.dummy.DummyProtocolSuite;
+import dk.alexandra.fresco.suite.lr15.LR15ProtocolSuite;
+import dk.alexandra.fresco.suite.replicated.ReplicatedProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kProtocolSuite;
 
 public interface ProtocolSuite {
 
@@ -87,15 +90,24 @@ public interface ProtocolSuite {
 		Set<String> res = new HashSet<String>();
 		res.add("dummy");
 		res.add("bgw");
+		res.add("replicated");
 		res.add("spdz");
+		res.add("spdz2k");
+		res.add("lr15");
 		return res;
 	}
 	
 	public static String protocolSuiteToString(ProtocolSuite suite) {
 		if(suite instanceof BgwProtocolSuite) {
 			return "bgw";
+		} else if(suite instanceof ReplicatedProtocolSuite) {
+			return "replicated";
 		} else if(suite instanceof SpdzProtocolSuite) {
 			return "spdz";
+		} else if(suite instanceof Spdz2kProtocolSuite) {
+			return "spdz2k";
+		} else if(suite instanceof LR15ProtocolSuite) {
+			return "lr15";
 		} else if(suite instanceof DummyProtocolSuite) {
 			return "dummy";
 		} else {
@@ -32,6 +32,7 @@ import org.apache.commons.lang.NotImplementedException;
 
 import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.Protocol;
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.KnownSIntProtocol;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
@@ -41,11 +42,16 @@ import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
 import dk.alexandra.fresco.lib.field.integer.MultProtocol;
 import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
 import dk.alexandra.fresco.lib.field.integer.SubtractCircuit;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 import dk.alexandra.fresco.lib.math.exp.ExpFromOIntFactory;
 import dk.alexandra.fresco.lib.math.inv.LocalInversionCircuit;
 import dk.alexandra.fresco.lib.math.inv.LocalInversionFactory;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductCircuit;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductFactory;
 import dk.alexandra.fresco.suite.bgw.integer.BgwAddProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwCloseIntProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwDoubleSharingMultProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwInnerProductProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwInvertIntProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwKnownSIntProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwLocalInvProtocol;
@@ -53,23 +59,73 @@ import dk.alexandra.fresco.suite.bgw.integer.BgwMultProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwMultWithPublicProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwOInt;
 import dk.alexandra.fresco.suite.bgw.integer.BgwOpenIntProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwPackedAddProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwPackedCloseProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwPackedMultProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwPackedOpenProtocol;
+import dk.alexandra.fresco.suite.bgw.integer.BgwPackedSInt;
 import dk.alexandra.fresco.suite.bgw.integer.BgwRandomIntProtocol;
 import dk.alexandra.fresco.suite.bgw.integer.BgwSInt;
 import dk.alexandra.fresco.suite.bgw.integer.BgwSubtractProtocol;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 
-public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, ExpFromOIntFactory {
+public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, ExpFromOIntFactory, InnerProductFactory {
 
 	private int myId;
 	private int noOfParties;
 	private int threshold;
 	private BigInteger mod;
-
+	private Prss prss;
+	private DoubleSharings doubleSharings;
+	private PackedShamir packed;
+	private RandomSharings randomSharings;
+
+	/**
+	 * Creates a factory without pseudo-random secret sharing. Such a factory
+	 * cannot produce random values.
+	 */
 	public BgwFactory(int myId, int noOfParties, int threshold, BigInteger modulus) {
+		this(myId, noOfParties, threshold, modulus, null);
+	}
+
+	public BgwFactory(int myId, int noOfParties, int threshold,
+			BigInteger modulus, Prss prss) {
+		this(myId, noOfParties, threshold, modulus, prss, null);
+	}
+
+	/**
+	 * Creates a factory whose multiplications use the double sharings, as
+	 * long as there are any left, and otherwise reshare the product.
+	 */
+	public BgwFactory(int myId, int noOfParties, int threshold,
+			BigInteger modulus, Prss prss, DoubleSharings doubleSharings) {
+		this(myId, noOfParties, threshold, modulus, prss, doubleSharings, null);
+	}
+
+	/**
+	 * Creates a factory that also offers the packed protocols, if the packed
+	 * sharing is not null.
+	 */
+	public BgwFactory(int myId, int noOfParties, int threshold,
+			BigInteger modulus, Prss prss, DoubleSharings doubleSharings,
+			PackedShamir packed) {
 		this.myId = myId;
 		this.noOfParties = noOfParties;
 		this.threshold = threshold;
 		this.mod = modulus;
+		this.prss = prss;
+		this.doubleSharings = doubleSharings;
+		this.packed = packed;
+	}
+
+	/**
+	 * Creates a factory using the field, threshold and preprocessed material
+	 * of an initialized suite.
+	 */
+	public BgwFactory(int myId, int noOfParties, BgwProtocolSuite suite) {
+		this(myId, noOfParties, suite.getThreshold(), suite.getModulus(), suite
+				.getPrss(), suite.getDoubleSharings(), suite.getPackedShamir());
+		this.randomSharings = suite.getRandomSharings();
 	}
 
 	@Override
@@ -79,7 +135,7 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 
 	@Override
 	public BgwSInt getSInt(BigInteger i) {
-		return new BgwSInt(new ShamirShare(myId, i));
+		return new BgwSInt(new ShamirShare(myId, i, mod));
 	}
 
 	@Override
@@ -87,9 +143,21 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 		return this.getSInt(BigInteger.valueOf(i));
 	}
 
+	/**
+	 * Random values are taken from the random sharings of the suite, if it
+	 * has any left, and otherwise computed by pseudo-random secret sharing.
+	 */
 	public BgwRandomIntProtocol getRandomIntGate(SInt s) {
-		BgwRandomIntProtocol ig = new BgwRandomIntProtocol(s, noOfParties,
-				threshold);
+		ShamirShare r = randomSharings == null ? null : randomSharings.next();
+		if (r != null) {
+			return new BgwRandomIntProtocol(s, r);
+		}
+		if (prss == null) {
+			throw new MPCException(
+					"Random values require the BGW suite to be initialized");
+		}
+		BgwRandomIntProtocol ig = new BgwRandomIntProtocol(s, prss,
+				prss.nextIndex());
 		return ig;
 	}
 
@@ -116,12 +184,12 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 
 	@Override
 	public AddProtocol getAddCircuit(SInt a, SInt b, SInt out) {
-		return new BgwAddProtocol(a, b, out);
+		return new BgwAddProtocol(a, b, out, mod);
 	}
 
 	@Override
 	public SubtractCircuit getSubtractCircuit(SInt a, SInt b, SInt out) {
-		return new BgwSubtractProtocol(a, b, out);
+		return new BgwSubtractProtocol(a, b, out, mod);
 	}
 
 	@Override
@@ -132,7 +200,96 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 
 	@Override
 	public MultProtocol getMultCircuit(SInt a, SInt b, SInt out) {
-		return new BgwMultProtocol(a, b, out);
+		DoubleSharing r = doubleSharings == null ? null : doubleSharings.next();
+		if (r != null) {
+			return new BgwDoubleSharingMultProtocol(a, b, out, r, threshold,
+					mod);
+		}
+		return new BgwMultProtocol(a, b, out, threshold, mod);
+	}
+
+	/**
+	 * The inner product is computed with a single degree reduction, so it
+	 * costs the communication of one multiplication.
+	 */
+	@Override
+	public InnerProductCircuit getInnerProductCircuit(SInt[] a, SInt[] b,
+			SInt out) {
+		DoubleSharing r = doubleSharings == null ? null : doubleSharings.next();
+		return new BgwInnerProductProtocol(a, b, out, r, threshold, mod);
+	}
+
+	@Override
+	public InnerProductCircuit getInnerProductCircuit(SInt[] a, OInt[] b,
+			SInt out) {
+		return new BgwInnerProductProtocol(a, b, out, mod);
+	}
+
+	/**
+	 * Computes out = matrix * vector with one degree reduction per row.
+	 */
+	public ProtocolProducer getMatrixVectorProductCircuit(SInt[][] matrix,
+			SInt[] vector, SInt[] out) {
+		if (matrix.length != out.length) {
+			throw new MPCException("Matrix has " + matrix.length
+					+ " rows, but the output has length " + out.length);
+		}
+		ParallelProtocolProducer par = new ParallelProtocolProducer();
+		for (int i = 0; i < matrix.length; i++) {
+			par.append(getInnerProductCircuit(matrix[i], vector, out[i]));
+		}
+		return par;
+	}
+
+	// ======= Packed protocols =======
+
+	private PackedShamir getPacked() {
+		if (packed == null) {
+			throw new MPCException(
+					"Packed protocols require a BGW packing factor above 1");
+		}
+		return packed;
+	}
+
+	/**
+	 * The number of values in a packed vector, or 1 if packing is disabled.
+	 */
+	public int getPackingFactor() {
+		return packed == null ? 1 : packed.getPackingFactor();
+	}
+
+	public BgwPackedSInt getPackedSInt() {
+		return new BgwPackedSInt();
+	}
+
+	/**
+	 * Lets the inputter share up to {@link #getPackingFactor()} values as one
+	 * packed vector. Missing values are 0.
+	 */
+	public ProtocolProducer getPackedCloseCircuit(int inputter,
+			BigInteger[] open, BgwPackedSInt closed) {
+		return new BgwPackedCloseProtocol(open, closed, inputter, getPacked());
+	}
+
+	public ProtocolProducer getPackedAddCircuit(BgwPackedSInt a,
+			BgwPackedSInt b, BgwPackedSInt out) {
+		return new BgwPackedAddProtocol(a, b, out, mod);
+	}
+
+	/**
+	 * Multiplies the packed vectors entry by entry with one resharing.
+	 */
+	public ProtocolProducer getPackedMultCircuit(BgwPackedSInt a,
+			BgwPackedSInt b, BgwPackedSInt out) {
+		return new BgwPackedMultProtocol(a, b, out, getPacked());
+	}
+
+	/**
+	 * Opens the first open.length values of the packed vector to all parties.
+	 */
+	public ProtocolProducer getPackedOpenCircuit(BgwPackedSInt closed,
+			OInt[] open) {
+		return new BgwPackedOpenProtocol(closed, open, getPacked());
 	}
 
 	// test purpose only
@@ -147,27 +304,32 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 
 	@Override
 	public KnownSIntProtocol getSInt(BigInteger i, SInt si) {
-		return new BgwKnownSIntProtocol((BgwSInt)si, i);
+		return new BgwKnownSIntProtocol((BgwSInt)si, i, mod);
 	}
 
 	public int getMyId() {
 		return this.myId;
 	}
 
+	@Override
+	public BigInteger getModulus() {
+		return this.mod;
+	}
+
 
 	@Override
 	public CloseIntProtocol getCloseCircuit(int source, OInt open, SInt closed) {
-		return new BgwCloseIntProtocol(open, closed, source);
+		return new BgwCloseIntProtocol(open, closed, source, threshold, mod);
 	}
 
 	@Override
 	public OpenIntProtocol getOpenCircuit(SInt closed, OInt open) {
-		return new BgwOpenIntProtocol(closed, open);
+		return new BgwOpenIntProtocol(closed, open, mod);
 	}
 
 	@Override
 	public OpenIntProtocol getOpenCircuit(int target, SInt closed, OInt open) {
-		return new BgwOpenIntProtocol(target, closed, open);
+		return new BgwOpenIntProtocol(target, closed, open, mod);
 	}
 
 	@Override
@@ -182,15 +344,32 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 		return getCloseCircuit(targetID, this.getOInt(open), closed);
 	}
 
+	@Override
+	public ProtocolProducer getCloseCircuit(BigInteger[] open, SInt[] closed,
+			int targetID) {
+		if (open != null && open.length != closed.length) {
+			throw new MPCException("Cannot input " + open.length
+					+ " values into " + closed.length + " SInts");
+		}
+		ParallelProtocolProducer par = new ParallelProtocolProducer();
+		for (int i = 0; i < closed.length; i++) {
+			OInt o = (open == null) ? null : this.getOInt(open[i]);
+			par.append(new BgwCloseIntProtocol(o, closed[i], targetID,
+					threshold, mod));
+		}
+		return par;
+	}
+
 
 	@Override
 	public MultProtocol getMultCircuit(OInt a, SInt b, SInt c) {
-		return new BgwMultWithPublicProtocol((BgwOInt)a, (BgwSInt)b, (BgwSInt)c);
+		return new BgwMultWithPublicProtocol((BgwOInt)a, (BgwSInt)b,
+				(BgwSInt)c, threshold);
 	}
 
 	@Override
 	public int getMaxBitLength() {
-		return BgwProtocolSuite.getInstance().getMaxBitLength();
+		return mod.bitLength();
 	}
 
 	@Override
@@ -204,7 +383,7 @@ public class BgwFactory implements BasicNumericFactory, LocalInversionFactory, E
 
 	@Override
 	public LocalInversionCircuit getLocalInversionCircuit(OInt x, OInt result) {
-		return new BgwLocalInvProtocol((BgwOInt)x, (BgwOInt)result);
+		return new BgwLocalInvProtocol((BgwOInt)x, (BgwOInt)result, mod);
 	}
 
 	@Override
@@ -26,38 +26,103 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.bgw;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
 
+/**
+ * The BGW protocol suite of one party. The field and threshold are kept by
+ * the suite and handed to the protocols by the {@link BgwFactory}, so several
+ * parties and computations with different moduli can run in the same JVM.
+ */
 public class BgwProtocolSuite implements ProtocolSuite {
 
-	private static BgwProtocolSuite instance;
-	
 	private int threshold;
 	private BigInteger modulus;
+	private Prss prss;
+	private DoubleSharings doubleSharings;
+	private PackedShamir packedShamir;
+	private RandomSharings randomSharings;
 	
 	public BgwProtocolSuite() {
 		
 	}
 	
-	public static BgwProtocolSuite getInstance() {
-		if(instance == null) {
-			instance = new BgwProtocolSuite();
-		}
-		return instance;
-	}
-	
 	@Override
 	public void init(ResourcePool resourcePool, ProtocolSuiteConfiguration conf) {
 		BgwConfiguration sconf = (BgwConfiguration)conf;
 		this.threshold = sconf.getThreshold();
 		this.modulus = sconf.getModulus();
+		// Only the default of code that does not pass a modulus to
+		// ShamirShare. The protocols use the modulus of this suite.
 		ShamirShare.setPrimeNumber(modulus);
+		this.prss = agreeOnPrssKeys(resourcePool);
+		if (sconf.getDoubleSharings() > 0) {
+			this.doubleSharings = DoubleSharings.generate(resourcePool,
+					threshold, modulus, sconf.getDoubleSharings());
+		}
+		if (sconf.getRandomSharings() > 0) {
+			this.randomSharings = RandomSharings.generate(resourcePool,
+					threshold, modulus, sconf.getRandomSharings());
+		}
+		int packingFactor = sconf.getPackingFactor();
+		if (packingFactor > 1) {
+			int noOfParties = resourcePool.getNoOfParties();
+			int packedThreshold = Math.min(threshold,
+					PackedShamir.maxThreshold(noOfParties, packingFactor));
+			if (packedThreshold < 1) {
+				throw new MPCException("Cannot pack " + packingFactor
+						+ " values for " + noOfParties + " parties");
+			}
+			this.packedShamir = new PackedShamir(noOfParties, packingFactor,
+					packedThreshold, modulus);
+		}
+	}
+
+	/**
+	 * Agrees on the PRSS keys: for each set of n - t parties the member with
+	 * the lowest id samples the key and sends it to the other members.
+	 */
+	private Prss agreeOnPrssKeys(ResourcePool resourcePool) {
+		int myId = resourcePool.getMyId();
+		int noOfParties = resourcePool.getNoOfParties();
+		Network network = resourcePool.getNetwork();
+		List<Integer> sets = Prss.subsetsContaining(myId, noOfParties,
+				noOfParties - threshold);
+		Map<Integer, byte[]> keys = new HashMap<Integer, byte[]>();
+		try {
+			for (int set : sets) {
+				if (Prss.dealerOf(set) == myId) {
+					byte[] key = new byte[16];
+					resourcePool.getSecureRandom().nextBytes(key);
+					keys.put(set, key);
+					for (int pId = myId + 1; pId <= noOfParties; pId++) {
+						if ((set & (1 << (pId - 1))) != 0) {
+							network.send("0", pId, key);
+						}
+					}
+				}
+			}
+			for (int set : sets) {
+				int dealer = Prss.dealerOf(set);
+				if (dealer != myId) {
+					byte[] key = network.receive("0", dealer);
+					keys.put(set, key);
+				}
+			}
+		} catch (IOException e) {
+			throw new MPCException("Could not agree on the PRSS keys.", e);
+		}
+		return new Prss(myId, noOfParties, threshold, modulus, keys);
 	}
 
 	@Override
@@ -83,6 +148,37 @@ public class BgwProtocolSuite implements ProtocolSuite {
 		return modulus.bitLength();
 	}
 
+	/**
+	 * Returns the pseudo-random secret sharing, available once the suite has
+	 * been initialized.
+	 */
+	public Prss getPrss() {
+		return this.prss;
+	}
+
+	/**
+	 * Returns the double sharings produced when the suite was initialized,
+	 * or null if none were requested.
+	 */
+	public DoubleSharings getDoubleSharings() {
+		return this.doubleSharings;
+	}
+
+	/**
+	 * Returns the random sharings produced when the suite was initialized,
+	 * or null if none were requested.
+	 */
+	public RandomSharings getRandomSharings() {
+		return this.randomSharings;
+	}
+
+	/**
+	 * Returns the packed secret sharing, or null if the packing factor is 1.
+	 */
+	public PackedShamir getPackedShamir() {
+		return this.packedShamir;
+	}
+
 	public BigInteger getModulus() {
 		return this.modulus;
 	}
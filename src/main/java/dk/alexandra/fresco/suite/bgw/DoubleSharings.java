@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+
+/**
+ * The double sharings of one party, produced in a batched offline phase
+ * (Damgård and Nielsen, CRYPTO 2007) by
+ * {@link HyperInvertibleMatrix#extractRandomSharings}, sharing each random
+ * value with degree t and with degree 2t. This costs every party 2(n - 1)
+ * field elements of communication per n - t double sharings.
+ * 
+ * The double sharings are handed out in the order the multiplications are
+ * built, which is the same for all parties.
+ */
+public class DoubleSharings {
+
+	private final DoubleSharing[] sharings;
+	private final AtomicInteger next = new AtomicInteger();
+
+	private DoubleSharings(DoubleSharing[] sharings) {
+		this.sharings = sharings;
+	}
+
+	/**
+	 * Runs the offline phase, producing at least the given number of double
+	 * sharings.
+	 */
+	public static DoubleSharings generate(ResourcePool resourcePool,
+			int threshold, BigInteger modulus, int count) {
+		ShamirShare[][] shares = HyperInvertibleMatrix.extractRandomSharings(
+				resourcePool, threshold, modulus, count, threshold,
+				2 * threshold);
+		DoubleSharing[] sharings = new DoubleSharing[shares[0].length];
+		for (int m = 0; m < sharings.length; m++) {
+			sharings[m] = new DoubleSharing(shares[0][m], shares[1][m]);
+		}
+		return new DoubleSharings(sharings);
+	}
+
+	/**
+	 * Returns the next unused double sharing, or null if all have been used.
+	 */
+	public DoubleSharing next() {
+		int index = next.getAndIncrement();
+		return index < sharings.length ? sharings[index] : null;
+	}
+
+	/**
+	 * The number of double sharings not yet used.
+	 */
+	public int remaining() {
+		return Math.max(0, sharings.length - next.get());
+	}
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.ModularReducer;
+
+/**
+ * A hyper-invertible n x n matrix over a prime field (Beerliová-Trubíniová
+ * and Hirt, TCC 2008): every square submatrix is invertible. If each party
+ * contributes a sharing of a random value and the matrix is applied to the
+ * vector of the n sharings, any n - t of the outputs are uniformly random
+ * and unknown to t corrupted parties, since they are a bijection of the
+ * inputs of the n - t honest parties.
+ * 
+ * The matrix maps the values of a polynomial of degree n - 1 in the points
+ * 1, ..., n to its values in n + 1, ..., 2n.
+ */
+public class HyperInvertibleMatrix {
+
+	private final BigInteger[][] matrix;
+	private final ModularReducer reducer;
+
+	public HyperInvertibleMatrix(int n, BigInteger modulus) {
+		this.reducer = ModularReducer.forModulus(modulus);
+		this.matrix = new BigInteger[n][n];
+		for (int i = 0; i < n; i++) {
+			BigInteger beta = BigInteger.valueOf(n + i + 1);
+			for (int j = 0; j < n; j++) {
+				BigInteger alpha = BigInteger.valueOf(j + 1);
+				BigInteger num = BigInteger.ONE;
+				BigInteger den = BigInteger.ONE;
+				for (int k = 0; k < n; k++) {
+					if (k != j) {
+						BigInteger alphaK = BigInteger.valueOf(k + 1);
+						num = reducer.reduce(num.multiply(beta.subtract(alphaK)));
+						den = reducer.reduce(den.multiply(alpha.subtract(alphaK)));
+					}
+				}
+				matrix[i][j] = reducer.reduce(num.multiply(den
+						.modInverse(modulus)));
+			}
+		}
+	}
+
+	public int size() {
+		return matrix.length;
+	}
+
+	/**
+	 * Returns the entry in the given row and column.
+	 */
+	public BigInteger get(int row, int column) {
+		return matrix[row][column];
+	}
+
+	/**
+	 * Multiplies the first rows of the matrix with the vector, which must
+	 * have an entry per column.
+	 */
+	public BigInteger[] apply(BigInteger[] vector, int rows) {
+		BigInteger[] res = new BigInteger[rows];
+		for (int i = 0; i < rows; i++) {
+			BigInteger sum = BigInteger.ZERO;
+			for (int j = 0; j < vector.length; j++) {
+				sum = sum.add(matrix[i][j].multiply(vector[j]));
+			}
+			res[i] = reducer.reduce(sum);
+		}
+		return res;
+	}
+
+	/**
+	 * Produces random values shared with each of the given degrees. In every
+	 * round each party shares a random value with every degree and sends the
+	 * shares to the other parties, and the matrix turns the n sharings of a
+	 * round into n - t sharings of values no t parties know anything about.
+	 * All rounds are sent in one message, so a party sends n - 1 messages in
+	 * total.
+	 * 
+	 * @return res[d][m] is this party's share of random value m with degree
+	 *         degrees[d]. There are at least count random values.
+	 */
+	public static ShamirShare[][] extractRandomSharings(
+			ResourcePool resourcePool, int threshold, BigInteger modulus,
+			int count, int... degrees) {
+		int myId = resourcePool.getMyId();
+		int n = resourcePool.getNoOfParties();
+		int perRound = n - threshold;
+		int rounds = (count + perRound - 1) / perRound;
+		int width = degrees.length;
+		Network network = resourcePool.getNetwork();
+
+		// toParty[j][width * r + d] is the share for party j + 1 of degree
+		// degrees[d] of this party's random value in round r.
+		BigInteger[][] toParty = new BigInteger[n][width * rounds];
+		ShareGenerator generator = ShareGenerator.current();
+		for (int r = 0; r < rounds; r++) {
+			BigInteger s = generator.nextElement(modulus);
+			for (int d = 0; d < width; d++) {
+				ShamirShare[] shares = ShamirShare.createShares(s, n,
+						degrees[d], modulus);
+				for (int j = 0; j < n; j++) {
+					toParty[j][width * r + d] = shares[j].getField();
+				}
+			}
+		}
+		BigInteger[][] received = new BigInteger[n][];
+		try {
+			for (int j = 1; j <= n; j++) {
+				if (j != myId) {
+					network.send("0", j, toParty[j - 1]);
+				}
+			}
+			for (int j = 1; j <= n; j++) {
+				received[j - 1] = j == myId ? toParty[myId - 1] : network
+						.<BigInteger[]> receive("0", j);
+			}
+		} catch (IOException e) {
+			throw new MPCException("Could not generate random sharings.", e);
+		}
+
+		HyperInvertibleMatrix him = new HyperInvertibleMatrix(n, modulus);
+		ShamirShare[][] res = new ShamirShare[width][rounds * perRound];
+		BigInteger[] column = new BigInteger[n];
+		for (int r = 0; r < rounds; r++) {
+			for (int d = 0; d < width; d++) {
+				for (int j = 0; j < n; j++) {
+					column[j] = received[j][width * r + d];
+				}
+				BigInteger[] extracted = him.apply(column, perRound);
+				for (int k = 0; k < perRound; k++) {
+					res[d][r * perRound + k] = new ShamirShare(myId,
+							extracted[k], modulus);
+				}
+			}
+		}
+		return res;
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+
+/**
+ * Shamir sharing over a {@link LongPrimeField}, i.e. a prime of at most 61
+ * bits. Shares of a secret are long[] indexed by party id - 1, and neither
+ * sharing nor recombining uses BigInteger.
+ * 
+ * {@link ShamirShare} uses this sharing automatically when the modulus is
+ * small enough, see {@link #forModulus(BigInteger)}.
+ */
+public final class LongShamir {
+
+	private static final Map<LongPrimeField, LongShamir> sharings = new ConcurrentHashMap<LongPrimeField, LongShamir>();
+	private static volatile LongShamir last;
+
+	// Recombination vectors by the parties whose shares are interpolated.
+	private final Map<List<Integer>, long[]> vectors = new ConcurrentHashMap<List<Integer>, long[]>();
+
+	private final LongPrimeField field;
+
+	private LongShamir(LongPrimeField field) {
+		this.field = field;
+	}
+
+	/**
+	 * Returns the sharing for the modulus, or null if the modulus is too
+	 * large to be represented by longs.
+	 */
+	public static LongShamir forModulus(BigInteger modulus) {
+		LongPrimeField field = LongPrimeField.forModulus(modulus);
+		if (field == null) {
+			return null;
+		}
+		LongShamir sharing = last;
+		if (sharing != null && sharing.field == field) {
+			return sharing;
+		}
+		sharing = sharings.get(field);
+		if (sharing == null) {
+			sharing = new LongShamir(field);
+			sharings.put(field, sharing);
+		}
+		last = sharing;
+		return sharing;
+	}
+
+	public LongPrimeField getField() {
+		return field;
+	}
+
+	/**
+	 * Returns a uniformly random element of the field.
+	 */
+	public long random(ShareGenerator generator) {
+		long r;
+		do {
+			r = field.fromRandomBits(generator.nextLong());
+		} while (r < 0);
+		return r;
+	}
+
+	/**
+	 * Shares the secret with a random polynomial of the given degree. The
+	 * share of party i is written to shares[i - 1], for every party up to
+	 * the length of the array.
+	 */
+	public void share(long secret, int threshold, ShareGenerator generator,
+			long[] shares) {
+		// Horner's rule in all points at once, from the highest coefficient
+		// down to the secret.
+		for (int i = 0; i < shares.length; i++) {
+			shares[i] = 0;
+		}
+		for (int inx = threshold; inx >= 0; inx--) {
+			long c = inx == 0 ? secret : random(generator);
+			for (int i = 0; i < shares.length; i++) {
+				shares[i] = field.add(field.multiply(shares[i], i + 1), c);
+			}
+		}
+	}
+
+	/**
+	 * Recombines a sharing of the given degree from the shares of the first
+	 * degree + 1 of the given parties. shares[i] is the share of parties[i].
+	 */
+	public long recombine(long[] shares, int[] parties, int degree) {
+		long[] vector = getCoefficients(parties, degree + 1);
+		long s = 0;
+		for (int inx = 0; inx < vector.length; inx++) {
+			s = field.add(s, field.multiply(shares[inx], vector[inx]));
+		}
+		return s;
+	}
+
+	private long[] getCoefficients(int[] parties, int count) {
+		List<Integer> key = new ArrayList<Integer>(count);
+		for (int inx = 0; inx < count; inx++) {
+			key.add(parties[inx]);
+		}
+		long[] vector = vectors.get(key);
+		if (vector == null) {
+			BigInteger[] big = ShamirShare.getCoefficients(parties, count,
+					field.getBigModulus());
+			vector = new long[count];
+			for (int inx = 0; inx < count; inx++) {
+				vector[inx] = big[inx].longValue();
+			}
+			vectors.put(key, vector);
+		}
+		return vector;
+	}
+}
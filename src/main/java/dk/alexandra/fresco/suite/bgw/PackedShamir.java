@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.util.ModularReducer;
+
+/**
+ * Packed secret sharing (Franklin and Yung, STOC 1992): k secrets are the
+ * values in the points 0, -1, ..., -(k - 1) of one polynomial of degree
+ * d = t + k - 1, and party i holds its value in i. Sharing, adding,
+ * multiplying and opening k secrets therefore costs about as much as for a
+ * single secret in plain Shamir sharing, but the polynomial only hides the
+ * secrets from t parties, and since products have degree 2d the number of
+ * parties must be at least 2d + 1.
+ * 
+ * The matrices used to share and reconstruct are computed once and never
+ * modified, so an instance can be used by several threads.
+ */
+public class PackedShamir {
+
+	private final int noOfParties;
+	private final int packingFactor;
+	private final int threshold;
+	private final int degree;
+	private final BigInteger modulus;
+	private final ModularReducer reducer;
+
+	// share[i][m]: the weight of defining value m in the share of party i + 1.
+	// The defining values are the k secrets followed by t random values in
+	// the points n + 1, ..., n + t.
+	private final BigInteger[][] share;
+	// reconstruct[j][i]: the weight of the share of party i + 1 in secret j,
+	// for polynomials of degree d and 2d.
+	private final BigInteger[][] reconstruct;
+	private final BigInteger[][] reconstructProduct;
+
+	/**
+	 * @param noOfParties
+	 *            the number of parties.
+	 * @param packingFactor
+	 *            the number of secrets k in each polynomial.
+	 * @param threshold
+	 *            the number of parties t the secrets are hidden from.
+	 * @param modulus
+	 *            the prime of the field.
+	 */
+	public PackedShamir(int noOfParties, int packingFactor, int threshold,
+			BigInteger modulus) {
+		this.noOfParties = noOfParties;
+		this.packingFactor = packingFactor;
+		this.threshold = threshold;
+		this.degree = threshold + packingFactor - 1;
+		this.modulus = modulus;
+		this.reducer = ModularReducer.forModulus(modulus);
+		if (packingFactor < 1 || threshold < 1) {
+			throw new MPCException("Packed sharing of " + packingFactor
+					+ " secrets with threshold " + threshold
+					+ " is not possible");
+		}
+		if (2 * degree + 1 > noOfParties) {
+			throw new MPCException("Packing " + packingFactor
+					+ " secrets with threshold " + threshold + " needs "
+					+ (2 * degree + 1) + " parties, but there are only "
+					+ noOfParties);
+		}
+		BigInteger[] secretPoints = new BigInteger[packingFactor];
+		for (int j = 0; j < packingFactor; j++) {
+			secretPoints[j] = BigInteger.valueOf(-j);
+		}
+		BigInteger[] defining = new BigInteger[degree + 1];
+		System.arraycopy(secretPoints, 0, defining, 0, packingFactor);
+		for (int l = 0; l < threshold; l++) {
+			defining[packingFactor + l] = BigInteger.valueOf(noOfParties + l + 1);
+		}
+		this.share = lagrange(defining, partyPoints(noOfParties));
+		this.reconstruct = lagrange(partyPoints(degree + 1), secretPoints);
+		this.reconstructProduct = lagrange(partyPoints(2 * degree + 1),
+				secretPoints);
+	}
+
+	/**
+	 * Returns the largest threshold that allows packing the given number of
+	 * secrets for the given number of parties, or 0 if there is none.
+	 */
+	public static int maxThreshold(int noOfParties, int packingFactor) {
+		return Math.max(0, (noOfParties - 1) / 2 - packingFactor + 1);
+	}
+
+	public int getPackingFactor() {
+		return packingFactor;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * The degree d of the sharing polynomials.
+	 */
+	public int getDegree() {
+		return degree;
+	}
+
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * Shares up to k secrets. Missing secrets are 0. The share of party i is
+	 * at index i - 1.
+	 */
+	public ShamirShare[] share(BigInteger[] secrets, ShareGenerator generator) {
+		if (secrets.length > packingFactor) {
+			throw new MPCException("Cannot pack " + secrets.length
+					+ " secrets into a polynomial holding " + packingFactor);
+		}
+		BigInteger[] values = new BigInteger[degree + 1];
+		for (int j = 0; j < packingFactor; j++) {
+			values[j] = j < secrets.length ? secrets[j] : BigInteger.ZERO;
+		}
+		for (int m = packingFactor; m <= degree; m++) {
+			values[m] = generator.nextElement(modulus);
+		}
+		ShamirShare[] shares = new ShamirShare[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			shares[i] = new ShamirShare(i + 1, innerProduct(share[i], values),
+					modulus);
+		}
+		return shares;
+	}
+
+	/**
+	 * Reconstructs the k secrets from the shares of the first d + 1 parties,
+	 * where shares[i] is the share of party i + 1.
+	 */
+	public BigInteger[] reconstruct(ShamirShare[] shares) {
+		return reconstruct(shares, reconstruct);
+	}
+
+	/**
+	 * Reconstructs the k secrets of a product of two sharings, which has
+	 * degree 2d, from the shares of the first 2d + 1 parties.
+	 */
+	public BigInteger[] reconstructProduct(ShamirShare[] shares) {
+		return reconstruct(shares, reconstructProduct);
+	}
+
+	/**
+	 * Returns the weight of the share of the given party in the secret with
+	 * the given index of a product of two sharings.
+	 */
+	public BigInteger getProductWeight(int secret, int partyId) {
+		return reconstructProduct[secret][partyId - 1];
+	}
+
+	private BigInteger[] reconstruct(ShamirShare[] shares,
+			BigInteger[][] weights) {
+		BigInteger[] values = new BigInteger[weights[0].length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = shares[i].getField();
+		}
+		BigInteger[] secrets = new BigInteger[packingFactor];
+		for (int j = 0; j < packingFactor; j++) {
+			secrets[j] = innerProduct(weights[j], values);
+		}
+		return secrets;
+	}
+
+	private BigInteger innerProduct(BigInteger[] a, BigInteger[] b) {
+		BigInteger sum = BigInteger.ZERO;
+		for (int i = 0; i < a.length; i++) {
+			sum = sum.add(a[i].multiply(b[i]));
+		}
+		return reducer.reduce(sum);
+	}
+
+	private static BigInteger[] partyPoints(int count) {
+		BigInteger[] points = new BigInteger[count];
+		for (int i = 0; i < count; i++) {
+			points[i] = BigInteger.valueOf(i + 1);
+		}
+		return points;
+	}
+
+	/**
+	 * Computes the matrix M such that M[r][c] is the Lagrange basis
+	 * polynomial of the point from[c] evaluated in to[r].
+	 */
+	private BigInteger[][] lagrange(BigInteger[] from, BigInteger[] to) {
+		BigInteger[][] m = new BigInteger[to.length][from.length];
+		for (int r = 0; r < to.length; r++) {
+			for (int c = 0; c < from.length; c++) {
+				BigInteger num = BigInteger.ONE;
+				BigInteger den = BigInteger.ONE;
+				for (int o = 0; o < from.length; o++) {
+					if (o != c) {
+						num = reducer.reduce(num.multiply(to[r]
+								.subtract(from[o])));
+						den = reducer.reduce(den.multiply(from[c]
+								.subtract(from[o])));
+					}
+				}
+				m[r][c] = reducer.reduce(num.multiply(den.modInverse(modulus)));
+			}
+		}
+		return m;
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.util.FieldPrf;
+
+/**
+ * Pseudo-random secret sharing (Cramer, Damgård and Ishai, TCC 2005).
+ * 
+ * For every set A of n - t parties a key r_A is known exactly to the members
+ * of A. The random value with index i is the sum over all A of PRF(r_A, i),
+ * and a member of A holds the term PRF(r_A, i) on the degree t polynomial that
+ * is zero on every party outside A and one in 0. Each party can therefore
+ * compute its share of a fresh random value locally, without communication,
+ * which makes random values free once the keys have been agreed upon.
+ * 
+ * The number of keys grows as (n-1 choose t), so this is meant for the small
+ * number of parties FRESCO is used with.
+ */
+public class Prss {
+
+	private final int myId;
+	private final BigInteger modulus;
+	private final byte[][] keys;
+	private final BigInteger[] coefficients;
+	private final AtomicLong nextIndex = new AtomicLong();
+
+	/**
+	 * @param myId
+	 *            the id of this party.
+	 * @param noOfParties
+	 *            the number of parties.
+	 * @param threshold
+	 *            the degree of the sharing polynomials.
+	 * @param modulus
+	 *            the prime of the field.
+	 * @param keys
+	 *            the key of every set returned by
+	 *            {@link #subsetsContaining(int, int, int)}, indexed by the
+	 *            bit mask of the set.
+	 */
+	public Prss(int myId, int noOfParties, int threshold, BigInteger modulus,
+			Map<Integer, byte[]> keys) {
+		this.myId = myId;
+		this.modulus = modulus;
+		List<Integer> sets = subsetsContaining(myId, noOfParties, noOfParties
+				- threshold);
+		this.keys = new byte[sets.size()][];
+		this.coefficients = new BigInteger[sets.size()];
+		for (int i = 0; i < sets.size(); i++) {
+			int set = sets.get(i);
+			this.keys[i] = keys.get(set);
+			if (this.keys[i] == null) {
+				throw new MPCException("Missing PRSS key for the parties "
+						+ Integer.toBinaryString(set));
+			}
+			this.coefficients[i] = vanishingOutside(set, myId, noOfParties,
+					modulus);
+		}
+	}
+
+	/**
+	 * Reserves the index of the next random value. All parties must reserve
+	 * indices in the same order, which holds when they are reserved while
+	 * the protocols are built.
+	 */
+	public long nextIndex() {
+		return nextIndex.getAndIncrement();
+	}
+
+	/**
+	 * Computes this party's share of the random value with the given index.
+	 */
+	public ShamirShare share(long index) {
+		BigInteger sum = BigInteger.ZERO;
+		for (int i = 0; i < keys.length; i++) {
+			sum = sum.add(FieldPrf.element(keys[i], index, modulus).multiply(
+					coefficients[i]));
+		}
+		return new ShamirShare(myId, sum, modulus);
+	}
+
+	/**
+	 * Evaluates in x the polynomial of degree n - |set| that is zero in every
+	 * party outside the set and one in 0.
+	 */
+	static BigInteger vanishingOutside(int set, int x, int noOfParties,
+			BigInteger modulus) {
+		BigInteger num = BigInteger.ONE;
+		BigInteger den = BigInteger.ONE;
+		for (int j = 1; j <= noOfParties; j++) {
+			if ((set & (1 << (j - 1))) == 0) {
+				num = num.multiply(BigInteger.valueOf(x - j));
+				den = den.multiply(BigInteger.valueOf(-j));
+			}
+		}
+		return num.multiply(den.modInverse(modulus)).mod(modulus);
+	}
+
+	/**
+	 * Lists, in increasing order of their bit masks, the sets of the given
+	 * size that contain the given party. Party i is bit i - 1 of a mask.
+	 */
+	public static List<Integer> subsetsContaining(int partyId,
+			int noOfParties, int size) {
+		if (noOfParties > 30) {
+			throw new MPCException("PRSS supports at most 30 parties");
+		}
+		List<Integer> sets = new ArrayList<Integer>();
+		for (int set = 0; set < (1 << noOfParties); set++) {
+			if (Integer.bitCount(set) == size
+					&& (set & (1 << (partyId - 1))) != 0) {
+				sets.add(set);
+			}
+		}
+		return sets;
+	}
+
+	/**
+	 * Returns the party with the lowest id in the set. That party samples the
+	 * key of the set and sends it to the other members.
+	 */
+	public static int dealerOf(int set) {
+		return Integer.numberOfTrailingZeros(set) + 1;
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+
+/**
+ * A pool of sharings of random values of one party, produced in a batched
+ * offline phase by {@link HyperInvertibleMatrix#extractRandomSharings}. This
+ * costs every party n - 1 field elements of communication and O(n) local
+ * work per n - t random values, where pseudo-random secret sharing needs no
+ * communication but a number of PRF evaluations per value that grows as
+ * (n - 1 choose t).
+ * 
+ * The sharings are handed out in the order the protocols are built, which
+ * is the same for all parties.
+ */
+public class RandomSharings {
+
+	private final ShamirShare[] sharings;
+	private final AtomicInteger next = new AtomicInteger();
+
+	private RandomSharings(ShamirShare[] sharings) {
+		this.sharings = sharings;
+	}
+
+	/**
+	 * Runs the offline phase, producing at least the given number of random
+	 * sharings of degree t.
+	 */
+	public static RandomSharings generate(ResourcePool resourcePool,
+			int threshold, BigInteger modulus, int count) {
+		return new RandomSharings(HyperInvertibleMatrix.extractRandomSharings(
+				resourcePool, threshold, modulus, count, threshold)[0]);
+	}
+
+	/**
+	 * Returns the next unused random sharing, or null if all have been used.
+	 */
+	public ShamirShare next() {
+		int index = next.getAndIncrement();
+		return index < sharings.length ? sharings[index] : null;
+	}
+
+	/**
+	 * The number of random sharings not yet used.
+	 */
+	public int remaining() {
+		return Math.max(0, sharings.length - next.get());
+	}
+}
@@ -28,18 +28,24 @@ package dk.alexandra.fresco.suite.bgw;
 
 import java.io.Serializable;
 import java.math.BigInteger;
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import dk.alexandra.fresco.framework.Party;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.framework.util.ModularReducer;
 
 
 public final class ShamirShare implements Serializable {
 
 	private static final long serialVersionUID = -7986019375218481628L;
 
-	private static BigInteger[] vector;
+	// Recombination vectors by modulus and the parties whose shares are
+	// interpolated. The vectors are never modified once computed, so they are
+	// shared by all threads.
+	private static final Map<List<BigInteger>, BigInteger[]> vectors = new ConcurrentHashMap<List<BigInteger>, BigInteger[]>();
 
     // private static final String primeNumber = "30916444023318367583";
     // private static final String primeNumber =
@@ -51,32 +57,54 @@ public final class ShamirShare implements Serializable {
   //  public static final BigInteger primeNumber = new BigInteger(
   //  "2147483647");
 	
-	private static BigInteger primeNumber;
+	// Only used by the methods that take no modulus. Protocols should pass
+	// the modulus of their suite instead, so several fields can be used in
+	// the same JVM.
+	private static volatile BigInteger primeNumber;
 	public static void setPrimeNumber(BigInteger mod) {
 		primeNumber = mod;
 	}
 
-    private static SecureRandom random = new SecureRandom();
     //public static final int size = 9;
     public static final int size = 12;
-    private static byte[] randomBytesBuffer;
     public static int partyId;
-    private static int randomBytesMarker = 0;
 
     private byte point;
+    // The value is kept as a long when the modulus fits a LongPrimeField,
+    // and only converted to a BigInteger, once, when asked for one.
     private BigInteger fieldValue;
+    private long longValue;
+    private boolean isLong;
     public long p1, p2, p3, p4, p5, p6, p7;
 
     //private boolean ready = false; //indicates if we know the secret
     
     public ShamirShare(int point, BigInteger v) {
-  //  	System.out.println("pr: "+primeNumber.bitLength());
+        this(point, v, primeNumber);
+    }
+
+    public ShamirShare(int point, BigInteger v, BigInteger modulus) {
         if (point > 255) {
             throw new IllegalArgumentException(
             "point is too large, it is more than 255.");
         }
         this.point = (byte) point;
-        this.fieldValue = v.mod(primeNumber);
+        LongPrimeField field = LongPrimeField.forModulus(modulus);
+        if (field != null) {
+            this.longValue = field.toElement(v);
+            this.isLong = true;
+        } else {
+            this.fieldValue = ModularReducer.reduce(v, modulus);
+        }
+    }
+
+    /**
+     * A share whose value is an element of a {@link LongPrimeField}.
+     */
+    private ShamirShare(int point, long value) {
+        this.point = (byte) point;
+        this.longValue = value;
+        this.isLong = true;
     }
 
     public ShamirShare(byte[] receivedData) {
@@ -93,6 +121,7 @@ public final class ShamirShare implements Serializable {
         byte[] bytes = new byte[fieldSize];
         System.arraycopy(receivedData, 1, bytes, 0, fieldSize);
         this.fieldValue = new BigInteger(bytes);
+        this.isLong = false;
     }
 
     public ShamirShare(BigInteger f) {
@@ -101,9 +130,23 @@ public final class ShamirShare implements Serializable {
     }
 
     public BigInteger getField() {
+        if (this.fieldValue == null) {
+            this.fieldValue = BigInteger.valueOf(this.longValue);
+        }
         return this.fieldValue;
     }
 
+    /**
+     * Returns the value as an element of the given field, without going
+     * through a BigInteger if the share already holds one.
+     */
+    private long getElement(LongPrimeField field) {
+        if (this.isLong && this.longValue < field.getModulus()) {
+            return this.longValue;
+        }
+        return field.toElement(getField());
+    }
+
     public byte getPoint() {
         return this.point;
     }
@@ -115,6 +158,13 @@ public final class ShamirShare implements Serializable {
     public byte[] toByteArray() {
         byte[] bytes = new byte[ShamirShare.getSize()];
         bytes[0] = this.point;
+        if (this.isLong) {
+            // A field element is less than 2^61, so it has no sign bit set.
+            for (int inx = 0; inx < 8; inx++) {
+                bytes[bytes.length - 1 - inx] = (byte) (this.longValue >>> (8 * inx));
+            }
+            return bytes;
+        }
         this.copyAndInvertArray(bytes, this.fieldValue.toByteArray());
         return bytes;
     }
@@ -126,17 +176,46 @@ public final class ShamirShare implements Serializable {
     }
 
     public BigInteger getValue() {
-        return this.fieldValue;
+        return getField();
     }
 
     @Override
     public String toString() {
-        return "(" + this.point + ", " + this.fieldValue.toString() + ")";
+        return "(" + this.point + ", " + getField().toString() + ")";
+    }
+
+    public ShamirShare add(ShamirShare other, BigInteger modulus) {
+        LongPrimeField field = LongPrimeField.forModulus(modulus);
+        if (field != null) {
+            return new ShamirShare(this.point, field.add(getElement(field),
+                    other.getElement(field)));
+        }
+        return new ShamirShare(this.point, getField()
+                .add(other.getField()), modulus);
+    }
+
+    public ShamirShare subtract(ShamirShare other, BigInteger modulus) {
+        LongPrimeField field = LongPrimeField.forModulus(modulus);
+        if (field != null) {
+            return new ShamirShare(this.point, field.subtract(
+                    getElement(field), other.getElement(field)));
+        }
+        return new ShamirShare(this.point, getField()
+                .subtract(other.getField()), modulus);
     }
 
     public ShamirShare mult(ShamirShare other) {
-        return new ShamirShare(this.point, this.fieldValue
-                .multiply(other.fieldValue));
+        return mult(other, primeNumber);
+    }
+
+    public ShamirShare mult(ShamirShare other, BigInteger modulus) {
+        LongPrimeField field = LongPrimeField.forModulus(modulus);
+        if (field != null) {
+            return new ShamirShare(this.point, field.multiply(
+                    getElement(field), other.getElement(field)));
+        }
+        return new ShamirShare(this.point, getField()
+                .multiply(other.getField()), modulus);
     }
 
     public void setPoint(int inx) {
@@ -145,86 +224,146 @@ public final class ShamirShare implements Serializable {
 
     public static BigInteger recombine(ShamirShare[] shares,
             int numberOfParties) {
-        // ShamirReporter.report(partyId, "");
-        // ShamirReporter.report(partyId, " === Recombine ===");
-        //
-        // ShamirReporter.report(partyId, shares.toString());
-
-        // System.out.println(Arrays.toString(shares));
-        if ((vector != null) && (vector.length == numberOfParties)) {
-            // System.out.println("Recombine using vector: "
-            // + Arrays.toString(vector));
-            return recombine(shares);
-        } else {
-            // System.out.println("Computing vector.");
-            vector = computeCoefficients(numberOfParties);
-            // System.out.println("Recombine using vector: "
-            // + Arrays.toString(vector));
-            return recombine(shares);
+        return recombine(shares, numberOfParties, primeNumber);
+    }
+
+    /**
+     * Recombines the shares of parties 1 to numberOfParties in the field
+     * given by the modulus. The share of party i is shares[i - 1].
+     */
+    public static BigInteger recombine(ShamirShare[] shares,
+            int numberOfParties, BigInteger modulus) {
+        return recombine(shares, allParties(numberOfParties),
+                numberOfParties - 1, modulus);
+    }
+
+    /**
+     * Recombines a sharing of the given degree from the shares of the first
+     * degree + 1 of the given parties, in the field given by the modulus.
+     * shares[i] is the share of parties[i].
+     */
+    public static BigInteger recombine(ShamirShare[] shares, int[] parties,
+            int degree, BigInteger modulus) {
+        LongShamir sharing = LongShamir.forModulus(modulus);
+        if (sharing != null) {
+            return BigInteger.valueOf(recombine(sharing, shares, parties,
+                    degree));
         }
+        BigInteger[] vector = getCoefficients(parties, degree + 1, modulus);
+        BigInteger s = BigInteger.ZERO;
+        for (int inx = 0; inx < vector.length; inx++) {
+            ShamirShare share = shares[inx];
+            s = s.add(share.getField().multiply(vector[inx]));
+        }
+        return ModularReducer.reduce(s, modulus);
     }
     
     public static BigInteger recombine(List<ShamirShare> shares,
             int numberOfParties) {
+        return recombine(shares, numberOfParties, primeNumber);
+    }
+
+    public static BigInteger recombine(List<ShamirShare> shares,
+            int numberOfParties, BigInteger modulus) {
         ShamirShare[] tmp = new ShamirShare[shares.size()];
         for(int i = 0; i < shares.size(); i++) {
         	tmp[i] = shares.get(i);
         }
-        return recombine(tmp, numberOfParties);
+        return recombine(tmp, numberOfParties, modulus);
     }
 
-    private static BigInteger recombine(ShamirShare[] shares) {
-        BigInteger s = BigInteger.ZERO;
-        for (int inx = 0; inx < vector.length; inx++) {
-            // System.out.println("Multing: " + shares[inx] + ", " +
-            // vector[inx]);
-            ShamirShare share = shares[inx];
-            s = s.add(share.fieldValue.multiply(vector[inx]));
+    public static BigInteger recombine(List<ShamirShare> shares,
+            int[] parties, int degree, BigInteger modulus) {
+        return recombine(shares.toArray(new ShamirShare[shares.size()]),
+                parties, degree, modulus);
+    }
+
+    /**
+     * As {@link #recombine(ShamirShare[], int[], int, BigInteger)}, but
+     * returns the result as a share with the given point, which stays a long
+     * when the modulus fits a {@link LongPrimeField}.
+     */
+    public static ShamirShare recombine(int point, ShamirShare[] shares,
+            int[] parties, int degree, BigInteger modulus) {
+        LongShamir sharing = LongShamir.forModulus(modulus);
+        if (sharing != null) {
+            return new ShamirShare(point, recombine(sharing, shares, parties,
+                    degree));
+        }
+        return new ShamirShare(point, recombine(shares, parties, degree,
+                modulus), modulus);
+    }
 
-            // System.out.println("Res: " + s);
+    /**
+     * Recombines the shares of parties 1 to numberOfParties into a share
+     * with the given point, see
+     * {@link #recombine(int, ShamirShare[], int[], int, BigInteger)}.
+     */
+    public static ShamirShare recombine(int point, List<ShamirShare> shares,
+            int numberOfParties, BigInteger modulus) {
+        return recombine(point, shares.toArray(new ShamirShare[shares
+                .size()]), allParties(numberOfParties), numberOfParties - 1,
+                modulus);
+    }
+
+    private static long recombine(LongShamir sharing, ShamirShare[] shares,
+            int[] parties, int degree) {
+        long[] values = new long[degree + 1];
+        for (int inx = 0; inx < values.length; inx++) {
+            values[inx] = shares[inx].getElement(sharing.getField());
         }
-        // System.out.println("s = " + s.mod(primeNumber));
-        return s.mod(primeNumber);
-    }
-
-    private static BigInteger[] computeCoefficients(int numberOfParties) {
-        BigInteger[] vector = new BigInteger[numberOfParties];
-        for (byte pi = 1; pi <= numberOfParties; pi++) {
-            // String str = "";
-            List<BigInteger> factors = new ArrayList<BigInteger>(
-                    numberOfParties);
-            for (byte pk = 1; pk <= numberOfParties; pk++) {
-                if (pi != pk) {
-                    BigInteger x_k = BigInteger.valueOf(pk);
-                    BigInteger x_i = BigInteger.valueOf(pi);
-                    BigInteger subtractionResult = x_i.subtract(x_k);
-                    BigInteger subtractionResultModInverse = subtractionResult.modInverse(primeNumber);
-                    // System.out.println(subtractionResult);
-                    // System.out.println(subtractionResultModInverse);
-                    BigInteger multiplicationResult = x_k
-                    .multiply(subtractionResultModInverse);
-                    BigInteger factor = multiplicationResult;
-                    // str = " f_" + pi + " = " + factor + " = " + pk
-                    // + "/(" + pi + "-" + pk + ")";
-                    // System.out.println(str + " % " + primeNumber);
-                    factors.add(factor);
-                }
-            }
-            // System.out.println("Pi: " + pi + " factors: " + factors);
-
-            if (factors.size() > 0) {
-                // str = "";
-                BigInteger r = factors.remove(0);
-                for (BigInteger f : factors) {
-                    // str += r + " * " + f;
-                    r = r.multiply(f);
-                }
+        return sharing.recombine(values, parties, degree);
+    }
 
-                // System.out.println("r: " + r + " = " + str
-                // + " % "
-                // + primeNumber);
-                vector[pi - 1] = r;
+    private static int[] allParties(int numberOfParties) {
+        int[] parties = new int[numberOfParties];
+        for (int i = 0; i < numberOfParties; i++) {
+            parties[i] = i + 1;
+        }
+        return parties;
+    }
+
+    static BigInteger[] getCoefficients(int[] parties, int count,
+            BigInteger modulus) {
+        if (count > parties.length) {
+            throw new IllegalArgumentException("Need " + count
+                    + " shares to recombine, but only " + parties.length
+                    + " parties are given.");
+        }
+        List<BigInteger> key = new ArrayList<BigInteger>(count + 1);
+        key.add(modulus);
+        for (int inx = 0; inx < count; inx++) {
+            key.add(BigInteger.valueOf(parties[inx]));
+        }
+        BigInteger[] vector = vectors.get(key);
+        if (vector == null) {
+            // Computing the same vector twice is harmless.
+            vector = computeCoefficients(parties, count, modulus);
+            vectors.put(key, vector);
+        }
+        return vector;
+    }
+
+    /**
+     * Computes the Lagrange coefficients that evaluate in 0 the polynomial
+     * through the points of the first count parties, i.e. the product of
+     * x_k / (x_k - x_i) over k != i for party i.
+     */
+    private static BigInteger[] computeCoefficients(int[] parties,
+            int count, BigInteger modulus) {
+        BigInteger[] vector = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            BigInteger x_i = BigInteger.valueOf(parties[i]);
+            BigInteger num = BigInteger.ONE;
+            BigInteger den = BigInteger.ONE;
+            for (int k = 0; k < count; k++) {
+                if (k != i) {
+                    BigInteger x_k = BigInteger.valueOf(parties[k]);
+                    num = num.multiply(x_k).mod(modulus);
+                    den = den.multiply(x_k.subtract(x_i)).mod(modulus);
+                }
             }
+            vector[i] = num.multiply(den.modInverse(modulus)).mod(modulus);
         }
         return vector;
     }
@@ -246,12 +385,45 @@ public final class ShamirShare implements Serializable {
 
     public static ShamirShare[] createShares(BigInteger secret,
             int numberOfParties, int threshold) {
+        return createShares(secret, numberOfParties, threshold, primeNumber);
+    }
+
+    /**
+     * Reshares the value of a share, e.g. a local product, with a random
+     * polynomial of degree threshold in the field given by the modulus.
+     */
+    public static ShamirShare[] createShares(ShamirShare secret,
+            int numberOfParties, int threshold, BigInteger modulus) {
+        LongShamir sharing = LongShamir.forModulus(modulus);
+        if (sharing != null) {
+            return createShares(sharing,
+                    secret.getElement(sharing.getField()), numberOfParties,
+                    threshold);
+        }
+        return createShares(secret.getField(), numberOfParties, threshold,
+                modulus);
+    }
+
+    /**
+     * Shares the secret with a random polynomial of degree threshold in the
+     * field given by the modulus.
+     */
+    public static ShamirShare[] createShares(BigInteger secret,
+            int numberOfParties, int threshold, BigInteger modulus) {
         // ShamirReporter.report(this.partyId, "I am sending.");
-        List<BigInteger> coefficients = new ArrayList<BigInteger>(threshold);
+        ShareGenerator generator = ShareGenerator.current();
+        LongShamir sharing = LongShamir.forModulus(modulus);
+        if (sharing != null) {
+            return createShares(sharing,
+                    sharing.getField().toElement(secret), numberOfParties,
+                    threshold);
+        }
+        ModularReducer reducer = ModularReducer.forModulus(modulus);
+        List<BigInteger> coefficients = new ArrayList<BigInteger>(threshold + 1);
         coefficients.add(secret);
 
         for (int inx = 0; inx < threshold; inx++) {
-            coefficients.add(ShamirShare.random());
+            coefficients.add(generator.nextElement(modulus));
         }
 
         ShamirShare[] shares = new ShamirShare[numberOfParties];
@@ -273,53 +445,44 @@ public final class ShamirShare implements Serializable {
             // Go backwards from this.threshold-1 down to 0
             for (int inj = threshold - 1; inj >= 0; inj--) {
 
-                cur_share = coefficients.get(inj).add(
-                        cur_share.multiply(cur_point));
+                cur_share = reducer.reduce(coefficients.get(inj).add(
+                        cur_share.multiply(cur_point)));
             }
-            shares[inx - 1] = new ShamirShare(inx, cur_share);
+            shares[inx - 1] = new ShamirShare(inx, cur_share, modulus);
         }
         return shares;
     }
     
     
+    private static ShamirShare[] createShares(LongShamir sharing, long secret,
+            int numberOfParties, int threshold) {
+        long[] values = new long[numberOfParties];
+        sharing.share(secret, threshold, ShareGenerator.current(), values);
+        ShamirShare[] shares = new ShamirShare[numberOfParties];
+        for (int inx = 0; inx < numberOfParties; inx++) {
+            shares[inx] = new ShamirShare(inx + 1, values[inx]);
+        }
+        return shares;
+    }
+
     public void setField(BigInteger field) {
         this.fieldValue = field;
+        this.isLong = false;
     }
 
+    /**
+     * Returns a random 64 bit value from the generator of the calling thread.
+     */
     public static BigInteger random() {
-        byte[] bytes = new byte[8];
-        // ShamirReporter.report(partyId, "Marker: " + randomBytesMarker);
-        // if (randomBytesBuffer != null) {
-        // ShamirReporter.report(partyId, "D: "
-        // + randomBytesBuffer.length);
-        // }
-        if ((randomBytesBuffer != null)
-                && (randomBytesMarker + 8 < randomBytesBuffer.length)) {
-            // ShamirReporter.report(partyId, "Reuse");
-            System.arraycopy(randomBytesBuffer, randomBytesMarker, bytes, 0, 8);
-            randomBytesMarker += 8;
-            return new BigInteger(bytes);
-        } else {
-            // ShamirReporter.report(partyId, "New");
-            randomBytesBuffer = random0(16384);
-            randomBytesMarker = 0;
-            System.arraycopy(randomBytesBuffer, randomBytesMarker, bytes, 0, 8);
-            randomBytesMarker += 8;
-        }
-        return new BigInteger(bytes);
-        // byte bytes[] = new byte[8];
-        // random.nextBytes(bytes);
-        // return new GaloisField(new BigInteger(bytes));
-    }
-
-    private static byte[] random0(int numberOfBytes) {
-        byte bytes[] = new byte[numberOfBytes];
-        random.nextBytes(bytes);
-        return bytes;
+        return BigInteger.valueOf(ShareGenerator.current().nextLong());
     }
 
+    /**
+     * Seeds the generator of the calling thread, see
+     * {@link ShareGenerator#setSeed(byte[])}.
+     */
     public static void setRandomSeed(byte[] seed) {
-        random = new SecureRandom(seed);
+        ShareGenerator.setSeed(seed);
     }
 
     /**
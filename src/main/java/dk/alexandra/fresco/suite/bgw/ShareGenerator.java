@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+/**
+ * Source of the random coefficients of Shamir sharings: AES in counter mode
+ * keyed by a seed, which is much faster than drawing every coefficient from a
+ * SecureRandom.
+ * 
+ * A generator is not thread safe. Every thread gets its own generator from
+ * {@link #current()}, so protocols evaluated by several threads at once, as
+ * the parallel evaluators do, never share state.
+ */
+public final class ShareGenerator {
+
+	private static final int BUFFER_SIZE = 16384;
+
+	// Seeds the generator of every new thread. SecureRandom is thread safe.
+	private static final SecureRandom seeds = new SecureRandom();
+
+	private static final ThreadLocal<ShareGenerator> generators = new ThreadLocal<ShareGenerator>() {
+		@Override
+		protected ShareGenerator initialValue() {
+			byte[] seed = new byte[16];
+			seeds.nextBytes(seed);
+			return new ShareGenerator(seed);
+		}
+	};
+
+	private final Cipher prg;
+	private final byte[] zeros = new byte[BUFFER_SIZE];
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int marker = BUFFER_SIZE;
+
+	/**
+	 * Creates a generator whose output is determined by the seed.
+	 */
+	public ShareGenerator(byte[] seed) {
+		try {
+			byte[] key = new byte[16];
+			System.arraycopy(MessageDigest.getInstance("SHA-256").digest(seed),
+					0, key, 0, key.length);
+			this.prg = Cipher.getInstance("AES/CTR/NoPadding");
+			this.prg.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"),
+					new IvParameterSpec(new byte[16]));
+		} catch (GeneralSecurityException e) {
+			throw new MPCException(
+					"AES in counter mode is needed for Shamir sharing", e);
+		}
+	}
+
+	/**
+	 * Returns the generator of the calling thread.
+	 */
+	public static ShareGenerator current() {
+		return generators.get();
+	}
+
+	/**
+	 * Replaces the generator of the calling thread with one seeded by the
+	 * given seed. Other threads are not affected.
+	 */
+	public static void setSeed(byte[] seed) {
+		generators.set(new ShareGenerator(seed));
+	}
+
+	/**
+	 * Fills the array with pseudo-random bytes.
+	 */
+	public void nextBytes(byte[] bytes) {
+		int filled = 0;
+		while (filled < bytes.length) {
+			if (marker == buffer.length) {
+				refill();
+			}
+			int len = Math.min(buffer.length - marker, bytes.length - filled);
+			System.arraycopy(buffer, marker, bytes, filled, len);
+			marker += len;
+			filled += len;
+		}
+	}
+
+	/**
+	 * Returns a pseudo-random 64 bit value.
+	 */
+	public long nextLong() {
+		long v = 0;
+		for (int i = 0; i < 8; i++) {
+			if (marker == buffer.length) {
+				refill();
+			}
+			v = (v << 8) | (buffer[marker++] & 0xff);
+		}
+		return v;
+	}
+
+	private void refill() {
+		try {
+			prg.update(zeros, 0, zeros.length, buffer);
+		} catch (GeneralSecurityException e) {
+			throw new MPCException("Could not generate random bytes", e);
+		}
+		marker = 0;
+	}
+
+	/**
+	 * Returns a pseudo-random element of the field given by the modulus. The
+	 * reduction is oversampled by 64 bits to make it close to uniform.
+	 */
+	public BigInteger nextElement(BigInteger modulus) {
+		byte[] bytes = new byte[(modulus.bitLength() + 64 + 7) / 8];
+		nextBytes(bytes);
+		return new BigInteger(1, bytes).mod(modulus);
+	}
+}
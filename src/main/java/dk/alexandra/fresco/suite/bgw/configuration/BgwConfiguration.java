@@ -53,6 +53,37 @@ public interface BgwConfiguration extends ProtocolSuiteConfiguration {
 	 * @return The modulus used in BGW
 	 */
 	BigInteger getModulus();
+
+	/**
+	 * @return The number of double sharings to produce when the suite is
+	 *         initialized. Each multiplication uses one, with linear
+	 *         communication, until they run out, after which multiplications
+	 *         reshare the product to all parties. Defaults to 0.
+	 */
+	default int getDoubleSharings() {
+		return 0;
+	}
+
+	/**
+	 * @return The number of random values to produce when the suite is
+	 *         initialized. Random values are taken from these until they run
+	 *         out, after which they are computed by pseudo-random secret
+	 *         sharing. Defaults to 0.
+	 */
+	default int getRandomSharings() {
+		return 0;
+	}
+
+	/**
+	 * @return The number of values k packed into one polynomial by the packed
+	 *         protocols of the BGW factory. The packed protocols hide the
+	 *         values from at most (n - 1) / 2 - k + 1 parties, or the
+	 *         threshold if that is lower. Defaults to 1, which disables the
+	 *         packed protocols.
+	 */
+	default int getPackingFactor() {
+		return 1;
+	}
 	
 	/// Here comes methods for BGW specific parameters and their validation.
 	
@@ -73,6 +104,27 @@ public interface BgwConfiguration extends ProtocolSuiteConfiguration {
 				.required(false)
 				.hasArgs()
 				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of double sharings to preprocess for multiplication with linear communication. Defaults to 0.")
+				.longOpt("bgw.doubleSharings")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of random values to preprocess. Defaults to 0.")
+				.longOpt("bgw.randomSharings")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of values packed into one sharing by the packed protocols. Defaults to 1, i.e. no packing.")
+				.longOpt("bgw.packingFactor")
+				.required(false)
+				.hasArgs()
+				.build());
 		
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd = parser.parse(options, args);
@@ -92,6 +144,12 @@ public interface BgwConfiguration extends ProtocolSuiteConfiguration {
 			if(!modulus.isProbablePrime(40)) {
 				throw new ParseException("BGW Modulus must be a prime number");
 			}
+			final int doubleSharings = Integer.parseInt(p.getProperty("bgw.doubleSharings", "0"));
+			if (doubleSharings < 0) throw new ParseException("bgw.doubleSharings must be >= 0");
+			final int randomSharings = Integer.parseInt(p.getProperty("bgw.randomSharings", "0"));
+			if (randomSharings < 0) throw new ParseException("bgw.randomSharings must be >= 0");
+			final int packingFactor = Integer.parseInt(p.getProperty("bgw.packingFactor", "1"));
+			if (packingFactor < 1) throw new ParseException("bgw.packingFactor must be > 0");
 			
 			return new BgwConfiguration() {
 
@@ -104,10 +162,25 @@ public interface BgwConfiguration extends ProtocolSuiteConfiguration {
 				public BigInteger getModulus() {
 					return modulus;
 				}
+
+				@Override
+				public int getDoubleSharings() {
+					return doubleSharings;
+				}
+
+				@Override
+				public int getRandomSharings() {
+					return randomSharings;
+				}
+
+				@Override
+				public int getPackingFactor() {
+					return packingFactor;
+				}
 				
 			};
 		} catch (NumberFormatException e) {
-			throw new ParseException("Invalid bgw.threshold value: '" + p.getProperty("bgw.threshold") + "'");
+			throw new ParseException("Invalid BGW option value: " + e.getMessage());
 		}
 		
 		
@@ -63,4 +63,19 @@ public class BgwConfigurationFromProperties implements BgwConfiguration {
 		}
 		return mod;
 	}
+
+	@Override
+	public int getDoubleSharings() {
+		return Integer.parseInt(prop.getProperty("doubleSharings", "0"));
+	}
+
+	@Override
+	public int getRandomSharings() {
+		return Integer.parseInt(prop.getProperty("randomSharings", "0"));
+	}
+
+	@Override
+	public int getPackingFactor() {
+		return Integer.parseInt(prop.getProperty("packingFactor", "1"));
+	}
 }
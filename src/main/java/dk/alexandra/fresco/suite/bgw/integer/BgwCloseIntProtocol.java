@@ -36,7 +36,6 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
 public class BgwCloseIntProtocol extends BgwProtocol implements
@@ -45,11 +44,16 @@ public class BgwCloseIntProtocol extends BgwProtocol implements
 	public OInt input;
 	public BgwSInt output;
 	private int inputter;
+	private int threshold;
+	private BigInteger modulus;
 
-	public BgwCloseIntProtocol(OInt in, SInt out, int inputter) {
+	public BgwCloseIntProtocol(OInt in, SInt out, int inputter,
+			int threshold, BigInteger modulus) {
 		input = in;
 		output = (BgwSInt) out;
 		this.inputter = inputter;
+		this.threshold = threshold;
+		this.modulus = modulus;
 	}
 
 	@Override
@@ -61,7 +65,7 @@ public class BgwCloseIntProtocol extends BgwProtocol implements
 			if (inputter == myId) {
 				BigInteger secret = this.input.getValue();
 				ShamirShare[] shares = ShamirShare.createShares(secret,
-						resourcePool.getNoOfParties(), BgwProtocolSuite.getInstance().getThreshold());
+						resourcePool.getNoOfParties(), threshold, modulus);
 				network.sendSharesToAll(shares);
 			}
 			network.expectInputFromPlayer(inputter);
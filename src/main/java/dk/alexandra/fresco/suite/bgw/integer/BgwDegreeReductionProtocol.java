@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.DoubleSharing;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+
+/**
+ * A protocol that computes a sharing of degree 2t locally, e.g. a product,
+ * and reduces it to a sharing of degree t.
+ * 
+ * Without a double sharing every party reshares its share with degree t, and
+ * the first 2t + 1 reshares are recombined, which takes n^2 messages in one
+ * round. Given a double sharing ([r]_t, [r]_2t) as by Damgård and Nielsen,
+ * the first 2t + 1 parties send their share minus [r]_2t to a king, who
+ * opens it and sends it to everyone, who add it to [r]_t. This takes linear
+ * communication at the cost of one more round.
+ */
+public abstract class BgwDegreeReductionProtocol extends BgwProtocol {
+
+	public static final int KING = 1;
+
+	protected final DoubleSharing r;
+	protected final int threshold;
+	protected final BigInteger modulus;
+
+	/**
+	 * @param r
+	 *            a double sharing to reduce the degree with, or null to
+	 *            reshare to all parties.
+	 */
+	protected BgwDegreeReductionProtocol(DoubleSharing r, int threshold,
+			BigInteger modulus) {
+		this.r = r;
+		this.threshold = threshold;
+		this.modulus = modulus;
+	}
+
+	/**
+	 * Returns this party's share of degree 2t. It is only called in the first
+	 * round.
+	 */
+	protected abstract ShamirShare localShare(int myId);
+
+	/**
+	 * Receives this party's share of degree t.
+	 */
+	protected abstract void setResult(ShamirShare result);
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		if (r == null) {
+			return reshare(round, resourcePool, network);
+		}
+		int myId = resourcePool.getMyId();
+		int senders = 2 * threshold + 1;
+		switch (round) {
+		case 0:
+			if (myId <= senders) {
+				network.send(KING, localShare(myId).subtract(r.getHigh(),
+						modulus));
+			}
+			if (myId == KING) {
+				for (int id = 1; id <= senders; id++) {
+					network.expectInputFromPlayer(id);
+				}
+			}
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			if (myId == KING) {
+				ShamirShare[] shares = new ShamirShare[senders];
+				for (int id = 1; id <= senders; id++) {
+					shares[id - 1] = network.receive(id);
+				}
+				network.sendToAll(ShamirShare.recombine(shares, senders,
+						modulus));
+			}
+			network.expectInputFromPlayer(KING);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 2:
+			BigInteger opened = network.receive(KING);
+			setResult(r.getLow().add(new ShamirShare(myId, opened, modulus),
+					modulus));
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 2.");
+		}
+	}
+
+	private EvaluationStatus reshare(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int myId = resourcePool.getMyId();
+		switch (round) {
+		case 0:
+			ShamirShare[] reshares = ShamirShare.createShares(
+					localShare(myId), resourcePool.getNoOfParties(),
+					threshold, modulus);
+			network.sendSharesToAll(reshares);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			List<ShamirShare> shares = network.receiveFromAll();
+			// The reshared value has degree 2t, so the reshares of the
+			// first 2t + 1 parties determine it.
+			setResult(ShamirShare.recombine(myId, shares, 2 * threshold + 1,
+					modulus));
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+}
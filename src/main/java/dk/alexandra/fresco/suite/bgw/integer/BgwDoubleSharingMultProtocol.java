@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.suite.bgw.DoubleSharing;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+
+/**
+ * Multiplication with a preprocessed double sharing ([r]_t, [r]_2t) as by
+ * Damgård and Nielsen, see {@link BgwDegreeReductionProtocol}. This takes
+ * linear communication, where {@link BgwMultProtocol} needs n^2 messages, at
+ * the cost of one more round.
+ */
+public class BgwDoubleSharingMultProtocol extends BgwDegreeReductionProtocol
+		implements MultProtocol {
+
+	private BgwSInt inA;
+	private BgwSInt inB;
+	private BgwSInt outC;
+
+	public BgwDoubleSharingMultProtocol(SInt inA, SInt inB, SInt outC,
+			DoubleSharing r, int threshold, BigInteger modulus) {
+		super(r, threshold, modulus);
+		this.inA = (BgwSInt) inA;
+		this.inB = (BgwSInt) inB;
+		this.outC = (BgwSInt) outC;
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirDoubleSharingMultGate(" + inA + "," + inB + "," + outC
+				+ ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { inA, inB };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { outC };
+	}
+
+	@Override
+	protected ShamirShare localShare(int myId) {
+		return inA.value.mult(inB.value, modulus);
+	}
+
+	@Override
+	protected void setResult(ShamirShare result) {
+		outC.value = result;
+	}
+
+}
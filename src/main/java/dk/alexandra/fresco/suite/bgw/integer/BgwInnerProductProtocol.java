@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.ModularReducer;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductCircuit;
+import dk.alexandra.fresco.suite.bgw.DoubleSharing;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+
+/**
+ * Computes the inner product of two vectors with a single degree reduction.
+ * 
+ * The sum of the local products of the shares is a sharing of the inner
+ * product of degree 2t, so it is reduced once, like a single product, by
+ * resharing it or, given a double sharing, by opening it to a king, see
+ * {@link BgwDegreeReductionProtocol}. An inner product of length n therefore
+ * costs the communication of one multiplication instead of n. With a public vector the inner product is
+ * computed locally.
+ */
+public class BgwInnerProductProtocol extends BgwDegreeReductionProtocol
+		implements InnerProductCircuit {
+
+	private BgwSInt[] as;
+	private BgwSInt[] bs;
+	private OInt[] publicBs;
+	private BgwSInt out;
+
+	/**
+	 * @param r
+	 *            a double sharing to reduce the degree with, or null to
+	 *            reshare the product to all parties.
+	 */
+	public BgwInnerProductProtocol(SInt[] as, SInt[] bs, SInt out,
+			DoubleSharing r, int threshold, BigInteger modulus) {
+		super(r, threshold, modulus);
+		if (as.length != bs.length) {
+			throw new MPCException("Lengths of input arrays do not match");
+		}
+		this.as = toBgw(as);
+		this.bs = toBgw(bs);
+		this.out = (BgwSInt) out;
+	}
+
+	public BgwInnerProductProtocol(SInt[] as, OInt[] bs, SInt out,
+			BigInteger modulus) {
+		super(null, 0, modulus);
+		if (as.length != bs.length) {
+			throw new MPCException("Lengths of input arrays do not match");
+		}
+		this.as = toBgw(as);
+		this.publicBs = bs;
+		this.out = (BgwSInt) out;
+	}
+
+	private static BgwSInt[] toBgw(SInt[] values) {
+		BgwSInt[] res = new BgwSInt[values.length];
+		for (int i = 0; i < values.length; i++) {
+			res[i] = (BgwSInt) values[i];
+		}
+		return res;
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirInnerProductGate(" + as.length + "," + out + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		Value[] inputs = new Value[as.length + (bs == null ? 0 : bs.length)];
+		System.arraycopy(as, 0, inputs, 0, as.length);
+		if (bs != null) {
+			System.arraycopy(bs, 0, inputs, as.length, bs.length);
+		}
+		return inputs;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+
+	/**
+	 * The sum of the products of this party's shares, reduced only once.
+	 */
+	private BigInteger localInnerProduct() {
+		BigInteger sum = BigInteger.ZERO;
+		for (int i = 0; i < as.length; i++) {
+			BigInteger b = publicBs == null ? bs[i].value.getField()
+					: publicBs[i].getValue();
+			sum = sum.add(as[i].value.getField().multiply(b));
+		}
+		return ModularReducer.reduce(sum, modulus);
+	}
+
+	@Override
+	protected ShamirShare localShare(int myId) {
+		return new ShamirShare(myId, localInnerProduct(), modulus);
+	}
+
+	@Override
+	protected void setResult(ShamirShare result) {
+		out.value = result;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		if (publicBs != null) {
+			out.value = localShare(resourcePool.getMyId());
+			return EvaluationStatus.IS_DONE;
+		}
+		return super.evaluate(round, resourcePool, network);
+	}
+}
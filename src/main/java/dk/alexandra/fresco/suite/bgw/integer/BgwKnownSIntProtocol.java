@@ -38,11 +38,14 @@ import dk.alexandra.fresco.suite.bgw.ShamirShare;
 public class BgwKnownSIntProtocol extends BgwProtocol implements KnownSIntProtocol{
 	
 	private BigInteger value;
+	private BigInteger modulus;
 	BgwSInt x;
 	
-	public BgwKnownSIntProtocol(BgwSInt x, BigInteger value) {
+	public BgwKnownSIntProtocol(BgwSInt x, BigInteger value,
+			BigInteger modulus) {
 		this.x = x;
 		this.value = value;
+		this.modulus = modulus;
 	}
 	
 	@Override
@@ -61,7 +64,7 @@ public class BgwKnownSIntProtocol extends BgwProtocol implements KnownSIntProtoc
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
 		int myId = resourcePool.getMyId();
-		x.value = new ShamirShare(myId, value);
+		x.value = new ShamirShare(myId, value, modulus);
 		return EvaluationStatus.IS_DONE;
 	}
 
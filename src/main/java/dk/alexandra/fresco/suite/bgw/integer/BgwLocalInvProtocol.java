@@ -33,16 +33,17 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.math.inv.LocalInversionCircuit;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 
 public class BgwLocalInvProtocol extends BgwProtocol implements LocalInversionCircuit{
 
 	private BgwOInt x; 
 	private BgwOInt res;
+	private BigInteger modulus;
 	
-	public BgwLocalInvProtocol(BgwOInt x, BgwOInt res) {
+	public BgwLocalInvProtocol(BgwOInt x, BgwOInt res, BigInteger modulus) {
 		this.x = x;
 		this.res = res;
+		this.modulus = modulus;
 	}
 	
 	@Override
@@ -58,7 +59,7 @@ public class BgwLocalInvProtocol extends BgwProtocol implements LocalInversionCi
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		BigInteger inv = x.getValue().modInverse(BgwProtocolSuite.getInstance().getModulus());
+		BigInteger inv = x.getValue().modInverse(modulus);
 		res.setValue(inv);
 		return EvaluationStatus.IS_DONE;
 	}
@@ -26,31 +26,32 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.bgw.integer;
 
-import java.util.List;
+import java.math.BigInteger;
 
-import dk.alexandra.fresco.framework.MPCException;
-import dk.alexandra.fresco.framework.network.SCENetwork;
-import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.MultProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
-public class BgwMultProtocol extends BgwProtocol implements MultProtocol {
+/**
+ * Multiplication by resharing the local product, see
+ * {@link BgwDegreeReductionProtocol}.
+ */
+public class BgwMultProtocol extends BgwDegreeReductionProtocol implements
+		MultProtocol {
 
 	private BgwSInt inA;
 	private BgwSInt inB;
 	private BgwSInt outC;
 
-	public BgwMultProtocol(SInt inA, SInt inB, SInt outC) {
-		this.inA = (BgwSInt) inA;
-		this.inB = (BgwSInt) inB;
-		this.outC = (BgwSInt) outC;
+	public BgwMultProtocol(SInt inA, SInt inB, SInt outC, int threshold,
+			BigInteger modulus) {
+		this((BgwSInt) inA, (BgwSInt) inB, (BgwSInt) outC, threshold, modulus);
 	}
 
-	public BgwMultProtocol(BgwSInt inA, BgwSInt inB, BgwSInt outC) {
+	public BgwMultProtocol(BgwSInt inA, BgwSInt inB, BgwSInt outC,
+			int threshold, BigInteger modulus) {
+		super(null, threshold, modulus);
 		this.inA = inA;
 		this.inB = inB;
 		this.outC = outC;
@@ -72,26 +73,13 @@ public class BgwMultProtocol extends BgwProtocol implements MultProtocol {
 	}
 
 	@Override
-	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
-			SCENetwork network) {
-		int n = resourcePool.getNoOfParties();
-		int threshold = BgwProtocolSuite.getInstance().getThreshold();
-		switch (round) {
-		case 0:
-			outC.value = inA.value.mult(inB.value);
-			ShamirShare[] reshares = ShamirShare.createShares(
-					outC.value.getField(), n, threshold);
-			network.sendSharesToAll(reshares);
-			network.expectInputFromAll();
-			return EvaluationStatus.HAS_MORE_ROUNDS;
-		case 1:
-			List<ShamirShare> shares = network.receiveFromAll();
-			outC.value = new ShamirShare(resourcePool.getMyId(),
-					ShamirShare.recombine(shares, shares.size()));
-			return EvaluationStatus.IS_DONE;
-		default:
-			throw new MPCException("Cannot evaluate rounds larger than 1.");
-		}
+	protected ShamirShare localShare(int myId) {
+		return inA.value.mult(inB.value, modulus);
+	}
+
+	@Override
+	protected void setResult(ShamirShare result) {
+		outC.value = result;
 	}
 
 }
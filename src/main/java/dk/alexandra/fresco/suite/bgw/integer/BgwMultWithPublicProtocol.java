@@ -32,25 +32,26 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.MultProtocol;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
 
 public class BgwMultWithPublicProtocol extends BgwProtocol implements MultProtocol{
 
 	private final BgwOInt inA;
 	private final BgwSInt inB;
 	private final BgwSInt outC;
+	private final int threshold;
 	
-	public BgwMultWithPublicProtocol(BgwOInt inA, BgwSInt inB, BgwSInt outC) {
+	public BgwMultWithPublicProtocol(BgwOInt inA, BgwSInt inB, BgwSInt outC,
+			int threshold) {
 		this.inA = inA;
 		this.inB = inB;
 		this.outC = outC;
+		this.threshold = threshold;
 	}
 	
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
 		int n = resourcePool.getNoOfParties();
-		int threshold = BgwProtocolSuite.getInstance().getThreshold();
 		switch (round) {
 		case 0:
 			throw new MPCException("Not implemented yet!");
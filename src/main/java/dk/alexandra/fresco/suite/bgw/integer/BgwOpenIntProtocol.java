@@ -52,21 +52,18 @@ public class BgwOpenIntProtocol extends BgwProtocol implements OpenIntProtocol {
 	public BgwOInt output;
 
 	private int targetId = -1;
+	private BigInteger modulus;
 
-	public BgwOpenIntProtocol(SInt in, OInt out) {
-		input = (BgwSInt) in;
-		output = (BgwOInt) out;
+	public BgwOpenIntProtocol(SInt in, OInt out, BigInteger modulus) {
+		this(-1, in, out, modulus);
 	}
 
-	public BgwOpenIntProtocol(int targetId, SInt in, OInt out) {
+	public BgwOpenIntProtocol(int targetId, SInt in, OInt out,
+			BigInteger modulus) {
 		this.targetId = targetId;
 		input = (BgwSInt) in;
 		output = (BgwOInt) out;
-	}
-
-	public BgwOpenIntProtocol(BgwSInt in, BgwOInt out) {
-		input = in;
-		output = out;
+		this.modulus = modulus;
 	}
 
 	@Override
@@ -86,8 +83,8 @@ public class BgwOpenIntProtocol extends BgwProtocol implements OpenIntProtocol {
 			return EvaluationStatus.HAS_MORE_ROUNDS;
 		case 1:
 			List<ShamirShare> shares = network.receiveFromAll();
-			BigInteger recombined = ShamirShare
-					.recombine(shares, shares.size());
+			BigInteger recombined = ShamirShare.recombine(shares,
+					shares.size(), modulus);
 			this.output.setValue(recombined);
 			return EvaluationStatus.IS_DONE;
 		default:
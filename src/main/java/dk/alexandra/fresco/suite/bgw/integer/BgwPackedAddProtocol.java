@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+
+/**
+ * Adds two packed vectors entry by entry, locally.
+ */
+public class BgwPackedAddProtocol extends BgwProtocol {
+
+	private BgwPackedSInt inA;
+	private BgwPackedSInt inB;
+	private BgwPackedSInt outC;
+	private BigInteger modulus;
+
+	public BgwPackedAddProtocol(BgwPackedSInt inA, BgwPackedSInt inB,
+			BgwPackedSInt outC, BigInteger modulus) {
+		this.inA = inA;
+		this.inB = inB;
+		this.outC = outC;
+		this.modulus = modulus;
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirPackedAdderGate(" + inA + "," + inB + "," + outC + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { inA, inB };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { outC };
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		outC.value = inA.value.add(inB.value, modulus);
+		return EvaluationStatus.IS_DONE;
+	}
+
+}
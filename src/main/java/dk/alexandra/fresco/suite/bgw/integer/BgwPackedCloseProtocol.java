@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.PackedShamir;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+import dk.alexandra.fresco.suite.bgw.ShareGenerator;
+
+/**
+ * Lets the inputter share up to k values with one packed sharing.
+ */
+public class BgwPackedCloseProtocol extends BgwProtocol {
+
+	private BigInteger[] input;
+	private BgwPackedSInt output;
+	private int inputter;
+	private PackedShamir packed;
+
+	/**
+	 * @param in
+	 *            the values to share, only used by the inputter.
+	 */
+	public BgwPackedCloseProtocol(BigInteger[] in, BgwPackedSInt out,
+			int inputter, PackedShamir packed) {
+		this.input = in;
+		this.output = out;
+		this.inputter = inputter;
+		this.packed = packed;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		switch (round) {
+		case 0:
+			if (inputter == resourcePool.getMyId()) {
+				network.sendSharesToAll(packed.share(input,
+						ShareGenerator.current()));
+			}
+			network.expectInputFromPlayer(inputter);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			this.output.value = (ShamirShare) network.receive(inputter);
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirPackedInputGate(" + inputter + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] {};
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { output };
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.PackedShamir;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+import dk.alexandra.fresco.suite.bgw.ShareGenerator;
+
+/**
+ * Multiplies two packed vectors entry by entry.
+ * 
+ * The local product of the shares is a packed sharing of the products of
+ * degree 2d. Secret j of it is the sum over the first 2d + 1 parties i of
+ * w_ji h(i) for public weights w_ji, so each of these parties shares the
+ * vector (w_0i h(i), ..., w_(k-1)i h(i)) with a fresh packed sharing of
+ * degree d, and the sum of the received sharings is a packed sharing of the
+ * products of degree d. This is one resharing for k multiplications.
+ */
+public class BgwPackedMultProtocol extends BgwProtocol {
+
+	private BgwPackedSInt inA;
+	private BgwPackedSInt inB;
+	private BgwPackedSInt outC;
+	private PackedShamir packed;
+
+	public BgwPackedMultProtocol(BgwPackedSInt inA, BgwPackedSInt inB,
+			BgwPackedSInt outC, PackedShamir packed) {
+		this.inA = inA;
+		this.inB = inB;
+		this.outC = outC;
+		this.packed = packed;
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirPackedMultGate(" + inA + "," + inB + "," + outC + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { inA, inB };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { outC };
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int myId = resourcePool.getMyId();
+		int senders = 2 * packed.getDegree() + 1;
+		BigInteger modulus = packed.getModulus();
+		switch (round) {
+		case 0:
+			if (myId <= senders) {
+				BigInteger h = inA.value.getField().multiply(
+						inB.value.getField());
+				BigInteger[] weighted = new BigInteger[packed
+						.getPackingFactor()];
+				for (int j = 0; j < weighted.length; j++) {
+					weighted[j] = packed.getProductWeight(j, myId).multiply(h)
+							.mod(modulus);
+				}
+				network.sendSharesToAll(packed.share(weighted,
+						ShareGenerator.current()));
+			}
+			for (int id = 1; id <= senders; id++) {
+				network.expectInputFromPlayer(id);
+			}
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			BigInteger sum = BigInteger.ZERO;
+			for (int id = 1; id <= senders; id++) {
+				ShamirShare share = network.receive(id);
+				sum = sum.add(share.getField());
+			}
+			outC.value = new ShamirShare(myId, sum, modulus);
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw.integer;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.suite.bgw.BgwProtocol;
+import dk.alexandra.fresco.suite.bgw.PackedShamir;
+import dk.alexandra.fresco.suite.bgw.ShamirShare;
+
+/**
+ * Opens the k values of a packed sharing to all parties.
+ */
+public class BgwPackedOpenProtocol extends BgwProtocol {
+
+	private BgwPackedSInt input;
+	private OInt[] output;
+	private PackedShamir packed;
+
+	/**
+	 * @param out
+	 *            the opened values. Values beyond the length of the array are
+	 *            ignored.
+	 */
+	public BgwPackedOpenProtocol(BgwPackedSInt in, OInt[] out,
+			PackedShamir packed) {
+		this.input = in;
+		this.output = out;
+		this.packed = packed;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		switch (round) {
+		case 0:
+			network.sendToAll(this.input.value);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			List<ShamirShare> shares = network.receiveFromAll();
+			BigInteger[] opened = packed.reconstruct(shares
+					.toArray(new ShamirShare[shares.size()]));
+			for (int j = 0; j < output.length; j++) {
+				output[j].setValue(opened[j]);
+			}
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ShamirPackedOpenGate(" + input + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { input };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return output;
+	}
+}
@@ -26,63 +26,68 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.bgw.integer;
 
-import java.math.BigInteger;
-import java.security.SecureRandom;
-import java.util.List;
-
-import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.Protocol;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.suite.bgw.BgwProtocol;
-import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
+import dk.alexandra.fresco.suite.bgw.Prss;
+import dk.alexandra.fresco.suite.bgw.RandomSharings;
 import dk.alexandra.fresco.suite.bgw.ShamirShare;
 
+/**
+ * Produces a share of a uniformly random value using pseudo-random secret
+ * sharing or a sharing produced in advance. The share is computed locally,
+ * so the protocol uses no rounds of communication.
+ */
 public class BgwRandomIntProtocol extends BgwProtocol implements Protocol {
 
 	public BgwSInt output;
-	private int parties, treshold;
+	private final Prss prss;
+	private final long index;
+	private final ShamirShare share;
 
-	public BgwRandomIntProtocol(SecureRandom rand, SInt out) {
+	/**
+	 * @param out
+	 *            the value to store the random share in.
+	 * @param prss
+	 *            the pseudo-random secret sharing of this party.
+	 * @param index
+	 *            the index of the random value, reserved with
+	 *            {@link Prss#nextIndex()} while the protocol is built.
+	 */
+	public BgwRandomIntProtocol(SInt out, Prss prss, long index) {
 		output = (BgwSInt) out;
+		this.prss = prss;
+		this.index = index;
+		this.share = null;
 	}
 
-	public BgwRandomIntProtocol(SInt out, int noOfParties, int treshold) {
+	/**
+	 * @param out
+	 *            the value to store the random share in.
+	 * @param share
+	 *            this party's share of a random value produced in advance,
+	 *            see {@link RandomSharings}.
+	 */
+	public BgwRandomIntProtocol(SInt out, ShamirShare share) {
 		output = (BgwSInt) out;
-		this.parties = noOfParties;
-		this.treshold = treshold;
+		this.prss = null;
+		this.index = -1;
+		this.share = share;
 	}
 
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		switch (round) {
-		case 0:
-			BgwProtocolSuite suite = BgwProtocolSuite.getInstance();
-			BigInteger mod = suite.getModulus();
-			BigInteger secret = new BigInteger(
-					mod.bitLength(), resourcePool.getSecureRandom())
-					.mod(mod);
-			ShamirShare[] reshares = ShamirShare.createShares(secret, parties,
-					treshold);
-			network.sendSharesToAll(reshares);
-			network.expectInputFromAll();
-			return EvaluationStatus.HAS_MORE_ROUNDS;
-		case 1:
-			List<ShamirShare> tmp = network.receiveFromAll();
-			reshares = (ShamirShare[]) tmp.toArray();
-			BigInteger ll = ShamirShare.recombine(reshares, parties);
-			this.output.value = new ShamirShare(resourcePool.getMyId(), ll);
-			return EvaluationStatus.IS_DONE;
-		}
-		throw new MPCException("Cannot evaluate rounds larger than 1");
+		this.output.value = share != null ? share : prss.share(index);
+		return EvaluationStatus.IS_DONE;
 	}
 
 	@Override
 	public String toString() {
-		return "ShamirRandomIntGate(" + output + ")";
+		return "ShamirRandomIntGate(" + index + ", " + output + ")";
 	}
 
 	@Override
@@ -26,6 +26,8 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.bgw.integer;
 
+import java.math.BigInteger;
+
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.SInt;
@@ -39,17 +41,18 @@ public class BgwSubtractProtocol extends BgwProtocol implements SubtractCircuit
 	private BgwSInt inA;
 	private BgwSInt inB;
 	private BgwSInt outC;
+	private BigInteger modulus;
 
-	public BgwSubtractProtocol(SInt inA, SInt inB, SInt outC) {
-		this.inA = (BgwSInt) inA;
-		this.inB = (BgwSInt) inB;
-		this.outC = (BgwSInt) outC;
+	public BgwSubtractProtocol(SInt inA, SInt inB, SInt outC, BigInteger modulus) {
+		this((BgwSInt) inA, (BgwSInt) inB, (BgwSInt) outC, modulus);
 	}
 
-	public BgwSubtractProtocol(BgwSInt inA, BgwSInt inB, BgwSInt outC) {
+	public BgwSubtractProtocol(BgwSInt inA, BgwSInt inB, BgwSInt outC,
+			BigInteger modulus) {
 		this.inA = inA;
 		this.inB = inB;
 		this.outC = outC;
+		this.modulus = modulus;
 	}
 
 	@Override
@@ -70,8 +73,7 @@ public class BgwSubtractProtocol extends BgwProtocol implements SubtractCircuit
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		outC.value = new ShamirShare(inA.value.getPoint(), inA.value.getField()
-				.subtract(inB.value.getField()));
+		outC.value = inA.value.subtract(inB.value, modulus);
 		return EvaluationStatus.IS_DONE;
 	}
 }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.value.Value;
+
+/**
+ * Helpers for bit-sliced values, where bit j of word i holds the value of
+ * instance 64 * i + j. Bits above the last instance are always 0.
+ */
+final class BitSlices {
+
+	private BitSlices() {
+	}
+
+	static int noOfWords(int instances) {
+		return (instances + 63) >>> 6;
+	}
+
+	/**
+	 * The bits of the last word that hold instances.
+	 */
+	static long lastWordMask(int instances) {
+		int used = instances & 63;
+		return (used == 0) ? -1L : (1L << used) - 1;
+	}
+
+	static long[] constant(boolean b, int instances) {
+		long[] words = new long[noOfWords(instances)];
+		if (b) {
+			for (int i = 0; i < words.length; i++) {
+				words[i] = -1L;
+			}
+			words[words.length - 1] = lastWordMask(instances);
+		}
+		return words;
+	}
+
+	static long[] pack(boolean[] values) {
+		long[] words = new long[noOfWords(values.length)];
+		for (int i = 0; i < values.length; i++) {
+			if (values[i]) {
+				words[i >>> 6] |= 1L << (i & 63);
+			}
+		}
+		return words;
+	}
+
+	static boolean get(long[] words, int instance) {
+		return (words[instance >>> 6] >>> (instance & 63) & 1) == 1;
+	}
+
+	/**
+	 * Returns the words of a bit-sliced SBool or OBool.
+	 */
+	static long[] wordsOf(Value value) {
+		if (value instanceof DummyBitSlicedSBool) {
+			return ((DummyBitSlicedSBool) value).getWords();
+		} else if (value instanceof DummyBitSlicedOBool) {
+			return ((DummyBitSlicedOBool) value).getWords();
+		}
+		throw new MPCException("Not a bit-sliced value: " + value);
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.bool.AndProtocol;
+
+/**
+ * Computes the AND of all instances of bit-sliced values, one word at a time. The right
+ * input may be a secret or a public bit-sliced value.
+ */
+public class DummyBitSlicedAndProtocol extends DummyProtocol implements AndProtocol {
+
+	private DummyBitSlicedSBool inLeft;
+	private Value inRight;
+	private DummyBitSlicedSBool out;
+
+	public DummyBitSlicedAndProtocol(SBool inLeft, Value inRight, SBool out) {
+		this.inLeft = (DummyBitSlicedSBool) inLeft;
+		this.inRight = inRight;
+		this.out = (DummyBitSlicedSBool) out;
+	}
+
+	@Override
+	public String toString() {
+		return "DummyBitSlicedAndGate(" + inLeft + "," + inRight + "," + out + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[]{inLeft, inRight};
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[]{out};
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		long[] left = this.inLeft.getWords();
+		long[] right = BitSlices.wordsOf(this.inRight);
+		long[] res = new long[left.length];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = left[i] & right[i];
+		}
+		this.out.setWords(res);
+		return EvaluationStatus.IS_DONE;
+	}
+}
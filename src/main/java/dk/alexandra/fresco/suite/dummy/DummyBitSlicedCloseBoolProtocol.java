@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OBool;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.bool.CloseBoolProtocol;
+
+/**
+ * Inputs a value for all instances at once, so the sender sends one array of
+ * words instead of a message per instance.
+ */
+public class DummyBitSlicedCloseBoolProtocol extends DummyProtocol implements CloseBoolProtocol {
+
+	public DummyBitSlicedOBool input;
+	public DummyBitSlicedSBool output;
+
+	private int sender;
+
+	public DummyBitSlicedCloseBoolProtocol(OBool in, SBool out, int sender) {
+		input = (DummyBitSlicedOBool)in;
+		output = (DummyBitSlicedSBool)out;
+		this.sender = sender;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool, SCENetwork network) {
+		switch (round) {
+		case 0:
+			if (resourcePool.getMyId() == sender) {
+				network.sendToAll(input.getWords());
+			}
+			network.expectInputFromPlayer(sender);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			long[] words = network.receive(sender);
+			this.output.setWords(words);
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Bad round: " + round);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "DummyBitSlicedCloseBoolGate(" + input + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] {this.input};
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] {this.output};
+	}
+}
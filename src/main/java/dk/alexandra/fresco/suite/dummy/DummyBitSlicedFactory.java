@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import dk.alexandra.fresco.framework.value.OBool;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.lib.field.bool.AndProtocol;
+import dk.alexandra.fresco.lib.field.bool.BasicLogicFactory;
+import dk.alexandra.fresco.lib.field.bool.CloseBoolProtocol;
+import dk.alexandra.fresco.lib.field.bool.NotProtocol;
+import dk.alexandra.fresco.lib.field.bool.OpenBoolProtocol;
+import dk.alexandra.fresco.lib.field.bool.XorProtocol;
+
+/**
+ * A basic logic factory that runs a number of independent instances of a
+ * boolean computation at once. Every SBool is a {@link DummyBitSlicedSBool}
+ * holding the value of all instances, so a circuit, e.g. one read by the
+ * BristolCircuitParser, is evaluated for all instances with one gate object
+ * and one native protocol per gate, and a word operation per 64 instances.
+ *
+ * Constants given as a single boolean are the same in all instances. Values
+ * that differ between instances are given with
+ * {@link #getKnownConstantSBools(boolean[][])} and
+ * {@link #getOBool(boolean[])}, and opened values are read with
+ * {@link DummyBitSlicedOBool#getValue(int)}.
+ */
+public class DummyBitSlicedFactory implements BasicLogicFactory {
+
+	private final int instances;
+
+	/**
+	 * For unique names to values. For debugging.
+	 *
+	 */
+	private int counter;
+
+	public DummyBitSlicedFactory(int instances) {
+		this.instances = instances;
+		this.counter = 0;
+	}
+
+	/**
+	 * Returns the number of instances computed at once.
+	 */
+	public int getInstances() {
+		return this.instances;
+	}
+
+	@Override
+	public SBool getSBool() {
+		return new DummyBitSlicedSBool("" + this.counter++, this.instances);
+	}
+
+	@Override
+	public SBool[] getSBools(int amount) {
+		SBool[] res = new DummyBitSlicedSBool[amount];
+		for (int i=0; i<amount; i++) {
+			res[i] = getSBool();
+		}
+		return res;
+	}
+
+	@Override
+	public SBool getKnownConstantSBool(boolean b) {
+		return new DummyBitSlicedSBool("" + this.counter++, this.instances,
+				BitSlices.constant(b, this.instances));
+	}
+
+	@Override
+	public SBool[] getKnownConstantSBools(boolean[] bools) {
+		SBool[] res = new DummyBitSlicedSBool[bools.length];
+		for (int i=0; i<bools.length; i++) {
+			res[i] = getKnownConstantSBool(bools[i]);
+		}
+		return res;
+	}
+
+	/**
+	 * Returns known bit-sliced values for a vector of bits given per
+	 * instance, i.e., bit i of the result holds values[j][i] in instance j.
+	 */
+	public SBool[] getKnownConstantSBools(boolean[][] values) {
+		SBool[] res = new DummyBitSlicedSBool[values[0].length];
+		boolean[] column = new boolean[this.instances];
+		for (int i = 0; i < res.length; i++) {
+			for (int j = 0; j < this.instances; j++) {
+				column[j] = values[j][i];
+			}
+			res[i] = new DummyBitSlicedSBool("" + this.counter++,
+					this.instances, BitSlices.pack(column));
+		}
+		return res;
+	}
+
+	@Override
+	public OBool getOBool() {
+		return new DummyBitSlicedOBool("" + this.counter++, this.instances);
+	}
+
+	@Override
+	public OBool getKnownConstantOBool(boolean b) {
+		return new DummyBitSlicedOBool("" + this.counter++, this.instances,
+				BitSlices.constant(b, this.instances));
+	}
+
+	/**
+	 * Returns a public value holding values[j] in instance j, e.g., the
+	 * input of a party to all instances.
+	 */
+	public OBool getOBool(boolean[] values) {
+		return new DummyBitSlicedOBool("" + this.counter++, this.instances,
+				BitSlices.pack(values));
+	}
+
+	@Override
+	public NotProtocol getNotCircuit(SBool in, SBool out) {
+		return new DummyBitSlicedNotProtocol(in, out);
+	}
+
+	@Override
+	public XorProtocol getXorCircuit(SBool inLeft, SBool inRight, SBool out) {
+		return new DummyBitSlicedXorProtocol(inLeft, inRight, out);
+	}
+
+	@Override
+	public AndProtocol getAndCircuit(SBool inLeft, SBool inRight, SBool out) {
+		return new DummyBitSlicedAndProtocol(inLeft, inRight, out);
+	}
+
+	@Override
+	public CloseBoolProtocol getCloseProtocol(int source, OBool open, SBool closed) {
+		return new DummyBitSlicedCloseBoolProtocol(open, closed, source);
+	}
+
+	@Override
+	public OpenBoolProtocol getOpenProtocol(SBool closed, OBool open) {
+		return new DummyBitSlicedOpenBoolProtocol(closed, open, -1);
+	}
+
+	@Override
+	public OpenBoolProtocol getOpenCircuit(int target, SBool closed, OBool open) {
+		return new DummyBitSlicedOpenBoolProtocol(closed, open, target);
+	}
+
+	@Override
+	public AndProtocol getAndCircuit(SBool inLeft, OBool inRight, SBool out) {
+		return new DummyBitSlicedAndProtocol(inLeft, inRight, out);
+	}
+
+	@Override
+	public XorProtocol getXorCircuit(SBool inLeft, OBool inRight, SBool out) {
+		return new DummyBitSlicedXorProtocol(inLeft, inRight, out);
+	}
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.bool.NotProtocol;
+
+public class DummyBitSlicedNotProtocol extends DummyProtocol implements NotProtocol {
+
+	public DummyBitSlicedSBool input;
+	public DummyBitSlicedSBool output;
+
+	public DummyBitSlicedNotProtocol(SBool in, SBool out) {
+		input = (DummyBitSlicedSBool)in;
+		output = (DummyBitSlicedSBool)out;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		long[] in = this.input.getWords();
+		long[] res = new long[in.length];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = ~in[i];
+		}
+		// Keep the bits above the last instance 0.
+		res[res.length - 1] &= BitSlices.lastWordMask(this.input.getInstances());
+		this.output.setWords(res);
+		return EvaluationStatus.IS_DONE;
+	}
+
+	@Override
+	public String toString() {
+		return "DummyBitSlicedNotGate(" + input + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] {this.input};
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] {this.output};
+	}
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OBool;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.bool.OpenBoolProtocol;
+
+public class DummyBitSlicedOpenBoolProtocol extends DummyProtocol implements OpenBoolProtocol {
+
+	public DummyBitSlicedSBool input;
+	public DummyBitSlicedOBool output;
+
+	private int target;
+
+	/**
+	 * Opens to player with targetId, or to all if targetId is -1.
+	 *
+	 */
+	public DummyBitSlicedOpenBoolProtocol(SBool in, OBool out, int targetId) {
+		input = (DummyBitSlicedSBool)in;
+		output = (DummyBitSlicedOBool)out;
+		target = targetId;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		boolean openToAll = target == -1;
+		if (resourcePool.getMyId() == target || openToAll) {
+			this.output.setWords(this.input.getWords());
+		}
+		return EvaluationStatus.IS_DONE;
+	}
+
+	@Override
+	public String toString() {
+		return "DummyBitSlicedOpenBoolGate(" + input + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] {this.input};
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] {this.output};
+	}
+}
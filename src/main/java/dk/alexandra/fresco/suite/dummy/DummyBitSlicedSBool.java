@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+import dk.alexandra.fresco.framework.value.SBool;
+
+/**
+ * A secret boolean in each of a number of independent instances of a
+ * computation, bit-sliced into longs: bit j of word i is the value in
+ * instance 64 * i + j. A gate on such values computes all instances with
+ * one operation per word.
+ */
+public class DummyBitSlicedSBool implements SBool {
+
+	private static final long serialVersionUID = 4180243906412574512L;
+
+	private final String id;
+	private final int instances;
+
+	private long[] words;
+
+	public DummyBitSlicedSBool(String id, int instances) {
+		this.id = id;
+		this.instances = instances;
+		this.words = null;
+	}
+
+	public DummyBitSlicedSBool(String id, int instances, long[] words) {
+		this.id = id;
+		this.instances = instances;
+		this.words = words;
+	}
+
+	@Override
+	public byte[] getSerializableContent() {
+		ByteBuffer buffer = ByteBuffer.allocate(8 * words.length);
+		buffer.asLongBuffer().put(words);
+		return buffer.array();
+	}
+
+	@Override
+	public void setSerializableContent(byte[] val) {
+		LongBuffer buffer = ByteBuffer.wrap(val).asLongBuffer();
+		this.words = new long[buffer.remaining()];
+		buffer.get(this.words);
+	}
+
+	@Override
+	public boolean isReady() {
+		return this.words != null;
+	}
+
+	public int getInstances() {
+		return this.instances;
+	}
+
+	public long[] getWords() {
+		return this.words;
+	}
+
+	public void setWords(long[] words) {
+		this.words = words;
+	}
+
+	/**
+	 * Returns the value in the given instance.
+	 */
+	public boolean getValue(int instance) {
+		return BitSlices.get(this.words, instance);
+	}
+
+	@Override
+	public String toString() {
+		return "DummyBitSlicedSBool(" + this.id + "; "
+				+ (this.words == null ? "null" : this.instances + " instances")
+				+ ")";
+	}
+}
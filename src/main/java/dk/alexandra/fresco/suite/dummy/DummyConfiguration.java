@@ -26,14 +26,65 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.dummy;
 
+import java.util.Properties;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
 
 public class DummyConfiguration implements ProtocolSuiteConfiguration {
 
-	public static ProtocolSuiteConfiguration fromCmdArgs(SCEConfiguration sceConf, String[] remainingArgs) {
-		return new DummyConfiguration();
+	private final int instances;
+
+	public DummyConfiguration() {
+		this(1);
 	}
 
-	
+	/**
+	 * @param instances
+	 *            The number of independent instances of a boolean
+	 *            computation to run at once. With more than one, the
+	 *            protocol factory is a {@link DummyBitSlicedFactory}.
+	 */
+	public DummyConfiguration(int instances) {
+		if (instances < 1) {
+			throw new IllegalArgumentException("The number of instances must be positive");
+		}
+		this.instances = instances;
+	}
+
+	public int getInstances() {
+		return this.instances;
+	}
+
+	public static ProtocolSuiteConfiguration fromCmdArgs(SCEConfiguration sceConf, String[] remainingArgs) throws ParseException {
+		Options options = new Options();
+
+		options.addOption(Option.builder("D")
+				.desc("The number of independent instances of a boolean computation to run at once, bit-sliced. Defaults to 1.")
+				.longOpt("dummy.instances")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = parser.parse(options, remainingArgs);
+
+		Properties p = cmd.getOptionProperties("D");
+		try {
+			int instances = Integer.parseInt(p.getProperty("dummy.instances", "1"));
+			if (instances < 1) {
+				throw new ParseException("dummy.instances must be positive");
+			}
+			return new DummyConfiguration(instances);
+		} catch (NumberFormatException e) {
+			throw new ParseException("Invalid dummy option value: " + e.getMessage());
+		}
+	}
 }
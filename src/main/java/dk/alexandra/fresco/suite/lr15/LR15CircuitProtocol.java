@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.lr15;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OBool;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.helper.HalfCookedNativeProtocol;
+
+/**
+ * Evaluates the circuit of the LR15 suite once. Each party gives its own
+ * input bits, and party 2 gets the output bits; the output of party 1 is
+ * left unset.
+ */
+public class LR15CircuitProtocol extends HalfCookedNativeProtocol {
+
+	private final LR15ProtocolSuite suite;
+	private final OBool[] input;
+	private final OBool[] output;
+
+	public LR15CircuitProtocol(LR15ProtocolSuite suite, OBool[] input,
+			OBool[] output) {
+		this.suite = suite;
+		this.input = input;
+		this.output = output;
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return input;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return output;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		byte[] bits = new byte[input.length];
+		for (int i = 0; i < input.length; i++) {
+			bits[i] = (byte) (input[i].getValue() ? 1 : 0);
+		}
+		byte[] res = suite.evaluate(bits);
+		if (res != null) {
+			for (int i = 0; i < output.length; i++) {
+				output[i].setValue(res[i] == 1);
+			}
+		}
+		return EvaluationStatus.IS_DONE;
+	}
+
+	@Override
+	public String toString() {
+		return "LR15Circuit(" + input.length + " -> " + output.length + ")";
+	}
+}
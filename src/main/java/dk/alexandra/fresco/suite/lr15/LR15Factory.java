@@ -26,100 +26,74 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.lr15;
 
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.value.GenericOBool;
 import dk.alexandra.fresco.framework.value.OBool;
-import dk.alexandra.fresco.framework.value.SBool;
-import dk.alexandra.fresco.lib.field.bool.AndProtocol;
-import dk.alexandra.fresco.lib.field.bool.BasicLogicFactory;
-import dk.alexandra.fresco.lib.field.bool.CloseBoolProtocol;
-import dk.alexandra.fresco.lib.field.bool.NotProtocol;
-import dk.alexandra.fresco.lib.field.bool.OpenBoolProtocol;
-import dk.alexandra.fresco.lib.field.bool.XorProtocol;
 
-public class LR15Factory implements BasicLogicFactory {
+/**
+ * Factory for the LR15 suite. The suite evaluates one fixed circuit, given
+ * in its configuration, so the only protocol is a whole evaluation of that
+ * circuit, taking the input bits of this party and giving the output bits.
+ */
+public class LR15Factory implements ProtocolFactory {
 
-	@Override
-	public CloseBoolProtocol getCloseProtocol(int source, OBool open, SBool closed) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public OpenBoolProtocol getOpenProtocol(SBool closed, OBool open) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public OpenBoolProtocol getOpenCircuit(int target, SBool closed, OBool open) {
-		// TODO Auto-generated method stub
-		return null;
-	}
+	private final LR15ProtocolSuite suite;
 
-	@Override
-	public SBool getSBool() {
-		// TODO Auto-generated method stub
-		return null;
+	public LR15Factory(LR15ProtocolSuite suite) {
+		this.suite = suite;
 	}
 
-	@Override
-	public SBool[] getSBools(int amount) {
-		// TODO Auto-generated method stub
-		return null;
+	/**
+	 * @return The number of input bits of this party to the circuit.
+	 */
+	public int getInputSize() {
+		return suite.getInputSize();
 	}
 
-	@Override
-	public SBool getKnownConstantSBool(boolean b) {
-		// TODO Auto-generated method stub
-		return null;
+	/**
+	 * @return The number of output bits of the circuit.
+	 */
+	public int getOutputSize() {
+		return suite.getOutputSize();
 	}
 
-	@Override
-	public SBool[] getKnownConstantSBools(boolean[] bools) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
 	public OBool getOBool() {
-		// TODO Auto-generated method stub
-		return null;
+		return new GenericOBool();
 	}
 
-	@Override
-	public OBool getKnownConstantOBool(boolean b) {
-		// TODO Auto-generated method stub
-		return null;
+	public OBool[] getOBools(int amount) {
+		OBool[] res = new OBool[amount];
+		for (int i = 0; i < amount; i++) {
+			res[i] = getOBool();
+		}
+		return res;
 	}
 
-	@Override
-	public AndProtocol getAndCircuit(SBool inLeft, SBool inRight, SBool out) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public AndProtocol getAndCircuit(SBool inLeft, OBool inRight, SBool out) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public NotProtocol getNotCircuit(SBool in, SBool out) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public XorProtocol getXorCircuit(SBool inLeft, SBool inRight, SBool out) {
-		// TODO Auto-generated method stub
-		return null;
+	public OBool getKnownConstantOBool(boolean b) {
+		return new GenericOBool(b);
 	}
 
-	@Override
-	public XorProtocol getXorCircuit(SBool inLeft, OBool inRight, SBool out) {
-		// TODO Auto-generated method stub
-		return null;
+	/**
+	 * Creates a protocol evaluating the circuit once.
+	 * 
+	 * @param input
+	 *            the input bits of this party, in the order of its input
+	 *            wires
+	 * @param output
+	 *            receives the output bits in the order of the output wires.
+	 *            Only party 2 learns the output.
+	 */
+	public LR15CircuitProtocol getCircuitProtocol(OBool[] input,
+			OBool[] output) {
+		if (input.length != getInputSize()) {
+			throw new MPCException("The circuit takes " + getInputSize()
+					+ " input bits from this party, not " + input.length);
+		}
+		if (output.length != getOutputSize()) {
+			throw new MPCException("The circuit has " + getOutputSize()
+					+ " output bits, not " + output.length);
+		}
+		return new LR15CircuitProtocol(suite, input, output);
 	}
-
-
 }
@@ -26,56 +26,281 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.lr15;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
 import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
+import dk.alexandra.fresco.suite.lr15.configuration.LR15Configuration;
+import edu.biu.protocols.yao.offlineOnline.primitives.BucketList;
+import edu.biu.protocols.yao.offlineOnline.primitives.Bundle;
+import edu.biu.protocols.yao.offlineOnline.primitives.ExecutionParameters;
+import edu.biu.protocols.yao.offlineOnline.primitives.LimitedBundle;
+import edu.biu.protocols.yao.offlineOnline.specs.OfflineProtocolP1;
+import edu.biu.protocols.yao.offlineOnline.specs.OfflineProtocolP2;
+import edu.biu.protocols.yao.offlineOnline.specs.OnlineProtocolP1;
+import edu.biu.protocols.yao.offlineOnline.specs.OnlineProtocolP2;
+import edu.biu.protocols.yao.primitives.CheatingRecoveryCircuitCreator;
+import edu.biu.protocols.yao.primitives.CircuitInput;
+import edu.biu.protocols.yao.primitives.CircuitOutput;
+import edu.biu.protocols.yao.primitives.CommunicationConfig;
+import edu.biu.protocols.yao.primitives.CryptoPrimitives;
+import edu.biu.protocols.yao.primitives.KProbeResistantMatrix;
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.fastGarbledCircuit.FastGarbledBooleanCircuit;
+import edu.biu.scapi.circuits.fastGarbledCircuit.ScNativeGarbledBooleanCircuit;
+import edu.biu.scapi.circuits.fastGarbledCircuit.ScNativeGarbledBooleanCircuit.CircuitType;
+import edu.biu.scapi.comm.Party;
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionMaliciousReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionMaliciousSender;
 
 
 /**
- * A protocol suite based on Yao's garbled circuit approach.
- * 
- * This implementation uses the Yao stuff in SCAPI.
- * 
- * No streaming (as streaming is not supported by SCAPI yao).
- * 
- * This is an example of a suite with evaluational dependence (?).
- * 
- * We simply build the SCAPI circuit data structure (BooleanCircuit) in its entirety
- * in memory during FRESCO eval.
- * 
- * TODO: Perhaps garbling is done during FRESCO eval?
+ * A protocol suite for two parties evaluating a fixed boolean circuit with
+ * the batched cut-and-choose garbled circuits of Lindell and Riva (CCS 2015),
+ * secure against malicious adversaries. Party 1 garbles and party 2
+ * evaluates and learns the output.
  * 
- * Then, at finishedEval() we launch the SCAPI protocol.
+ * This implementation uses the offline/online Yao code of SCAPI, which
+ * needs the SCAPI native libraries for garbling and for the malicious OT
+ * extension. SCAPI talks to the other party on its own channels, given by
+ * the SCAPI communication configuration of each party, rather than on the
+ * FRESCO network.
  * 
+ * The offline phase garbles, commits to and checks the circuits for a batch
+ * of executions of the circuit at once, and does the OTs for the inputs of
+ * party 2. It is run when the suite is initialised, and again whenever the
+ * executions of the batch are used up. An execution then only takes a
+ * constant number of rounds, independent of the depth of the circuit. If
+ * party 1 cheats, the cheating recovery circuit gives party 2 the input of
+ * party 1, and so still the correct output.
  * 
+ * The circuit is evaluated by {@link LR15CircuitProtocol}. Executions are
+ * used in the order the protocols are evaluated, one at a time, so both
+ * parties must evaluate them in the same order.
  */
 public class LR15ProtocolSuite implements ProtocolSuite {
 
+	public static final int GARBLER = 1;
+	public static final int EVALUATOR = 2;
+
+	/**
+	 * Guards the creation of cheating recovery circuit files, which SCAPI
+	 * writes if they do not exist.
+	 */
+	private static final Object CR_CIRCUIT_LOCK = new Object();
+
+	private int myId;
+	private BooleanCircuit mainCircuit;
+	private int[] inputLabels;
+	private CryptoPrimitives primitives;
+	private CommunicationConfig commConfig;
+	private ExecutionParameters mainExecution;
+	private ExecutionParameters crExecution;
+	private OTExtensionMaliciousSender otSender;
+	private OTExtensionMaliciousReceiver otReceiver;
+
+	// The current batch of the offline phase. Party 1 holds full bundles
+	// and party 2 limited ones, along with the probe resistant matrices.
+	private BucketList<Bundle> mainBuckets;
+	private BucketList<Bundle> crBuckets;
+	private BucketList<LimitedBundle> mainLimitedBuckets;
+	private BucketList<LimitedBundle> crLimitedBuckets;
+	private KProbeResistantMatrix mainMatrix;
+	private KProbeResistantMatrix crMatrix;
+	private int nextExecution;
+
 	@Override
 	public void init(ResourcePool resourcePool, ProtocolSuiteConfiguration conf) {
-		// TODO Auto-generated method stub
-		
+		if (resourcePool.getNoOfParties() != 2) {
+			throw new MPCException("The LR15 suite is for exactly two parties, not "
+					+ resourcePool.getNoOfParties());
+		}
+		this.myId = resourcePool.getMyId();
+		LR15Configuration lr15Conf = (LR15Configuration) conf;
+		String circuitFile = lr15Conf.getCircuitFile();
+		int threads = lr15Conf.getNumberOfThreads();
+		try {
+			this.mainCircuit = new BooleanCircuit(new File(circuitFile));
+			this.inputLabels = toArray(mainCircuit.getInputWireIndices(myId));
+			int garblerInputs = mainCircuit.getNumberOfInputs(GARBLER);
+			String crCircuitFile = lr15Conf.getCheatingRecoveryCircuitFile();
+			if (crCircuitFile == null) {
+				crCircuitFile = new File(System.getProperty("java.io.tmpdir"),
+						"lr15-cheating-recovery-" + garblerInputs + ".txt")
+						.getPath();
+			}
+			BooleanCircuit crCircuit;
+			synchronized (CR_CIRCUIT_LOCK) {
+				crCircuit = new CheatingRecoveryCircuitCreator(crCircuitFile,
+						garblerInputs).create();
+			}
+			FastGarbledBooleanCircuit[] mainGbc = new FastGarbledBooleanCircuit[threads];
+			FastGarbledBooleanCircuit[] crGbc = new FastGarbledBooleanCircuit[threads];
+			for (int i = 0; i < threads; i++) {
+				mainGbc[i] = new ScNativeGarbledBooleanCircuit(circuitFile,
+						CircuitType.FREE_XOR_HALF_GATES, false);
+				crGbc[i] = new ScNativeGarbledBooleanCircuit(crCircuitFile,
+						CircuitType.FREE_XOR_HALF_GATES, true);
+			}
+			this.mainExecution = new ExecutionParameters(mainCircuit, mainGbc,
+					lr15Conf.getNumberOfExecutions(),
+					lr15Conf.getStatisticalParameter(),
+					lr15Conf.getBucketSize(),
+					lr15Conf.getEvaluationProbability());
+			this.crExecution = new ExecutionParameters(crCircuit, crGbc,
+					lr15Conf.getNumberOfExecutions(),
+					lr15Conf.getStatisticalParameter(),
+					lr15Conf.getCheatingRecoveryBucketSize(),
+					lr15Conf.getCheatingRecoveryEvaluationProbability());
+
+			this.primitives = CryptoPrimitives.defaultPrimitives(threads);
+			this.commConfig = new CommunicationConfig(new File(
+					lr15Conf.getCommunicationConfigPath(), "Parties"
+							+ (myId - 1) + ".properties").getPath());
+			commConfig.connectToOtherParty(1 + primitives.getNumOfThreads());
+			Party otServer = commConfig.maliciousOtServer();
+			String otAddress = otServer.getIpAddress().getHostAddress();
+			int numOts = mainCircuit.getNumberOfInputs(EVALUATOR);
+			if (myId == GARBLER) {
+				this.otSender = new OTExtensionMaliciousSender(otAddress,
+						otServer.getPort(), numOts);
+			} else {
+				this.otReceiver = new OTExtensionMaliciousReceiver(otAddress,
+						otServer.getPort(), numOts);
+			}
+		} catch (IOException | CircuitFileFormatException
+				| NoSuchPartyException e) {
+			throw new MPCException("Could not initialise the LR15 suite", e);
+		}
+		runOfflinePhase();
+	}
+
+	private static int[] toArray(ArrayList<Integer> list) {
+		int[] res = new int[list.size()];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = list.get(i);
+		}
+		return res;
+	}
+
+	/**
+	 * Runs the offline phase for the next batch of executions.
+	 */
+	private void runOfflinePhase() {
+		Reporter.fine("LR15 offline phase for "
+				+ mainExecution.numberOfExecutions() + " executions of "
+				+ mainExecution.numCircuits() + " circuits");
+		if (myId == GARBLER) {
+			OfflineProtocolP1 offline = new OfflineProtocolP1(mainExecution,
+					crExecution, primitives, commConfig, otSender);
+			offline.run();
+			this.mainBuckets = offline.getMainBuckets();
+			this.crBuckets = offline.getCheatingRecoveryBuckets();
+			if (mainBuckets == null || crBuckets == null) {
+				throw new MPCException("The LR15 offline phase failed");
+			}
+		} else {
+			OfflineProtocolP2 offline = new OfflineProtocolP2(mainExecution,
+					crExecution, primitives, commConfig, otReceiver, false);
+			offline.run();
+			this.mainLimitedBuckets = offline.getMainBuckets();
+			this.crLimitedBuckets = offline.getCheatingRecoveryBuckets();
+			this.mainMatrix = offline.getMainProbeResistantMatrix();
+			this.crMatrix = offline.getCheatingRecoveryProbeResistantMatrix();
+			if (mainLimitedBuckets == null || crLimitedBuckets == null) {
+				throw new MPCException("The LR15 offline phase failed");
+			}
+		}
+		this.nextExecution = 0;
+	}
+
+	/**
+	 * @return The number of input bits of this party to the circuit.
+	 */
+	public int getInputSize() {
+		return inputLabels.length;
+	}
+
+	/**
+	 * @return The number of output bits of the circuit.
+	 */
+	public int getOutputSize() {
+		return mainCircuit.getOutputWireIndices().length;
+	}
+
+	/**
+	 * Evaluates the circuit once, using the next execution prepared by the
+	 * offline phase.
+	 * 
+	 * @param input
+	 *            the input bits of this party, one per byte
+	 * @return the output bits, one per byte, for party 2, and null for
+	 *         party 1, who learns nothing
+	 */
+	public synchronized byte[] evaluate(byte[] input) {
+		if (input.length != inputLabels.length) {
+			throw new MPCException("Party " + myId + " must give "
+					+ inputLabels.length + " input bits, not " + input.length);
+		}
+		if (nextExecution == mainExecution.numberOfExecutions()) {
+			runOfflinePhase();
+		}
+		int execution = nextExecution++;
+		CircuitInput circuitInput = new CircuitInput(input, inputLabels);
+		if (myId == GARBLER) {
+			OnlineProtocolP1 online = new OnlineProtocolP1(mainExecution,
+					crExecution, primitives, commConfig,
+					mainBuckets.getBucket(execution),
+					crBuckets.getBucket(execution));
+			online.start(circuitInput);
+			online.run();
+			return null;
+		} else {
+			OnlineProtocolP2 online = new OnlineProtocolP2(mainExecution,
+					crExecution, primitives, commConfig,
+					mainLimitedBuckets.getBucket(execution),
+					crLimitedBuckets.getBucket(execution), mainMatrix,
+					crMatrix);
+			online.start(circuitInput);
+			online.run();
+			CircuitOutput output = (CircuitOutput) online.getOutput();
+			if (output == null) {
+				throw new MPCException("Execution " + execution
+						+ " of the LR15 online phase gave no output");
+			}
+			return output.getOutput();
+		}
 	}
 
 	@Override
 	public void synchronize(int gatesEvaluated) throws MPCException {
-		// TODO Auto-generated method stub
-		
+		// Executions are synchronous, so there is nothing to wait for.
 	}
 
 	@Override
 	public void finishedEval() {
-		// TODO Auto-generated method stub
-		
+		// The remaining executions of the batch are kept for the next
+		// evaluation.
 	}
 
 	@Override
 	public void destroy() {
-		// TODO Auto-generated method stub
-		
+		if (commConfig != null) {
+			commConfig.close();
+		}
+		if (otSender != null) {
+			otSender.releaseResources();
+		}
+		if (otReceiver != null) {
+			otReceiver.releaseResources();
+		}
 	}
 
-	
-
 }
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.lr15.configuration;
+
+import java.util.Properties;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
+
+/**
+ * Configuration of the LR15 suite. The number of executions, the bucket size
+ * and the evaluation probability together give the statistical security of
+ * the cut-and-choose, see Lindell and Riva (CCS 2015), and should be chosen
+ * from their analysis.
+ */
+public interface LR15Configuration extends ProtocolSuiteConfiguration {
+
+	public static final String DEFAULT_COMM_CONFIG_PATH = "properties/lr15";
+	public static final int DEFAULT_EXECUTIONS = 32;
+	public static final int DEFAULT_STATISTICAL_PARAMETER = 40;
+	public static final int DEFAULT_BUCKET_SIZE = 7;
+	public static final double DEFAULT_EVALUATION_PROBABILITY = 0.62;
+	public static final int DEFAULT_CR_BUCKET_SIZE = 20;
+	public static final double DEFAULT_CR_EVALUATION_PROBABILITY = 0.71;
+	public static final int DEFAULT_THREADS = 4;
+
+	/**
+	 * @return The file of the circuit to evaluate, in the SCAPI circuit
+	 *         format. Party 1 gives the inputs of party 1 of the circuit and
+	 *         party 2 those of party 2. Only party 2 learns the output.
+	 */
+	public String getCircuitFile();
+
+	/**
+	 * @return The file of the cheating recovery circuit, which lets party 2
+	 *         learn the input of party 1 if party 1 cheats. SCAPI creates it
+	 *         if it does not exist. Defaults to null, in which case a file in
+	 *         the temporary directory is used.
+	 */
+	default String getCheatingRecoveryCircuitFile() {
+		return null;
+	}
+
+	/**
+	 * @return The directory holding the SCAPI communication configuration
+	 *         of each party, Parties0.properties for party 1 and
+	 *         Parties1.properties for party 2. These give the addresses used
+	 *         by the SCAPI channels and the malicious OT extension.
+	 */
+	default String getCommunicationConfigPath() {
+		return DEFAULT_COMM_CONFIG_PATH;
+	}
+
+	/**
+	 * @return The number of evaluations of the circuit prepared in one batch
+	 *         of the offline phase. A new batch is prepared when they are
+	 *         used up.
+	 */
+	default int getNumberOfExecutions() {
+		return DEFAULT_EXECUTIONS;
+	}
+
+	/**
+	 * @return The statistical security parameter.
+	 */
+	default int getStatisticalParameter() {
+		return DEFAULT_STATISTICAL_PARAMETER;
+	}
+
+	/**
+	 * @return The number of garbled circuits evaluated in each execution.
+	 */
+	default int getBucketSize() {
+		return DEFAULT_BUCKET_SIZE;
+	}
+
+	/**
+	 * @return The probability with which a garbled circuit is evaluated
+	 *         rather than checked in the cut-and-choose.
+	 */
+	default double getEvaluationProbability() {
+		return DEFAULT_EVALUATION_PROBABILITY;
+	}
+
+	/**
+	 * @return As {@link #getBucketSize()}, for the cheating recovery circuit.
+	 */
+	default int getCheatingRecoveryBucketSize() {
+		return DEFAULT_CR_BUCKET_SIZE;
+	}
+
+	/**
+	 * @return As {@link #getEvaluationProbability()}, for the cheating
+	 *         recovery circuit.
+	 */
+	default double getCheatingRecoveryEvaluationProbability() {
+		return DEFAULT_CR_EVALUATION_PROBABILITY;
+	}
+
+	/**
+	 * @return The number of threads used to garble and check circuits.
+	 */
+	default int getNumberOfThreads() {
+		return DEFAULT_THREADS;
+	}
+
+	public static LR15Configuration fromCmdArgs(SCEConfiguration sceConf,
+			String[] args) throws ParseException {
+		Options options = new Options();
+
+		options.addOption(Option.builder("D")
+				.desc("The circuit to evaluate, in the SCAPI circuit format.")
+				.longOpt("lr15.circuit")
+				.required(true)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The cheating recovery circuit. Created if it does not exist.")
+				.longOpt("lr15.crCircuit")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The directory of the SCAPI communication configurations. Defaults to "
+						+ DEFAULT_COMM_CONFIG_PATH + ".")
+				.longOpt("lr15.commConfigPath")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of executions prepared in one offline batch. Defaults to "
+						+ DEFAULT_EXECUTIONS + ".")
+				.longOpt("lr15.executions")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The statistical security parameter. Defaults to "
+						+ DEFAULT_STATISTICAL_PARAMETER + ".")
+				.longOpt("lr15.statisticalParameter")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of circuits evaluated per execution. Defaults to "
+						+ DEFAULT_BUCKET_SIZE + ".")
+				.longOpt("lr15.bucketSize")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The probability that a circuit is evaluated rather than checked. Defaults to "
+						+ DEFAULT_EVALUATION_PROBABILITY + ".")
+				.longOpt("lr15.evaluationProbability")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The bucket size of the cheating recovery circuit. Defaults to "
+						+ DEFAULT_CR_BUCKET_SIZE + ".")
+				.longOpt("lr15.crBucketSize")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The evaluation probability of the cheating recovery circuit. Defaults to "
+						+ DEFAULT_CR_EVALUATION_PROBABILITY + ".")
+				.longOpt("lr15.crEvaluationProbability")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of threads used to garble and check circuits. Defaults to "
+						+ DEFAULT_THREADS + ".")
+				.longOpt("lr15.threads")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = parser.parse(options, args);
+
+		Properties p = cmd.getOptionProperties("D");
+		final String circuit = p.getProperty("lr15.circuit");
+		if (circuit == null) {
+			throw new ParseException("LR15 requires you to specify -Dlr15.circuit=[file]");
+		}
+		final String crCircuit = p.getProperty("lr15.crCircuit");
+		final String commConfigPath = p.getProperty("lr15.commConfigPath",
+				DEFAULT_COMM_CONFIG_PATH);
+		try {
+			final int executions = Integer.parseInt(p.getProperty(
+					"lr15.executions", "" + DEFAULT_EXECUTIONS));
+			final int statisticalParameter = Integer.parseInt(p.getProperty(
+					"lr15.statisticalParameter", ""
+							+ DEFAULT_STATISTICAL_PARAMETER));
+			final int bucketSize = Integer.parseInt(p.getProperty(
+					"lr15.bucketSize", "" + DEFAULT_BUCKET_SIZE));
+			final double evaluationProbability = Double.parseDouble(p
+					.getProperty("lr15.evaluationProbability", ""
+							+ DEFAULT_EVALUATION_PROBABILITY));
+			final int crBucketSize = Integer.parseInt(p.getProperty(
+					"lr15.crBucketSize", "" + DEFAULT_CR_BUCKET_SIZE));
+			final double crEvaluationProbability = Double.parseDouble(p
+					.getProperty("lr15.crEvaluationProbability", ""
+							+ DEFAULT_CR_EVALUATION_PROBABILITY));
+			final int threads = Integer.parseInt(p.getProperty("lr15.threads",
+					"" + DEFAULT_THREADS));
+			if (executions < 1 || statisticalParameter < 1 || bucketSize < 1
+					|| crBucketSize < 1 || threads < 1) {
+				throw new ParseException(
+						"lr15.executions, lr15.statisticalParameter, lr15.bucketSize, lr15.crBucketSize and lr15.threads must be positive");
+			}
+			if (evaluationProbability <= 0 || evaluationProbability > 1
+					|| crEvaluationProbability <= 0
+					|| crEvaluationProbability > 1) {
+				throw new ParseException(
+						"lr15.evaluationProbability and lr15.crEvaluationProbability must be in (0, 1]");
+			}
+			return new LR15Configuration() {
+
+				@Override
+				public String getCircuitFile() {
+					return circuit;
+				}
+
+				@Override
+				public String getCheatingRecoveryCircuitFile() {
+					return crCircuit;
+				}
+
+				@Override
+				public String getCommunicationConfigPath() {
+					return commConfigPath;
+				}
+
+				@Override
+				public int getNumberOfExecutions() {
+					return executions;
+				}
+
+				@Override
+				public int getStatisticalParameter() {
+					return statisticalParameter;
+				}
+
+				@Override
+				public int getBucketSize() {
+					return bucketSize;
+				}
+
+				@Override
+				public double getEvaluationProbability() {
+					return evaluationProbability;
+				}
+
+				@Override
+				public int getCheatingRecoveryBucketSize() {
+					return crBucketSize;
+				}
+
+				@Override
+				public double getCheatingRecoveryEvaluationProbability() {
+					return crEvaluationProbability;
+				}
+
+				@Override
+				public int getNumberOfThreads() {
+					return threads;
+				}
+			};
+		} catch (NumberFormatException e) {
+			throw new ParseException("Invalid lr15 option value: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.lr15.configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.configuration.ConfigurationException;
+import dk.alexandra.fresco.framework.sce.util.Util;
+
+public class LR15ConfigurationFromProperties implements LR15Configuration {
+
+	private Properties prop;
+	private final String defaultPropertiesLocation = "properties/lr15/lr15.properties";
+
+	public LR15ConfigurationFromProperties() {
+		InputStream is;
+		try {
+			is = Util.getInputStream(defaultPropertiesLocation);
+			prop = new Properties();
+			prop.load(is);
+		} catch (IOException e) {
+			throw new MPCException(
+					"Could not locate the LR15 properties file. ", e);
+		}
+	}
+
+	@Override
+	public String getCircuitFile() {
+		String circuit = prop.getProperty("circuit");
+		if (circuit == null) {
+			throw new ConfigurationException(
+					"LR15 requires the circuit to evaluate to be specified");
+		}
+		return circuit;
+	}
+
+	@Override
+	public String getCheatingRecoveryCircuitFile() {
+		return prop.getProperty("crCircuit");
+	}
+
+	@Override
+	public String getCommunicationConfigPath() {
+		return prop.getProperty("commConfigPath", DEFAULT_COMM_CONFIG_PATH);
+	}
+
+	@Override
+	public int getNumberOfExecutions() {
+		return positive("executions", DEFAULT_EXECUTIONS);
+	}
+
+	@Override
+	public int getStatisticalParameter() {
+		return positive("statisticalParameter", DEFAULT_STATISTICAL_PARAMETER);
+	}
+
+	@Override
+	public int getBucketSize() {
+		return positive("bucketSize", DEFAULT_BUCKET_SIZE);
+	}
+
+	@Override
+	public double getEvaluationProbability() {
+		return probability("evaluationProbability",
+				DEFAULT_EVALUATION_PROBABILITY);
+	}
+
+	@Override
+	public int getCheatingRecoveryBucketSize() {
+		return positive("crBucketSize", DEFAULT_CR_BUCKET_SIZE);
+	}
+
+	@Override
+	public double getCheatingRecoveryEvaluationProbability() {
+		return probability("crEvaluationProbability",
+				DEFAULT_CR_EVALUATION_PROBABILITY);
+	}
+
+	@Override
+	public int getNumberOfThreads() {
+		return positive("threads", DEFAULT_THREADS);
+	}
+
+	private int positive(String key, int defaultValue) {
+		int value = Integer.parseInt(prop.getProperty(key, "" + defaultValue));
+		if (value < 1) {
+			throw new ConfigurationException("LR15 " + key
+					+ " must be positive");
+		}
+		return value;
+	}
+
+	private double probability(String key, double defaultValue) {
+		double value = Double.parseDouble(prop.getProperty(key, ""
+				+ defaultValue));
+		if (value <= 0 || value > 1) {
+			throw new ConfigurationException("LR15 " + key
+					+ " must be in (0, 1]");
+		}
+		return value;
+	}
+}
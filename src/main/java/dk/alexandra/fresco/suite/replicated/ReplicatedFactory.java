@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.framework.value.KnownSIntProtocol;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.field.integer.AddProtocol;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.lib.field.integer.SubtractCircuit;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.math.PreprocessedNumericBitFactory;
+import dk.alexandra.fresco.lib.math.exp.ExpFromOIntFactory;
+import dk.alexandra.fresco.lib.math.exp.PreprocessedExpPipeFactory;
+import dk.alexandra.fresco.lib.math.inv.LocalInversionCircuit;
+import dk.alexandra.fresco.lib.math.inv.LocalInversionFactory;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductCircuit;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductFactory;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedAddProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedAddPublicProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedCloseIntProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedInnerProductProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedKnownSIntProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedLocalInvProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedMultProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedMultWithPublicProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedOInt;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedOpenIntProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedRandomIntProtocol;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedSInt;
+import dk.alexandra.fresco.suite.replicated.integer.ReplicatedSubtractProtocol;
+
+/**
+ * Produces the protocols of the replicated suite. Besides
+ * {@link BasicNumericFactory} it offers local inversion and exponentiation
+ * of public values, inner products and the preprocessed random bits and
+ * exponentiation pipes of the suite, so the generic protocols of the library
+ * built on these, such as comparisons, run unchanged. Inner products cost
+ * one round and one field element per party whatever their length.
+ */
+public class ReplicatedFactory implements BasicNumericFactory,
+		LocalInversionFactory, ExpFromOIntFactory, InnerProductFactory,
+		PreprocessedNumericBitFactory, PreprocessedExpPipeFactory {
+
+	private int myId;
+	private BigInteger mod;
+	private LongPrimeField field;
+	private ReplicatedRandomness randomness;
+	private ReplicatedProtocolSuite suite;
+
+	public ReplicatedFactory(int myId, ReplicatedProtocolSuite suite) {
+		this.myId = myId;
+		this.suite = suite;
+		this.mod = suite.getModulus();
+		this.field = suite.getField();
+		this.randomness = suite.getRandomness();
+	}
+
+	@Override
+	public ReplicatedSInt getSInt() {
+		return new ReplicatedSInt();
+	}
+
+	@Override
+	public ReplicatedSInt getSInt(BigInteger i) {
+		long value = field.toElement(i);
+		switch (myId) {
+		case 1:
+			return new ReplicatedSInt(new ReplicatedShare(value, 0));
+		case 3:
+			return new ReplicatedSInt(new ReplicatedShare(0, value));
+		default:
+			return new ReplicatedSInt(new ReplicatedShare(0, 0));
+		}
+	}
+
+	@Override
+	public ReplicatedSInt getSInt(int i) {
+		return this.getSInt(BigInteger.valueOf(i));
+	}
+
+	@Override
+	public KnownSIntProtocol getSInt(int i, SInt si) {
+		return this.getSInt(BigInteger.valueOf(i), si);
+	}
+
+	@Override
+	public KnownSIntProtocol getSInt(BigInteger i, SInt si) {
+		return new ReplicatedKnownSIntProtocol(si, i, field);
+	}
+
+	/**
+	 * Random values are computed locally from the correlated randomness.
+	 */
+	public ReplicatedRandomIntProtocol getRandomIntGate(SInt s) {
+		return new ReplicatedRandomIntProtocol(s, randomness,
+				randomness.nextIndex());
+	}
+
+	/**
+	 * Like the random values of {@link #getRandomIntGate(SInt)}, the value is
+	 * computed locally, so it is ready at once.
+	 */
+	@Override
+	public ReplicatedSInt getRandomSInt() {
+		return new ReplicatedSInt(randomness.randomShare(randomness
+				.nextIndex()));
+	}
+
+	@Override
+	public ReplicatedOInt getOInt() {
+		return new ReplicatedOInt();
+	}
+
+	@Override
+	public ReplicatedOInt getOInt(BigInteger i) {
+		return new ReplicatedOInt(i);
+	}
+
+	@Override
+	public OInt getRandomOInt() {
+		throw new MPCException("Not implemented yet");
+	}
+
+	@Override
+	public AddProtocol getAddCircuit(SInt a, SInt b, SInt out) {
+		return new ReplicatedAddProtocol(a, b, out, field);
+	}
+
+	@Override
+	public AddProtocol getAddCircuit(SInt input, OInt openInput, SInt out) {
+		return new ReplicatedAddPublicProtocol(openInput, input, out, false,
+				field);
+	}
+
+	@Override
+	public SubtractCircuit getSubtractCircuit(SInt a, SInt b, SInt out) {
+		return new ReplicatedSubtractProtocol(a, b, out, field);
+	}
+
+	@Override
+	public SubtractCircuit getSubtractCircuit(OInt a, SInt b, SInt out) {
+		return new ReplicatedAddPublicProtocol(a, b, out, true, field);
+	}
+
+	@Override
+	public MultProtocol getMultCircuit(SInt a, SInt b, SInt out) {
+		return new ReplicatedMultProtocol(a, b, out, randomness,
+				randomness.nextIndex(), field);
+	}
+
+	@Override
+	public MultProtocol getMultCircuit(OInt a, SInt b, SInt out) {
+		return new ReplicatedMultWithPublicProtocol(a, b, out, field);
+	}
+
+	@Override
+	public InnerProductCircuit getInnerProductCircuit(SInt[] a, SInt[] b,
+			SInt out) {
+		return new ReplicatedInnerProductProtocol(a, b, out, randomness,
+				randomness.nextIndex(), field);
+	}
+
+	@Override
+	public InnerProductCircuit getInnerProductCircuit(SInt[] a, OInt[] b,
+			SInt out) {
+		return new ReplicatedInnerProductProtocol(a, b, out, field);
+	}
+
+	@Override
+	public CloseIntProtocol getCloseCircuit(int source, OInt open, SInt closed) {
+		return new ReplicatedCloseIntProtocol(open, closed, source, field);
+	}
+
+	@Override
+	public CloseIntProtocol getCloseCircuit(BigInteger open, SInt closed,
+			int targetID) {
+		return getCloseCircuit(targetID, this.getOInt(open), closed);
+	}
+
+	@Override
+	public ProtocolProducer getCloseCircuit(BigInteger[] open, SInt[] closed,
+			int targetID) {
+		ParallelProtocolProducer par = new ParallelProtocolProducer();
+		for (int i = 0; i < closed.length; i++) {
+			OInt o = (open == null) ? null : this.getOInt(open[i]);
+			par.append(getCloseCircuit(targetID, o, closed[i]));
+		}
+		return par;
+	}
+
+	@Override
+	public OpenIntProtocol getOpenCircuit(SInt closed, OInt open) {
+		return new ReplicatedOpenIntProtocol(closed, open, field);
+	}
+
+	@Override
+	public OpenIntProtocol getOpenCircuit(int target, SInt closed, OInt open) {
+		return new ReplicatedOpenIntProtocol(target, closed, open, field);
+	}
+
+	@Override
+	public int getMaxBitLength() {
+		return suite.getMaxBitLength();
+	}
+
+	@Override
+	public SInt getSqrtOfMaxValue() {
+		BigInteger two = BigInteger.valueOf(2);
+		BigInteger max = mod.subtract(BigInteger.ONE).divide(two);
+		int bitlength = max.bitLength();
+		BigInteger approxMaxSqrt = two.pow(bitlength / 2);
+		return this.getSInt(approxMaxSqrt);
+	}
+
+	@Override
+	public LocalInversionCircuit getLocalInversionCircuit(OInt x, OInt result) {
+		return new ReplicatedLocalInvProtocol(x, result, mod);
+	}
+
+	@Override
+	public OInt[] getExpFromOInt(OInt value, int maxExp) {
+		OInt[] expPipe = new OInt[maxExp];
+		BigInteger exp = value.getValue();
+		for (int i = 0; i < maxExp; i++) {
+			expPipe[i] = new ReplicatedOInt(exp);
+			exp = exp.multiply(value.getValue()).mod(mod);
+		}
+		return expPipe;
+	}
+
+	@Override
+	public SInt getRandomSecretSharedBit() {
+		return new ReplicatedSInt(suite.nextRandomBit());
+	}
+
+	@Override
+	public SInt[] getExponentiationPipe() {
+		return getExponentiationPipe(suite.getExpPipeLength());
+	}
+
+	@Override
+	public SInt[] getExponentiationPipe(int length) {
+		ReplicatedShare[] pipe = suite.nextExpPipe(length);
+		SInt[] res = new SInt[pipe.length];
+		for (int i = 0; i < pipe.length; i++) {
+			res[i] = new ReplicatedSInt(pipe[i]);
+		}
+		return res;
+	}
+
+	public int getMyId() {
+		return this.myId;
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		return this.mod;
+	}
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+
+/**
+ * Generates the random bits and exponentiation pipes used by the comparison
+ * protocols of the library, once, when the suite is initialized. All parties
+ * generate the same amounts in the same order, so the indices of the
+ * correlated randomness agree.
+ * 
+ * A random bit is computed from a random value r by opening r^2 and
+ * computing a root s, so r / s is 1 or -1 at random, and (r / s + 1) / 2 is
+ * a random bit. An exponentiation pipe R^-1, R, ..., R^(l-1) is computed from
+ * random values R and S by opening RS, so R^-1 = S (RS)^-1, and the powers are
+ * computed by squaring and multiplying in log l rounds.
+ */
+class ReplicatedPreprocessing {
+
+	/**
+	 * The largest number of values multiplied or opened in one message.
+	 */
+	private static final int BATCH_SIZE = 10000;
+
+	private final int myId;
+	private final Network network;
+	private final String channel;
+	private final LongPrimeField field;
+	private final ReplicatedRandomness randomness;
+
+	ReplicatedPreprocessing(int myId, Network network, String channel,
+			LongPrimeField field, ReplicatedRandomness randomness) {
+		this.myId = myId;
+		this.network = network;
+		this.channel = channel;
+		this.field = field;
+		this.randomness = randomness;
+	}
+
+	/**
+	 * Returns the given amount of shares of random bits.
+	 */
+	List<ReplicatedShare> generateBits(int amount) {
+		List<ReplicatedShare> bits = new ArrayList<ReplicatedShare>(amount);
+		long half = field.invert(2);
+		while (bits.size() < amount) {
+			int count = Math.min(BATCH_SIZE, amount - bits.size());
+			ReplicatedShare[] r = random(count);
+			long[] squares = open(multiply(r, r));
+			for (int i = 0; i < count; i++) {
+				// A zero is drawn with negligible probability, and is simply
+				// skipped by all parties.
+				if (squares[i] != 0) {
+					long c = field.multiply(field.invert(field.sqrt(squares[i])),
+							half);
+					bits.add(ReplicatedProtocol.addPublic(
+							multiply(r[i], c), half, myId, field));
+				}
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Returns the given amount of exponentiation pipes R^-1, R, ...,
+	 * R^(length-1).
+	 */
+	List<ReplicatedShare[]> generateExpPipes(int amount, int length) {
+		if (length < 2) {
+			throw new MPCException("Exponentiation pipes must have length at least 2, not "
+					+ length);
+		}
+		List<ReplicatedShare[]> pipes = new ArrayList<ReplicatedShare[]>(amount);
+		int perBatch = Math.max(1, BATCH_SIZE / length);
+		while (pipes.size() < amount) {
+			int count = Math.min(perBatch, amount - pipes.size());
+			ReplicatedShare[] r = random(count);
+			ReplicatedShare[] s = random(count);
+			long[] rs = open(multiply(r, s));
+			List<ReplicatedShare[]> batch = new ArrayList<ReplicatedShare[]>(count);
+			for (int i = 0; i < count; i++) {
+				if (rs[i] != 0) {
+					ReplicatedShare[] pipe = new ReplicatedShare[length];
+					pipe[0] = multiply(s[i], field.invert(rs[i]));
+					pipe[1] = r[i];
+					batch.add(pipe);
+				}
+			}
+			// pipe[j] = pipe[known] * pipe[j - known] for the powers j not
+			// yet known, doubling the known powers every round.
+			for (int known = 1; known < length - 1; known *= 2) {
+				int last = Math.min(2 * known, length - 1);
+				int width = last - known;
+				ReplicatedShare[] left = new ReplicatedShare[batch.size() * width];
+				ReplicatedShare[] right = new ReplicatedShare[left.length];
+				for (int i = 0; i < batch.size(); i++) {
+					ReplicatedShare[] pipe = batch.get(i);
+					for (int j = 0; j < width; j++) {
+						left[i * width + j] = pipe[known];
+						right[i * width + j] = pipe[j + 1];
+					}
+				}
+				ReplicatedShare[] products = multiply(left, right);
+				for (int i = 0; i < batch.size(); i++) {
+					System.arraycopy(products, i * width, batch.get(i),
+							known + 1, width);
+				}
+			}
+			pipes.addAll(batch);
+		}
+		return pipes;
+	}
+
+	private ReplicatedShare[] random(int count) {
+		ReplicatedShare[] res = new ReplicatedShare[count];
+		for (int i = 0; i < count; i++) {
+			res[i] = randomness.randomShare(randomness.nextIndex());
+		}
+		return res;
+	}
+
+	private ReplicatedShare multiply(ReplicatedShare a, long c) {
+		return new ReplicatedShare(field.multiply(a.getFirst(), c),
+				field.multiply(a.getSecond(), c));
+	}
+
+	/**
+	 * Multiplies the shares pairwise as in the multiplication protocol.
+	 */
+	private ReplicatedShare[] multiply(ReplicatedShare[] a, ReplicatedShare[] b) {
+		long[] terms = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			long cross = field.add(
+					field.multiply(a[i].getFirst(), b[i].getSecond()),
+					field.multiply(a[i].getSecond(), b[i].getFirst()));
+			terms[i] = field.add(randomness.zeroShare(randomness.nextIndex()),
+					field.add(field.multiply(a[i].getFirst(), b[i].getFirst()),
+							cross));
+		}
+		long[] nextTerms = exchange(terms, ReplicatedProtocol.previous(myId),
+				ReplicatedProtocol.next(myId));
+		ReplicatedShare[] res = new ReplicatedShare[a.length];
+		for (int i = 0; i < a.length; i++) {
+			res[i] = new ReplicatedShare(terms[i], nextTerms[i]);
+		}
+		return res;
+	}
+
+	/**
+	 * Opens the shares to all parties as in the open protocol.
+	 */
+	private long[] open(ReplicatedShare[] shares) {
+		long[] firsts = new long[shares.length];
+		for (int i = 0; i < shares.length; i++) {
+			firsts[i] = shares[i].getFirst();
+		}
+		long[] missing = exchange(firsts, ReplicatedProtocol.next(myId),
+				ReplicatedProtocol.previous(myId));
+		long[] values = new long[shares.length];
+		for (int i = 0; i < shares.length; i++) {
+			values[i] = field.add(field.add(shares[i].getFirst(),
+					shares[i].getSecond()), missing[i]);
+		}
+		return values;
+	}
+
+	private long[] exchange(long[] values, int to, int from) {
+		try {
+			network.send(channel, to, values);
+			long[] received = network.receive(channel, from);
+			if (received.length != values.length) {
+				throw new MPCException("Party " + from + " sent "
+						+ received.length + " values, expected "
+						+ values.length);
+			}
+			return received;
+		} catch (IOException e) {
+			throw new MPCException("Could not generate the replicated preprocessing", e);
+		}
+	}
+}
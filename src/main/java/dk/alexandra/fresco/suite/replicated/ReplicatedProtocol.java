@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.lib.helper.HalfCookedNativeProtocol;
+
+public abstract class ReplicatedProtocol extends HalfCookedNativeProtocol {
+
+	/**
+	 * The party after the given one, counting modulo 3.
+	 */
+	protected static int next(int partyId) {
+		return partyId % 3 + 1;
+	}
+
+	/**
+	 * The party before the given one, counting modulo 3.
+	 */
+	protected static int previous(int partyId) {
+		return (partyId + 1) % 3 + 1;
+	}
+
+	/**
+	 * Adds a public value to a share by adding it to the term x_1, which is
+	 * held by party 1 as its first term and by party 3 as its second.
+	 */
+	protected static ReplicatedShare addPublic(ReplicatedShare share,
+			long value, int partyId, LongPrimeField field) {
+		switch (partyId) {
+		case 1:
+			return new ReplicatedShare(field.add(share.getFirst(), value),
+					share.getSecond());
+		case 3:
+			return new ReplicatedShare(share.getFirst(), field.add(
+					share.getSecond(), value));
+		default:
+			return share;
+		}
+	}
+}
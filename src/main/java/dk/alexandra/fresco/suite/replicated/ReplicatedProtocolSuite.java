@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import dk.alexandra.fresco.suite.replicated.configuration.ReplicatedConfiguration;
+
+/**
+ * The replicated secret sharing suite of one party: 3 parties, at most one
+ * of them semi-honestly corrupted, computing in a prime field whose elements
+ * fit in a long. Every value is a sum of three terms of which each party
+ * holds two, see {@link ReplicatedShare}. Addition is local, and
+ * multiplication costs every party one field element sent to one other
+ * party, against a resharing to all parties in BGW.
+ * 
+ * The random bits and exponentiation pipes needed by comparisons are
+ * generated when the suite is initialized, in the amounts given by the
+ * {@link ReplicatedConfiguration}, see {@link ReplicatedPreprocessing}.
+ */
+public class ReplicatedProtocolSuite implements ProtocolSuite {
+
+	private BigInteger modulus;
+	private int maxBitLength;
+	private int expPipeLength;
+	private LongPrimeField field;
+	private ReplicatedRandomness randomness;
+	private Queue<ReplicatedShare> bits = new ConcurrentLinkedQueue<ReplicatedShare>();
+	private Queue<ReplicatedShare[]> expPipes = new ConcurrentLinkedQueue<ReplicatedShare[]>();
+
+	@Override
+	public void init(ResourcePool resourcePool, ProtocolSuiteConfiguration conf) {
+		ReplicatedConfiguration sconf = (ReplicatedConfiguration) conf;
+		if (resourcePool.getNoOfParties() != 3) {
+			throw new MPCException(
+					"Replicated secret sharing requires exactly 3 parties, not "
+							+ resourcePool.getNoOfParties());
+		}
+		this.modulus = sconf.getModulus();
+		this.field = LongPrimeField.forModulus(modulus);
+		if (field == null) {
+			throw new MPCException("The replicated suite requires a modulus of at most "
+					+ LongPrimeField.MAX_BIT_LENGTH + " bits");
+		}
+		this.maxBitLength = sconf.getMaxBitLength();
+		this.randomness = agreeOnKeys(resourcePool);
+		ReplicatedPreprocessing preprocessing = new ReplicatedPreprocessing(
+				resourcePool.getMyId(), resourcePool.getNetwork(), "0", field,
+				randomness);
+		if (sconf.getPreprocessedBits() > 0) {
+			this.bits.addAll(preprocessing.generateBits(sconf
+					.getPreprocessedBits()));
+		}
+		if (sconf.getPreprocessedExpPipes() > 0) {
+			this.expPipeLength = sconf.getExpPipeLength();
+			this.expPipes.addAll(preprocessing.generateExpPipes(
+					sconf.getPreprocessedExpPipes(), expPipeLength));
+		}
+	}
+
+	/**
+	 * Samples the key of this party and sends it to the previous party,
+	 * which receives the key of the next party.
+	 */
+	private ReplicatedRandomness agreeOnKeys(ResourcePool resourcePool) {
+		int myId = resourcePool.getMyId();
+		Network network = resourcePool.getNetwork();
+		byte[] myKey = new byte[16];
+		resourcePool.getSecureRandom().nextBytes(myKey);
+		try {
+			network.send("0", (myId + 1) % 3 + 1, myKey);
+			byte[] nextKey = network.receive("0", myId % 3 + 1);
+			return new ReplicatedRandomness(myKey, nextKey, field);
+		} catch (IOException e) {
+			throw new MPCException("Could not agree on the replicated keys.", e);
+		}
+	}
+
+	@Override
+	public void synchronize(int gatesEvaluated) throws MPCException {
+		//Do nothing
+	}
+
+	@Override
+	public void finishedEval() {
+		//Do nothing
+	}
+
+	@Override
+	public void destroy() {
+		this.bits.clear();
+		this.expPipes.clear();
+	}
+
+	public BigInteger getModulus() {
+		return this.modulus;
+	}
+
+	/**
+	 * Returns the field arithmetic, available once the suite has been
+	 * initialized.
+	 */
+	public LongPrimeField getField() {
+		return this.field;
+	}
+
+	public int getMaxBitLength() {
+		return this.maxBitLength;
+	}
+
+	/**
+	 * Returns the next preprocessed random bit.
+	 */
+	public ReplicatedShare nextRandomBit() {
+		ReplicatedShare bit = this.bits.poll();
+		if (bit == null) {
+			throw new MPCException(
+					"Out of preprocessed random bits, see ReplicatedConfiguration.getPreprocessedBits()");
+		}
+		return bit;
+	}
+
+	/**
+	 * Returns the length of the preprocessed exponentiation pipes.
+	 */
+	public int getExpPipeLength() {
+		return this.expPipeLength;
+	}
+
+	/**
+	 * Returns the first elements R^-1, R, ..., R^(length-1) of the next
+	 * preprocessed exponentiation pipe.
+	 */
+	public ReplicatedShare[] nextExpPipe(int length) {
+		if (length > this.expPipeLength) {
+			throw new MPCException("An exponentiation pipe of length "
+					+ length + " is needed, but they have length "
+					+ this.expPipeLength
+					+ ", see ReplicatedConfiguration.getExpPipeLength()");
+		}
+		ReplicatedShare[] pipe = this.expPipes.poll();
+		if (pipe == null) {
+			throw new MPCException(
+					"Out of preprocessed exponentiation pipes, see ReplicatedConfiguration.getPreprocessedExpPipes()");
+		}
+		return Arrays.copyOf(pipe, length);
+	}
+
+	/**
+	 * Returns the correlated randomness, available once the suite has been
+	 * initialized.
+	 */
+	public ReplicatedRandomness getRandomness() {
+		return this.randomness;
+	}
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+
+/**
+ * Correlated randomness of one party of the replicated suite (Araki et al.,
+ * CCS 2016). Every party i samples a key k_i and gives it to party i - 1, so
+ * party i knows k_i and k_(i+1). With F a PRF into the field, party i can
+ * then compute locally
+ * <ul>
+ * <li>its term F(k_i, j) - F(k_(i+1), j) of a sharing of zero, which masks
+ * the products sent in a multiplication, and</li>
+ * <li>its share (F(k_i, j), F(k_(i+1), j)) of a random value.</li>
+ * </ul>
+ *
+ * The index j of a value is reserved when the protocol using it is built, in
+ * the same order by all parties, and the value is computed when the protocol
+ * is evaluated, possibly by another thread.
+ */
+public class ReplicatedRandomness {
+
+	private static final long RANDOM_DOMAIN = 1L << 62;
+
+	private final byte[] myKey;
+	private final byte[] nextKey;
+	private final LongPrimeField field;
+	private final long mask;
+	private final AtomicLong nextIndex = new AtomicLong();
+
+	private final ThreadLocal<Cipher[]> ciphers = new ThreadLocal<Cipher[]>() {
+		@Override
+		protected Cipher[] initialValue() {
+			return new Cipher[] { cipher(myKey), cipher(nextKey) };
+		}
+	};
+
+	/**
+	 * @param myKey
+	 *            the key k_i sampled by this party.
+	 * @param nextKey
+	 *            the key k_(i+1) received from the next party.
+	 * @param field
+	 *            the field to produce values in.
+	 */
+	public ReplicatedRandomness(byte[] myKey, byte[] nextKey, LongPrimeField field) {
+		this.myKey = myKey.clone();
+		this.nextKey = nextKey.clone();
+		this.field = field;
+		this.mask = Long.highestOneBit(field.getModulus()) * 2 - 1;
+	}
+
+	private static Cipher cipher(byte[] key) {
+		try {
+			Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+			cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+			return cipher;
+		} catch (GeneralSecurityException e) {
+			throw new MPCException("AES is needed for replicated sharing", e);
+		}
+	}
+
+	/**
+	 * Reserves the index of the next correlated value.
+	 */
+	public long nextIndex() {
+		return nextIndex.getAndIncrement();
+	}
+
+	/**
+	 * Returns this party's term of the sharing of zero with the given index.
+	 */
+	public long zeroShare(long index) {
+		Cipher[] c = ciphers.get();
+		return field.subtract(prf(c[0], index), prf(c[1], index));
+	}
+
+	/**
+	 * Returns this party's share of the random value with the given index.
+	 */
+	public ReplicatedShare randomShare(long index) {
+		Cipher[] c = ciphers.get();
+		return new ReplicatedShare(prf(c[0], index | RANDOM_DOMAIN), prf(
+				c[1], index | RANDOM_DOMAIN));
+	}
+
+	/**
+	 * Encrypts (index, counter) for increasing counters until the low bits
+	 * of a block are a field element.
+	 */
+	private long prf(Cipher cipher, long index) {
+		ByteBuffer in = ByteBuffer.allocate(16);
+		byte[] out = new byte[16];
+		for (long counter = 0;; counter++) {
+			in.putLong(0, index).putLong(8, counter);
+			try {
+				cipher.doFinal(in.array(), 0, 16, out);
+			} catch (GeneralSecurityException e) {
+				throw new MPCException("Could not evaluate the PRF", e);
+			}
+			ByteBuffer blocks = ByteBuffer.wrap(out);
+			for (int i = 0; i < 2; i++) {
+				long r = blocks.getLong() & mask;
+				if (r < field.getModulus()) {
+					return r;
+				}
+			}
+		}
+	}
+}
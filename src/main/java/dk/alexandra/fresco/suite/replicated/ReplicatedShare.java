@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * The share of one party of a value x = x_1 + x_2 + x_3 shared by 3-party
+ * replicated secret sharing. Party i holds the two terms x_i and x_(i+1),
+ * counting the parties modulo 3, so any two parties together know all three
+ * terms while a single party knows nothing about x.
+ */
+public class ReplicatedShare implements Serializable {
+
+	private static final long serialVersionUID = -4193507465312837514L;
+
+	private final long first;
+	private final long second;
+
+	/**
+	 * @param first
+	 *            the term x_i of party i.
+	 * @param second
+	 *            the term x_(i+1) of party i.
+	 */
+	public ReplicatedShare(long first, long second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	public ReplicatedShare(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		this.first = buffer.getLong();
+		this.second = buffer.getLong();
+	}
+
+	public long getFirst() {
+		return first;
+	}
+
+	public long getSecond() {
+		return second;
+	}
+
+	public byte[] toByteArray() {
+		return ByteBuffer.allocate(16).putLong(first).putLong(second).array();
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicatedShare(" + first + "," + second + ")";
+	}
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated.configuration;
+
+import java.math.BigInteger;
+import java.util.Properties;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+
+public interface ReplicatedConfiguration extends ProtocolSuiteConfiguration {
+
+	/**
+	 * The Mersenne prime 2^61 - 1.
+	 */
+	public static final BigInteger DEFAULT_MODULUS = BigInteger.ONE.shiftLeft(
+			61).subtract(BigInteger.ONE);
+
+	/**
+	 * @return The prime modulus of the field, of at most 61 bits. Defaults
+	 *         to 2^61 - 1, which is reduced with shifts and adds.
+	 */
+	default BigInteger getModulus() {
+		return DEFAULT_MODULUS;
+	}
+
+	/**
+	 * @return The largest bit length of the values compared. Comparisons
+	 *         mask a value with l + k random bits for a statistical security
+	 *         parameter k, so 2l + k must be less than the bit length of the
+	 *         modulus. Defaults to the bit length of the modulus, which
+	 *         leaves no room for comparisons.
+	 */
+	default int getMaxBitLength() {
+		return getModulus().bitLength();
+	}
+
+	/**
+	 * @return The number of random bits generated when the suite is
+	 *         initialized, as needed by comparisons. Defaults to none.
+	 */
+	default int getPreprocessedBits() {
+		return 0;
+	}
+
+	/**
+	 * @return The number of exponentiation pipes generated when the suite is
+	 *         initialized, as needed by equality tests. Defaults to none.
+	 */
+	default int getPreprocessedExpPipes() {
+		return 0;
+	}
+
+	/**
+	 * @return The length of the exponentiation pipes generated, i.e. the
+	 *         longest pipe that can be used.
+	 */
+	default int getExpPipeLength() {
+		return 2 * getMaxBitLength() + 2;
+	}
+
+	public static ReplicatedConfiguration fromCmdArgs(SCEConfiguration sceConf,
+			String[] args) throws ParseException {
+		Options options = new Options();
+
+		options.addOption(Option.builder("D")
+				.desc("The prime modulus of the field, of at most 61 bits. Defaults to 2^61 - 1.")
+				.longOpt("replicated.modulus")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The largest bit length of the values compared. Defaults to the bit length of the modulus.")
+				.longOpt("replicated.maxBitLength")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of random bits to generate before the computation. Defaults to 0.")
+				.longOpt("replicated.preprocessedBits")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("The number of exponentiation pipes to generate before the computation. Defaults to 0.")
+				.longOpt("replicated.preprocessedExpPipes")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = parser.parse(options, args);
+
+		Properties p = cmd.getOptionProperties("D");
+		if (sceConf.getParties().size() != 3) {
+			throw new ParseException("The replicated suite requires exactly 3 parties");
+		}
+		try {
+			final BigInteger modulus = new BigInteger(p.getProperty(
+					"replicated.modulus", DEFAULT_MODULUS.toString()));
+			if (!modulus.isProbablePrime(40)) {
+				throw new ParseException("replicated.modulus must be a prime number");
+			}
+			if (modulus.bitLength() > LongPrimeField.MAX_BIT_LENGTH) {
+				throw new ParseException("replicated.modulus must have at most "
+						+ LongPrimeField.MAX_BIT_LENGTH + " bits");
+			}
+			final int maxBitLength = Integer.parseInt(p.getProperty(
+					"replicated.maxBitLength",
+					Integer.toString(modulus.bitLength())));
+			if (maxBitLength < 1 || maxBitLength > modulus.bitLength()) {
+				throw new ParseException("replicated.maxBitLength must be between 1 and the bit length of the modulus");
+			}
+			final int bits = Integer.parseInt(p.getProperty(
+					"replicated.preprocessedBits", "0"));
+			final int expPipes = Integer.parseInt(p.getProperty(
+					"replicated.preprocessedExpPipes", "0"));
+			if (bits < 0 || expPipes < 0) {
+				throw new ParseException("The amounts of preprocessed values must not be negative");
+			}
+			return new ReplicatedConfiguration() {
+
+				@Override
+				public BigInteger getModulus() {
+					return modulus;
+				}
+
+				@Override
+				public int getMaxBitLength() {
+					return maxBitLength;
+				}
+
+				@Override
+				public int getPreprocessedBits() {
+					return bits;
+				}
+
+				@Override
+				public int getPreprocessedExpPipes() {
+					return expPipes;
+				}
+			};
+		} catch (NumberFormatException e) {
+			throw new ParseException("Invalid replicated option value: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated.integer;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.AddProtocol;
+import dk.alexandra.fresco.lib.field.integer.SubtractCircuit;
+import dk.alexandra.fresco.suite.replicated.ReplicatedProtocol;
+import dk.alexandra.fresco.suite.replicated.ReplicatedShare;
+
+/**
+ * Computes c + x or c - x for a public value c and a secret value x.
+ */
+public class ReplicatedAddPublicProtocol extends ReplicatedProtocol implements
+		AddProtocol, SubtractCircuit {
+
+	private OInt publicValue;
+	private ReplicatedSInt in;
+	private ReplicatedSInt out;
+	private boolean negate;
+	private LongPrimeField field;
+
+	/**
+	 * @param negate
+	 *            whether to compute c - x rather than c + x.
+	 */
+	public ReplicatedAddPublicProtocol(OInt publicValue, SInt in, SInt out,
+			boolean negate, LongPrimeField field) {
+		this.publicValue = publicValue;
+		this.in = (ReplicatedSInt) in;
+		this.out = (ReplicatedSInt) out;
+		this.negate = negate;
+		this.field = field;
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicatedAddPublicGate(" + publicValue + "," + in + ","
+				+ out + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { publicValue, in };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		ReplicatedShare x = in.value;
+		if (negate) {
+			x = new ReplicatedShare(field.subtract(0, x.getFirst()),
+					field.subtract(0, x.getSecond()));
+		}
+		out.value = addPublic(x, field.toElement(publicValue.getValue()),
+				resourcePool.getMyId(), field);
+		return EvaluationStatus.IS_DONE;
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated.integer;
+
+import java.security.SecureRandom;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
+import dk.alexandra.fresco.suite.replicated.ReplicatedProtocol;
+import dk.alexandra.fresco.suite.replicated.ReplicatedShare;
+
+/**
+ * The inputter splits the input into three random terms and sends each other
+ * party the two terms it holds.
+ */
+public class ReplicatedCloseIntProtocol extends ReplicatedProtocol implements
+		CloseIntProtocol {
+
+	private OInt input;
+	private ReplicatedSInt output;
+	private int inputter;
+	private LongPrimeField field;
+
+	public ReplicatedCloseIntProtocol(OInt in, SInt out, int inputter,
+			LongPrimeField field) {
+		this.input = in;
+		this.output = (ReplicatedSInt) out;
+		this.inputter = inputter;
+		this.field = field;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int myId = resourcePool.getMyId();
+		switch (round) {
+		case 0:
+			if (inputter == myId) {
+				SecureRandom rand = resourcePool.getSecureRandom();
+				long[] terms = new long[3];
+				terms[0] = field.random(rand);
+				terms[1] = field.random(rand);
+				terms[2] = field.subtract(field.toElement(input.getValue()),
+						field.add(terms[0], terms[1]));
+				ReplicatedShare[] shares = new ReplicatedShare[3];
+				for (int pId = 1; pId <= 3; pId++) {
+					shares[pId - 1] = new ReplicatedShare(terms[pId - 1],
+							terms[next(pId) - 1]);
+				}
+				network.sendSharesToAll(shares);
+			}
+			network.expectInputFromPlayer(inputter);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			output.value = network.receive(inputter);
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicatedInputIntGate(" + input + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] {};
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { output };
+	}
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated.integer;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductCircuit;
+import dk.alexandra.fresco.suite.replicated.ReplicatedProtocol;
+import dk.alexandra.fresco.suite.replicated.ReplicatedRandomness;
+import dk.alexandra.fresco.suite.replicated.ReplicatedShare;
+
+/**
+ * Computes the inner product of two secret vectors.
+ *
+ * Party i knows the terms x_i, x_(i+1), y_i and y_(i+1) of every product
+ * xy, so it can compute z_i = x_i y_i + x_i y_(i+1) + x_(i+1) y_i, and the
+ * three z_i sum to xy. Summing these over the vectors and adding a term of a
+ * sharing of zero to hide them gives an additive sharing of the inner
+ * product, which each party turns into a replicated sharing by sending its
+ * term to the previous party. The inner product therefore costs one field
+ * element per party and one round, whatever its length. With a public
+ * vector the inner product is computed locally.
+ */
+public class ReplicatedInnerProductProtocol extends ReplicatedProtocol
+		implements InnerProductCircuit {
+
+	private ReplicatedSInt[] as;
+	private ReplicatedSInt[] bs;
+	private OInt[] publicBs;
+	private ReplicatedSInt out;
+	private ReplicatedRandomness randomness;
+	private long index;
+	private LongPrimeField field;
+	private long myTerm;
+
+	/**
+	 * @param index
+	 *            the index of the sharing of zero to mask with, reserved by
+	 *            {@link ReplicatedRandomness#nextIndex()}.
+	 */
+	public ReplicatedInnerProductProtocol(SInt[] as, SInt[] bs, SInt out,
+			ReplicatedRandomness randomness, long index, LongPrimeField field) {
+		if (as.length != bs.length) {
+			throw new MPCException("Lengths of input arrays do not match");
+		}
+		this.as = toReplicated(as);
+		this.bs = toReplicated(bs);
+		this.out = (ReplicatedSInt) out;
+		this.randomness = randomness;
+		this.index = index;
+		this.field = field;
+	}
+
+	public ReplicatedInnerProductProtocol(SInt[] as, OInt[] bs, SInt out,
+			LongPrimeField field) {
+		if (as.length != bs.length) {
+			throw new MPCException("Lengths of input arrays do not match");
+		}
+		this.as = toReplicated(as);
+		this.publicBs = bs;
+		this.out = (ReplicatedSInt) out;
+		this.field = field;
+	}
+
+	private static ReplicatedSInt[] toReplicated(SInt[] values) {
+		ReplicatedSInt[] res = new ReplicatedSInt[values.length];
+		for (int i = 0; i < values.length; i++) {
+			res[i] = (ReplicatedSInt) values[i];
+		}
+		return res;
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicatedInnerProductGate(" + as.length + "," + out + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		Value[] others = bs == null ? publicBs : bs;
+		Value[] inputs = new Value[as.length + others.length];
+		System.arraycopy(as, 0, inputs, 0, as.length);
+		System.arraycopy(others, 0, inputs, as.length, others.length);
+		return inputs;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		if (publicBs != null) {
+			long first = 0;
+			long second = 0;
+			for (int i = 0; i < as.length; i++) {
+				long b = field.toElement(publicBs[i].getValue());
+				first = field.add(first,
+						field.multiply(as[i].value.getFirst(), b));
+				second = field.add(second,
+						field.multiply(as[i].value.getSecond(), b));
+			}
+			out.value = new ReplicatedShare(first, second);
+			return EvaluationStatus.IS_DONE;
+		}
+		int myId = resourcePool.getMyId();
+		switch (round) {
+		case 0:
+			long z = randomness.zeroShare(index);
+			for (int i = 0; i < as.length; i++) {
+				ReplicatedShare a = as[i].value;
+				ReplicatedShare b = bs[i].value;
+				long cross = field.add(field.multiply(a.getFirst(),
+						b.getSecond()), field.multiply(a.getSecond(),
+						b.getFirst()));
+				z = field.add(z,
+						field.add(field.multiply(a.getFirst(), b.getFirst()),
+								cross));
+			}
+			this.myTerm = z;
+			network.send(previous(myId), z);
+			network.expectInputFromPlayer(next(myId));
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			long nextTerm = network.<Long> receive(next(myId));
+			out.value = new ReplicatedShare(myTerm, nextTerm);
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated.integer;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.LongPrimeField;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.suite.replicated.ReplicatedProtocol;
+import dk.alexandra.fresco.suite.replicated.ReplicatedShare;
+
+/**
+ * Opens a secret value to all parties or to a target party.
+ *
+ * A party misses only the term held as the first term by the previous
+ * party, so opening to all parties costs one field element per party, and
+ * opening to a target party a single field element.
+ */
+public class ReplicatedOpenIntProtocol extends ReplicatedProtocol implements
+		OpenIntProtocol {
+
+	private ReplicatedSInt input;
+	private OInt output;
+	private int targetId;
+	private LongPrimeField field;
+
+	public ReplicatedOpenIntProtocol(SInt in, OInt out, LongPrimeField field) {
+		this(-1, in, out, field);
+	}
+
+	/**
+	 * @param targetId
+	 *            the party to open to, or -1 to open to all parties.
+	 */
+	public ReplicatedOpenIntProtocol(int targetId, SInt in, OInt out,
+			LongPrimeField field) {
+		this.targetId = targetId;
+		this.input = (ReplicatedSInt) in;
+		this.output = out;
+		this.field = field;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int myId = resourcePool.getMyId();
+		boolean receiver = targetId == -1 || targetId == myId;
+		switch (round) {
+		case 0:
+			if (targetId == -1 || next(myId) == targetId) {
+				network.send(next(myId), input.value.getFirst());
+			}
+			if (receiver) {
+				network.expectInputFromPlayer(previous(myId));
+			}
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			if (receiver) {
+				long missing = network.<Long> receive(previous(myId));
+				ReplicatedShare share = input.value;
+				long value = field.add(field.add(share.getFirst(),
+						share.getSecond()), missing);
+				output.setValue(BigInteger.valueOf(value));
+			}
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicatedOpenIntGate(" + input + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { input };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { output };
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated.integer;
+
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.replicated.ReplicatedShare;
+
+/**
+ * A secure integer shared by 3-party replicated secret sharing.
+ */
+public class ReplicatedSInt implements SInt {
+
+	private static final long serialVersionUID = -7351284062918735446L;
+	public ReplicatedShare value;
+
+	public ReplicatedSInt() {
+		this.value = null;
+	}
+
+	public ReplicatedSInt(ReplicatedShare value) {
+		this.value = value;
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicatedSInt(" + value + ")";
+	}
+
+	@Override
+	public boolean isReady() {
+		return this.value != null;
+	}
+
+	@Override
+	public byte[] getSerializableContent() {
+		return this.value.toByteArray();
+	}
+
+	@Override
+	public void setSerializableContent(byte[] val) {
+		this.value = new ReplicatedShare(val);
+	}
+}
@@ -37,6 +37,7 @@ import org.apache.commons.cli.ParseException;
 
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
+import dk.alexandra.fresco.suite.spdz.storage.DealerServer;
 
 public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 
@@ -54,6 +55,37 @@ public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 	 */
 	public String getTriplePath();
 
+	/**
+	 * The number of preprocessed elements of each kind (triples, bits, input
+	 * masks) each thread reads ahead in the background. A value of 0 disables
+	 * prefetching, i.e., preprocessed data is read when a gate needs it.
+	 * 
+	 * @return
+	 */
+	public int getPrefetchSize();
+
+	/**
+	 * The directory in which each thread durably records how far it has
+	 * consumed the preprocessed data, such that a restarted run resumes where
+	 * the previous one stopped. The preprocessed data is then read on demand
+	 * from the files in the triple path rather than imported into the
+	 * storage. If null, consumption is not recorded and every run starts from
+	 * the beginning of the preprocessed data.
+	 * 
+	 * @return
+	 */
+	public String getCursorPath();
+
+	/**
+	 * The address, as host:port, of a {@link DealerServer} from which each
+	 * thread streams preprocessed data on demand. If null, preprocessed data
+	 * is read from the storage. The dealer is for testing only and listens on
+	 * the loopback interface.
+	 * 
+	 * @return
+	 */
+	public String getDealerAddress();
+
 	static SpdzConfiguration fromCmdArgs(SCEConfiguration sceConf,
 			String[] remainingArgs) throws ParseException {
 		Options options = new Options();
@@ -68,6 +100,21 @@ public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 				.desc("The maximum bit length. A suggestion is half the size of the modulus, but might be required to be lower for some applications.")
 				.longOpt("spdz.maxBitLength").required(true).hasArgs().build());
 
+		options.addOption(Option
+				.builder("D")
+				.desc("The number of preprocessed elements of each kind each thread reads ahead in the background. Defaults to 0, i.e., no prefetching.")
+				.longOpt("spdz.prefetchSize").required(false).hasArgs().build());
+
+		options.addOption(Option
+				.builder("D")
+				.desc("The directory in which the consumption of preprocessed data is recorded, such that restarted runs resume where they stopped. The preprocessed data is then read on demand from the triple path. Defaults to not recording.")
+				.longOpt("spdz.cursorPath").required(false).hasArgs().build());
+
+		options.addOption(Option
+				.builder("D")
+				.desc("The address, as host:port, of a test dealer on this host from which preprocessed data is streamed on demand. Defaults to reading it from the storage.")
+				.longOpt("spdz.dealer").required(false).hasArgs().build());
+
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd = parser.parse(options, remainingArgs);
 
@@ -91,6 +138,19 @@ public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 
 		final String triplePath = p.getProperty("spdz.triplePath", "/triples");
 
+		final int prefetchSize = Integer.parseInt(p.getProperty(
+				"spdz.prefetchSize", "0"));
+		if (prefetchSize < 0) {
+			throw new ParseException("spdz.prefetchSize must be >= 0");
+		}
+
+		final String cursorPath = p.getProperty("spdz.cursorPath");
+
+		final String dealerAddress = p.getProperty("spdz.dealer");
+		if (dealerAddress != null && dealerAddress.indexOf(':') < 0) {
+			throw new ParseException("spdz.dealer must be of the form host:port");
+		}
+
 		return new SpdzConfiguration() {
 
 			@Override
@@ -102,6 +162,21 @@ public interface SpdzConfiguration extends ProtocolSuiteConfiguration {
 			public int getMaxBitLength() {
 				return maxBitLength;
 			}
+
+			@Override
+			public int getPrefetchSize() {
+				return prefetchSize;
+			}
+
+			@Override
+			public String getCursorPath() {
+				return cursorPath;
+			}
+
+			@Override
+			public String getDealerAddress() {
+				return dealerAddress;
+			}
 		};
 	}
 
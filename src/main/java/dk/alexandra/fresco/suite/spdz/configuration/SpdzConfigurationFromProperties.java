@@ -61,4 +61,16 @@ public class SpdzConfigurationFromProperties implements SpdzConfiguration {
 		return prop.getProperty("triplePath");		
 	}
 	
+	public int getPrefetchSize() {
+		return Integer.parseInt(prop.getProperty("prefetchSize", "0"));
+	}
+	
+	public String getCursorPath() {
+		return prop.getProperty("cursorPath");
+	}
+	
+	public String getDealerAddress() {
+		return prop.getProperty("dealer");
+	}
+	
 }
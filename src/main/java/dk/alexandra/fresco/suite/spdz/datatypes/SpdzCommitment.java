@@ -30,7 +30,6 @@ import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.util.Random;
 
-import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzCommitment {
 	
@@ -39,20 +38,24 @@ public class SpdzCommitment {
 	private Random rand;
 	private BigInteger commitment;
 	private MessageDigest H;
+	private BigInteger modulus;
 	
-	public SpdzCommitment(MessageDigest H, BigInteger value, Random rand){
+	public SpdzCommitment(MessageDigest H, BigInteger value, Random rand,
+			BigInteger modulus) {
 		this.value = value;
 		this.rand = rand;
 		this.H = H;
+		this.modulus = modulus;
 	}
+
 	public BigInteger getCommitment(){
 		if (this.commitment != null){
 			return this.commitment;
 		}		
 		H.update(value.toByteArray());
-		this.randomness = new BigInteger(Util.getModulus().bitLength(), rand); 
+		this.randomness = new BigInteger(modulus.bitLength(), rand); 
 		H.update(this.randomness.toByteArray());
-		this.commitment = new BigInteger(H.digest()).mod(Util.getModulus());
+		this.commitment = new BigInteger(H.digest()).mod(modulus);
 		return this.commitment;
 	}
 	
@@ -65,16 +68,20 @@ public class SpdzCommitment {
 	}
 	
 	/**
-	 * Returns true if the given values match the commitment given. 
+	 * Returns true if the given values match the commitment given, made in
+	 * the field given by the modulus.
 	 * @param commitment
 	 * @param value
 	 * @param randomness
+	 * @param modulus
 	 * @return
 	 */
-	public static boolean checkCommitment(MessageDigest H, BigInteger commitment, BigInteger value, BigInteger randomness){
+	public static boolean checkCommitment(MessageDigest H,
+			BigInteger commitment, BigInteger value, BigInteger randomness,
+			BigInteger modulus) {
 		H.update(value.toByteArray());
 		H.update(randomness.toByteArray());
-		BigInteger testSubject = new BigInteger(H.digest()).mod(Util.getModulus());
+		BigInteger testSubject = new BigInteger(H.digest()).mod(modulus);
 		return commitment.equals(testSubject);
 	}
 	
@@ -29,6 +29,7 @@ package dk.alexandra.fresco.suite.spdz.datatypes;
 import java.io.Serializable;
 import java.math.BigInteger;
 
+import dk.alexandra.fresco.framework.util.ModularReducer;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzElement implements Serializable{
@@ -47,36 +48,49 @@ public class SpdzElement implements Serializable{
 		this.mac = mac;		
 	}
 	
-	//Communication methods	
-	public SpdzElement(byte[] data){
-		int size = getSize();
+	//Communication methods. The byte size follows from the modulus of the
+	//field the element lives in.
+	public SpdzElement(byte[] data, BigInteger modulus){
+		this(data, getSize(modulus));
+	}
+
+	private SpdzElement(byte[] data, int size){
 		byte[] shareBytes = new byte[size];
 		byte[] macBytes = new byte[size];
-		for(int i = 0; i < data.length/2; i++){
-			shareBytes[i] = data[i];
-			macBytes[i] = data[size+i];
-		}
-		this.share = new BigInteger(shareBytes);
-		this.mac = new BigInteger(macBytes);
+		System.arraycopy(data, 0, shareBytes, 0, size);
+		System.arraycopy(data, size, macBytes, 0, size);
+		this.share = new BigInteger(1, shareBytes);
+		this.mac = new BigInteger(1, macBytes);
 	}
 
-	public static int getSize(){
-		return Util.size; //cause we only do partial openings meaning sending a share
+	/**
+	 * Returns the number of bytes used for the share, or the mac, of an
+	 * element of the field given by the modulus.
+	 */
+	public static int getSize(BigInteger modulus){
+		return Util.sizeOf(modulus);
 	}
 	
-	public byte[] toByteArray(){		
-		byte[] share_invert = new byte[getSize()];
-		byte[] mac_invert = new byte[getSize()];
+	public byte[] toByteArray(BigInteger modulus){
+		return toByteArray(getSize(modulus));
+	}
+
+	private byte[] toByteArray(int size){
+		byte[] res = new byte[size*2];
+		byte[] share_invert = new byte[size];
+		byte[] mac_invert = new byte[size];
 		copyAndInvertArray(share_invert, this.share.toByteArray());
 		copyAndInvertArray(mac_invert, this.mac.toByteArray());
-		byte[] res = new byte[getSize()*2];
-		System.arraycopy(share_invert, 0, res, 0, getSize());
-		System.arraycopy(mac_invert, 0, res, getSize(), getSize());
+		System.arraycopy(share_invert, 0, res, 0, size);
+		System.arraycopy(mac_invert, 0, res, size, size);
 		return res;		
 	}
 	
 	private void copyAndInvertArray(byte[] bytes, byte[] byteArray) {
-        for (int inx = 0; inx < byteArray.length; inx++) {       
+		// A reduced element may need a sign byte on top of the size of the
+		// modulus; it is always 0, so it is dropped.
+		int skip = Math.max(0, byteArray.length - bytes.length);
+        for (int inx = skip; inx < byteArray.length; inx++) {       
             bytes[bytes.length - byteArray.length + inx] = byteArray[inx];            
         }
     }
@@ -90,56 +104,63 @@ public class SpdzElement implements Serializable{
 		return mac;
 	}
 	
-	//Arithmetic operations:
-	public SpdzElement add(SpdzElement e){
-		BigInteger rShare = this.share.add(e.getShare()).mod(Util.getModulus());
-		BigInteger rMac = this.mac.add(e.getMac()).mod(Util.getModulus());		
+	//Arithmetic operations, all reduced modulo the given modulus.
+	public SpdzElement add(SpdzElement e, BigInteger modulus){
+		ModularReducer reducer = ModularReducer.forModulus(modulus);
+		BigInteger rShare = reducer.reduce(this.share.add(e.getShare()));
+		BigInteger rMac = reducer.reduce(this.mac.add(e.getMac()));		
 		return new SpdzElement(rShare, rMac);
 	}
 	
 	/**
 	 * Public value added
 	 * @param e
-	 * @param myId
+	 * @param pID
+	 * @param modulus
 	 * @return
 	 */
-	public SpdzElement add(SpdzElement e, int pID){
+	public SpdzElement add(SpdzElement e, int pID, BigInteger modulus){
+		ModularReducer reducer = ModularReducer.forModulus(modulus);
 		BigInteger rShare = this.share;
 		BigInteger rMac = this.mac;
-		rMac = rMac.add(e.getMac()).mod(Util.getModulus());
+		rMac = reducer.reduce(rMac.add(e.getMac()));
 		if(pID == 1){
-			rShare = rShare.add(e.getShare()).mod(Util.getModulus());			
+			rShare = reducer.reduce(rShare.add(e.getShare()));			
 		}
 		return new SpdzElement(rShare, rMac);
 	}
 	
-	public SpdzElement subtract(SpdzElement e){
+	public SpdzElement subtract(SpdzElement e, BigInteger modulus){
+		ModularReducer reducer = ModularReducer.forModulus(modulus);
 		BigInteger eShare = e.getShare();
-		BigInteger rShare = this.share.subtract(eShare).mod(Util.getModulus());
+		BigInteger rShare = reducer.reduce(this.share.subtract(eShare));
 		BigInteger eMac = e.getMac();
-		BigInteger rMac = this.mac.subtract(eMac).mod(Util.getModulus());				
+		BigInteger rMac = reducer.reduce(this.mac.subtract(eMac));				
 		return new SpdzElement(rShare, rMac);
 	}
 	
 	/**
 	 * Public value subtracted
 	 * @param e
-	 * @param myId
+	 * @param pID
+	 * @param modulus
 	 * @return
 	 */
-	public SpdzElement subtract(SpdzElement e, int pID) {
+	public SpdzElement subtract(SpdzElement e, int pID, BigInteger modulus) {
+		ModularReducer reducer = ModularReducer.forModulus(modulus);
 		BigInteger rShare = this.share;
 		if(pID == 1){
-			rShare = this.share.subtract(e.getShare()).mod(Util.getModulus());
+			rShare = reducer.reduce(this.share.subtract(e.getShare()));
 		}
 		BigInteger eMac = e.getMac();
-		BigInteger rMac = this.mac.subtract(eMac).mod(Util.getModulus());				
+		BigInteger rMac = reducer.reduce(this.mac.subtract(eMac));				
 		return new SpdzElement(rShare, rMac);
 	}
 	
-	public SpdzElement multiply(BigInteger c){
-		BigInteger rShare = this.share.multiply(c).mod(Util.getModulus());
-		BigInteger rMac = this.mac.multiply(c).mod(Util.getModulus());				
+	public SpdzElement multiply(BigInteger c, BigInteger modulus){
+		ModularReducer reducer = ModularReducer.forModulus(modulus);
+		BigInteger rShare = reducer.reduce(this.share.multiply(c));
+		BigInteger rMac = reducer.reduce(this.mac.multiply(c));				
 		return new SpdzElement(rShare, rMac);		
 	}
 	
@@ -27,6 +27,8 @@
 package dk.alexandra.fresco.suite.spdz.datatypes;
 
 import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 import dk.alexandra.fresco.framework.value.SInt;
 
@@ -71,14 +73,29 @@ public class SpdzSInt implements SInt, Serializable {
 		return true;
 	}
 
+	/**
+	 * Serializes the share and the mac, each prefixed with its length, so
+	 * that the content can be read back without knowing the modulus of the
+	 * field the value lives in.
+	 */
 	@Override
 	public byte[] getSerializableContent() {
-		return this.value.toByteArray();
+		byte[] share = this.value.getShare().toByteArray();
+		byte[] mac = this.value.getMac().toByteArray();
+		ByteBuffer buffer = ByteBuffer.allocate(8 + share.length + mac.length);
+		buffer.putInt(share.length).put(share);
+		buffer.putInt(mac.length).put(mac);
+		return buffer.array();
 	}
 
 	@Override
 	public void setSerializableContent(byte[] val) {
-		this.value = new SpdzElement(val);
+		ByteBuffer buffer = ByteBuffer.wrap(val);
+		byte[] share = new byte[buffer.getInt()];
+		buffer.get(share);
+		byte[] mac = new byte[buffer.getInt()];
+		buffer.get(mac);
+		this.value = new SpdzElement(new BigInteger(share), new BigInteger(mac));
 	}
 	
 	
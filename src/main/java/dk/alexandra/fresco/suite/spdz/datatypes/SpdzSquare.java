@@ -26,7 +26,14 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.datatypes;
 
-public class SpdzSquare {
+import java.io.Serializable;
+
+/**
+ * A square pair: sharings of a random value a and of a^2.
+ */
+public class SpdzSquare implements Serializable {
+
+	private static final long serialVersionUID = 3093652915447271395L;
 
 	private SpdzElement a, b;	
 	
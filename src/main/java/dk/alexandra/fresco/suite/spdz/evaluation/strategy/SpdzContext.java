@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.evaluation.strategy;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.ModularReducer;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+
+/**
+ * Everything a SPDZ native protocol needs to evaluate on one thread of one
+ * SPDZ instance: the storage of the thread, the modulus, the share of the MAC
+ * key and a message digest for broadcast validation.
+ * 
+ * The context is created once by the protocol suite for each thread when the
+ * suite is initialized, so gates do not have to look up the suite, the
+ * storage and the modulus each time they are evaluated. As the context is
+ * only used by the thread it belongs to, it needs no synchronization.
+ */
+public class SpdzContext {
+
+	private final ResourcePool resourcePool;
+	private final int threadId;
+	private final SpdzStorage store;
+	private final BigInteger modulus;
+	private final ModularReducer reducer;
+	private final BigInteger keyShare;
+	private final MessageDigest digest;
+	private volatile boolean closed;
+
+	public SpdzContext(ResourcePool resourcePool, int threadId,
+			SpdzStorage store, BigInteger modulus, BigInteger keyShare,
+			MessageDigest digest) {
+		this.resourcePool = resourcePool;
+		this.threadId = threadId;
+		this.store = store;
+		this.modulus = modulus;
+		this.reducer = ModularReducer.forModulus(modulus);
+		this.keyShare = keyShare;
+		this.digest = digest;
+	}
+
+	/**
+	 * Tells whether this context may be used by a protocol evaluated with the
+	 * given resource pool on the given thread.
+	 */
+	public boolean belongsTo(ResourcePool resourcePool, int threadId) {
+		return !closed && this.resourcePool == resourcePool
+				&& this.threadId == threadId;
+	}
+
+	public int getMyId() {
+		return resourcePool.getMyId();
+	}
+
+	public int getNoOfParties() {
+		return resourcePool.getNoOfParties();
+	}
+
+	public int getThreadId() {
+		return threadId;
+	}
+
+	public SpdzStorage getStore() {
+		return store;
+	}
+
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * Returns the reducer for the modulus, which is faster than
+	 * {@link BigInteger#mod(BigInteger)} for (pseudo-)Mersenne primes.
+	 */
+	public ModularReducer getReducer() {
+		return reducer;
+	}
+
+	public BigInteger getKeyShare() {
+		return keyShare;
+	}
+
+	public MessageDigest getMessageDigest() {
+		return digest;
+	}
+
+	/**
+	 * Marks the context as no longer usable, e.g. because the suite it
+	 * belongs to has been destroyed or re-initialized.
+	 */
+	void close() {
+		closed = true;
+	}
+}
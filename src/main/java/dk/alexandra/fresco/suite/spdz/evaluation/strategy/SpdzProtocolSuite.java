@@ -26,16 +26,20 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.evaluation.strategy;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
+import java.util.WeakHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import dk.alexandra.fresco.framework.MPCException;
@@ -45,13 +49,17 @@ import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.network.SCENetworkImpl;
 import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.ModularReducer;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzCommitment;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzCommitGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOpenCommitGate;
+import dk.alexandra.fresco.suite.spdz.storage.ConsumptionCursors;
 import dk.alexandra.fresco.suite.spdz.storage.DataRetrieverImpl;
+import dk.alexandra.fresco.suite.spdz.storage.DealerDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.FileDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageImpl;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
@@ -59,7 +67,14 @@ import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzProtocolSuite implements ProtocolSuite {
 
-	private static Map<Integer, SpdzProtocolSuite> instances;
+	// The initialized suites, by the resource pool they were initialized
+	// with. A JVM may run several SPDZ instances at once, e.g., several
+	// parties or computations with different moduli. Both the pools and the
+	// suites are only weakly referenced, as the suite refers to its pool: an
+	// instance that is never destroyed, e.g. by a test that does not shut
+	// down its SCE, is still released with its SCE.
+	private static final Map<ResourcePool, WeakReference<SpdzProtocolSuite>> initialized = Collections
+			.synchronizedMap(new WeakHashMap<ResourcePool, WeakReference<SpdzProtocolSuite>>());
 
 	private Network network;
 	private Random rand;
@@ -69,19 +84,34 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 	private int macCheckThreshold = 100000;
 	private BigInteger keyShare, p;
 	private MessageDigest[] digs;
+	private SpdzContext[] contexts;
 	private SpdzConfiguration spdzConf;
 
 	public SpdzProtocolSuite() {
 	}
 
-	public static SpdzProtocolSuite getInstance(int id) {
-		if (instances == null) {
-			instances = new HashMap<Integer, SpdzProtocolSuite>();
-		}
-		if (instances.get(id) == null) {
-			instances.put(id, new SpdzProtocolSuite());
+	/**
+	 * Returns the suite that has been initialized with the given resource
+	 * pool.
+	 */
+	public static SpdzProtocolSuite getInstance(ResourcePool resourcePool) {
+		WeakReference<SpdzProtocolSuite> ref = initialized.get(resourcePool);
+		SpdzProtocolSuite suite = ref == null ? null : ref.get();
+		if (suite == null) {
+			throw new MPCException(
+					"No SPDZ suite has been initialized for party "
+							+ resourcePool.getMyId()
+							+ " with this resource pool");
 		}
-		return instances.get(id);
+		return suite;
+	}
+
+	/**
+	 * Returns the evaluation context of the given thread. The context is
+	 * created when the suite is initialized.
+	 */
+	public SpdzContext getContext(int threadId) {
+		return contexts[threadId];
 	}
 
 	public SpdzStorage getStore(int i) {
@@ -108,9 +138,42 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 	public void init(ResourcePool resourcePool, ProtocolSuiteConfiguration conf) {
 		spdzConf = (SpdzConfiguration)conf;
 		this.network = resourcePool.getNetwork();
+		if (this.store != null) {
+			// The suite is being re-initialized, e.g. by a new SCE.
+			destroy();
+		}
+		String[] dealer = null;
+		if (spdzConf.getDealerAddress() != null) {
+			int colon = spdzConf.getDealerAddress().lastIndexOf(':');
+			dealer = new String[] {
+					spdzConf.getDealerAddress().substring(0, colon),
+					spdzConf.getDealerAddress().substring(colon + 1) };
+		}
+		// Consumption is only recorded for data read from the files. A
+		// dealer keeps track of what it hands out itself.
+		ConsumptionCursors[] cursors = dealer == null ? openCursors(resourcePool)
+				: null;
 		this.store = new SpdzStorage[resourcePool.getThreadPool().getThreadCount()];
 		for (int i = 0; i < resourcePool.getThreadPool().getThreadCount(); i++) {
-			store[i] = new SpdzStorageImpl(resourcePool, i);
+			if (dealer != null) {
+				store[i] = new SpdzStorageImpl(resourcePool,
+						new DealerDataSupplier(dealer[0],
+								Integer.parseInt(dealer[1]),
+								resourcePool.getMyId(), i,
+								resourcePool.getNoOfParties(),
+								DealerDataSupplier.DEFAULT_BATCH_SIZE),
+						spdzConf.getPrefetchSize());
+			} else if (cursors != null) {
+				store[i] = new SpdzStorageImpl(resourcePool,
+						new FileDataSupplier(spdzConf.getTriplePath(),
+								resourcePool.getMyId(),
+								resourcePool.getThreadPool().getThreadCount(),
+								resourcePool.getNoOfParties(), cursors[i]),
+						spdzConf.getPrefetchSize());
+			} else {
+				store[i] = new SpdzStorageImpl(resourcePool, i,
+						spdzConf.getPrefetchSize());
+			}
 			/*
 			store[i] = new SpdzByteStorage(resourcePool.getMyId(),
 					resourcePool.getNoOfParties(),
@@ -139,13 +202,69 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 		//First then can we get the keyshare.
 		this.keyShare = store[0].getSSK();
 		this.p = store[0].getSupplier().getModulus();
-		Util.setModulus(this.p);
-		byte[] bytes = p.toByteArray();
-		if(bytes[0] == 0){
-			Util.size = p.toByteArray().length - 1;		
-		}else{
-			Util.size = p.toByteArray().length;
-		}			
+		this.contexts = new SpdzContext[this.store.length];
+		for (int i = 0; i < this.contexts.length; i++) {
+			this.contexts[i] = new SpdzContext(resourcePool, i, this.store[i],
+					this.p, this.keyShare, this.digs[i]);
+		}
+		initialized.put(resourcePool, new WeakReference<SpdzProtocolSuite>(
+				this));
+	}
+
+	/**
+	 * Opens the consumption cursors of each thread if a cursor path is
+	 * configured, or returns null if not. The cursors are bound to the
+	 * preprocessed data in the triple path, so they start over when it is
+	 * regenerated. As the parties may have reserved different blocks of
+	 * preprocessed data before a crash, they agree on resuming from the
+	 * furthest position of any party.
+	 */
+	private ConsumptionCursors[] openCursors(ResourcePool resourcePool) {
+		String cursorPath = spdzConf.getCursorPath();
+		if (cursorPath == null || cursorPath.isEmpty()) {
+			return null;
+		}
+		int noOfThreads = resourcePool.getThreadPool().getThreadCount();
+		ConsumptionCursors[] cursors = new ConsumptionCursors[noOfThreads];
+		File dir = new File(cursorPath);
+		dir.mkdirs();
+		int myId = resourcePool.getMyId();
+		int noOfParties = resourcePool.getNoOfParties();
+		byte[] dataSetId = FileDataSupplier.dataSetId(
+				spdzConf.getTriplePath(), myId);
+		for (int i = 0; i < noOfThreads; i++) {
+			cursors[i] = new ConsumptionCursors(new File(dir, "cursors" + myId
+					+ "_" + i), dataSetId, i, noOfThreads, noOfParties,
+					ConsumptionCursors.DEFAULT_BLOCK_SIZE);
+		}
+		try {
+			long[][] mine = new long[noOfThreads][];
+			for (int i = 0; i < noOfThreads; i++) {
+				mine[i] = cursors[i].getPositions();
+			}
+			for (int pId = 1; pId <= noOfParties; pId++) {
+				if (pId != myId) {
+					this.network.send("0", pId, mine);
+				}
+			}
+			for (int pId = 1; pId <= noOfParties; pId++) {
+				if (pId != myId) {
+					long[][] theirs = this.network.receive("0", pId);
+					if (theirs.length != noOfThreads) {
+						throw new MPCException("Party " + pId + " uses "
+								+ theirs.length + " threads, but we use "
+								+ noOfThreads);
+					}
+					for (int i = 0; i < noOfThreads; i++) {
+						cursors[i].advanceTo(theirs[i]);
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new MPCException(
+					"Could not agree on the consumption cursors.", e);
+		}
+		return cursors;
 	}
 
 	@Override
@@ -178,9 +297,10 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 	}
 
 	private void MACCheck() throws IOException {
-		BigInteger s = new BigInteger(Util.getModulus().bitLength(), rand)
-				.mod(Util.getModulus());// TODO: This is not truly random
-		SpdzCommitment commitment = new SpdzCommitment(this.digs[0], s, rand);
+		BigInteger s = new BigInteger(this.p.bitLength(), rand)
+				.mod(this.p);// TODO: This is not truly random
+		SpdzCommitment commitment = new SpdzCommitment(this.digs[0], s, rand,
+				this.p);
 		Map<Integer, BigInteger> comms = new HashMap<Integer, BigInteger>();
 		SpdzCommitGate comm = new SpdzCommitGate(commitment, comms);
 		Map<Integer, BigInteger> ss = new HashMap<Integer, BigInteger>();
@@ -257,14 +377,14 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 		MessageDigest H = new Util().getHashFunction();
 		BigInteger r_temp = s;
 		for (i = 0; i < t; i++) {
-			r_temp = new BigInteger(H.digest(r_temp.toByteArray())).mod(Util
-					.getModulus());
+			r_temp = new BigInteger(H.digest(r_temp.toByteArray())).mod(this.p);
 			rs[i] = r_temp;
 		}
+		ModularReducer reducer = ModularReducer.forModulus(this.p);
 		BigInteger a = BigInteger.ZERO;
 		int index = 0;
 		for (BigInteger aa : as) {
-			a = a.add(aa.multiply(rs[index++])).mod(Util.getModulus());
+			a = reducer.reduce(a.add(aa.multiply(rs[index++])));
 		}
 		// compute gamma_i as the sum of all MAC's on the opened values times
 		// r_j.
@@ -276,15 +396,14 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 		BigInteger gamma = BigInteger.ZERO;
 		index = 0;
 		for (SpdzElement c : closedValues) {
-			gamma = gamma.add(rs[index++].multiply(c.getMac())).mod(
-					Util.getModulus());
+			gamma = reducer.reduce(gamma.add(rs[index++].multiply(c.getMac())));
 		}
 
 		// compute delta_i as: gamma_i - alpha_i*a
 		BigInteger delta = gamma.subtract(store[0].getSSK().multiply(a)).mod(
-				Util.getModulus());
+				this.p);
 		// Commit to delta and open it afterwards
-		commitment = new SpdzCommitment(this.digs[0], delta, rand);
+		commitment = new SpdzCommitment(this.digs[0], delta, rand, this.p);
 		comms = new HashMap<Integer, BigInteger>();
 		comm = new SpdzCommitGate(commitment, comms);
 		ss = new HashMap<Integer, BigInteger>();
@@ -347,7 +466,7 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 		for (BigInteger d : ss.values()) {
 			deltaSum = deltaSum.add(d);
 		}
-		deltaSum = deltaSum.mod(Util.getModulus());
+		deltaSum = deltaSum.mod(this.p);
 		if (!deltaSum.equals(BigInteger.ZERO)) {
 			throw new MPCException(
 					"The sum of delta's was not 0. Someone was corrupting something amongst "
@@ -361,6 +480,19 @@ public class SpdzProtocolSuite implements ProtocolSuite {
 
 	@Override
 	public void destroy() {
+		if (this.rp != null) {
+			synchronized (initialized) {
+				WeakReference<SpdzProtocolSuite> ref = initialized.get(this.rp);
+				if (ref != null && ref.get() == this) {
+					initialized.remove(this.rp);
+				}
+			}
+		}
+		if (this.contexts != null) {
+			for (SpdzContext context : this.contexts) {
+				context.close();
+			}
+		}
 		for (SpdzStorage store : this.store) {
 			store.shutdown();
 		}
@@ -43,8 +43,7 @@ import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
-import dk.alexandra.fresco.suite.spdz.utils.Util;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
 
 public class DummyComparisonCircuit implements ComparisonProtocol {
 
@@ -116,10 +115,9 @@ public class DummyComparisonCircuit implements ComparisonProtocol {
 		@Override
 		public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 				SCENetwork network) {
-			SpdzProtocolSuite spdzPii = SpdzProtocolSuite
-					.getInstance(resourcePool.getMyId());
+			SpdzContext context = getContext(resourcePool, network);
 			SpdzOInt min = null;
-			if (compareModP(a.getValue(), b.getValue()) <= 0) {
+			if (compareModP(a.getValue(), b.getValue(), context.getModulus()) <= 0) {
 				min = new SpdzOInt(BigInteger.ONE);
 			} else {
 				min = new SpdzOInt(BigInteger.ZERO);
@@ -128,10 +126,10 @@ public class DummyComparisonCircuit implements ComparisonProtocol {
 			if (min.getValue().equals(BigInteger.ONE)) {
 				if (resourcePool.getMyId() == 1) {
 					elm = new SpdzElement(BigInteger.ONE, min.getValue()
-							.multiply(spdzPii.getStore(network.getThreadId()).getSSK()));
+							.multiply(context.getKeyShare()));
 				} else {
 					elm = new SpdzElement(BigInteger.ZERO, min.getValue()
-							.multiply(spdzPii.getStore(network.getThreadId()).getSSK()));
+							.multiply(context.getKeyShare()));
 				}
 			} else {
 				elm = new SpdzElement(BigInteger.ZERO, BigInteger.ZERO);
@@ -146,16 +144,16 @@ public class DummyComparisonCircuit implements ComparisonProtocol {
 		 * @return a comparison where numbers (P - a) that are larger than ((P -
 		 *         1) / 2) are interpreted as the negative number (- a)
 		 */
-		private int compareModP(BigInteger a, BigInteger b) {
+		private int compareModP(BigInteger a, BigInteger b, BigInteger modulus) {
 			BigInteger realA = a;
 			BigInteger realB = b;
-			BigInteger halfPoint = Util.getModulus().subtract(BigInteger.ONE)
+			BigInteger halfPoint = modulus.subtract(BigInteger.ONE)
 					.divide((BigInteger.valueOf(2)));
 			if (a.compareTo(halfPoint) > 0) {
-				realA = a.subtract(Util.getModulus());
+				realA = a.subtract(modulus);
 			}
 			if (b.compareTo(halfPoint) > 0) {
-				realB = b.subtract(Util.getModulus());
+				realB = b.subtract(modulus);
 			}
 			return realA.compareTo(realB);
 		}
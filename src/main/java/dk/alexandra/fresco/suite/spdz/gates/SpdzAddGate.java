@@ -26,6 +26,8 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.gates;
 
+import java.math.BigInteger;
+
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.OInt;
@@ -80,11 +82,12 @@ public class SpdzAddGate extends SpdzNativeProtocol implements AddProtocol {
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
+		BigInteger modulus = getContext(resourcePool, network).getModulus();
 		if (oInt != null) {
 			SpdzSInt myShare = (SpdzSInt) provider.getSInt(oInt.getValue());
-			out.value = left.value.add(myShare.value);
+			out.value = left.value.add(myShare.value, modulus);
 		} else {
-			out.value = left.value.add(right.value);
+			out.value = left.value.add(right.value, modulus);
 		}
 		return EvaluationStatus.IS_DONE;
 	}
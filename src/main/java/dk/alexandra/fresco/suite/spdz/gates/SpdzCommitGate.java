@@ -35,7 +35,6 @@ import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzCommitment;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 
 public class SpdzCommitGate extends SpdzNativeProtocol {
 
@@ -78,10 +77,8 @@ public class SpdzCommitGate extends SpdzNativeProtocol {
 				done = true;
 			} else {
 				broadcastDigest = sendBroadcastValidation(
-						SpdzProtocolSuite.getInstance(
-								resourcePool.getMyId()).getMessageDigest(
-								network.getThreadId()), network, commitments,
-						players);
+						getContext(resourcePool, network).getMessageDigest(),
+						network, commitments, players);
 				network.expectInputFromAll();
 			}
 			break;
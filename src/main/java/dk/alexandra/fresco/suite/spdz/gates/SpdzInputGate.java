@@ -38,9 +38,8 @@ import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
-import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzInputGate extends SpdzNativeProtocol implements CloseIntProtocol {
 
@@ -78,16 +77,15 @@ public class SpdzInputGate extends SpdzNativeProtocol implements CloseIntProtoco
 			SCENetwork network) {
 		int myId = resourcePool.getMyId();
 		int players = resourcePool.getNoOfParties();
-		SpdzProtocolSuite spdzPii = SpdzProtocolSuite
-				.getInstance(myId);
-		SpdzStorage storage = spdzPii.getStore(network.getThreadId());
+		SpdzContext context = getContext(resourcePool, network);
+		SpdzStorage storage = context.getStore();
 		switch (round) {
 		case 0:
 			this.inputMask = storage.getSupplier().getNextInputMask(
 					this.inputter);
 			if (myId == this.inputter) {
 				BigInteger bcValue = this.input.subtract(
-						this.inputMask.getRealValue()).mod(Util.getModulus());
+						this.inputMask.getRealValue()).mod(context.getModulus());
 				network.sendToAll(bcValue);
 			}
 			network.expectInputFromPlayer(inputter);
@@ -95,8 +93,7 @@ public class SpdzInputGate extends SpdzNativeProtocol implements CloseIntProtoco
 		case 1:
 			this.value_masked = network.receive(inputter);
 			this.digest = sendBroadcastValidation(
-					spdzPii.getMessageDigest(network.getThreadId()), network,
-					value_masked, players);
+					context.getMessageDigest(), network, value_masked, players);
 			network.expectInputFromAll();
 			return EvaluationStatus.HAS_MORE_ROUNDS;
 		case 2:
@@ -105,10 +102,10 @@ public class SpdzInputGate extends SpdzNativeProtocol implements CloseIntProtoco
 				throw new MPCException("Broadcast digests did not match");
 			}
 			SpdzElement value_masked_elm = new SpdzElement(value_masked,
-					storage.getSSK().multiply(value_masked)
-							.mod(Util.getModulus()));
+					context.getReducer().reduce(
+							context.getKeyShare().multiply(value_masked)));
 			this.out.value = this.inputMask.getMask().add(value_masked_elm,
-					myId);
+					myId, context.getModulus());
 			return EvaluationStatus.IS_DONE;
 		}
 		throw new MPCException("Cannot evaluate rounds larger than 2");
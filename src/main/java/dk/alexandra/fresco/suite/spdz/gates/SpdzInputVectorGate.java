@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+
+/**
+ * Inputs a vector of values held by a single party. This is the same as using
+ * a SpdzInputGate per element, except that the inputter sends all the masked
+ * values in a single message and the broadcast is validated using a single
+ * digest computed over the whole vector.
+ */
+public class SpdzInputVectorGate extends SpdzNativeProtocol {
+
+	private BigInteger[] inputs;
+	private SpdzSInt[] out;
+	private int inputter;
+	private SpdzInputMask[] inputMasks;
+	private BigInteger[] valuesMasked;
+	private byte[] digest;
+
+	/**
+	 * @param inputs
+	 *            the values to input, or null if this party is not the
+	 *            inputter
+	 * @param out
+	 *            the SInts to hold the result
+	 * @param inputter
+	 *            the id of the party providing the input
+	 */
+	public SpdzInputVectorGate(BigInteger[] inputs, SInt[] out, int inputter) {
+		if (inputs != null && inputs.length != out.length) {
+			throw new MPCException("Cannot input " + inputs.length
+					+ " values into " + out.length + " SInts");
+		}
+		this.inputs = inputs;
+		this.out = new SpdzSInt[out.length];
+		for (int i = 0; i < out.length; i++) {
+			this.out[i] = (SpdzSInt) out[i];
+		}
+		this.inputter = inputter;
+	}
+
+	public int getInputter() {
+		return inputter;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		int myId = resourcePool.getMyId();
+		int players = resourcePool.getNoOfParties();
+		SpdzContext context = getContext(resourcePool, network);
+		SpdzStorage storage = context.getStore();
+		BigInteger modulus = context.getModulus();
+		int n = out.length;
+		switch (round) {
+		case 0:
+			this.inputMasks = new SpdzInputMask[n];
+			for (int i = 0; i < n; i++) {
+				this.inputMasks[i] = storage.getSupplier().getNextInputMask(
+						this.inputter);
+			}
+			if (myId == this.inputter) {
+				if (inputs == null) {
+					throw new MPCException("Party " + myId
+							+ " is the inputter but has no input values");
+				}
+				BigInteger[] bcValues = new BigInteger[n];
+				for (int i = 0; i < n; i++) {
+					bcValues[i] = this.inputs[i].subtract(
+							this.inputMasks[i].getRealValue()).mod(modulus);
+				}
+				network.sendToAll(bcValues);
+			}
+			network.expectInputFromPlayer(inputter);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			this.valuesMasked = network.receive(inputter);
+			if (valuesMasked.length != n) {
+				throw new MPCException("Expected " + n
+						+ " masked inputs but received " + valuesMasked.length);
+			}
+			this.digest = sendBroadcastValidation(
+					context.getMessageDigest(), network,
+					Arrays.asList(valuesMasked), players);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 2:
+			boolean validated = receiveBroadcastValidation(network, digest);
+			if (!validated) {
+				throw new MPCException("Broadcast digests did not match");
+			}
+			BigInteger ssk = context.getKeyShare();
+			for (int i = 0; i < n; i++) {
+				SpdzElement valueMaskedElm = new SpdzElement(valuesMasked[i],
+						context.getReducer().reduce(ssk.multiply(valuesMasked[i])));
+				this.out[i].value = this.inputMasks[i].getMask().add(
+						valueMaskedElm, myId, modulus);
+			}
+			// help the garbage collector.
+			inputs = null;
+			inputMasks = null;
+			valuesMasked = null;
+			return EvaluationStatus.IS_DONE;
+		}
+		throw new MPCException("Cannot evaluate rounds larger than 2");
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		// No point in getting input from an input gate...
+		return null;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return out;
+	}
+
+}
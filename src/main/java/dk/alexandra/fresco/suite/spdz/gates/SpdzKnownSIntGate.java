@@ -36,8 +36,7 @@ import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
-import dk.alexandra.fresco.suite.spdz.utils.Util;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
 
 public class SpdzKnownSIntGate extends SpdzNativeProtocol implements KnownSIntProtocol {
 
@@ -83,12 +82,10 @@ public class SpdzKnownSIntGate extends SpdzNativeProtocol implements KnownSIntPr
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		SpdzProtocolSuite spdzPii = SpdzProtocolSuite
-				.getInstance(resourcePool.getMyId());
-		value = value.mod(Util.getModulus());
+		SpdzContext context = getContext(resourcePool, network);
+		value = value.mod(context.getModulus());
 		SpdzElement elm;
-		BigInteger globalKeyShare = spdzPii.getStore(network.getThreadId())
-				.getSSK();
+		BigInteger globalKeyShare = context.getKeyShare();
 		if (resourcePool.getMyId() == 1) {
 			elm = new SpdzElement(value, value.multiply(globalKeyShare));
 		} else {
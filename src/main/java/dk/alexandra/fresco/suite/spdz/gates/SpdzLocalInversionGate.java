@@ -32,7 +32,6 @@ import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.math.inv.LocalInversionCircuit;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
-import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzLocalInversionGate extends SpdzNativeProtocol implements
 		LocalInversionCircuit {
@@ -63,7 +62,8 @@ public class SpdzLocalInversionGate extends SpdzNativeProtocol implements
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
 		try {
-			out.setValue(in.getValue().modInverse(Util.getModulus()));
+			out.setValue(in.getValue().modInverse(
+					getContext(resourcePool, network).getModulus()));
 		} catch (ArithmeticException e) {
 			System.out.println("Non invertable value: " + in.getValue());
 			throw e;
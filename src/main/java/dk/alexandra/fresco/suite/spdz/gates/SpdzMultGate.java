@@ -32,6 +32,7 @@ import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.util.GateRegister;
+import dk.alexandra.fresco.framework.util.ModularReducer;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.framework.value.Value;
@@ -40,9 +41,8 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
-import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class SpdzMultGate extends SpdzNativeProtocol implements MultProtocol {
 
@@ -83,24 +83,25 @@ public class SpdzMultGate extends SpdzNativeProtocol implements MultProtocol {
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		SpdzProtocolSuite spdzPii = SpdzProtocolSuite
-				.getInstance(resourcePool.getMyId());
-		SpdzStorage store = spdzPii.getStore(network.getThreadId());
+		SpdzContext context = getContext(resourcePool, network);
+		SpdzStorage store = context.getStore();
 		int noOfPlayers = resourcePool.getNoOfParties();
 		switch (round) {
 		case 0:
 			try {
 				if (oIn1 != null) {
 					SpdzElement res = in2.value;
-					res = res.multiply(oIn1.getValue());
+					res = res.multiply(oIn1.getValue(), context.getModulus());
 					out.value = res;
 					return EvaluationStatus.IS_DONE;
 				}
 
 				this.triple = store.getSupplier().getNextTriple();
 
-				SpdzElement epsilon = in1.value.subtract(triple.getA());
-				SpdzElement delta = in2.value.subtract(triple.getB());
+				SpdzElement epsilon = in1.value.subtract(triple.getA(),
+						context.getModulus());
+				SpdzElement delta = in2.value.subtract(triple.getB(),
+						context.getModulus());
 
 				network.sendToAll(new BigInteger[] { epsilon.getShare(),
 						delta.getShare() });
@@ -148,15 +149,17 @@ public class SpdzMultGate extends SpdzNativeProtocol implements MultProtocol {
 				e = e.add(epsilonShares[i]);
 				d = d.add(deltaShares[i]);
 			}
-			e = e.mod(Util.getModulus());
-			d = d.mod(Util.getModulus());
-
-			BigInteger eTimesd = e.multiply(d).mod(Util.getModulus());
-			SpdzElement ed = new SpdzElement(eTimesd, store.getSSK()
-					.multiply(eTimesd).mod(Util.getModulus()));
-			res = res.add(triple.getB().multiply(e))
-					.add(triple.getA().multiply(d))
-					.add(ed, resourcePool.getMyId());
+			BigInteger modulus = context.getModulus();
+			ModularReducer reducer = context.getReducer();
+			e = reducer.reduce(e);
+			d = reducer.reduce(d);
+
+			BigInteger eTimesd = reducer.reduce(e.multiply(d));
+			SpdzElement ed = new SpdzElement(eTimesd,
+					reducer.reduce(context.getKeyShare().multiply(eTimesd)));
+			res = res.add(triple.getB().multiply(e, modulus), modulus)
+					.add(triple.getA().multiply(d, modulus), modulus)
+					.add(ed, resourcePool.getMyId(), modulus);
 			out.value = res;
 			// Set the opened and closed value.
 			store.addOpenedValue(e);
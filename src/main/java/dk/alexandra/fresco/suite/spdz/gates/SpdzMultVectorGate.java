@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.ModularReducer;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+
+/**
+ * Multiplies two vectors of SInts element-wise. This is the same as using a
+ * SpdzMultGate per element, except that all the epsilons and deltas are sent
+ * in a single message, triples are fetched at once and the opened values are
+ * recorded at once.
+ * 
+ * The message sent to each party is a single array containing the shares of
+ * epsilon_0, ..., epsilon_{n-1}, delta_0, ..., delta_{n-1}.
+ */
+public class SpdzMultVectorGate extends SpdzNativeProtocol {
+
+	private SpdzSInt[] in1, in2, out;
+	private SpdzTriple[] triples;
+	// My shares of the differences [x]-[a] and [y]-[b] - the first half are
+	// the epsilons, the second half the deltas.
+	private SpdzElement[] epsilonDelta;
+
+	public SpdzMultVectorGate(SInt[] in1, SInt[] in2, SInt[] out) {
+		if (in2.length < in1.length || out.length != in1.length) {
+			throw new MPCException(
+					"Vectors of lengths " + in1.length + ", " + in2.length
+							+ " and " + out.length + " cannot be multiplied");
+		}
+		this.in1 = new SpdzSInt[in1.length];
+		this.in2 = new SpdzSInt[in1.length];
+		this.out = new SpdzSInt[in1.length];
+		for (int i = 0; i < in1.length; i++) {
+			this.in1[i] = (SpdzSInt) in1[i];
+			this.in2[i] = (SpdzSInt) in2[i];
+			this.out[i] = (SpdzSInt) out[i];
+		}
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		SpdzContext context = getContext(resourcePool, network);
+		SpdzStorage store = context.getStore();
+		int n = in1.length;
+		switch (round) {
+		case 0:
+			this.triples = store.getSupplier().getNextTriples(n);
+			this.epsilonDelta = new SpdzElement[2 * n];
+			BigInteger[] shares = new BigInteger[2 * n];
+			for (int i = 0; i < n; i++) {
+				if (in1[i].value == null || in2[i].value == null) {
+					throw new MPCException("Input no. " + i
+							+ " of vector multiplication was not ready");
+				}
+				SpdzElement epsilon = in1[i].value.subtract(
+						triples[i].getA(), context.getModulus());
+				SpdzElement delta = in2[i].value.subtract(triples[i].getB(),
+						context.getModulus());
+				epsilonDelta[i] = epsilon;
+				epsilonDelta[n + i] = delta;
+				shares[i] = epsilon.getShare();
+				shares[n + i] = delta.getShare();
+			}
+			network.sendToAll(shares);
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			BigInteger modulus = context.getModulus();
+			ModularReducer reducer = context.getReducer();
+			List<BigInteger[]> received = network.receiveFromAll();
+			BigInteger[] opened = received.get(0).clone();
+			for (int p = 1; p < received.size(); p++) {
+				BigInteger[] other = received.get(p);
+				for (int i = 0; i < opened.length; i++) {
+					opened[i] = opened[i].add(other[i]);
+				}
+			}
+			for (int i = 0; i < opened.length; i++) {
+				opened[i] = reducer.reduce(opened[i]);
+			}
+			BigInteger ssk = context.getKeyShare();
+			int myId = resourcePool.getMyId();
+			for (int i = 0; i < n; i++) {
+				BigInteger e = opened[i];
+				BigInteger d = opened[n + i];
+				BigInteger eTimesd = reducer.reduce(e.multiply(d));
+				SpdzElement ed = new SpdzElement(eTimesd,
+						reducer.reduce(ssk.multiply(eTimesd)));
+				SpdzTriple triple = triples[i];
+				out[i].value = triple.getC()
+						.add(triple.getB().multiply(e, modulus), modulus)
+						.add(triple.getA().multiply(d, modulus), modulus)
+						.add(ed, myId, modulus);
+			}
+			store.addOpenedValues(opened);
+			store.addClosedValues(epsilonDelta);
+			// help the garbage collector.
+			in1 = null;
+			in2 = null;
+			triples = null;
+			epsilonDelta = null;
+			return EvaluationStatus.IS_DONE;
+		}
+		throw new MPCException("Cannot evaluate rounds larger than 1");
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		Value[] res = new Value[2 * in1.length];
+		System.arraycopy(in1, 0, res, 0, in1.length);
+		System.arraycopy(in2, 0, res, in1.length, in2.length);
+		return res;
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return out;
+	}
+
+}
@@ -26,6 +26,7 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.gates;
 
+import java.lang.ref.WeakReference;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.util.Arrays;
@@ -34,10 +35,40 @@ import java.util.List;
 import java.util.Map;
 
 import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.lib.helper.HalfCookedNativeProtocol;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 
 public abstract class SpdzNativeProtocol extends HalfCookedNativeProtocol {
-		
+
+	/**
+	 * The context last used by the current thread. All protocols of a batch
+	 * are evaluated by the same thread with the same resource pool, so the
+	 * suite is only consulted when a thread starts working on another SPDZ
+	 * instance or thread id. The context is only weakly referenced, such that
+	 * a long lived thread does not keep an instance that is no longer used
+	 * alive.
+	 */
+	private static final ThreadLocal<WeakReference<SpdzContext>> current = new ThreadLocal<WeakReference<SpdzContext>>();
+
+	/**
+	 * Returns the evaluation context of the SPDZ instance and thread this
+	 * protocol is being evaluated on.
+	 */
+	protected SpdzContext getContext(ResourcePool resourcePool,
+			SCENetwork network) {
+		int threadId = network.getThreadId();
+		WeakReference<SpdzContext> ref = current.get();
+		SpdzContext context = ref == null ? null : ref.get();
+		if (context == null || !context.belongsTo(resourcePool, threadId)) {
+			context = SpdzProtocolSuite.getInstance(resourcePool).getContext(
+					threadId);
+			current.set(new WeakReference<SpdzContext>(context));
+		}
+		return context;
+	}
+	
 	protected byte[] sendBroadcastValidation(MessageDigest dig, SCENetwork network, BigInteger b, int players) {
 		dig.update(b.toByteArray());
 		byte[] digest = dig.digest();
@@ -35,7 +35,7 @@ import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzCommitment;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
 
 public class SpdzOpenCommitGate extends SpdzNativeProtocol {
 
@@ -68,8 +68,7 @@ public class SpdzOpenCommitGate extends SpdzNativeProtocol {
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		SpdzProtocolSuite spdzPii = SpdzProtocolSuite
-				.getInstance(resourcePool.getMyId());
+		SpdzContext context = getContext(resourcePool, network);
 		int players = resourcePool.getNoOfParties();
 		switch (round) {
 		case 0: // Send your opening to all players
@@ -87,8 +86,8 @@ public class SpdzOpenCommitGate extends SpdzNativeProtocol {
 				BigInteger[] open = openings.get(i);
 				BigInteger com = commitments.get(i);
 				boolean validate = SpdzCommitment.checkCommitment(
-						spdzPii.getMessageDigest(network.getThreadId()), com,
-						open[0], open[1]);
+						context.getMessageDigest(), com,
+						open[0], open[1], context.getModulus());
 				openingValidated = openingValidated && validate;
 				ss.put(i, open[0]);
 				broadcastMessages[(i - 1) * 2] = open[0];
@@ -101,8 +100,7 @@ public class SpdzOpenCommitGate extends SpdzNativeProtocol {
 				done = true;
 			} else {
 				digest = sendBroadcastValidation(
-						spdzPii.getMessageDigest(network.getThreadId()),
-						network, Arrays.asList(broadcastMessages), players);
+						context.getMessageDigest(), network, Arrays.asList(broadcastMessages), players);
 				network.expectInputFromAll();
 			}
 			break;
@@ -40,7 +40,7 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
 import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
@@ -77,16 +77,15 @@ public class SpdzOutputGate extends SpdzNativeProtocol implements OpenIntProtoco
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		SpdzProtocolSuite spdzpii = SpdzProtocolSuite
-				.getInstance(resourcePool.getMyId());
+		SpdzContext context = getContext(resourcePool, network);
 		int myId = resourcePool.getMyId();
-		SpdzStorage storage = spdzpii.getStore(network.getThreadId());
+		SpdzStorage storage = context.getStore();
 		switch (round) {
 		case 0:
 			DataSupplier supplier = storage.getSupplier();
 			mask = supplier.getNextInputMask(target_player);
 			SpdzElement mask_elm = mask.getMask();
-			maskedOutput = in.value.add(mask_elm);
+			maskedOutput = in.value.add(mask_elm, context.getModulus());
 			network.sendToAll(maskedOutput.getShare());
 			network.expectInputFromAll();
 			break;
@@ -96,13 +95,13 @@ public class SpdzOutputGate extends SpdzNativeProtocol implements OpenIntProtoco
 			for (BigInteger maskedShare : maskedShares) {
 				maskedVal = maskedVal.add(maskedShare);
 			}
-			maskedVal = maskedVal.mod(Util.getModulus());
+			maskedVal = maskedVal.mod(context.getModulus());
 			storage.addOpenedValue(maskedVal);
 			storage.addClosedValue(in.value);
 			if (myId == target_player) {
 				BigInteger tmpOut = maskedVal.subtract(mask.getRealValue());
-				tmpOut = tmpOut.mod(Util.getModulus());
-				tmpOut = Util.convertRepresentation(tmpOut);
+				tmpOut = Util.convertRepresentation(tmpOut,
+						context.getModulus());
 				out.setValue(tmpOut);
 			}
 			done = true;
@@ -38,7 +38,7 @@ import dk.alexandra.fresco.framework.value.Value;
 import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
-import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
@@ -56,9 +56,8 @@ public class SpdzOutputToAllGate extends SpdzNativeProtocol implements
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
-		SpdzProtocolSuite spdzpii = SpdzProtocolSuite
-				.getInstance(resourcePool.getMyId());
-		SpdzStorage storage = spdzpii.getStore(network.getThreadId());
+		SpdzContext context = getContext(resourcePool, network);
+		SpdzStorage storage = context.getStore();
 		switch (round) {
 		case 0:
 			network.sendToAll(in.value.getShare());
@@ -70,11 +69,12 @@ public class SpdzOutputToAllGate extends SpdzNativeProtocol implements
 			for (BigInteger share : shares) {
 				openedVal = openedVal.add(share);
 			}
-			openedVal = openedVal.mod(Util.getModulus());
+			openedVal = openedVal.mod(context.getModulus());
 			storage.addOpenedValue(openedVal);
 			storage.addClosedValue(in.value);
 			BigInteger tmpOut = openedVal;
-			tmpOut = Util.convertRepresentation(tmpOut);
+			tmpOut = Util.convertRepresentation(tmpOut,
+					context.getModulus());
 			out.setValue(tmpOut);
 			return EvaluationStatus.IS_DONE;
 		default:
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.ModularReducer;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzContext;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
+
+/**
+ * Squares a value using a square pair ([a], [a^2]). Only epsilon = x - a is
+ * opened, after which x^2 = a^2 + 2 * epsilon * a + epsilon^2. Compared to
+ * multiplying x with itself using a triple this opens one value instead of
+ * two.
+ */
+public class SpdzSquareGate extends SpdzNativeProtocol implements MultProtocol {
+
+	private SpdzSInt in, out;
+	private SpdzSquare square;
+	private SpdzElement epsilon; // my share of the difference [x]-[a].
+
+	public SpdzSquareGate(SInt in, SInt out) {
+		this.in = (SpdzSInt) in;
+		this.out = (SpdzSInt) out;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		SpdzContext context = getContext(resourcePool, network);
+		SpdzStorage store = context.getStore();
+		switch (round) {
+		case 0:
+			this.square = store.getSupplier().getNextSquare();
+			this.epsilon = in.value.subtract(square.getA(),
+					context.getModulus());
+			network.sendToAll(epsilon.getShare());
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			BigInteger mod = context.getModulus();
+			ModularReducer reducer = context.getReducer();
+			BigInteger e = BigInteger.ZERO;
+			for (int i = 1; i <= resourcePool.getNoOfParties(); i++) {
+				BigInteger share = network.receive(i);
+				e = e.add(share);
+			}
+			e = reducer.reduce(e);
+			BigInteger ee = reducer.reduce(e.multiply(e));
+			SpdzElement eeElement = new SpdzElement(ee,
+					reducer.reduce(context.getKeyShare().multiply(ee)));
+			out.value = square.getB()
+					.add(square.getA().multiply(reducer.reduce(e.shiftLeft(1)), mod),
+							mod).add(eeElement, resourcePool.getMyId(), mod);
+			store.addOpenedValue(e);
+			store.addClosedValue(epsilon);
+			// help the garbage collector.
+			in = null;
+			square = null;
+			epsilon = null;
+			return EvaluationStatus.IS_DONE;
+		}
+		throw new MPCException("Cannot evaluate rounds larger than 1");
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { in };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+
+}
@@ -26,6 +26,8 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.gates;
 
+import java.math.BigInteger;
+
 import dk.alexandra.fresco.framework.network.SCENetwork;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.value.OInt;
@@ -90,12 +92,13 @@ public class SpdzSubtractGate extends SpdzNativeProtocol implements SubtractCirc
 	@Override
 	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
 			SCENetwork network) {
+		BigInteger modulus = getContext(resourcePool, network).getModulus();
 		if (openLeft != null) {
 			SpdzSInt converted = (SpdzSInt) provider.getSInt(openLeft
 					.getValue());
-			out.value = converted.value.subtract(right.value);
+			out.value = converted.value.subtract(right.value, modulus);
 		} else {
-			SpdzElement elm = left.value.subtract(right.value);
+			SpdzElement elm = left.value.subtract(right.value, modulus);
 			out.value = elm;
 		}
 		return EvaluationStatus.IS_DONE;
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.offline;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+/**
+ * Expands short seeds, such as the keys of oblivious transfers, into field
+ * elements, and packs field elements into byte arrays of fixed width for
+ * sending.
+ */
+class FieldPrg {
+
+	private final BigInteger mod;
+	private final int elementBytes;
+	private final int sampleBytes;
+	private final MessageDigest digest;
+
+	FieldPrg(BigInteger mod) {
+		this.mod = mod;
+		this.elementBytes = (mod.bitLength() + 7) / 8;
+		// Sample 64 bits more than needed, so the reduction is close to
+		// uniform.
+		this.sampleBytes = elementBytes + 8;
+		try {
+			this.digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new MPCException("SHA-256 is needed for MASCOT", e);
+		}
+	}
+
+	/**
+	 * Derives count field elements from a 128 bit seed and a tweak, which
+	 * makes seeds used in different places independent.
+	 */
+	BigInteger[] elements(long tweak, long seed0, long seed1, int count) {
+		byte[] seed = new byte[24];
+		putLong(seed, 0, tweak);
+		putLong(seed, 8, seed0);
+		putLong(seed, 16, seed1);
+		return elements(seed, count);
+	}
+
+	/**
+	 * Derives count field elements from the given seed.
+	 */
+	BigInteger[] elements(byte[] seed, int count) {
+		byte[] stream = new byte[count * sampleBytes];
+		byte[] counter = new byte[4];
+		int pos = 0;
+		for (int block = 0; pos < stream.length; block++) {
+			counter[0] = (byte) (block >>> 24);
+			counter[1] = (byte) (block >>> 16);
+			counter[2] = (byte) (block >>> 8);
+			counter[3] = (byte) block;
+			digest.update(seed);
+			digest.update(counter);
+			byte[] out = digest.digest();
+			int len = Math.min(out.length, stream.length - pos);
+			System.arraycopy(out, 0, stream, pos, len);
+			pos += len;
+		}
+		BigInteger[] res = new BigInteger[count];
+		byte[] sample = new byte[sampleBytes];
+		for (int i = 0; i < count; i++) {
+			System.arraycopy(stream, i * sampleBytes, sample, 0, sampleBytes);
+			res[i] = new BigInteger(1, sample).mod(mod);
+		}
+		return res;
+	}
+
+	/**
+	 * Packs reduced field elements into elementBytes bytes each.
+	 */
+	byte[] toBytes(BigInteger[] elements) {
+		byte[] res = new byte[elements.length * elementBytes];
+		for (int i = 0; i < elements.length; i++) {
+			byte[] b = elements[i].toByteArray();
+			int len = Math.min(b.length, elementBytes);
+			System.arraycopy(b, b.length - len, res, (i + 1) * elementBytes
+					- len, len);
+		}
+		return res;
+	}
+
+	BigInteger[] fromBytes(byte[] bytes) {
+		BigInteger[] res = new BigInteger[bytes.length / elementBytes];
+		byte[] b = new byte[elementBytes];
+		for (int i = 0; i < res.length; i++) {
+			System.arraycopy(bytes, i * elementBytes, b, 0, elementBytes);
+			res[i] = new BigInteger(1, b);
+		}
+		return res;
+	}
+
+	byte[] hash(byte[]... parts) {
+		for (byte[] p : parts) {
+			digest.update(p);
+		}
+		return digest.digest();
+	}
+
+	private static void putLong(byte[] b, int off, long v) {
+		for (int i = 0; i < 8; i++) {
+			b[off + i] = (byte) (v >>> (56 - 8 * i));
+		}
+	}
+}
@@ -0,0 +1,713 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.offline;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.ot.BaseOT;
+import dk.alexandra.fresco.framework.util.ot.OTExtensionReceiver;
+import dk.alexandra.fresco.framework.util.ot.OTExtensionSender;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+
+/**
+ * Generates SPDZ preprocessed data between the parties, following the MASCOT
+ * protocol of Keller, Orsini and Scholl: products of shares held by different
+ * parties are computed with oblivious transfer (Gilboa's protocol on top of
+ * {@link OTExtensionSender}), MACs are computed the same way with the bits of
+ * the MAC key share as the choices, and each triple is checked by sacrificing
+ * a second one. All opened values are verified by a batched MAC check.
+ * 
+ * An instance talks to all other parties over a single channel of the
+ * network, so several instances can run in parallel on different channels.
+ * Interactions with the other parties happen one pair at a time in the order
+ * of the party ids, which is deadlock free.
+ * 
+ * The OT extension runs the correlation check of Keller, Orsini and Scholl
+ * on top of base OTs that check every group element received, and every
+ * batch of MACs is checked as in the input protocol of MASCOT: a random
+ * linear combination of the authenticated values, masked by one extra random
+ * value, is opened and MAC checked, which catches a party using inconsistent
+ * MAC key shares in the OTs.
+ */
+public class Mascot {
+
+	/**
+	 * The number of candidate triples combined into each triple, to remove
+	 * leakage from selective failure attacks on the products.
+	 */
+	private static final int TAU = 3;
+
+	private final Network network;
+	private final String channel;
+	private final int myId;
+	private final int noOfParties;
+	private final BigInteger mod;
+	private final BigInteger alphaShare;
+	private final SecureRandom rand;
+	private final FieldPrg prg;
+	private final int bits;
+
+	/**
+	 * The index of the next OT expanded into field elements, which both ends
+	 * of the OTs of a pair of parties count the same way.
+	 */
+	private final Map<Integer, Long> tweaks = new HashMap<Integer, Long>();
+
+	private final Map<Integer, OTExtensionSender> senders = new HashMap<Integer, OTExtensionSender>();
+	private final Map<Integer, OTExtensionReceiver> receivers = new HashMap<Integer, OTExtensionReceiver>();
+
+	private final List<BigInteger> openedValues = new ArrayList<BigInteger>();
+	private final List<BigInteger> openedMacs = new ArrayList<BigInteger>();
+
+	/**
+	 * Sets up OT extension with all other parties.
+	 * 
+	 * @param network
+	 *            A connected network
+	 * @param channel
+	 *            The channel of the network to use
+	 * @param myId
+	 *            The id of this party
+	 * @param noOfParties
+	 *            The number of parties
+	 * @param modulus
+	 *            The prime modulus of the field
+	 * @param alphaShare
+	 *            This party's share of the MAC key
+	 * @param rand
+	 *            The source of randomness
+	 */
+	public Mascot(Network network, String channel, int myId, int noOfParties,
+			BigInteger modulus, BigInteger alphaShare, SecureRandom rand)
+			throws IOException {
+		this.network = network;
+		this.channel = channel;
+		this.myId = myId;
+		this.noOfParties = noOfParties;
+		this.mod = modulus;
+		this.alphaShare = alphaShare;
+		this.rand = rand;
+		this.prg = new FieldPrg(modulus);
+		this.bits = modulus.bitLength();
+		BaseOT baseOT = new BaseOT(network, channel, rand);
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j < myId) {
+				receivers.put(j, new OTExtensionReceiver(network, channel, j,
+						baseOT, rand));
+				senders.put(j, new OTExtensionSender(network, channel, j,
+						baseOT, rand));
+			} else if (j > myId) {
+				senders.put(j, new OTExtensionSender(network, channel, j,
+						baseOT, rand));
+				receivers.put(j, new OTExtensionReceiver(network, channel, j,
+						baseOT, rand));
+			}
+		}
+	}
+
+	/**
+	 * Generates authenticated, checked multiplication triples.
+	 */
+	public SpdzTriple[] generateTriples(int amount) throws IOException {
+		BigInteger[][] a = new BigInteger[amount][TAU];
+		BigInteger[] b = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			b[i] = sample();
+			for (int k = 0; k < TAU; k++) {
+				a[i][k] = sample();
+			}
+		}
+		BigInteger[][] c = crossProducts(a, b);
+		for (int i = 0; i < amount; i++) {
+			for (int k = 0; k < TAU; k++) {
+				c[i][k] = c[i][k].add(a[i][k].multiply(b[i])).mod(mod);
+			}
+		}
+
+		// Combine the candidates into a triple and a triple to sacrifice.
+		BigInteger[] r = jointRandom(2 * amount * TAU);
+		BigInteger[] values = new BigInteger[5 * amount];
+		for (int i = 0; i < amount; i++) {
+			BigInteger aa = BigInteger.ZERO, cc = BigInteger.ZERO;
+			BigInteger ah = BigInteger.ZERO, ch = BigInteger.ZERO;
+			for (int k = 0; k < TAU; k++) {
+				BigInteger r1 = r[2 * (i * TAU + k)];
+				BigInteger r2 = r[2 * (i * TAU + k) + 1];
+				aa = aa.add(r1.multiply(a[i][k]));
+				cc = cc.add(r1.multiply(c[i][k]));
+				ah = ah.add(r2.multiply(a[i][k]));
+				ch = ch.add(r2.multiply(c[i][k]));
+			}
+			values[i] = aa.mod(mod);
+			values[amount + i] = b[i];
+			values[2 * amount + i] = cc.mod(mod);
+			values[3 * amount + i] = ah.mod(mod);
+			values[4 * amount + i] = ch.mod(mod);
+		}
+		BigInteger[] macs = authenticate(values);
+
+		// Sacrifice: rho = s * a - a', then s * c - c' - rho * b must be 0.
+		BigInteger[] s = jointRandom(amount);
+		BigInteger[] rho = new BigInteger[amount];
+		BigInteger[] rhoMacs = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			rho[i] = s[i].multiply(values[i]).subtract(values[3 * amount + i])
+					.mod(mod);
+			rhoMacs[i] = s[i].multiply(macs[i]).subtract(macs[3 * amount + i])
+					.mod(mod);
+		}
+		rho = open(rho, rhoMacs);
+		BigInteger[] zero = new BigInteger[amount];
+		BigInteger[] zeroMacs = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			zero[i] = s[i].multiply(values[2 * amount + i])
+					.subtract(values[4 * amount + i])
+					.subtract(rho[i].multiply(values[amount + i])).mod(mod);
+			zeroMacs[i] = s[i].multiply(macs[2 * amount + i])
+					.subtract(macs[4 * amount + i])
+					.subtract(rho[i].multiply(macs[amount + i])).mod(mod);
+		}
+		for (BigInteger z : open(zero, zeroMacs)) {
+			if (z.signum() != 0) {
+				throw new MPCException("A triple failed the sacrifice check");
+			}
+		}
+		macCheck();
+
+		SpdzTriple[] triples = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			triples[i] = new SpdzTriple(new SpdzElement(values[i], macs[i]),
+					new SpdzElement(values[amount + i], macs[amount + i]),
+					new SpdzElement(values[2 * amount + i], macs[2 * amount
+							+ i]));
+		}
+		return triples;
+	}
+
+	/**
+	 * Generates authenticated random values only known by the given player.
+	 */
+	public SpdzInputMask[] generateInputMasks(int towardPlayerID, int amount)
+			throws IOException {
+		BigInteger[] values = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			values[i] = towardPlayerID == myId ? sample() : BigInteger.ZERO;
+		}
+		BigInteger[] macs = authenticate(values);
+		SpdzInputMask[] masks = new SpdzInputMask[amount];
+		for (int i = 0; i < amount; i++) {
+			SpdzElement e = new SpdzElement(values[i], macs[i]);
+			masks[i] = towardPlayerID == myId ? new SpdzInputMask(e, values[i])
+					: new SpdzInputMask(e);
+		}
+		return masks;
+	}
+
+	/**
+	 * Generates authenticated square pairs. For a triple (a, b, c) the
+	 * difference e = a - b is opened, which reveals nothing about b as a is
+	 * uniformly random, and b^2 = c - e * b.
+	 */
+	public SpdzSquare[] generateSquares(int amount) throws IOException {
+		SpdzTriple[] triples = generateTriples(amount);
+		BigInteger[] diffs = new BigInteger[amount];
+		BigInteger[] diffMacs = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			SpdzElement a = triples[i].getA(), b = triples[i].getB();
+			diffs[i] = a.getShare().subtract(b.getShare()).mod(mod);
+			diffMacs[i] = a.getMac().subtract(b.getMac()).mod(mod);
+		}
+		BigInteger[] opened = open(diffs, diffMacs);
+		macCheck();
+		SpdzSquare[] res = new SpdzSquare[amount];
+		for (int i = 0; i < amount; i++) {
+			SpdzElement b = triples[i].getB();
+			SpdzElement c = triples[i].getC();
+			SpdzElement bb = new SpdzElement(c.getShare().subtract(
+					opened[i].multiply(b.getShare())).mod(mod), c.getMac()
+					.subtract(opened[i].multiply(b.getMac())).mod(mod));
+			res[i] = new SpdzSquare(b, bb);
+		}
+		return res;
+	}
+
+	/**
+	 * Generates authenticated random bits. A random value a is squared using
+	 * a triple, and the bit is (a / sqrt(a^2) + 1) / 2.
+	 */
+	public SpdzSInt[] generateBits(int amount) throws IOException {
+		BigInteger[] a = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			a[i] = sample();
+		}
+		BigInteger[] aMacs = authenticate(a);
+		SpdzTriple[] triples = generateTriples(amount);
+
+		BigInteger[] masked = new BigInteger[2 * amount];
+		BigInteger[] maskedMacs = new BigInteger[2 * amount];
+		for (int i = 0; i < amount; i++) {
+			SpdzElement x = triples[i].getA(), y = triples[i].getB();
+			masked[i] = a[i].subtract(x.getShare()).mod(mod);
+			maskedMacs[i] = aMacs[i].subtract(x.getMac()).mod(mod);
+			masked[amount + i] = a[i].subtract(y.getShare()).mod(mod);
+			maskedMacs[amount + i] = aMacs[i].subtract(y.getMac()).mod(mod);
+		}
+		BigInteger[] opened = open(masked, maskedMacs);
+
+		BigInteger[] squares = new BigInteger[amount];
+		BigInteger[] squareMacs = new BigInteger[amount];
+		for (int i = 0; i < amount; i++) {
+			BigInteger e = opened[i], d = opened[amount + i];
+			SpdzTriple t = triples[i];
+			BigInteger ed = e.multiply(d);
+			squares[i] = t.getC().getShare().add(e.multiply(t.getB().getShare()))
+					.add(d.multiply(t.getA().getShare()))
+					.add(myId == 1 ? ed : BigInteger.ZERO).mod(mod);
+			squareMacs[i] = t.getC().getMac().add(e.multiply(t.getB().getMac()))
+					.add(d.multiply(t.getA().getMac()))
+					.add(alphaShare.multiply(ed)).mod(mod);
+		}
+		squares = open(squares, squareMacs);
+		macCheck();
+
+		BigInteger half = BigInteger.valueOf(2).modInverse(mod);
+		SpdzSInt[] res = new SpdzSInt[amount];
+		for (int i = 0; i < amount; i++) {
+			if (squares[i].signum() == 0) {
+				// Happens with negligible probability.
+				throw new MPCException("A random value was zero");
+			}
+			BigInteger inv = sqrt(squares[i]).modInverse(mod);
+			BigInteger share = a[i].multiply(inv);
+			BigInteger mac = aMacs[i].multiply(inv).add(alphaShare);
+			if (myId == 1) {
+				share = share.add(BigInteger.ONE);
+			}
+			res[i] = new SpdzSInt(new SpdzElement(share.multiply(half).mod(mod),
+					mac.multiply(half).mod(mod)));
+		}
+		return res;
+	}
+
+	/**
+	 * Generates authenticated exp pipes, i.e., sharings of r^-1, r, r^2, ...,
+	 * r^(length - 1) for random r. The inverse is s * (r * s)^-1 for another
+	 * random s, where r * s is opened, and the powers are computed one at a
+	 * time with triples.
+	 */
+	public SpdzSInt[][] generateExpPipes(int amount, int length)
+			throws IOException {
+		if (length < 2) {
+			throw new MPCException("An exp pipe needs at least r^-1 and r");
+		}
+		BigInteger[] rs = new BigInteger[2 * amount];
+		for (int i = 0; i < rs.length; i++) {
+			rs[i] = sample();
+		}
+		BigInteger[] rsMacs = authenticate(rs);
+		BigInteger[] r = Arrays.copyOf(rs, amount);
+		BigInteger[] rMacs = Arrays.copyOf(rsMacs, amount);
+		BigInteger[] s = Arrays.copyOfRange(rs, amount, 2 * amount);
+		BigInteger[] sMacs = Arrays.copyOfRange(rsMacs, amount, 2 * amount);
+		SpdzTriple[] triples = generateTriples(amount * (length - 1));
+
+		SpdzSInt[][] pipes = new SpdzSInt[amount][length];
+		BigInteger[][] product = multiply(r, rMacs, s, sMacs, triples, 0);
+		BigInteger[] opened = open(product[0], product[1]);
+		for (int i = 0; i < amount; i++) {
+			if (opened[i].signum() == 0) {
+				// Happens with negligible probability.
+				throw new MPCException("A random value was zero");
+			}
+			BigInteger inv = opened[i].modInverse(mod);
+			pipes[i][0] = new SpdzSInt(new SpdzElement(s[i].multiply(inv)
+					.mod(mod), sMacs[i].multiply(inv).mod(mod)));
+			pipes[i][1] = new SpdzSInt(new SpdzElement(r[i], rMacs[i]));
+		}
+		BigInteger[] power = r;
+		BigInteger[] powerMacs = rMacs;
+		for (int e = 2; e < length; e++) {
+			product = multiply(power, powerMacs, r, rMacs, triples, (e - 1)
+					* amount);
+			power = product[0];
+			powerMacs = product[1];
+			for (int i = 0; i < amount; i++) {
+				pipes[i][e] = new SpdzSInt(new SpdzElement(power[i],
+						powerMacs[i]));
+			}
+		}
+		macCheck();
+		return pipes;
+	}
+
+	/**
+	 * Multiplies shared values with the triples from the given offset, by
+	 * opening x - a and y - b.
+	 * 
+	 * @return The shares of the products, followed by their MAC shares
+	 */
+	private BigInteger[][] multiply(BigInteger[] x, BigInteger[] xMacs,
+			BigInteger[] y, BigInteger[] yMacs, SpdzTriple[] triples,
+			int offset) throws IOException {
+		int n = x.length;
+		BigInteger[] masked = new BigInteger[2 * n];
+		BigInteger[] maskedMacs = new BigInteger[2 * n];
+		for (int i = 0; i < n; i++) {
+			SpdzTriple t = triples[offset + i];
+			masked[i] = x[i].subtract(t.getA().getShare()).mod(mod);
+			maskedMacs[i] = xMacs[i].subtract(t.getA().getMac()).mod(mod);
+			masked[n + i] = y[i].subtract(t.getB().getShare()).mod(mod);
+			maskedMacs[n + i] = yMacs[i].subtract(t.getB().getMac()).mod(mod);
+		}
+		BigInteger[] opened = open(masked, maskedMacs);
+		BigInteger[][] res = new BigInteger[2][n];
+		for (int i = 0; i < n; i++) {
+			SpdzTriple t = triples[offset + i];
+			BigInteger d = opened[i], e = opened[n + i];
+			BigInteger de = d.multiply(e);
+			res[0][i] = t.getC().getShare().add(d.multiply(t.getB().getShare()))
+					.add(e.multiply(t.getA().getShare()))
+					.add(myId == 1 ? de : BigInteger.ZERO).mod(mod);
+			res[1][i] = t.getC().getMac().add(d.multiply(t.getB().getMac()))
+					.add(e.multiply(t.getA().getMac()))
+					.add(alphaShare.multiply(de)).mod(mod);
+		}
+		return res;
+	}
+
+	/**
+	 * Computes this party's share of the MACs on the values whose shares are
+	 * given, i.e., of alpha * x, where both alpha and x are shared. The MACs
+	 * are checked by opening a random combination of the values, including
+	 * an extra random value which hides the combination.
+	 */
+	BigInteger[] authenticate(BigInteger[] shares) throws IOException {
+		BigInteger[] padded = Arrays.copyOf(shares, shares.length + 1);
+		padded[shares.length] = sample();
+		BigInteger[] macs = crossProducts(new BigInteger[][] { padded },
+				new BigInteger[] { alphaShare })[0];
+		for (int i = 0; i < padded.length; i++) {
+			macs[i] = macs[i].add(alphaShare.multiply(padded[i])).mod(mod);
+		}
+		BigInteger[] r = jointRandom(padded.length);
+		BigInteger y = BigInteger.ZERO;
+		BigInteger m = BigInteger.ZERO;
+		for (int i = 0; i < padded.length; i++) {
+			y = y.add(r[i].multiply(padded[i]));
+			m = m.add(r[i].multiply(macs[i]));
+		}
+		open(new BigInteger[] { y.mod(mod) }, new BigInteger[] { m.mod(mod) });
+		macCheck();
+		return Arrays.copyOf(macs, shares.length);
+	}
+
+	/**
+	 * Computes additive shares of x^(i)_k * y^(j) for all pairs of different
+	 * parties i and j, where party i holds the vectors x^(i) and scalars
+	 * y^(i).
+	 */
+	private BigInteger[][] crossProducts(BigInteger[][] x, BigInteger[] y)
+			throws IOException {
+		int count = x[0].length;
+		BigInteger[][] res = new BigInteger[y.length][count];
+		for (BigInteger[] row : res) {
+			Arrays.fill(row, BigInteger.ZERO);
+		}
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j < myId) {
+				add(res, multiplyAsReceiver(j, y, count));
+				add(res, multiplyAsSender(j, x));
+			} else if (j > myId) {
+				add(res, multiplyAsSender(j, x));
+				add(res, multiplyAsReceiver(j, y, count));
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Gilboa's protocol, as the party holding x. For each bit b of the other
+	 * party's y, it learns either t0 or t0 + x, and this party gets -t0.
+	 */
+	private BigInteger[][] multiplyAsSender(int partyId, BigInteger[][] x)
+			throws IOException {
+		int count = x[0].length;
+		long[][][] keys = senders.get(partyId).extend(x.length * bits);
+		long tweak = nextTweak(partyId, keys.length);
+		BigInteger[][] t0 = new BigInteger[keys.length][];
+		BigInteger[] corrections = new BigInteger[keys.length * count];
+		for (int o = 0; o < keys.length; o++) {
+			t0[o] = prg.elements(tweak + o, keys[o][0][0], keys[o][0][1], count);
+			BigInteger[] t1 = prg.elements(tweak + o, keys[o][1][0],
+					keys[o][1][1], count);
+			for (int k = 0; k < count; k++) {
+				corrections[o * count + k] = t0[o][k].subtract(t1[k])
+						.add(x[o / bits][k]).mod(mod);
+			}
+		}
+		network.send(channel, partyId, prg.toBytes(corrections));
+		BigInteger[][] res = new BigInteger[x.length][count];
+		for (int i = 0; i < x.length; i++) {
+			for (int k = 0; k < count; k++) {
+				BigInteger sum = BigInteger.ZERO;
+				for (int b = bits - 1; b >= 0; b--) {
+					sum = sum.shiftLeft(1).add(t0[i * bits + b][k]);
+				}
+				res[i][k] = sum.negate().mod(mod);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Gilboa's protocol, as the party holding y.
+	 */
+	private BigInteger[][] multiplyAsReceiver(int partyId, BigInteger[] y,
+			int count) throws IOException {
+		boolean[] choices = new boolean[y.length * bits];
+		for (int i = 0; i < y.length; i++) {
+			for (int b = 0; b < bits; b++) {
+				choices[i * bits + b] = y[i].testBit(b);
+			}
+		}
+		long[][] keys = receivers.get(partyId).extend(choices);
+		long tweak = nextTweak(partyId, keys.length);
+		byte[] bytes = network.receive(channel, partyId);
+		BigInteger[] corrections = prg.fromBytes(bytes);
+		if (corrections.length != keys.length * count) {
+			throw new MPCException("Party " + partyId
+					+ " sent the wrong number of OT corrections");
+		}
+		BigInteger[][] chosen = new BigInteger[keys.length][];
+		for (int o = 0; o < keys.length; o++) {
+			chosen[o] = prg.elements(tweak + o, keys[o][0], keys[o][1], count);
+			if (choices[o]) {
+				for (int k = 0; k < count; k++) {
+					chosen[o][k] = chosen[o][k].add(corrections[o * count + k]);
+				}
+			}
+		}
+		BigInteger[][] res = new BigInteger[y.length][count];
+		for (int i = 0; i < y.length; i++) {
+			for (int k = 0; k < count; k++) {
+				BigInteger sum = BigInteger.ZERO;
+				for (int b = bits - 1; b >= 0; b--) {
+					sum = sum.shiftLeft(1).add(chosen[i * bits + b][k]);
+				}
+				res[i][k] = sum.mod(mod);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Reserves the tweaks of the next count OTs with the given party. The
+	 * OTs in both directions between a pair of parties share the counter, as
+	 * both parties run them in the same order.
+	 */
+	private long nextTweak(int partyId, int count) {
+		Long tweak = tweaks.get(partyId);
+		long res = tweak == null ? 0 : tweak;
+		tweaks.put(partyId, res + count);
+		return res;
+	}
+
+	private void add(BigInteger[][] acc, BigInteger[][] x) {
+		for (int i = 0; i < acc.length; i++) {
+			for (int k = 0; k < acc[i].length; k++) {
+				acc[i][k] = acc[i][k].add(x[i][k]).mod(mod);
+			}
+		}
+	}
+
+	/**
+	 * Opens shared values. The values and MAC shares are kept for the next
+	 * {@link #macCheck()}.
+	 */
+	private BigInteger[] open(BigInteger[] shares, BigInteger[] macs)
+			throws IOException {
+		byte[][] all = exchange(prg.toBytes(shares));
+		BigInteger[] res = shares.clone();
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j != myId) {
+				BigInteger[] theirs = prg.fromBytes(all[j - 1]);
+				for (int i = 0; i < res.length; i++) {
+					res[i] = res[i].add(theirs[i]);
+				}
+			}
+		}
+		for (int i = 0; i < res.length; i++) {
+			res[i] = res[i].mod(mod);
+			openedValues.add(res[i]);
+			openedMacs.add(macs[i]);
+		}
+		return res;
+	}
+
+	/**
+	 * Checks the MACs of all values opened since the last check, using a
+	 * random linear combination of them.
+	 */
+	public void macCheck() throws IOException {
+		if (openedValues.isEmpty()) {
+			return;
+		}
+		BigInteger[] r = jointRandom(openedValues.size());
+		BigInteger y = BigInteger.ZERO;
+		BigInteger m = BigInteger.ZERO;
+		for (int i = 0; i < r.length; i++) {
+			y = y.add(r[i].multiply(openedValues.get(i)));
+			m = m.add(r[i].multiply(openedMacs.get(i)));
+		}
+		BigInteger sigma = m.subtract(alphaShare.multiply(y)).mod(mod);
+		BigInteger sum = BigInteger.ZERO;
+		for (byte[] s : commitAndOpen(prg.toBytes(new BigInteger[] { sigma }))) {
+			sum = sum.add(prg.fromBytes(s)[0]);
+		}
+		openedValues.clear();
+		openedMacs.clear();
+		if (sum.mod(mod).signum() != 0) {
+			throw new MPCException("MAC check failed");
+		}
+	}
+
+	/**
+	 * Coin flipping: agrees on random field elements no party can bias.
+	 */
+	private BigInteger[] jointRandom(int count) throws IOException {
+		byte[] seed = new byte[16];
+		rand.nextBytes(seed);
+		byte[][] all = commitAndOpen(seed);
+		return prg.elements(prg.hash(all), count);
+	}
+
+	/**
+	 * Commits to a value, and opens it when all other parties have committed.
+	 * 
+	 * @return The values of all parties, indexed by party id - 1
+	 */
+	private byte[][] commitAndOpen(byte[] value) throws IOException {
+		byte[] salt = new byte[16];
+		rand.nextBytes(salt);
+		byte[][] commitments = exchange(prg.hash(value, salt));
+		byte[] opening = new byte[value.length + salt.length];
+		System.arraycopy(value, 0, opening, 0, value.length);
+		System.arraycopy(salt, 0, opening, value.length, salt.length);
+		byte[][] openings = exchange(opening);
+		byte[][] res = new byte[noOfParties][];
+		for (int j = 1; j <= noOfParties; j++) {
+			byte[] o = openings[j - 1];
+			int len = o.length - salt.length;
+			byte[] v = Arrays.copyOf(o, len);
+			byte[] s = Arrays.copyOfRange(o, len, o.length);
+			if (!Arrays.equals(commitments[j - 1], prg.hash(v, s))) {
+				throw new MPCException("Party " + j
+						+ " opened a commitment to another value");
+			}
+			res[j - 1] = v;
+		}
+		return res;
+	}
+
+	/**
+	 * Sends data to all other parties and receives theirs.
+	 * 
+	 * @return The data of all parties, indexed by party id - 1
+	 */
+	private byte[][] exchange(byte[] data) throws IOException {
+		byte[][] res = new byte[noOfParties][];
+		res[myId - 1] = data;
+		for (int j = 1; j <= noOfParties; j++) {
+			if (j < myId) {
+				res[j - 1] = network.receive(channel, j);
+				network.send(channel, j, data);
+			} else if (j > myId) {
+				network.send(channel, j, data);
+				res[j - 1] = network.receive(channel, j);
+			}
+		}
+		return res;
+	}
+
+	private BigInteger sample() {
+		BigInteger r;
+		do {
+			r = new BigInteger(bits, rand);
+		} while (r.compareTo(mod) >= 0);
+		return r;
+	}
+
+	/**
+	 * A square root modulo the prime modulus (Tonelli-Shanks). All parties
+	 * compute the same root of the same square.
+	 */
+	BigInteger sqrt(BigInteger square) {
+		BigInteger one = BigInteger.ONE;
+		BigInteger pMinusOne = mod.subtract(one);
+		if (mod.testBit(1)) {
+			// p = 3 mod 4
+			return square.modPow(mod.add(one).shiftRight(2), mod);
+		}
+		int s = pMinusOne.getLowestSetBit();
+		BigInteger q = pMinusOne.shiftRight(s);
+		BigInteger z = BigInteger.valueOf(2);
+		while (z.modPow(pMinusOne.shiftRight(1), mod).equals(one)) {
+			z = z.add(one);
+		}
+		BigInteger c = z.modPow(q, mod);
+		BigInteger r = square.modPow(q.add(one).shiftRight(1), mod);
+		BigInteger t = square.modPow(q, mod);
+		int m = s;
+		while (!t.equals(one)) {
+			int i = 0;
+			BigInteger t2 = t;
+			while (!t2.equals(one)) {
+				t2 = t2.multiply(t2).mod(mod);
+				i++;
+			}
+			BigInteger b = c.modPow(one.shiftLeft(m - i - 1), mod);
+			r = r.multiply(b).mod(mod);
+			c = b.multiply(b).mod(mod);
+			t = t.multiply(c).mod(mod);
+			m = i;
+		}
+		return r;
+	}
+}
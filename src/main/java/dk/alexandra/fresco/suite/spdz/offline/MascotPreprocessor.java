@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.offline;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Runs {@link Mascot} between the parties and puts the result into the FRESCO
+ * storage under the keys the {@link
+ * dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl} reads, i.e., as an
+ * alternative to fetching preprocessed data with the DataRetrieverImpl.
+ * 
+ * Each thread of the online phase gets its data from its own MASCOT instance,
+ * running on the network channel with the same number as the thread. The
+ * network must hence have been created with at least as many channels as
+ * threads.
+ */
+public class MascotPreprocessor {
+
+	private static final int BATCH_SIZE = 1000;
+
+	private final Network network;
+	private final int myId;
+	private final int noOfParties;
+	private final BigInteger modulus;
+	private final BigInteger alphaShare;
+	private final SecureRandom rand;
+
+	/**
+	 * @param network
+	 *            A connected network
+	 * @param myId
+	 *            The id of this party
+	 * @param noOfParties
+	 *            The number of parties
+	 * @param modulus
+	 *            The prime modulus of the field, which all parties must agree
+	 *            on
+	 * @param rand
+	 *            The source of randomness, e.g. for the MAC key share
+	 */
+	public MascotPreprocessor(Network network, int myId, int noOfParties,
+			BigInteger modulus, SecureRandom rand) {
+		this.network = network;
+		this.myId = myId;
+		this.noOfParties = noOfParties;
+		this.modulus = modulus;
+		this.rand = rand;
+		this.alphaShare = new BigInteger(modulus.bitLength() + 64, rand)
+				.mod(modulus);
+	}
+
+	/**
+	 * Generates the given amounts of preprocessed data for each thread and
+	 * stores it, together with the modulus and this party's MAC key share.
+	 * 
+	 * @param storage
+	 *            The storage to put the data in
+	 * @param storageName
+	 *            The name of the 'database' the data supplier reads from
+	 * @param noOfThreads
+	 *            The number of threads of the online phase
+	 * @param triples
+	 *            The number of triples per thread
+	 * @param bits
+	 *            The number of bits per thread
+	 * @param inputMasks
+	 *            The number of input masks toward each party per thread
+	 */
+	public void fillStorage(Storage storage, String storageName,
+			int noOfThreads, int triples, int bits, int inputMasks) {
+		fillStorage(storage, storageName, noOfThreads, triples, 0, bits,
+				inputMasks);
+	}
+
+	/**
+	 * As {@link #fillStorage(Storage, String, int, int, int, int)}, but also
+	 * generates the given number of square pairs per thread.
+	 */
+	public void fillStorage(Storage storage, String storageName,
+			int noOfThreads, int triples, int squares, int bits, int inputMasks) {
+		fillStorage(storage, storageName, noOfThreads, triples, squares, bits,
+				inputMasks, 0, Util.EXP_PIPE_SIZE);
+	}
+
+	/**
+	 * As {@link #fillStorage(Storage, String, int, int, int, int, int)}, but
+	 * also generates the given number of exp pipes of the given length per
+	 * thread. Each exp pipe costs length - 1 triples.
+	 */
+	public void fillStorage(final Storage storage, final String storageName,
+			final int noOfThreads, final int triples, final int squares,
+			final int bits, final int inputMasks, final int expPipes,
+			final int expPipeLength) {
+		storage.putObject(storageName, SpdzStorageConstants.MODULUS_KEY,
+				modulus);
+		storage.putObject(storageName, SpdzStorageConstants.SSK_KEY,
+				alphaShare);
+		long start = System.currentTimeMillis();
+		final List<Exception> failures = new ArrayList<Exception>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < noOfThreads; t++) {
+			final int threadId = t;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						fill(storage, storageName, threadId, noOfThreads,
+								triples, squares, bits, inputMasks, expPipes,
+								expPipeLength);
+					} catch (Exception e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			}, "Mascot-" + myId + "-" + t);
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				throw new MPCException("Interrupted while preprocessing", e);
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new MPCException("Preprocessing failed", failures.get(0));
+		}
+		double seconds = Math.max(System.currentTimeMillis() - start, 1) / 1000.0;
+		Reporter.info("MASCOT generated " + (long) triples * noOfThreads
+				+ " triples, " + (long) squares * noOfThreads + " squares, "
+				+ (long) bits * noOfThreads + " bits, "
+				+ (long) inputMasks * noOfThreads * noOfParties
+				+ " input masks and " + (long) expPipes * noOfThreads
+				+ " exp pipes in " + seconds + " s ("
+				+ (long) (triples * noOfThreads / seconds) + " triples/s)");
+	}
+
+	private void fill(Storage storage, String storageName, int threadId,
+			int noOfThreads, int triples, int squares, int bits,
+			int inputMasks, int expPipes, int expPipeLength) throws IOException {
+		Mascot mascot = new Mascot(network, String.valueOf(threadId), myId,
+				noOfParties, modulus, alphaShare, rand);
+		for (int done = 0; done < triples; done += BATCH_SIZE) {
+			SpdzTriple[] batch = mascot.generateTriples(Math.min(BATCH_SIZE,
+					triples - done));
+			put(storage, storageName, SpdzStorageConstants.TRIPLE_KEY_PREFIX,
+					batch, done, threadId, noOfThreads);
+		}
+		for (int done = 0; done < squares; done += BATCH_SIZE) {
+			SpdzSquare[] batch = mascot.generateSquares(Math.min(BATCH_SIZE,
+					squares - done));
+			put(storage, storageName, SpdzStorageConstants.SQUARE_KEY_PREFIX,
+					batch, done, threadId, noOfThreads);
+		}
+		for (int done = 0; done < bits; done += BATCH_SIZE) {
+			SpdzSInt[] batch = mascot.generateBits(Math.min(BATCH_SIZE, bits
+					- done));
+			put(storage, storageName, SpdzStorageConstants.BIT_KEY_PREFIX,
+					batch, done, threadId, noOfThreads);
+		}
+		int pipeBatch = Math.max(1, BATCH_SIZE / expPipeLength);
+		for (int done = 0; done < expPipes; done += pipeBatch) {
+			SpdzSInt[][] batch = mascot.generateExpPipes(Math.min(pipeBatch,
+					expPipes - done), expPipeLength);
+			put(storage, storageName, SpdzStorageConstants.EXP_PIPE_KEY_PREFIX,
+					batch, done, threadId, noOfThreads);
+		}
+		for (int p = 1; p <= noOfParties; p++) {
+			for (int done = 0; done < inputMasks; done += BATCH_SIZE) {
+				SpdzInputMask[] batch = mascot.generateInputMasks(p,
+						Math.min(BATCH_SIZE, inputMasks - done));
+				put(storage, storageName, SpdzStorageConstants.INPUT_KEY_PREFIX
+						+ p + "_", batch, done, threadId, noOfThreads);
+			}
+		}
+	}
+
+	/**
+	 * Stores elements under the counters the given thread reads them from.
+	 */
+	private void put(Storage storage, String storageName, String prefix,
+			Serializable[] elements, int offset, int threadId, int noOfThreads) {
+		// The storage is not necessarily thread safe.
+		synchronized (storage) {
+			for (int i = 0; i < elements.length; i++) {
+				storage.putObject(storageName, prefix
+						+ (threadId + (offset + i) * noOfThreads), elements[i]);
+			}
+		}
+	}
+}
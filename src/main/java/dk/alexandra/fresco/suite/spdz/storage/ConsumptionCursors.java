@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+
+/**
+ * Durable record of how far a single thread has consumed each kind of
+ * preprocessed data, such that a restarted run continues where the previous
+ * one stopped instead of reusing triples, squares, bits, exp pipes or input
+ * masks.
+ * 
+ * The cursors live in a small memory mapped file, one per party and thread.
+ * To keep checkpointing cheap, positions are reserved a block at a time: when
+ * a supplier reaches the end of its reservation, the end of the next block is
+ * written and forced to disk before any element of that block is handed out.
+ * After a crash a run therefore resumes at the end of the last reserved block,
+ * skipping at most one block of each kind, but never supplying an element
+ * twice.
+ * 
+ * Positions are the storage counters of {@link DataSupplierImpl}, i.e., they
+ * start at the thread id and step by the number of threads. A cursor file can
+ * hence only be reopened with the same thread layout.
+ * 
+ * The file also holds an identifier of the preprocessed data it was written
+ * for, e.g. {@link FileDataSupplier#dataSetId}. When it is opened for other
+ * data, e.g. after the preprocessing has been regenerated, the positions are
+ * reset to the beginning, as none of the new data has been used.
+ * 
+ * The file starts with a magic number and the version of its format. A file
+ * of another version is rejected rather than reset, as its positions may
+ * still guard data that has been used.
+ */
+public class ConsumptionCursors implements Closeable {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1000;
+	public static final int DATA_SET_ID_BYTES = 32;
+
+	public static final int TRIPLES = 0;
+	public static final int EXP_PIPES = 1;
+	public static final int BITS = 2;
+	public static final int SQUARES = 3;
+	private static final int INPUT_MASKS = 4;
+
+	public static final int FORMAT_VERSION = 2;
+
+	private static final int MAGIC = 0x53504356;
+	// The magic of the first format, which had no version field.
+	private static final int UNVERSIONED_MAGIC = 0x53504355;
+	private static final int STORAGE_ID_OFFSET = 8;
+	private static final int THREADS_OFFSET = 12;
+	private static final int PARTIES_OFFSET = 16;
+	private static final int DATA_SET_OFFSET = 20;
+	private static final int HEADER_BYTES = DATA_SET_OFFSET
+			+ DATA_SET_ID_BYTES;
+
+	private final RandomAccessFile file;
+	private final MappedByteBuffer buffer;
+	private final long[] positions;
+	private final int step;
+	private final int storageId;
+	private final int noOfThreadsUsed;
+	private final int noOfParties;
+	private final byte[] dataSetId;
+
+	/**
+	 * Opens the cursors of a thread, creating the file if it does not exist.
+	 * 
+	 * @param file
+	 *            The file holding the cursors of this party and thread
+	 * @param dataSetId
+	 *            The identifier of the preprocessed data consumed, of
+	 *            {@link #DATA_SET_ID_BYTES} bytes
+	 * @param storageId
+	 *            The id of the thread using the cursors
+	 * @param noOfThreadsUsed
+	 *            The number of threads, i.e., the delta between two counters
+	 *            of the thread
+	 * @param noOfParties
+	 *            The number of parties, i.e., the number of input mask kinds
+	 * @param blockSize
+	 *            The number of elements of a kind reserved per write to disk
+	 */
+	public ConsumptionCursors(File file, byte[] dataSetId, int storageId,
+			int noOfThreadsUsed, int noOfParties, int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be positive");
+		}
+		if (dataSetId.length != DATA_SET_ID_BYTES) {
+			throw new IllegalArgumentException("Data set id must have "
+					+ DATA_SET_ID_BYTES + " bytes");
+		}
+		this.storageId = storageId;
+		this.noOfThreadsUsed = noOfThreadsUsed;
+		this.noOfParties = noOfParties;
+		this.dataSetId = dataSetId.clone();
+		this.step = noOfThreadsUsed * blockSize;
+		this.positions = new long[INPUT_MASKS + noOfParties];
+		int size = HEADER_BYTES + 8 * positions.length;
+		try {
+			this.file = new RandomAccessFile(file, "rw");
+			checkVersion(file);
+			if (this.file.length() > 0 && this.file.length() != size) {
+				this.file.close();
+				throw new MPCException("Cursor file " + file
+						+ " does not match " + noOfParties + " parties");
+			}
+			this.buffer = this.file.getChannel().map(
+					FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException e) {
+			throw new MPCException("Could not open cursor file " + file, e);
+		}
+		byte[] written = new byte[DATA_SET_ID_BYTES];
+		for (int i = 0; i < written.length; i++) {
+			written[i] = buffer.get(DATA_SET_OFFSET + i);
+		}
+		if (buffer.getInt(0) != MAGIC) {
+			initialize();
+		} else if (!Arrays.equals(written, this.dataSetId)) {
+			Reporter.info("Cursor file " + file
+					+ " was written for other preprocessed data. "
+					+ "Starting from the beginning of the new data.");
+			initialize();
+		} else {
+			if (buffer.getInt(STORAGE_ID_OFFSET) != storageId
+					|| buffer.getInt(THREADS_OFFSET) != noOfThreadsUsed
+					|| buffer.getInt(PARTIES_OFFSET) != noOfParties) {
+				close();
+				throw new MPCException("Cursor file " + file
+						+ " was written with another thread layout than thread "
+						+ storageId + " of " + noOfThreadsUsed + " threads");
+			}
+			for (int i = 0; i < positions.length; i++) {
+				positions[i] = buffer.getLong(HEADER_BYTES + 8 * i);
+			}
+		}
+	}
+
+	/**
+	 * Rejects files written in another format. Files without a magic number
+	 * were never completely initialised, and are initialised again.
+	 */
+	private void checkVersion(File f) throws IOException {
+		if (file.length() < 8) {
+			return;
+		}
+		file.seek(0);
+		int magic = file.readInt();
+		int version = file.readInt();
+		if (magic == UNVERSIONED_MAGIC) {
+			file.close();
+			throw new MPCException("Cursor file " + f
+					+ " was written by an older version of FRESCO, in a format"
+					+ " without a version. Its positions cannot be resumed"
+					+ " from: delete it and regenerate the preprocessed data,"
+					+ " or continue the run with the version that wrote it");
+		}
+		if (magic == MAGIC && version != FORMAT_VERSION) {
+			file.close();
+			throw new MPCException("Cursor file " + f + " has format version "
+					+ version + ", but only version " + FORMAT_VERSION
+					+ " can be read");
+		}
+	}
+
+	/**
+	 * Sets all positions to the beginning of the data set.
+	 */
+	private void initialize() {
+		// The magic is cleared first and written last, so a half initialised
+		// file is initialised again.
+		buffer.putInt(0, 0);
+		buffer.force();
+		Arrays.fill(positions, storageId);
+		for (int i = 0; i < positions.length; i++) {
+			buffer.putLong(HEADER_BYTES + 8 * i, storageId);
+		}
+		buffer.putInt(4, FORMAT_VERSION);
+		buffer.putInt(STORAGE_ID_OFFSET, storageId);
+		buffer.putInt(THREADS_OFFSET, noOfThreadsUsed);
+		buffer.putInt(PARTIES_OFFSET, noOfParties);
+		for (int i = 0; i < DATA_SET_ID_BYTES; i++) {
+			buffer.put(DATA_SET_OFFSET + i, dataSetId[i]);
+		}
+		buffer.force();
+		buffer.putInt(0, MAGIC);
+		buffer.force();
+	}
+
+	/**
+	 * The index of the cursor for input masks toward the given player.
+	 */
+	public static int inputMasks(int towardPlayerID) {
+		return INPUT_MASKS + towardPlayerID - 1;
+	}
+
+	/**
+	 * @return The counter of the kind at which a run should resume.
+	 */
+	public int getPosition(int kind) {
+		return (int) positions[kind];
+	}
+
+	/**
+	 * @return A copy of all positions, e.g. for agreeing on them with the
+	 *         other parties.
+	 */
+	public long[] getPositions() {
+		return positions.clone();
+	}
+
+	/**
+	 * Makes sure the given counter of the kind is covered by a durable
+	 * reservation, reserving the next block if it is not. Must be called
+	 * before the element is handed out.
+	 */
+	public void reserve(int kind, int counter) {
+		if (counter >= positions[kind]) {
+			persist(kind, counter + (long) step);
+		}
+	}
+
+	/**
+	 * Moves all positions forward to at least the given positions. Used when
+	 * the parties resume from positions that differ, e.g. because one of them
+	 * reserved a new block right before a crash.
+	 */
+	public void advanceTo(long[] other) {
+		if (other.length != positions.length) {
+			throw new MPCException("Expected " + positions.length
+					+ " cursors, but got " + other.length);
+		}
+		boolean changed = false;
+		for (int i = 0; i < positions.length; i++) {
+			if (other[i] > positions[i]) {
+				positions[i] = other[i];
+				buffer.putLong(HEADER_BYTES + 8 * i, other[i]);
+				changed = true;
+			}
+		}
+		if (changed) {
+			buffer.force();
+		}
+	}
+
+	private void persist(int kind, long position) {
+		if (position > Integer.MAX_VALUE) {
+			throw new MPCException("Cursor " + kind
+					+ " would exceed the range of the storage counters");
+		}
+		positions[kind] = position;
+		buffer.putLong(HEADER_BYTES + 8 * kind, position);
+		buffer.force();
+	}
+
+	@Override
+	public void close() {
+		try {
+			file.close();
+		} catch (IOException e) {
+			throw new MPCException("Could not close cursor file", e);
+		}
+	}
+}
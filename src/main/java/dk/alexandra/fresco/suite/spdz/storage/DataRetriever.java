@@ -28,6 +28,7 @@ package dk.alexandra.fresco.suite.spdz.storage;
 
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 
 /**
@@ -45,6 +46,12 @@ public interface DataRetriever {
 	 */
 	public abstract SpdzTriple retrieveTriple();
 
+	/**
+	 * Retrieves a square pair, i.e. a random value a and a^2.
+	 * @return a newly retrieved square pair, or null if there are no more
+	 */
+	public abstract SpdzSquare retrieveSquare();
+
 	/**
 	 * Retrieves a preprocessed exp pipe i.e. a series of SInt's representing the numbers 
 	 * R^-1, R, R^2, R^3, ..., R^200, for some random R.
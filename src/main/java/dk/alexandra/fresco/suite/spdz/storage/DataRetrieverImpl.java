@@ -42,6 +42,7 @@ import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
@@ -52,16 +53,30 @@ public class DataRetrieverImpl implements DataRetriever {
 
 	private Scanner globalInfoReader;
 	private FileChannel tripleChannel, expChannel, bitChannel;
-	private ByteBuffer tripleBuffer, bitBuffer, expBuffer;
+	// Null if no square pairs were generated.
+	private FileChannel squareChannel;
+	private ByteBuffer tripleBuffer, bitBuffer, expBuffer, squareBuffer;
+	// The masks toward a party are either read from a file or derived from
+	// a seed, so one of these is null for each party.
 	private FileChannel[] inputChannels;
+	private InputMaskSeed[] inputSeeds;
+	private long[] inputSeedPositions;
 	private int n;
-	private int tripleCounter, expPipeCounter, bitCounter;
+	private int tripleCounter, expPipeCounter, bitCounter, squareCounter;
 	private int[] inputCounters;
 	private final int pID;
+	// Number of elements in each exp pipe. Given by the global data file.
+	private int expPipeLength = Util.EXP_PIPE_SIZE;
+	// Number of bytes of each share or mac. Given by the modulus in the
+	// global data file.
+	private int size;
+	// Given by the global data file.
+	private BigInteger modulus;
 
 	private final int TRIPLE_BUFFER_SIZE = 100;
 	private final int EXP_BUFFER_SIZE = 5;
 	private final int BIT_BUFFER_SIZE = 100;
+	private final int SQUARE_BUFFER_SIZE = 100;
 
 	private final String path;
 	private final String dataFilename;
@@ -69,6 +84,7 @@ public class DataRetrieverImpl implements DataRetriever {
 	private final String expPipeFilename;
 	private final String inputsFilename;
 	private final String bitsFilename;
+	private final String squaresFilename;
 
 	public DataRetrieverImpl(ResourcePool rp, String triplepath,
 			String storageName) {
@@ -81,10 +97,13 @@ public class DataRetrieverImpl implements DataRetriever {
 		expPipeFilename = path + "/Exp-pipe-p-P";
 		inputsFilename = path + "/Inputs-p-P";
 		bitsFilename = path + "/Bits-p-P";
+		squaresFilename = path + "/Squares-p-P";
 
 		this.pID = rp.getMyId() - 1;
 		n = rp.getNoOfParties();
 		inputChannels = new FileChannel[n];
+		inputSeeds = new InputMaskSeed[n];
+		inputSeedPositions = new long[n];
 		inputCounters = new int[n];		
 	}
 
@@ -98,10 +117,16 @@ public class DataRetrieverImpl implements DataRetriever {
 			tripleChannel = openChannel(triplesFilename + pID);
 			expChannel = openChannel(expPipeFilename + pID);
 			bitChannel = openChannel(bitsFilename + pID);
+			// Square pairs are optional, as older data does not contain any.
+			if (new File(squaresFilename + pID).exists()) {
+				squareChannel = openChannel(squaresFilename + pID);
+			}
 			
 			for (int i = 0; i < n; i++) {
-				inputChannels[i] = openChannel(inputsFilename + pID
-						+ "-" + i);
+				if (!new File(path, InputMaskSeed.filename(pID, i)).exists()) {
+					inputChannels[i] = openChannel(inputsFilename + pID
+							+ "-" + i);
+				}
 			}
 			globalInfoReader = new Scanner(openChannel(dataFilename + pID));
 		} catch (IOException e) {
@@ -121,6 +146,11 @@ public class DataRetrieverImpl implements DataRetriever {
 			this.storage.putObject(storageName, SpdzStorageConstants.TRIPLE_KEY_PREFIX+tripleCounter, triple);
 			tripleCounter++;
 		}
+		SpdzSquare square;
+		while((square = this.retrieveSquare()) != null) {
+			this.storage.putObject(storageName, SpdzStorageConstants.SQUARE_KEY_PREFIX+squareCounter, square);
+			squareCounter++;
+		}
 		SpdzSInt bit; 
 		while((bit = retrieveBit()) != null) {
 			this.storage.putObject(storageName, SpdzStorageConstants.BIT_KEY_PREFIX+bitCounter, bit);
@@ -167,11 +197,17 @@ public class DataRetrieverImpl implements DataRetriever {
 	/**
 	 * Assumes that the file contains two numbers: The modulus as the first
 	 * number, then the Secret shared global key. They must be seperated by a
-	 * space: " "
+	 * space: " ". These may be followed by the length of the exp pipes. If
+	 * not, the pipes are assumed to have the default length
+	 * Util.EXP_PIPE_SIZE.
 	 */
 	private void readGlobalData() {
-		BigInteger modulus = new BigInteger(globalInfoReader.next());
+		modulus = new BigInteger(globalInfoReader.next());
 		BigInteger SSK = new BigInteger(globalInfoReader.next());
+		size = Util.sizeOf(modulus);
+		if (globalInfoReader.hasNextInt()) {
+			expPipeLength = globalInfoReader.nextInt();
+		}
 		this.storage.putObject(storageName,
 				SpdzStorageConstants.MODULUS_KEY, modulus);
 		this.storage.putObject(storageName, SpdzStorageConstants.SSK_KEY,
@@ -184,7 +220,7 @@ public class DataRetrieverImpl implements DataRetriever {
 		// Read triples into the buffer if it has been read or is uninitialized
 		if (tripleBuffer == null || !tripleBuffer.hasRemaining()) {
 			// One triple is three shares and three macs
-			int sizeOfTriple = (Util.size) * 6;
+			int sizeOfTriple = elementSize() * 6;
 			int bytesToRead = sizeOfTriple * TRIPLE_BUFFER_SIZE;
 			if (tripleBuffer == null) {
 				// A direct buffer should be faster
@@ -206,7 +242,7 @@ public class DataRetrieverImpl implements DataRetriever {
 			}
 			tripleBuffer.flip();
 		}
-		byte[] array = new byte[Util.size];
+		byte[] array = new byte[elementSize()];
 
 		tripleBuffer.get(array);
 		BigInteger aShare = new BigInteger(1, array);
@@ -228,11 +264,53 @@ public class DataRetrieverImpl implements DataRetriever {
 		return triple;
 	}
 
+	@Override
+	public SpdzSquare retrieveSquare() {
+		if (squareChannel == null) {
+			return null;
+		}
+		if (squareBuffer == null || !squareBuffer.hasRemaining()) {
+			// One square pair is two shares and two macs
+			int bytesToRead = elementSize() * 4 * SQUARE_BUFFER_SIZE;
+			int totalBytesRead = 0;
+			if (squareBuffer == null) {
+				squareBuffer = ByteBuffer.allocateDirect(bytesToRead);
+			}
+			squareBuffer.clear();
+			try {
+				while (totalBytesRead < bytesToRead) {
+					int bytesRead = squareChannel.read(squareBuffer);
+					if (bytesRead == -1) {
+						break;
+					}
+					totalBytesRead += bytesRead;
+				}
+			} catch (IOException e) {
+				throw new MPCException("Could not read squares", e);
+			}
+			if (totalBytesRead == 0) {
+				return null;
+			}
+			squareBuffer.flip();
+		}
+		byte[] array = new byte[elementSize()];
+		squareBuffer.get(array);
+		BigInteger aShare = new BigInteger(1, array);
+		squareBuffer.get(array);
+		BigInteger aMac = new BigInteger(1, array);
+		squareBuffer.get(array);
+		BigInteger aaShare = new BigInteger(1, array);
+		squareBuffer.get(array);
+		BigInteger aaMac = new BigInteger(1, array);
+		return new SpdzSquare(new SpdzElement(aShare, aMac), new SpdzElement(
+				aaShare, aaMac));
+	}
+
 	@Override
 	public SpdzSInt[] retrieveExpPipe() {
 		if (expBuffer == null || !expBuffer.hasRemaining()) {
 			// One share and one mac for each value of the exp pipe
-			int bytesToRead = Util.size * Util.EXP_PIPE_SIZE * 2
+			int bytesToRead = elementSize() * expPipeLength * 2
 					* EXP_BUFFER_SIZE;
 			int totalBytesRead = 0;
 			if (expBuffer == null) {
@@ -255,9 +333,9 @@ public class DataRetrieverImpl implements DataRetriever {
 			}
 			expBuffer.flip();
 		}
-		byte[] array = new byte[Util.size];
-		SpdzSInt[] pipe = new SpdzSInt[Util.EXP_PIPE_SIZE];
-		for (int i = 0; i < Util.EXP_PIPE_SIZE; i++) {
+		byte[] array = new byte[elementSize()];
+		SpdzSInt[] pipe = new SpdzSInt[expPipeLength];
+		for (int i = 0; i < expPipeLength; i++) {
 			expBuffer.get(array);
 			BigInteger share = new BigInteger(1, array);
 			expBuffer.get(array);
@@ -273,8 +351,17 @@ public class DataRetrieverImpl implements DataRetriever {
 		int id = towardPlayerID - 1;
 		BigInteger share;
 		BigInteger mac;
-		if (id == pID) {
-			int bytesToRead = Util.size * 3;
+		if (inputChannels[id] == null) {
+			if (inputSeeds[id] == null) {
+				inputSeeds[id] = InputMaskSeed.read(new File(path,
+						InputMaskSeed.filename(pID, id)), modulus);
+			}
+			BigInteger[] derived = inputSeeds[id]
+					.get(inputSeedPositions[id]++);
+			return derived == null ? null : new SpdzInputMask(new SpdzElement(
+					derived[0], derived[1]));
+		} else if (id == pID) {
+			int bytesToRead = elementSize() * 3;
 			int totalBytesRead = 0;
 			ByteBuffer bb = ByteBuffer.allocate(bytesToRead);
 			try {
@@ -290,7 +377,7 @@ public class DataRetrieverImpl implements DataRetriever {
 			} catch (IOException e) {
 				throw new MPCException("Could not read inputmasks", e);
 			}
-			byte[] array = new byte[Util.size];
+			byte[] array = new byte[elementSize()];
 			bb.flip();
 			bb.get(array);
 			share = new BigInteger(1, array);
@@ -301,7 +388,7 @@ public class DataRetrieverImpl implements DataRetriever {
 			SpdzElement elm = new SpdzElement(share, mac);
 			return new SpdzInputMask(elm, realValue);
 		} else {
-			int bytesToRead = Util.size * 2;
+			int bytesToRead = elementSize() * 2;
 			int totalBytesRead = 0;
 			ByteBuffer bb = ByteBuffer.allocate(bytesToRead);
 			try {
@@ -317,7 +404,7 @@ public class DataRetrieverImpl implements DataRetriever {
 			} catch (IOException e) {
 				throw new MPCException("Could not read inputmasks", e);
 			}
-			byte[] array = new byte[Util.size];
+			byte[] array = new byte[elementSize()];
 			bb.rewind();
 			bb.get(array);
 			share = new BigInteger(1, array);
@@ -332,7 +419,7 @@ public class DataRetrieverImpl implements DataRetriever {
 	public SpdzSInt retrieveBit() {
 		if (bitBuffer == null || !bitBuffer.hasRemaining()) {
 			// One share and one mac for each bit
-			int bytesToRead = Util.size * 2 * BIT_BUFFER_SIZE;
+			int bytesToRead = elementSize() * 2 * BIT_BUFFER_SIZE;
 			int totalBytesRead = 0;
 			if (bitBuffer == null) {
 				bitBuffer = ByteBuffer.allocateDirect(bytesToRead);
@@ -354,7 +441,7 @@ public class DataRetrieverImpl implements DataRetriever {
 			bitBuffer.flip();
 		}
 
-		byte[] array = new byte[Util.size];
+		byte[] array = new byte[elementSize()];
 		bitBuffer.get(array);
 		BigInteger share = new BigInteger(1, array);
 		bitBuffer.get(array);
@@ -384,8 +471,13 @@ public class DataRetrieverImpl implements DataRetriever {
 			bitChannel.close();
 			// bitChannel = null;
 			// bitBuffer = null;
-			// squareChannel.close();
+			if (squareChannel != null) {
+				squareChannel.close();
+			}
 			for (int i = 0; i < inputChannels.length; i++) {
+				if (inputChannels[i] == null) {
+					continue;
+				}
 				inputChannels[i].close();
 				// otherInputChannels[i] = null;
 			}
@@ -394,4 +486,15 @@ public class DataRetrieverImpl implements DataRetriever {
 		}
 	}
 
+	/**
+	 * Returns the number of bytes of each share or mac, as given by the
+	 * modulus read from the global data.
+	 */
+	private int elementSize() {
+		if (size == 0) {
+			throw new MPCException("The global data must be read before "
+					+ "any preprocessed data can be retrieved");
+		}
+		return size;
+	}
 }
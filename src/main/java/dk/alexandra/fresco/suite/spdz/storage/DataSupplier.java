@@ -30,6 +30,7 @@ import java.math.BigInteger;
 
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 
 public interface DataSupplier {
@@ -40,12 +41,36 @@ public interface DataSupplier {
 	 */
 	public abstract SpdzTriple getNextTriple();
 
+	/**
+	 * Supplies the given amount of triples
+	 * @param amount the number of triples to supply
+	 * @return the next new triples, in the order getNextTriple would have supplied them
+	 */
+	public abstract SpdzTriple[] getNextTriples(int amount);
+
+	/**
+	 * Supplies the next square pair, i.e. a sharing of a random value a and of
+	 * a^2
+	 * @return the next new square pair
+	 */
+	public abstract SpdzSquare getNextSquare();
+
 	/**
 	 * Supplies the next exp pipe
 	 * @return the next new exp pipe 
 	 */
 	public abstract SpdzSInt[] getNextExpPipe();
 
+	/**
+	 * Supplies the prefix R^-1, R, ..., R^(length-1) of the next exp pipe.
+	 * Consumers needing only a few powers should use this rather than
+	 * holding on to the full pipe.
+	 * @param length the number of elements needed
+	 * @return the first length elements of the next new exp pipe. Throws
+	 *         an MPCException if the available pipes are shorter than length
+	 */
+	public abstract SpdzSInt[] getNextExpPipe(int length);
+
 	/**
 	 * Supplies the next inputmask for a given input player
 	 * @param towardPlayerID the id of the input player
@@ -27,11 +27,13 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 
 /**
@@ -49,12 +51,15 @@ public class DataSupplierImpl implements DataSupplier {
 	private String storageName;
 
 	private int tripleCounter;
+	private int squareCounter;
 	private int expPipeCounter;
 	private int[] inputMaskCounters;
 	private int bitCounter;
 
 	private int deltaJump;
 
+	private ConsumptionCursors cursors;
+
 	/**
 	 * Creates a new supplier which takes preprocessed data from the native
 	 * storage object of FRESCO.
@@ -82,8 +87,43 @@ public class DataSupplierImpl implements DataSupplier {
 		initCounters(storageId);
 	}
 
+	/**
+	 * Creates a new supplier which resumes at, and records its progress in,
+	 * the given cursors. Preprocessed data is hence never supplied twice,
+	 * even across runs.
+	 * 
+	 * @param storage
+	 *            The FRESCO native storage object
+	 * @param storageName
+	 *            The name of the 'database' we should use.
+	 * @param storageId
+	 *            The id of the thread that will use this supplier
+	 * @param NoOfThreadsUsed
+	 *            Number of threads used.
+	 * @param noOfParties
+	 *            The number of parties in the computation.
+	 * @param cursors
+	 *            The durable cursors of the thread that will use this
+	 *            supplier
+	 */
+	public DataSupplierImpl(Storage storage, String storageName,
+			int storageId, int NoOfThreadsUsed, int noOfParties,
+			ConsumptionCursors cursors) {
+		this(storage, storageName, storageId, NoOfThreadsUsed, noOfParties);
+		this.cursors = cursors;
+		tripleCounter = cursors.getPosition(ConsumptionCursors.TRIPLES);
+		squareCounter = cursors.getPosition(ConsumptionCursors.SQUARES);
+		expPipeCounter = cursors.getPosition(ConsumptionCursors.EXP_PIPES);
+		bitCounter = cursors.getPosition(ConsumptionCursors.BITS);
+		for (int i = 0; i < inputMaskCounters.length; i++) {
+			inputMaskCounters[i] = cursors.getPosition(ConsumptionCursors
+					.inputMasks(i + 1));
+		}
+	}
+
 	private void initCounters(int storageId) {
 		tripleCounter = storageId;
+		squareCounter = storageId;
 		expPipeCounter = storageId;
 		for (int i = 0; i < inputMaskCounters.length; i++) {
 			inputMaskCounters[i] = storageId;
@@ -93,6 +133,9 @@ public class DataSupplierImpl implements DataSupplier {
 
 	@Override
 	public SpdzTriple getNextTriple() {
+		if (cursors != null) {
+			cursors.reserve(ConsumptionCursors.TRIPLES, tripleCounter);
+		}
 		SpdzTriple trip = this.storage.getObject(storageName,
 				SpdzStorageConstants.TRIPLE_KEY_PREFIX + tripleCounter);
 		if(trip == null) {
@@ -102,8 +145,34 @@ public class DataSupplierImpl implements DataSupplier {
 		return trip;
 	}
 
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		SpdzTriple[] trips = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			trips[i] = getNextTriple();
+		}
+		return trips;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		if (cursors != null) {
+			cursors.reserve(ConsumptionCursors.SQUARES, squareCounter);
+		}
+		SpdzSquare square = this.storage.getObject(storageName,
+				SpdzStorageConstants.SQUARE_KEY_PREFIX + squareCounter);
+		if(square == null) {
+			throw new MPCException("Square no. "+squareCounter+" was not present in the storage");
+		}
+		squareCounter += deltaJump;
+		return square;
+	}
+
 	@Override
 	public SpdzSInt[] getNextExpPipe() {
+		if (cursors != null) {
+			cursors.reserve(ConsumptionCursors.EXP_PIPES, expPipeCounter);
+		}
 		SpdzSInt[] expPipe = this.storage.getObject(storageName,
 				SpdzStorageConstants.EXP_PIPE_KEY_PREFIX + expPipeCounter);
 		if(expPipe == null) {
@@ -113,8 +182,33 @@ public class DataSupplierImpl implements DataSupplier {
 		return expPipe;
 	}
 
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		return prefixOf(getNextExpPipe(), length);
+	}
+
+	/**
+	 * Returns the first length elements of an exp pipe, without copying if
+	 * the whole pipe is needed.
+	 */
+	static SpdzSInt[] prefixOf(SpdzSInt[] expPipe, int length) {
+		if (expPipe.length < length) {
+			throw new MPCException("An exp pipe of length " + length
+					+ " was needed, but the available pipes only have length "
+					+ expPipe.length);
+		}
+		if (expPipe.length == length) {
+			return expPipe;
+		}
+		return Arrays.copyOf(expPipe, length);
+	}
+
 	@Override
 	public SpdzInputMask getNextInputMask(int towardPlayerID) {
+		if (cursors != null) {
+			cursors.reserve(ConsumptionCursors.inputMasks(towardPlayerID),
+					inputMaskCounters[towardPlayerID - 1]);
+		}
 		SpdzInputMask mask = this.storage.getObject(storageName,
 				SpdzStorageConstants.INPUT_KEY_PREFIX + towardPlayerID + "_"
 						+ inputMaskCounters[towardPlayerID-1]);
@@ -127,6 +221,9 @@ public class DataSupplierImpl implements DataSupplier {
 
 	@Override
 	public SpdzSInt getNextBit() {
+		if (cursors != null) {
+			cursors.reserve(ConsumptionCursors.BITS, bitCounter);
+		}
 		SpdzSInt bit = this.storage.getObject(storageName,
 				SpdzStorageConstants.BIT_KEY_PREFIX + bitCounter);
 		if(bit == null) {
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.Socket;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+
+/**
+ * Data supplier which streams preprocessed data from a {@link DealerServer}
+ * instead of reading it from the storage. Elements are pulled in batches over
+ * a connection of its own, so each evaluation thread should have its own
+ * supplier. Combine it with a {@link PrefetchingDataSupplier} to fetch the next
+ * batch while the current one is being used.
+ */
+public class DealerDataSupplier implements DataSupplier {
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private final int myId;
+	private final int batchSize;
+
+	private final BigInteger modulus;
+	private final BigInteger ssk;
+	private final int expPipeLength;
+
+	private final Batch triples = new Batch();
+	private final Batch squares = new Batch();
+	private final Batch bits = new Batch();
+	private final Batch expPipes = new Batch();
+	private final Batch[] inputMasks;
+
+	/**
+	 * Connects to a dealer.
+	 * 
+	 * @param host
+	 *            The host of the dealer
+	 * @param port
+	 *            The port of the dealer
+	 * @param myId
+	 *            The id of this party
+	 * @param threadId
+	 *            The id of the thread that will use this supplier
+	 * @param noOfParties
+	 *            The number of parties in the computation.
+	 * @param batchSize
+	 *            The number of elements of a kind fetched per request
+	 */
+	public DealerDataSupplier(String host, int port, int myId, int threadId,
+			int noOfParties, int batchSize) {
+		this.myId = myId;
+		this.batchSize = batchSize;
+		this.inputMasks = new Batch[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			inputMasks[i] = new Batch();
+		}
+		try {
+			this.socket = new Socket(host, port);
+			socket.setTcpNoDelay(true);
+			this.in = new DataInputStream(new BufferedInputStream(
+					socket.getInputStream()));
+			this.out = new DataOutputStream(new BufferedOutputStream(
+					socket.getOutputStream()));
+			out.writeInt(DealerServer.MAGIC);
+			out.writeInt(myId);
+			out.writeInt(threadId);
+			out.flush();
+			this.modulus = DealerServer.readBigInt(in);
+			this.ssk = DealerServer.readBigInt(in);
+			this.expPipeLength = in.readInt();
+		} catch (IOException e) {
+			throw new MPCException("Could not connect to the dealer at "
+					+ host + ":" + port, e);
+		}
+	}
+
+	@Override
+	public SpdzTriple getNextTriple() {
+		if (triples.isEmpty()) {
+			SpdzTriple[] fetched = new SpdzTriple[batchSize];
+			request(DealerServer.TRIPLES, 0, triples);
+			try {
+				for (int i = 0; i < batchSize; i++) {
+					fetched[i] = new SpdzTriple(DealerServer.readElement(in),
+							DealerServer.readElement(in),
+							DealerServer.readElement(in));
+				}
+			} catch (IOException e) {
+				throw lost(e);
+			}
+			triples.fill(fetched);
+		}
+		return (SpdzTriple) triples.next();
+	}
+
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		SpdzTriple[] trips = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			trips[i] = getNextTriple();
+		}
+		return trips;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		if (squares.isEmpty()) {
+			SpdzSquare[] fetched = new SpdzSquare[batchSize];
+			request(DealerServer.SQUARES, 0, squares);
+			try {
+				for (int i = 0; i < batchSize; i++) {
+					fetched[i] = new SpdzSquare(DealerServer.readElement(in),
+							DealerServer.readElement(in));
+				}
+			} catch (IOException e) {
+				throw lost(e);
+			}
+			squares.fill(fetched);
+		}
+		return (SpdzSquare) squares.next();
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe() {
+		if (expPipes.isEmpty()) {
+			SpdzSInt[][] fetched = new SpdzSInt[batchSize][expPipeLength];
+			request(DealerServer.EXP_PIPES, 0, expPipes);
+			try {
+				for (int i = 0; i < batchSize; i++) {
+					for (int j = 0; j < expPipeLength; j++) {
+						fetched[i][j] = new SpdzSInt(
+								DealerServer.readElement(in));
+					}
+				}
+			} catch (IOException e) {
+				throw lost(e);
+			}
+			expPipes.fill(fetched);
+		}
+		return (SpdzSInt[]) expPipes.next();
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		return DataSupplierImpl.prefixOf(getNextExpPipe(), length);
+	}
+
+	@Override
+	public SpdzInputMask getNextInputMask(int towardPlayerID) {
+		Batch masks = inputMasks[towardPlayerID - 1];
+		if (masks.isEmpty()) {
+			SpdzInputMask[] fetched = new SpdzInputMask[batchSize];
+			request(DealerServer.INPUT_MASKS,
+					towardPlayerID, masks);
+			try {
+				for (int i = 0; i < batchSize; i++) {
+					SpdzElement mask = DealerServer.readElement(in);
+					if (in.readBoolean()) {
+						fetched[i] = new SpdzInputMask(mask,
+								DealerServer.readBigInt(in));
+					} else {
+						fetched[i] = new SpdzInputMask(mask);
+					}
+				}
+			} catch (IOException e) {
+				throw lost(e);
+			}
+			masks.fill(fetched);
+		}
+		return (SpdzInputMask) masks.next();
+	}
+
+	@Override
+	public SpdzSInt getNextBit() {
+		if (bits.isEmpty()) {
+			SpdzSInt[] fetched = new SpdzSInt[batchSize];
+			request(DealerServer.BITS, 0, bits);
+			try {
+				for (int i = 0; i < batchSize; i++) {
+					fetched[i] = new SpdzSInt(DealerServer.readElement(in));
+				}
+			} catch (IOException e) {
+				throw lost(e);
+			}
+			bits.fill(fetched);
+		}
+		return (SpdzSInt) bits.next();
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	@Override
+	public BigInteger getSSK() {
+		return ssk;
+	}
+
+	/**
+	 * Closes the connection to the dealer.
+	 */
+	public void shutdown() {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			throw new MPCException("Could not close connection to the dealer",
+					e);
+		}
+	}
+
+	/**
+	 * Asks for the next batch of the given kind. The batch must then be read
+	 * from the input stream.
+	 */
+	private void request(byte kind, int towardPlayerID, Batch batch) {
+		try {
+			out.writeByte(kind);
+			out.writeInt(towardPlayerID);
+			out.writeLong(batch.fetched);
+			out.writeInt(batchSize);
+			out.flush();
+		} catch (IOException e) {
+			throw lost(e);
+		}
+	}
+
+	private MPCException lost(IOException e) {
+		return new MPCException("Party " + myId
+				+ " lost the connection to the dealer", e);
+	}
+
+	/**
+	 * The elements of a kind received but not yet supplied.
+	 */
+	private static class Batch {
+		private Object[] elements = new Object[0];
+		private int next;
+		private long fetched;
+
+		boolean isEmpty() {
+			return next == elements.length;
+		}
+
+		void fill(Object[] elements) {
+			this.elements = elements;
+			this.next = 0;
+			this.fetched += elements.length;
+		}
+
+		Object next() {
+			Object e = elements[next];
+			elements[next++] = null;
+			return e;
+		}
+	}
+}
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Level;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Serves preprocessed data from a {@link PreprocessingDealer} to
+ * {@link DealerDataSupplier}s over TCP, such that the online phase does not
+ * need the data to be generated up front and stored at every party.
+ * 
+ * Every thread of every party opens its own connection and pulls batches of
+ * elements when it needs them. The server only ever sends what was asked
+ * for, so a slow party does not make the dealer buffer data on its behalf.
+ * Each connection is served by its own thread.
+ * 
+ * A stand-in dealer can be started from the command line, see
+ * {@link #main(String[])}.
+ * 
+ * This is for testing only. Clients are not authenticated: anyone who can
+ * connect and claims a party id is sent the share of the mac key and the
+ * preprocessed data of that party. The server therefore only listens on the
+ * loopback interface, so the parties must run on the same host as the
+ * dealer.
+ */
+public class DealerServer implements Closeable {
+
+	static final int MAGIC = 0x53504444;
+
+	static final byte TRIPLES = 0;
+	static final byte BITS = 1;
+	static final byte EXP_PIPES = 2;
+	static final byte INPUT_MASKS = 3;
+	static final byte SQUARES = 4;
+
+	private final PreprocessingDealer dealer;
+	private final ServerSocket serverSocket;
+	private final Set<Socket> connections = Collections
+			.synchronizedSet(new HashSet<Socket>());
+	private volatile boolean running = true;
+
+	/**
+	 * Starts serving the dealer on the given port of the loopback interface.
+	 * 
+	 * @param dealer
+	 *            The source of the preprocessed data
+	 * @param port
+	 *            The port to listen on. If 0, any free port is used, see
+	 *            {@link #getPort()}
+	 */
+	public DealerServer(PreprocessingDealer dealer, int port)
+			throws IOException {
+		this.dealer = dealer;
+		this.serverSocket = new ServerSocket(port, 0,
+				InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				accept();
+			}
+		}, "DealerServer-" + getPort());
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * @return The port the server listens on
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	private void accept() {
+		while (running) {
+			final Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (IOException e) {
+				if (running) {
+					Reporter.warn("Dealer stopped accepting connections: "
+							+ e.getMessage());
+				}
+				return;
+			}
+			connections.add(socket);
+			Thread worker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					serve(socket);
+				}
+			}, "DealerServer-" + socket.getRemoteSocketAddress());
+			worker.setDaemon(true);
+			worker.start();
+		}
+	}
+
+	private void serve(Socket socket) {
+		try {
+			socket.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+					socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(socket.getOutputStream()));
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a dealer client");
+			}
+			int partyId = in.readInt();
+			int threadId = in.readInt();
+			writeBigInt(dealer.getModulus(), out);
+			writeBigInt(dealer.getSSK(partyId), out);
+			out.writeInt(dealer.getExpPipeLength());
+			out.flush();
+			Reporter.fine("Dealer serving thread " + threadId + " of party "
+					+ partyId);
+			while (true) {
+				byte kind;
+				try {
+					kind = in.readByte();
+				} catch (EOFException e) {
+					// The client is done.
+					return;
+				}
+				int towardPlayerID = in.readInt();
+				long first = in.readLong();
+				int amount = in.readInt();
+				for (long i = first; i < first + amount; i++) {
+					switch (kind) {
+					case TRIPLES:
+						SpdzTriple t = dealer.getTriple(partyId, threadId, i);
+						writeElement(t.getA(), out);
+						writeElement(t.getB(), out);
+						writeElement(t.getC(), out);
+						break;
+					case SQUARES:
+						SpdzSquare s = dealer.getSquare(partyId, threadId, i);
+						writeElement(s.getA(), out);
+						writeElement(s.getB(), out);
+						break;
+					case BITS:
+						writeElement(dealer.getBit(partyId, threadId, i).value,
+								out);
+						break;
+					case EXP_PIPES:
+						for (SpdzSInt e : dealer.getExpPipe(partyId, threadId,
+								i)) {
+							writeElement(e.value, out);
+						}
+						break;
+					case INPUT_MASKS:
+						SpdzInputMask m = dealer.getInputMask(partyId,
+								threadId, towardPlayerID, i);
+						writeElement(m.getMask(), out);
+						if (m.getRealValue() != null) {
+							out.writeBoolean(true);
+							writeBigInt(m.getRealValue(), out);
+						} else {
+							out.writeBoolean(false);
+						}
+						break;
+					default:
+						throw new IOException("Unknown kind of data: " + kind);
+					}
+				}
+				out.flush();
+			}
+		} catch (SocketException e) {
+			// The connection was closed, e.g. by close().
+		} catch (IOException e) {
+			Reporter.warn("Dealer lost a client: " + e.getMessage());
+		} finally {
+			connections.remove(socket);
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// Nothing more to do.
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		running = false;
+		serverSocket.close();
+		synchronized (connections) {
+			for (Socket s : connections) {
+				s.close();
+			}
+		}
+	}
+
+	static void writeBigInt(BigInteger b, DataOutputStream out)
+			throws IOException {
+		byte[] bytes = b.toByteArray();
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	static BigInteger readBigInt(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readUnsignedShort()];
+		in.readFully(bytes);
+		return new BigInteger(bytes);
+	}
+
+	static void writeElement(SpdzElement e, DataOutputStream out)
+			throws IOException {
+		writeBigInt(e.getShare(), out);
+		writeBigInt(e.getMac(), out);
+	}
+
+	static SpdzElement readElement(DataInputStream in) throws IOException {
+		return new SpdzElement(readBigInt(in), readBigInt(in));
+	}
+
+	/**
+	 * Starts a {@link TrustedDealer} as a stand-in preprocessing service for
+	 * testing, on the loopback interface.
+	 * 
+	 * @param args
+	 *            the port, the modulus, the number of parties, and optionally
+	 *            the length of the exp pipes and the seed
+	 */
+	public static void main(String[] args) throws IOException,
+			InterruptedException {
+		if (args.length < 3) {
+			System.out.println("Usage: DealerServer port modulus "
+					+ "noOfParties [expPipeLength [seed]]");
+			return;
+		}
+		int port = Integer.parseInt(args[0]);
+		BigInteger modulus = new BigInteger(args[1]);
+		int noOfParties = Integer.parseInt(args[2]);
+		int expPipeLength = args.length > 3 ? Integer.parseInt(args[3])
+				: Util.EXP_PIPE_SIZE;
+		long seed = args.length > 4 ? Long.parseLong(args[4]) : System
+				.nanoTime();
+		Reporter.init(Level.INFO);
+		if (!modulus.isProbablePrime(40)) {
+			throw new MPCException("The modulus must be a prime");
+		}
+		DealerServer server = new DealerServer(new TrustedDealer(modulus,
+				noOfParties, expPipeLength, seed), port);
+		System.out.println("Dealing to " + noOfParties + " parties on port "
+				+ server.getPort() + " of " + InetAddress.getLoopbackAddress()
+				+ ". For testing only: the dealer knows all shares.");
+		Thread.currentThread().join();
+	}
+}
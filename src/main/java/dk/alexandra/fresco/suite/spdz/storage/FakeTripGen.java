@@ -27,25 +27,25 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import dk.alexandra.fresco.framework.MPCException;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
 import dk.alexandra.fresco.suite.spdz.utils.Util;
 
@@ -61,22 +61,31 @@ public class FakeTripGen {
 	private static BigInteger mod, alpha;
 	private static Random rand;
 	private static int size;
-	private static int numberOfTriples;
+	private static long numberOfTriples;
 	private static int numberOfParties;
-	private static int numberOfBits;
-	private static int numberOfInputs;
-	private static int numberOfExps;
-
-	private static String triplesFilename = "Triples-p-P";
-	private static String expPipeFilename = "Exp-pipe-p-P";
-	private static String globalFilename = "Global-data-p-P";
-	// private static final String squaresFilename = relativePath +
-	// "Squares-p-P";
-	private static String inputsFilename = "Inputs-p-P";
-	private static String bitsFilename = "Bits-p-P";
+	private static long numberOfBits;
+	private static long numberOfInputs;
+	private static long numberOfExps;
+	private static long numberOfSquares;
+	private static int numberOfThreads = Runtime.getRuntime()
+			.availableProcessors();
+	private static int expPipeLength = Util.EXP_PIPE_SIZE;
+
+	// The directory the files are written to, set by the -d argument.
+	private static String directory = "";
+	private static final String triplesFilename = "Triples-p-P";
+	private static final String expPipeFilename = "Exp-pipe-p-P";
+	private static final String globalFilename = "Global-data-p-P";
+	private static final String squaresFilename = "Squares-p-P";
+	private static final String inputsFilename = "Inputs-p-P";
+	private static final String bitsFilename = "Bits-p-P";
 
 	private static final StandardOpenOption WRITE = StandardOpenOption.WRITE;
 	private static final StandardOpenOption CREATE = StandardOpenOption.CREATE;
+	private static final StandardOpenOption TRUNCATE_EXISTING = StandardOpenOption.TRUNCATE_EXISTING;
+
+	// The approximate number of bytes generated per party in each chunk.
+	private static final int CHUNK_BYTES = 1 << 20;
 
 	/**
 	 * Generates a byte representation of a SpdzElement (i.e. a share and mac
@@ -230,6 +239,39 @@ public class FakeTripGen {
 		return res;
 	}
 
+	/**
+	 * Generates the given amount of square pairs, i.e. sharings of a random
+	 * value a and of a^2. The list contains an array of size noOfParties - one
+	 * share for each party
+	 * 
+	 * @param amount
+	 * @param noOfParties
+	 * @param modulus
+	 * @param alpha
+	 * @return
+	 */
+	public static List<SpdzSquare[]> generateSquares(int amount,
+			int noOfParties, BigInteger modulus, BigInteger alpha) {
+		FakeTripGen.rand = new Random();
+		FakeTripGen.alpha = alpha;
+		FakeTripGen.mod = modulus;
+
+		List<SpdzSquare[]> squares = new ArrayList<SpdzSquare[]>(amount);
+		for (int i = 0; i < amount; i++) {
+			BigInteger a = sample();
+			List<SpdzElement> elementsA = toShares(a, getMac(a), noOfParties);
+			BigInteger aa = a.multiply(a).mod(mod);
+			List<SpdzElement> elementsAA = toShares(aa, getMac(aa),
+					noOfParties);
+			SpdzSquare[] arr = new SpdzSquare[noOfParties];
+			for (int j = 0; j < noOfParties; j++) {
+				arr[j] = new SpdzSquare(elementsA.get(j), elementsAA.get(j));
+			}
+			squares.add(arr);
+		}
+		return squares;
+	}
+
 	public static List<SpdzSInt[]> generateBits(int amount, int noOfParties,
 			BigInteger modulus, BigInteger alpha) {
 		FakeTripGen.rand = new Random();
@@ -261,13 +303,31 @@ public class FakeTripGen {
 	 */
 	public static List<SpdzSInt[][]> generateExpPipes(int amount, int noOfParties,
 			BigInteger modulus, BigInteger alpha) {
+		return generateExpPipes(amount, noOfParties, modulus, alpha,
+				Util.EXP_PIPE_SIZE);
+	}
+
+	/**
+	 * As {@link #generateExpPipes(int, int, BigInteger, BigInteger)}, but
+	 * generates pipes R^-1, R, ..., R^(length-1) of the given length.
+	 * Applications needing only small powers can use short pipes to save
+	 * storage and memory.
+	 * @param amount
+	 * @param noOfParties
+	 * @param modulus
+	 * @param alpha
+	 * @param length the number of elements in each pipe
+	 * @return
+	 */
+	public static List<SpdzSInt[][]> generateExpPipes(int amount, int noOfParties,
+			BigInteger modulus, BigInteger alpha, int length) {
 		FakeTripGen.rand = new Random();
 		FakeTripGen.alpha = alpha;
 		FakeTripGen.mod = modulus;
 
 		List<SpdzSInt[][]> res = new ArrayList<SpdzSInt[][]>();
 		for (int j = 0; j < amount; j++) {
-			SpdzSInt[][] expPipe = new SpdzSInt[noOfParties][Util.EXP_PIPE_SIZE];
+			SpdzSInt[][] expPipe = new SpdzSInt[noOfParties][length];
 			BigInteger r = sample();
 			BigInteger rInv = r.modInverse(mod);
 			BigInteger mac = getMac(rInv);
@@ -277,7 +337,7 @@ public class FakeTripGen {
 			}
 
 			BigInteger exp = BigInteger.ONE;			
-			for (int i = 1; i < Util.EXP_PIPE_SIZE; i++) {
+			for (int i = 1; i < length; i++) {
 				exp = exp.multiply(r).mod(mod);
 				mac = getMac(exp);
 				elements = toShares(exp, mac, noOfParties);
@@ -350,6 +410,9 @@ public class FakeTripGen {
 				System.out.println("START GLOBAL");
 				writeGlobal();
 				System.out.println("DONE GLOBAL");
+				System.out.println("START SQUARES");
+				writeSquares();
+				System.out.println("DONE SQUARES");
 			} catch (IOException e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
@@ -380,11 +443,19 @@ public class FakeTripGen {
 		boolean expPresent = false;
 		String dirKey = "-d=";
 		boolean dirPresent = false;
+		String expLengthKey = "-l=";
+		String threadsKey = "-w=";
+		String squareKey = "-s=";
+		numberOfSquares = 0;
 		String usage = "Please give the following arguments: " + primeKey
 				+ "[modulus] " + tripKey + "[#triples] " + inputKey
 				+ "[#inputs (per player)] " + bitKey + "[#bits] " + expKey
 				+ "[#exp pipes] " + partiesKey + "[#parties] " + dirKey
-				+ "[directory (to store files)]";
+				+ "[directory (to store files)] and optionally "
+				+ expLengthKey + "[exp pipe length (default "
+				+ Util.EXP_PIPE_SIZE + ")] " + threadsKey
+				+ "[#worker threads (default #processors)] " + squareKey
+				+ "[#square pairs (default 0)]";
 		for (String arg : args) {
 			if (arg.length() < 4) {
 				System.err.println("Malformed argument \"" + arg + "\". "
@@ -396,29 +467,31 @@ public class FakeTripGen {
 				mod = new BigInteger(value);
 				primePresent = true;
 			} else if (key.equals(tripKey)) {
-				numberOfTriples = Integer.parseInt(value);
+				numberOfTriples = Long.parseLong(value);
 				tripPresent = true;
 			} else if (key.equals(inputKey)) {
-				numberOfInputs = Integer.parseInt(value);
+				numberOfInputs = Long.parseLong(value);
 				inputPresent = true;
 			} else if (key.equals(bitKey)) {
-				numberOfBits = Integer.parseInt(value);
+				numberOfBits = Long.parseLong(value);
 				bitPresent = true;
 			} else if (key.equals(partiesKey)) {
 				numberOfParties = Integer.parseInt(value);
 				partiesPresent = true;
 			} else if (key.equals(expKey)) {
-				numberOfExps = Integer.parseInt(value);
+				numberOfExps = Long.parseLong(value);
 				expPresent = true;
+			} else if (key.equals(expLengthKey)) {
+				expPipeLength = Integer.parseInt(value);
+			} else if (key.equals(squareKey)) {
+				numberOfSquares = Long.parseLong(value);
+			} else if (key.equals(threadsKey)) {
+				numberOfThreads = Integer.parseInt(value);
 			} else if (key.equals(dirKey)) {
 				if (value.lastIndexOf("/") != value.length() - 1) {
 					value = value + "/";
 				}
-				inputsFilename = value + inputsFilename;
-				bitsFilename = value + bitsFilename;
-				triplesFilename = value + triplesFilename;
-				globalFilename = value + globalFilename;
-				expPipeFilename = value + expPipeFilename;
+				directory = value;
 				dirPresent = true;
 			} else {
 				System.err.println("Unrecognized argument \"" + arg + "\"."
@@ -456,51 +529,236 @@ public class FakeTripGen {
 	}
 
 	/**
-	 * Generates triples and writes them the appropriate file.
+	 * Generates one kind of preprocessed data. Each generated element is
+	 * written to the buffer of each party.
+	 */
+	private interface ElementGenerator {
+
+		/**
+		 * @param party
+		 *            the (zero-based) index of a party
+		 * @return the number of bytes one element takes in the file of the
+		 *         given party
+		 */
+		int elementSize(int party);
+
+		/**
+		 * Generates element no. index and writes the share of each party to
+		 * the buffer of that party.
+		 */
+		void generate(long index, Random rand, ByteBuffer[] buffers);
+	}
+
+	/**
+	 * Generates the given amount of elements and writes them to one file per
+	 * party. The elements are generated in chunks by numberOfThreads workers.
+	 * Each chunk has a fixed position in the files, so the workers write
+	 * directly to the files without coordinating, and element no. i ends up at
+	 * the same position in the file of every party. Only one chunk per worker
+	 * is held in memory at a time.
 	 * 
+	 * Each chunk uses its own Random, so the output does not depend on the
+	 * number of threads. The seeds of the chunks are drawn from independent
+	 * streams split off a SplittableRandom seeded from rand, so they are not
+	 * related to each other or to the seeds of other runs.
+	 * 
+	 * @param name
+	 *            the name of the elements, used when reporting throughput
+	 * @param filenames
+	 *            the file to write to for each party
+	 * @param amount
+	 *            the number of elements to generate
+	 * @param generator
+	 *            the generator of the elements
 	 * @throws IOException
 	 */
-	public static void writeTriples() throws IOException {
-		BigInteger a, b, c;
-		List<FileChannel> channels = new LinkedList<FileChannel>();
-		for (int i = 0; i < numberOfParties; i++) {
-			File f = new File(triplesFilename + i);
-			if (!f.exists()) {
-				f.createNewFile();
+	private static void writeParallel(String name, final String[] filenames,
+			final long amount, final ElementGenerator generator)
+			throws IOException {
+		long start = System.currentTimeMillis();
+		final FileChannel[] channels = new FileChannel[filenames.length];
+		int maxElementSize = 0;
+		long bytesPerElement = 0;
+		for (int i = 0; i < filenames.length; i++) {
+			channels[i] = FileChannel.open(Paths.get(filenames[i]), WRITE,
+					CREATE, TRUNCATE_EXISTING);
+			maxElementSize = Math.max(maxElementSize,
+					generator.elementSize(i));
+			bytesPerElement += generator.elementSize(i);
+		}
+		final int chunkSize = Math.max(1, CHUNK_BYTES / maxElementSize);
+		final long chunks = (amount + chunkSize - 1) / chunkSize;
+		if (chunks > Integer.MAX_VALUE) {
+			throw new MPCException("Too many " + name + " to generate: "
+					+ amount);
+		}
+		final long[] chunkSeeds = new long[(int) chunks];
+		SplittableRandom seeds = new SplittableRandom(rand.nextLong());
+		for (int c = 0; c < chunkSeeds.length; c++) {
+			chunkSeeds[c] = seeds.split().nextLong();
+		}
+		final AtomicLong nextChunk = new AtomicLong();
+		final List<Exception> errors = Collections
+				.synchronizedList(new ArrayList<Exception>());
+		Thread[] workers = new Thread[numberOfThreads];
+		for (int w = 0; w < workers.length; w++) {
+			workers[w] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					ByteBuffer[] buffers = new ByteBuffer[channels.length];
+					for (int i = 0; i < buffers.length; i++) {
+						buffers[i] = ByteBuffer.allocateDirect(chunkSize
+								* generator.elementSize(i));
+					}
+					try {
+						long chunk;
+						while ((chunk = nextChunk.getAndIncrement()) < chunks
+								&& errors.isEmpty()) {
+							Random chunkRand = new Random(chunkSeeds[(int) chunk]);
+							long first = chunk * chunkSize;
+							long elements = Math.min(chunkSize, amount - first);
+							for (ByteBuffer buffer : buffers) {
+								buffer.clear();
+							}
+							for (long e = 0; e < elements; e++) {
+								generator.generate(first + e, chunkRand,
+										buffers);
+							}
+							for (int i = 0; i < buffers.length; i++) {
+								buffers[i].flip();
+								long position = first
+										* generator.elementSize(i);
+								while (buffers[i].hasRemaining()) {
+									position += channels[i].write(buffers[i],
+											position);
+								}
+							}
+						}
+					} catch (Exception e) {
+						errors.add(e);
+					}
+				}
+			}, "FakeTripGen-" + name + "-" + w);
+			workers[w].start();
+		}
+		try {
+			for (Thread worker : workers) {
+				worker.join();
+			}
+		} catch (InterruptedException e) {
+			throw new MPCException("Interrupted while generating " + name, e);
+		} finally {
+			for (FileChannel fc : channels) {
+				fc.close();
 			}
-			FileOutputStream fos = new FileOutputStream(f);
-			FileChannel fc = fos.getChannel();
-			channels.add(fc);
 		}
-		for (int i = 0; i < numberOfTriples; i++) {
-			a = sample();
-			b = sample();
-			c = b.multiply(a).mod(mod);
-			writeAsShared(a, channels);
-			writeAsShared(b, channels);
-			writeAsShared(c, channels);
+		if (!errors.isEmpty()) {
+			throw new IOException("Could not generate " + name,
+					errors.get(0));
 		}
-		for (FileChannel fc : channels) {
-			fc.close();
+		long time = Math.max(1, System.currentTimeMillis() - start);
+		System.out.println("Generated " + amount + " " + name + " in " + time
+				+ " ms: " + (amount * 1000 / time) + " " + name + "/s, "
+				+ (amount * bytesPerElement * 1000 / time / (1024 * 1024))
+				+ " MB/s");
+	}
+
+	/**
+	 * Writes a SPDZ sharing (with macs) of a BigInteger value to the buffers
+	 * of the parties.
+	 */
+	private static void putShared(BigInteger b, Random rand,
+			ByteBuffer[] buffers) {
+		BigInteger mac = getMac(b);
+		List<SpdzElement> elements = toShares(b, mac, numberOfParties, rand);
+		for (int i = 0; i < buffers.length; i++) {
+			putElement(elements.get(i), buffers[i]);
 		}
 	}
 
 	/**
-	 * Generates a SPDZ sharing (with macs) of a BigInteger value. Then writes
-	 * each generated element to a separate file (i.e. one for each party).
+	 * Writes an element to a buffer in the format of elementToBytes.
+	 */
+	private static void putElement(SpdzElement element, ByteBuffer buffer) {
+		putBigInt(element.getShare(), buffer);
+		putBigInt(element.getMac(), buffer);
+	}
+
+	/**
+	 * Writes a BigInteger to a buffer in the format of bigIntToBytes.
+	 */
+	private static void putBigInt(BigInteger b, ByteBuffer buffer) {
+		byte[] bBytes = b.toByteArray();
+		if (bBytes.length > size) {
+			if (bBytes.length == size + 1) {
+				buffer.put(bBytes, 1, size);
+			} else {
+				throw new MPCException("This big integer is too long! Size: "
+						+ bBytes.length);
+			}
+		} else {
+			for (int i = bBytes.length; i < size; i++) {
+				buffer.put((byte) 0);
+			}
+			buffer.put(bBytes);
+		}
+	}
+
+	private static String[] partyFilenames(String prefix, String suffix) {
+		String[] filenames = new String[numberOfParties];
+		for (int i = 0; i < numberOfParties; i++) {
+			filenames[i] = directory + prefix + i + suffix;
+		}
+		return filenames;
+	}
+
+	/**
+	 * Generates triples and writes them the appropriate file.
 	 * 
-	 * @param b
-	 *            a BigInteger
-	 * @param channels
-	 *            a FileChannel for each file to write to. This should include a
-	 *            channel for each party.
 	 * @throws IOException
 	 */
-	private static void writeAsShared(BigInteger b, List<FileChannel> channels)
-			throws IOException {
-		BigInteger mac = getMac(b);
-		List<SpdzElement> elements = toShares(b, mac, numberOfParties);
-		writeElements(elements, channels);
+	public static void writeTriples() throws IOException {
+		writeParallel("triples", partyFilenames(triplesFilename, ""),
+				numberOfTriples, new ElementGenerator() {
+					@Override
+					public int elementSize(int party) {
+						return 6 * size;
+					}
+
+					@Override
+					public void generate(long index, Random rand,
+							ByteBuffer[] buffers) {
+						BigInteger a = sample(rand);
+						BigInteger b = sample(rand);
+						BigInteger c = b.multiply(a).mod(mod);
+						putShared(a, rand, buffers);
+						putShared(b, rand, buffers);
+						putShared(c, rand, buffers);
+					}
+				});
+	}
+
+	/**
+	 * Generates square pairs and writes them the appropriate file.
+	 * 
+	 * @throws IOException
+	 */
+	public static void writeSquares() throws IOException {
+		writeParallel("squares", partyFilenames(squaresFilename, ""),
+				numberOfSquares, new ElementGenerator() {
+					@Override
+					public int elementSize(int party) {
+						return 4 * size;
+					}
+
+					@Override
+					public void generate(long index, Random rand,
+							ByteBuffer[] buffers) {
+						BigInteger a = sample(rand);
+						putShared(a, rand, buffers);
+						putShared(a.multiply(a).mod(mod), rand, buffers);
+					}
+				});
 	}
 
 	/**
@@ -509,68 +767,75 @@ public class FakeTripGen {
 	 * @throws IOException
 	 */
 	public static void writeBits() throws IOException {
-		BigInteger bit;
-		List<FileChannel> channels = new LinkedList<FileChannel>();
-		for (int i = 0; i < numberOfParties; i++) {
-			File f = new File(bitsFilename + i);
-			FileOutputStream fos = new FileOutputStream(f);
-			FileChannel fc = fos.getChannel();
-			channels.add(fc);
-		}
-		for (int i = 0; i < numberOfBits; i++) {
-			bit = new BigInteger(1, rand);
-			writeAsShared(bit, channels);
-		}
-		for (FileChannel fc : channels) {
-			fc.close();
-		}
+		writeParallel("bits", partyFilenames(bitsFilename, ""), numberOfBits,
+				new ElementGenerator() {
+					@Override
+					public int elementSize(int party) {
+						return 2 * size;
+					}
+
+					@Override
+					public void generate(long index, Random rand,
+							ByteBuffer[] buffers) {
+						putShared(new BigInteger(1, rand), rand, buffers);
+					}
+				});
 	}
 
 	/**
 	 * Generates SPDZ sharing of input masks and writes them to the appropriate
-	 * files.
+	 * files. Only the inputter's file holds the masks: the shares of the
+	 * other parties are derived from an {@link InputMaskSeed}, and the
+	 * inputter's shares are the corrections.
 	 * 
 	 * @throws IOException
 	 */
 	public static void writeInputs() throws IOException {
-		BigInteger mask;
 		for (int j = 0; j < numberOfParties; j++) {
-			FileChannel selfChannel = null;
-			List<FileChannel> channels = new LinkedList<FileChannel>();
+			final int inputter = j;
+			final InputMaskSeed[] seeds = new InputMaskSeed[numberOfParties];
 			for (int i = 0; i < numberOfParties; i++) {
-				File f = new File(inputsFilename + i + '-' + j);
-				FileOutputStream fos = new FileOutputStream(f);
-				FileChannel fc = fos.getChannel();
-				channels.add(fc);
-				if (i == j) {
-					selfChannel = fc;
-				}
-			}
-			for (int h = 0; h < numberOfInputs; h++) {
-				mask = sample();
-				List<SpdzElement> elements = toShares(mask, getMac(mask),
-						numberOfParties);
-				Iterator<SpdzElement> itE = elements.iterator();
-				Iterator<FileChannel> itFC = channels.iterator();
-				while (itE.hasNext() && itFC.hasNext()) {
-					FileChannel fc = itFC.next();
-					fc.write(elementToBytes(itE.next()));
-					if (fc.equals(selfChannel)) {
-						fc.write(bigIntToBytes(mask));
-					}
-				}
-			}
-			for (FileChannel fc : channels) {
-				if (fc.isOpen()) {
-					fc.close();
+				if (i != inputter) {
+					byte[] seed = new byte[16];
+					rand.nextBytes(seed);
+					seeds[i] = new InputMaskSeed(seed, numberOfInputs, mod);
+					seeds[i].write(new File(directory
+							+ InputMaskSeed.filename(i, inputter)));
 				}
 			}
+			writeParallel("inputs", new String[] { directory + inputsFilename
+					+ inputter + "-" + inputter }, numberOfInputs,
+					new ElementGenerator() {
+						@Override
+						public int elementSize(int party) {
+							// The inputter also gets the real value
+							return 3 * size;
+						}
+
+						@Override
+						public void generate(long index, Random rand,
+								ByteBuffer[] buffers) {
+							BigInteger mask = sample(rand);
+							BigInteger share = mask;
+							BigInteger mac = getMac(mask);
+							for (InputMaskSeed seed : seeds) {
+								if (seed != null) {
+									BigInteger[] derived = seed.get(index);
+									share = share.subtract(derived[0]);
+									mac = mac.subtract(derived[1]);
+								}
+							}
+							putBigInt(share.mod(mod), buffers[0]);
+							putBigInt(mac.mod(mod), buffers[0]);
+							putBigInt(mask, buffers[0]);
+						}
+					});
 		}
 	}
 
 	/**
-	 * Generates the SPDZ global information (modulus and key-share) and writes
-	 * to a file. Note: these are in text, not byte format.
+	 * Generates the SPDZ global information (modulus, key-share and exp pipe
+	 * length) and writes to a file. Note: these are in text, not byte format.
 	 * 
 	 * @throws IOException
 	 */
@@ -579,7 +844,7 @@ public class FakeTripGen {
 		BigInteger lastShare = alpha;
 		for (int i = 0; i < numberOfParties; i++) {
 			// File stuff
-			File f = new File(globalFilename + i);
+			File f = new File(directory + globalFilename + i);
 			FileWriter fw = new FileWriter(f);
 			// Share stuff
 			alphaShare = sample();
@@ -590,6 +855,8 @@ public class FakeTripGen {
 			} else {
 				fw.write(lastShare.toString());
 			}
+			fw.write(" ");
+			fw.write(Integer.toString(expPipeLength));
 			lastShare = lastShare.subtract(alphaShare).mod(mod);
 			fw.close();
 		}
@@ -602,44 +869,26 @@ public class FakeTripGen {
 	 * @throws IOException
 	 */
 	public static void writeExp() throws IOException {
-		List<FileChannel> channels = new LinkedList<FileChannel>();
-		for (int i = 0; i < numberOfParties; i++) {
-			Path expPath = Paths.get(expPipeFilename + i);
-			FileChannel fc = FileChannel.open(expPath, WRITE, CREATE);
-			channels.add(fc);
-		}
-		for (int j = 0; j < numberOfExps; j++) {
-			BigInteger r = sample();
-			BigInteger rInv = r.modInverse(mod);
-			writeAsShared(rInv, channels);
-			BigInteger exp = BigInteger.ONE;
-			for (int i = 1; i < Util.EXP_PIPE_SIZE; i++) {
-				exp = exp.multiply(r).mod(mod);
-				writeAsShared(exp, channels);
-			}
-		}
-		for (FileChannel fc : channels) {
-			fc.close();
-		}
-	}
+		writeParallel("exp pipes", partyFilenames(expPipeFilename, ""),
+				numberOfExps, new ElementGenerator() {
+					@Override
+					public int elementSize(int party) {
+						return 2 * size * expPipeLength;
+					}
 
-	/**
-	 * Writes the SpdzElements associated with a SPDZ sharing to the appropriate
-	 * files.
-	 * 
-	 * @param elements
-	 *            elements of a SPDZ sharing
-	 * @param channels
-	 *            channels to the appropriate files (i.e. one for each player)
-	 * @throws IOException
-	 */
-	private static void writeElements(List<SpdzElement> elements,
-			List<FileChannel> channels) throws IOException {
-		Iterator<SpdzElement> eIt = elements.iterator();
-		Iterator<FileChannel> cIt = channels.iterator();
-		while (eIt.hasNext() && cIt.hasNext()) {
-			cIt.next().write(elementToBytes(eIt.next()));
-		}
+					@Override
+					public void generate(long index, Random rand,
+							ByteBuffer[] buffers) {
+						BigInteger r = sample(rand);
+						BigInteger rInv = r.modInverse(mod);
+						putShared(rInv, rand, buffers);
+						BigInteger exp = BigInteger.ONE;
+						for (int i = 1; i < expPipeLength; i++) {
+							exp = exp.multiply(r).mod(mod);
+							putShared(exp, rand, buffers);
+						}
+					}
+				});
 	}
 
 	/**
@@ -655,12 +904,17 @@ public class FakeTripGen {
 	 */
 	private static List<SpdzElement> toShares(BigInteger value, BigInteger mac,
 			int numberOfParties) {
+		return toShares(value, mac, numberOfParties, rand);
+	}
+
+	private static List<SpdzElement> toShares(BigInteger value, BigInteger mac,
+			int numberOfParties, Random rand) {
 		List<SpdzElement> elements = new ArrayList<SpdzElement>(numberOfParties);
 		BigInteger valShare;
 		BigInteger macShare;
 		for (int i = 0; i < numberOfParties - 1; i++) {
-			valShare = sample();
-			macShare = sample();
+			valShare = sample(rand);
+			macShare = sample(rand);
 			value = value.subtract(valShare).mod(mod);
 			mac = mac.subtract(macShare).mod(mod);
 			elements.add(new SpdzElement(valShare, macShare));
@@ -686,10 +940,20 @@ public class FakeTripGen {
 	 * @return a random integer.
 	 */
 	private static BigInteger sample() {
+		return sample(rand);
+	}
+
+	/**
+	 * Sample a uniformly random integer in the range {0 ... mod} using the
+	 * given source of randomness.
+	 * 
+	 * @return a random integer.
+	 */
+	private static BigInteger sample(Random rand) {
 		BigInteger result = new BigInteger(mod.bitLength(), rand);
 		if (result.compareTo(mod) >= 0) {
 			result = null;
-			return sample();
+			return sample(rand);
 		} else {
 			return result;
 		}
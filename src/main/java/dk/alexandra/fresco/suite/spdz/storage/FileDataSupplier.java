@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Scanner;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
+
+/**
+ * Data supplier which reads preprocessed data directly from the files written
+ * by e.g. {@link FakeTripGen}, instead of from the storage. Nothing is loaded
+ * up front: each element is read from its position in the file when it is
+ * needed, so a restarted run resumes at its {@link ConsumptionCursors} without
+ * importing the preprocessed data again.
+ * 
+ * As the elements of a kind have a fixed size, element no. i is found at i
+ * times that size, and i is the storage counter also used by
+ * {@link DataSupplierImpl}.
+ */
+public class FileDataSupplier implements DataSupplier {
+
+	private final BigInteger modulus;
+	private final BigInteger ssk;
+	private final int expPipeLength;
+	private final int size;
+	private final int myId;
+
+	private final FileChannel triples, expPipes, bits;
+	// Null if no square pairs were generated.
+	private final FileChannel squares;
+	// The masks toward a party are either read from a file or derived from
+	// a seed, so one of these is null for each party.
+	private final FileChannel[] inputMasks;
+	private final InputMaskSeed[] inputMaskSeeds;
+
+	private int tripleCounter, squareCounter, expPipeCounter, bitCounter;
+	private final int[] inputMaskCounters;
+	private final int deltaJump;
+	private final ConsumptionCursors cursors;
+
+	/**
+	 * Opens the preprocessed data of a thread.
+	 * 
+	 * @param path
+	 *            The directory of the preprocessed data
+	 * @param myId
+	 *            The id of this party
+	 * @param noOfThreadsUsed
+	 *            Number of threads used, i.e., the delta between two counters
+	 *            of the thread.
+	 * @param noOfParties
+	 *            The number of parties in the computation.
+	 * @param cursors
+	 *            The durable cursors of the thread that will use this
+	 *            supplier, which it resumes at and records its progress in.
+	 *            They are closed when the supplier is shut down.
+	 */
+	public FileDataSupplier(String path, int myId, int noOfThreadsUsed,
+			int noOfParties, ConsumptionCursors cursors) {
+		this.myId = myId;
+		this.deltaJump = noOfThreadsUsed;
+		this.cursors = cursors;
+		int pID = myId - 1;
+		try (Scanner global = new Scanner(new File(globalDataFile(path, myId)))) {
+			this.modulus = new BigInteger(global.next());
+			this.ssk = new BigInteger(global.next());
+			this.expPipeLength = global.hasNextInt() ? global.nextInt()
+					: Util.EXP_PIPE_SIZE;
+		} catch (IOException e) {
+			throw new MPCException("Could not read the global data in "
+					+ path, e);
+		}
+		this.size = Util.sizeOf(modulus);
+		try {
+			this.triples = open(path + "/Triples-p-P" + pID);
+			this.expPipes = open(path + "/Exp-pipe-p-P" + pID);
+			this.bits = open(path + "/Bits-p-P" + pID);
+			String squaresFile = path + "/Squares-p-P" + pID;
+			this.squares = new File(squaresFile).exists() ? open(squaresFile)
+					: null;
+			this.inputMasks = new FileChannel[noOfParties];
+			this.inputMaskSeeds = new InputMaskSeed[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				inputMaskSeeds[i] = InputMaskSeed.read(new File(path + "/"
+						+ InputMaskSeed.filename(pID, i)), modulus);
+				if (inputMaskSeeds[i] == null) {
+					inputMasks[i] = open(path + "/Inputs-p-P" + pID + "-" + i);
+				}
+			}
+		} catch (IOException e) {
+			throw new MPCException(
+					"Could not open the preprocessed data in " + path, e);
+		}
+		this.tripleCounter = cursors.getPosition(ConsumptionCursors.TRIPLES);
+		this.squareCounter = cursors.getPosition(ConsumptionCursors.SQUARES);
+		this.expPipeCounter = cursors
+				.getPosition(ConsumptionCursors.EXP_PIPES);
+		this.bitCounter = cursors.getPosition(ConsumptionCursors.BITS);
+		this.inputMaskCounters = new int[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			inputMaskCounters[i] = cursors.getPosition(ConsumptionCursors
+					.inputMasks(i + 1));
+		}
+	}
+
+	private static String globalDataFile(String path, int myId) {
+		return path + "/Global-data-p-P" + (myId - 1);
+	}
+
+	/**
+	 * Identifies the preprocessed data of a party by a hash of its global
+	 * data, i.e., the modulus, the share of the mac key and the length of the
+	 * exp pipes. Regenerated data has a new mac key, and hence a new
+	 * identifier, so {@link ConsumptionCursors} recorded for the old data are
+	 * not used for it.
+	 * 
+	 * @param path
+	 *            The directory of the preprocessed data
+	 * @param myId
+	 *            The id of the party
+	 * @return An identifier of {@link ConsumptionCursors#DATA_SET_ID_BYTES}
+	 *         bytes
+	 */
+	public static byte[] dataSetId(String path, int myId) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return digest.digest(Files.readAllBytes(Paths.get(globalDataFile(
+					path, myId))));
+		} catch (IOException e) {
+			throw new MPCException("Could not read the global data in "
+					+ path, e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new MPCException("SHA-256 is needed to identify the "
+					+ "preprocessed data", e);
+		}
+	}
+
+	private static FileChannel open(String file) throws IOException {
+		return FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+	}
+
+	/**
+	 * Reads record no. counter of the given number of elements, or returns
+	 * null if the file ends before it.
+	 */
+	private BigInteger[] read(FileChannel channel, int counter, int elements) {
+		ByteBuffer buffer = ByteBuffer.allocate(elements * size);
+		long position = (long) counter * buffer.capacity();
+		try {
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) == -1) {
+					return null;
+				}
+			}
+		} catch (IOException e) {
+			throw new MPCException("Could not read preprocessed data", e);
+		}
+		BigInteger[] res = new BigInteger[elements];
+		byte[] array = new byte[size];
+		buffer.flip();
+		for (int i = 0; i < elements; i++) {
+			buffer.get(array);
+			res[i] = new BigInteger(1, array);
+		}
+		return res;
+	}
+
+	private static MPCException missing(String what, int counter) {
+		return new MPCException(what + " no. " + counter
+				+ " was not present in the preprocessed data");
+	}
+
+	@Override
+	public SpdzTriple getNextTriple() {
+		cursors.reserve(ConsumptionCursors.TRIPLES, tripleCounter);
+		BigInteger[] t = read(triples, tripleCounter, 6);
+		if (t == null) {
+			throw missing("Triple", tripleCounter);
+		}
+		tripleCounter += deltaJump;
+		return new SpdzTriple(new SpdzElement(t[0], t[1]), new SpdzElement(
+				t[2], t[3]), new SpdzElement(t[4], t[5]));
+	}
+
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		SpdzTriple[] trips = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			trips[i] = getNextTriple();
+		}
+		return trips;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		cursors.reserve(ConsumptionCursors.SQUARES, squareCounter);
+		BigInteger[] s = squares == null ? null : read(squares,
+				squareCounter, 4);
+		if (s == null) {
+			throw missing("Square", squareCounter);
+		}
+		squareCounter += deltaJump;
+		return new SpdzSquare(new SpdzElement(s[0], s[1]), new SpdzElement(
+				s[2], s[3]));
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe() {
+		cursors.reserve(ConsumptionCursors.EXP_PIPES, expPipeCounter);
+		BigInteger[] e = read(expPipes, expPipeCounter, 2 * expPipeLength);
+		if (e == null) {
+			throw missing("expPipe", expPipeCounter);
+		}
+		expPipeCounter += deltaJump;
+		SpdzSInt[] pipe = new SpdzSInt[expPipeLength];
+		for (int i = 0; i < expPipeLength; i++) {
+			pipe[i] = new SpdzSInt(new SpdzElement(e[2 * i], e[2 * i + 1]));
+		}
+		return pipe;
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		return DataSupplierImpl.prefixOf(getNextExpPipe(), length);
+	}
+
+	@Override
+	public SpdzInputMask getNextInputMask(int towardPlayerID) {
+		int id = towardPlayerID - 1;
+		int counter = inputMaskCounters[id];
+		cursors.reserve(ConsumptionCursors.inputMasks(towardPlayerID),
+				counter);
+		boolean mine = towardPlayerID == myId;
+		BigInteger[] m = inputMaskSeeds[id] != null ? inputMaskSeeds[id]
+				.get(counter) : read(inputMasks[id], counter, mine ? 3 : 2);
+		if (m == null) {
+			throw missing("Mask toward player " + towardPlayerID, counter);
+		}
+		inputMaskCounters[id] += deltaJump;
+		SpdzElement mask = new SpdzElement(m[0], m[1]);
+		return mine ? new SpdzInputMask(mask, m[2]) : new SpdzInputMask(mask);
+	}
+
+	@Override
+	public SpdzSInt getNextBit() {
+		cursors.reserve(ConsumptionCursors.BITS, bitCounter);
+		BigInteger[] b = read(bits, bitCounter, 2);
+		if (b == null) {
+			throw missing("Bit", bitCounter);
+		}
+		bitCounter += deltaJump;
+		return new SpdzSInt(new SpdzElement(b[0], b[1]));
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	@Override
+	public BigInteger getSSK() {
+		return ssk;
+	}
+
+	/**
+	 * Closes the files and the cursors.
+	 */
+	public void shutdown() {
+		try {
+			triples.close();
+			expPipes.close();
+			bits.close();
+			if (squares != null) {
+				squares.close();
+			}
+			for (FileChannel channel : inputMasks) {
+				if (channel != null) {
+					channel.close();
+				}
+			}
+		} catch (IOException e) {
+			throw new MPCException("Could not close the preprocessed data", e);
+		} finally {
+			cursors.close();
+		}
+	}
+}
@@ -33,7 +33,9 @@ import java.util.List;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 public class InitializeStorage {
 
@@ -47,7 +49,60 @@ public class InitializeStorage {
 	 * @param noOfInputMasks
 	 * @param noOfBits
 	 */
-	public static void initStorage(Storage[] stores, int noOfPlayers, int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes) {		
+	public static void initStorage(Storage[] stores, int noOfPlayers, int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes) {
+		initStorage(stores, noOfPlayers, noOfTriples, noOfInputMasks, noOfBits, noOfExpPipes, Util.EXP_PIPE_SIZE);
+	}
+
+	/**
+	 * As {@link #initStorage(Storage[], int, int, int, int, int)}, but with
+	 * exp pipes of the given length.
+	 * 
+	 * @param stores
+	 * @param noOfPlayers
+	 * @param noOfTriples
+	 * @param noOfInputMasks
+	 * @param noOfBits
+	 * @param noOfExpPipes
+	 * @param expPipeLength
+	 */
+	public static void initStorage(Storage[] stores, int noOfPlayers, int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes, int expPipeLength) {
+		initStorage(stores, noOfPlayers, noOfTriples, noOfInputMasks, noOfBits, noOfExpPipes, expPipeLength, 0);
+	}
+
+	/**
+	 * As {@link #initStorage(Storage[], int, int, int, int, int, int)}, but
+	 * also generates the given amount of square pairs.
+	 * 
+	 * @param stores
+	 * @param noOfPlayers
+	 * @param noOfTriples
+	 * @param noOfInputMasks
+	 * @param noOfBits
+	 * @param noOfExpPipes
+	 * @param expPipeLength
+	 * @param noOfSquares
+	 */
+	public static void initStorage(Storage[] stores, int noOfPlayers, int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes, int expPipeLength, int noOfSquares) {		
+		BigInteger p = new BigInteger(
+				"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+		initStorage(stores, noOfPlayers, noOfTriples, noOfInputMasks, noOfBits, noOfExpPipes, expPipeLength, noOfSquares, p);
+	}
+
+	/**
+	 * As {@link #initStorage(Storage[], int, int, int, int, int, int, int)},
+	 * but with data for the field given by the modulus p.
+	 * 
+	 * @param stores
+	 * @param noOfPlayers
+	 * @param noOfTriples
+	 * @param noOfInputMasks
+	 * @param noOfBits
+	 * @param noOfExpPipes
+	 * @param expPipeLength
+	 * @param noOfSquares
+	 * @param p
+	 */
+	public static void initStorage(Storage[] stores, int noOfPlayers, int noOfTriples, int noOfInputMasks, int noOfBits, int noOfExpPipes, int expPipeLength, int noOfSquares, BigInteger p) {
 
 		List<Storage> tmpStores = new ArrayList<Storage>();
 		for (Storage s : stores) {
@@ -58,9 +113,6 @@ public class InitializeStorage {
 		}
 		Storage[] storages = tmpStores.toArray(new Storage[0]);
 
-		BigInteger p = new BigInteger(
-				"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
-		
 		List<BigInteger> alphaShares = FakeTripGen.generateAlphaShares(noOfPlayers, p);
 		BigInteger alpha = BigInteger.ZERO;
 		for(BigInteger share : alphaShares) {
@@ -74,7 +126,9 @@ public class InitializeStorage {
 				.generateInputMasks(noOfInputMasks, noOfPlayers, p, alpha);
 		List<SpdzSInt[]> bits = FakeTripGen.generateBits(noOfBits, noOfPlayers, p,
 				alpha);
-		List<SpdzSInt[][]> expPipes = FakeTripGen.generateExpPipes(noOfExpPipes, noOfPlayers, p, alpha);
+		List<SpdzSInt[][]> expPipes = FakeTripGen.generateExpPipes(noOfExpPipes, noOfPlayers, p, alpha, expPipeLength);
+		List<SpdzSquare[]> squares = FakeTripGen.generateSquares(noOfSquares,
+				noOfPlayers, p, alpha);
 		
 
 		for (Storage store : storages) {
@@ -98,6 +152,18 @@ public class InitializeStorage {
 				}
 				tripleCounter++;
 			}
+			// squares
+			int squareCounter = 0;
+			for (SpdzSquare[] square : squares) {
+				for (int i = 0; i < noOfPlayers; i++) {
+					String storageName = SpdzStorageConstants.STORAGE_NAME_PREFIX
+							+ (i + 1);
+					store.putObject(storageName,
+							SpdzStorageConstants.SQUARE_KEY_PREFIX
+									+ squareCounter, square[i]);
+				}
+				squareCounter++;
+			}
 			// inputs
 			// towards player
 			for (int towardsPlayer = 1; towardsPlayer < inputMasks.size() + 1; towardsPlayer++) {
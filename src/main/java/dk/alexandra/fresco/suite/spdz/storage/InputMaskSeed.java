@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.util.FieldPrf;
+
+/**
+ * The shares of the input masks of a party that does not give the input.
+ * 
+ * The share and MAC share of such a party only need to be random, so instead
+ * of storing them, {@link FakeTripGen} derives them from a seed, and the
+ * inputter's file holds the correction: its share and MAC share are the mask
+ * and its MAC minus the derived shares of all other parties. The file of a
+ * party that does not give the input shrinks to the seed and the number of
+ * masks, and mask no. i is found without reading the masks before it.
+ * 
+ * The file holds the number of masks as a long, followed by the seed.
+ */
+public class InputMaskSeed {
+
+	public static final String FILENAME_PREFIX = "Input-seeds-p-P";
+	private static final int SEED_BYTES = 16;
+
+	private final byte[] seed;
+	private final long count;
+	private final BigInteger modulus;
+
+	public InputMaskSeed(byte[] seed, long count, BigInteger modulus) {
+		if (seed.length != SEED_BYTES) {
+			throw new MPCException("Input mask seeds are " + SEED_BYTES
+					+ " bytes, not " + seed.length);
+		}
+		this.seed = seed.clone();
+		this.count = count;
+		this.modulus = modulus;
+	}
+
+	/**
+	 * The name of the seed file of the given (zero-based) party for the masks
+	 * toward the given (zero-based) inputter.
+	 */
+	public static String filename(int party, int inputter) {
+		return FILENAME_PREFIX + party + "-" + inputter;
+	}
+
+	/**
+	 * Reads a seed file.
+	 * 
+	 * @return The seed, or null if the file does not exist, in which case the
+	 *         shares are stored in full
+	 */
+	public static InputMaskSeed read(File file, BigInteger modulus) {
+		if (!file.exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			long count = in.readLong();
+			byte[] seed = new byte[SEED_BYTES];
+			in.readFully(seed);
+			return new InputMaskSeed(seed, count, modulus);
+		} catch (IOException e) {
+			throw new MPCException("Could not read the input mask seed in "
+					+ file, e);
+		}
+	}
+
+	public void write(File file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(
+				file))) {
+			out.writeLong(count);
+			out.write(seed);
+		}
+	}
+
+	/**
+	 * @return The number of masks
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Derives the share and MAC share of mask no. index.
+	 * 
+	 * @return The share followed by the MAC share, or null if there is no
+	 *         mask with that index
+	 */
+	public BigInteger[] get(long index) {
+		if (index < 0 || index >= count) {
+			return null;
+		}
+		return FieldPrf.elements(seed, index, 2, modulus);
+	}
+}
@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+
+/**
+ * Data supplier which reads preprocessed data ahead of time. A background
+ * thread pulls triples, squares, bits, exp pipes and input masks from an underlying
+ * supplier and places them in bounded lock-free queues, so that gates only
+ * have to dequeue ready-decoded elements during evaluation.
+ * 
+ * Each evaluation thread should have its own prefetching supplier on top of its
+ * own underlying supplier, as the ordering of the preprocessed data must be the
+ * same at all parties. The background thread is started the first time data is
+ * requested.
+ * 
+ * The number of times (and the total time) an evaluating thread had to wait
+ * for the background thread is recorded, such that stalls caused by
+ * preprocessed data can be measured separately from network and computation.
+ */
+public class PrefetchingDataSupplier implements DataSupplier {
+
+	/**
+	 * An exp pipe contains around 200 elements, so we keep far fewer of them
+	 * in memory than e.g. triples.
+	 */
+	private static final int EXP_PIPE_CAPACITY_DIVISOR = 100;
+	private static final long PRODUCER_IDLE_NANOS = 100000;
+	private static final long CONSUMER_WAIT_NANOS = 1000;
+
+	private final DataSupplier source;
+	private final int capacity;
+	private final int expPipeCapacity;
+
+	private final Buffer<SpdzTriple> triples;
+	private final Buffer<SpdzSquare> squares;
+	private final Buffer<SpdzSInt> bits;
+	private final Buffer<SpdzSInt[]> expPipes;
+	private final List<Buffer<SpdzInputMask>> inputMasks;
+
+	private final AtomicLong stalls = new AtomicLong();
+	private final AtomicLong stallNanos = new AtomicLong();
+
+	private volatile boolean started = false;
+	private volatile boolean running = false;
+	private Thread producer;
+
+	private BigInteger modulus;
+	private BigInteger ssk;
+
+	/**
+	 * Creates a new prefetching supplier.
+	 * 
+	 * @param source
+	 *            the supplier the preprocessed data is read from. It is only
+	 *            accessed by the background thread after the first request.
+	 * @param capacity
+	 *            the maximal number of triples, squares, bits and input masks
+	 *            (per input player) to keep ready.
+	 * @param noOfParties
+	 *            the number of parties in the computation.
+	 */
+	public PrefetchingDataSupplier(DataSupplier source, int capacity,
+			int noOfParties) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"Prefetch capacity must be positive, was " + capacity);
+		}
+		this.source = source;
+		this.capacity = capacity;
+		this.expPipeCapacity = Math.max(1, capacity
+				/ EXP_PIPE_CAPACITY_DIVISOR);
+		this.triples = new Buffer<SpdzTriple>("Triple");
+		this.squares = new Buffer<SpdzSquare>("Square");
+		this.bits = new Buffer<SpdzSInt>("Bit");
+		this.expPipes = new Buffer<SpdzSInt[]>("Exp pipe");
+		this.inputMasks = new ArrayList<Buffer<SpdzInputMask>>(noOfParties);
+		for (int i = 0; i < noOfParties; i++) {
+			this.inputMasks.add(new Buffer<SpdzInputMask>(
+					"Input mask towards player " + (i + 1)));
+		}
+	}
+
+	@Override
+	public SpdzTriple getNextTriple() {
+		return take(triples);
+	}
+
+	@Override
+	public SpdzTriple[] getNextTriples(int amount) {
+		SpdzTriple[] trips = new SpdzTriple[amount];
+		for (int i = 0; i < amount; i++) {
+			trips[i] = take(triples);
+		}
+		return trips;
+	}
+
+	@Override
+	public SpdzSquare getNextSquare() {
+		return take(squares);
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe() {
+		return take(expPipes);
+	}
+
+	@Override
+	public SpdzSInt[] getNextExpPipe(int length) {
+		return DataSupplierImpl.prefixOf(take(expPipes), length);
+	}
+
+	@Override
+	public SpdzInputMask getNextInputMask(int towardPlayerID) {
+		return take(inputMasks.get(towardPlayerID - 1));
+	}
+
+	@Override
+	public SpdzSInt getNextBit() {
+		return take(bits);
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		if (modulus == null) {
+			modulus = source.getModulus();
+		}
+		return modulus;
+	}
+
+	@Override
+	public BigInteger getSSK() {
+		if (ssk == null) {
+			ssk = source.getSSK();
+		}
+		return ssk;
+	}
+
+	/**
+	 * @return the number of times an evaluating thread had to wait for
+	 *         preprocessed data to become available.
+	 */
+	public long getStalls() {
+		return stalls.get();
+	}
+
+	/**
+	 * @return the total time in nanoseconds evaluating threads spent waiting
+	 *         for preprocessed data to become available.
+	 */
+	public long getStallNanos() {
+		return stallNanos.get();
+	}
+
+	/**
+	 * Stops the background thread. Data already prefetched is discarded.
+	 */
+	public synchronized void shutdown() {
+		if (producer == null) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(producer);
+		try {
+			producer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		producer = null;
+		Reporter.fine("Prefetching supplier stalled " + stalls.get()
+				+ " times for a total of " + (stallNanos.get() / 1000000)
+				+ " ms");
+	}
+
+	private <T> T take(Buffer<T> buffer) {
+		if (!started) {
+			start();
+		}
+		T element = buffer.poll();
+		if (element == null) {
+			long start = System.nanoTime();
+			while ((element = buffer.poll()) == null) {
+				if (buffer.error != null) {
+					// The last element may have been added just before the
+					// error occurred.
+					element = buffer.poll();
+					if (element != null) {
+						break;
+					}
+					throw new MPCException(buffer.name
+							+ " could not be prefetched", buffer.error);
+				}
+				if (!running) {
+					throw new MPCException(buffer.name
+							+ " requested after supplier was shut down");
+				}
+				LockSupport.unpark(producer);
+				LockSupport.parkNanos(CONSUMER_WAIT_NANOS);
+			}
+			stalls.incrementAndGet();
+			stallNanos.addAndGet(System.nanoTime() - start);
+		}
+		return element;
+	}
+
+	private synchronized void start() {
+		if (started) {
+			return;
+		}
+		running = true;
+		producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				produce();
+			}
+		}, "SPDZ-prefetch");
+		producer.setDaemon(true);
+		producer.start();
+		started = true;
+	}
+
+	/**
+	 * Fills the buffers until the supplier is shut down. An MPCException only
+	 * stops the buffer it was thrown for, e.g. when the source runs out of
+	 * one kind of data, while any other exception stops the thread, and is
+	 * reported to every buffer so no evaluating thread waits forever.
+	 */
+	private void produce() {
+		try {
+			fill();
+		} catch (RuntimeException | Error e) {
+			triples.fail(e);
+			squares.fail(e);
+			bits.fail(e);
+			expPipes.fail(e);
+			for (Buffer<SpdzInputMask> buffer : inputMasks) {
+				buffer.fail(e);
+			}
+			running = false;
+			Reporter.warn("Prefetching of preprocessed data failed: " + e);
+		}
+	}
+
+	private void fill() {
+		while (running) {
+			boolean progress = false;
+			if (triples.needs(capacity)) {
+				try {
+					progress |= triples.offer(source.getNextTriple());
+				} catch (MPCException e) {
+					triples.error = e;
+				}
+			}
+			if (squares.needs(capacity)) {
+				try {
+					progress |= squares.offer(source.getNextSquare());
+				} catch (MPCException e) {
+					squares.error = e;
+				}
+			}
+			if (bits.needs(capacity)) {
+				try {
+					progress |= bits.offer(source.getNextBit());
+				} catch (MPCException e) {
+					bits.error = e;
+				}
+			}
+			if (expPipes.needs(expPipeCapacity)) {
+				try {
+					progress |= expPipes.offer(source.getNextExpPipe());
+				} catch (MPCException e) {
+					expPipes.error = e;
+				}
+			}
+			for (int i = 0; i < inputMasks.size(); i++) {
+				Buffer<SpdzInputMask> buffer = inputMasks.get(i);
+				if (buffer.needs(capacity)) {
+					try {
+						progress |= buffer.offer(source.getNextInputMask(i + 1));
+					} catch (MPCException e) {
+						buffer.error = e;
+					}
+				}
+			}
+			if (!progress) {
+				LockSupport.parkNanos(PRODUCER_IDLE_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * A bounded queue of prefetched elements of one kind. Only the background
+	 * thread offers elements, while any number of threads may poll.
+	 */
+	private static class Buffer<T> {
+
+		private final String name;
+		private final Queue<T> queue = new ConcurrentLinkedQueue<T>();
+		private final AtomicInteger size = new AtomicInteger();
+		private volatile Throwable error;
+
+		private Buffer(String name) {
+			this.name = name;
+		}
+
+		private void fail(Throwable e) {
+			if (error == null) {
+				error = e;
+			}
+		}
+
+		private boolean needs(int capacity) {
+			return error == null && size.get() < capacity;
+		}
+
+		private boolean offer(T element) {
+			queue.offer(element);
+			size.incrementAndGet();
+			return true;
+		}
+
+		private T poll() {
+			T element = queue.poll();
+			if (element != null) {
+				size.decrementAndGet();
+			}
+			return element;
+		}
+	}
+}
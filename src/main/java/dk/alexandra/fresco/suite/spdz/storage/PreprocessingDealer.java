@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+
+/**
+ * A source of preprocessed data which a {@link DealerServer} hands out to the
+ * parties on demand. Each thread of each party has its own streams of
+ * triples, squares, bits, exp pipes and input masks, and element no. i of a stream
+ * must be a share of the same value for all parties.
+ * 
+ * The trusted {@link TrustedDealer} is a stand-in for testing; an
+ * implementation backed by an actual offline protocol can be served to the
+ * same {@link DealerDataSupplier}s.
+ */
+public interface PreprocessingDealer {
+
+	/**
+	 * The modulus of the field the data lives in
+	 */
+	public BigInteger getModulus();
+
+	/**
+	 * The share of the MAC key (alpha) belonging to the given party
+	 */
+	public BigInteger getSSK(int partyId);
+
+	/**
+	 * The length of the exp pipes handed out
+	 */
+	public int getExpPipeLength();
+
+	/**
+	 * The given party's share of triple no. index of the given thread
+	 */
+	public SpdzTriple getTriple(int partyId, int threadId, long index);
+
+	/**
+	 * The given party's share of square pair no. index of the given thread
+	 */
+	public SpdzSquare getSquare(int partyId, int threadId, long index);
+
+	/**
+	 * The given party's share of bit no. index of the given thread
+	 */
+	public SpdzSInt getBit(int partyId, int threadId, long index);
+
+	/**
+	 * The given party's shares of exp pipe no. index of the given thread
+	 */
+	public SpdzSInt[] getExpPipe(int partyId, int threadId, long index);
+
+	/**
+	 * The given party's share of input mask no. index of the given thread
+	 * toward the given input player. The input player also learns the value
+	 * of the mask.
+	 */
+	public SpdzInputMask getInputMask(int partyId, int threadId,
+			int towardPlayerID, long index);
+
+}
@@ -67,6 +67,18 @@ public interface SpdzStorage{
 	 */
 	public abstract void addClosedValue(SpdzElement elem);
 
+	/**
+	 * Adds a number of opened values at once
+	 * @param vals the values to be added, in order
+	 */
+	public abstract void addOpenedValues(BigInteger[] vals);
+
+	/**
+	 * Adds a number of closed values at once
+	 * @param elems the elements to add, in order
+	 */
+	public abstract void addClosedValues(SpdzElement[] elems);
+
 	/**
 	 * Get the current opened values
 	 * @return a list of opened values
@@ -27,6 +27,7 @@
 package dk.alexandra.fresco.suite.spdz.storage;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -48,6 +49,8 @@ public class SpdzStorageImpl implements SpdzStorage {
 	private List<SpdzElement> closed_values;
 
 	private DataSupplier supplier;
+	private ConsumptionCursors cursors;
+	private DataSupplier dealer;
 
 	/**
 	 * 
@@ -58,6 +61,41 @@ public class SpdzStorageImpl implements SpdzStorage {
 	 *            of the thread that will use this storage object
 	 */
 	public SpdzStorageImpl(ResourcePool rp, int storageId) {
+		this(rp, storageId, 0);
+	}
+
+	/**
+	 * 
+	 * @param rp
+	 *            the resourcePool given to the protocol suite.
+	 * @param storageId
+	 *            The unique id of the storage. This could e.g. be the threadId
+	 *            of the thread that will use this storage object
+	 * @param prefetchSize
+	 *            The number of preprocessed elements of each kind to read
+	 *            ahead in the background. If 0, no prefetching is done.
+	 */
+	public SpdzStorageImpl(ResourcePool rp, int storageId, int prefetchSize) {
+		this(rp, storageId, prefetchSize, null);
+	}
+
+	/**
+	 * 
+	 * @param rp
+	 *            the resourcePool given to the protocol suite.
+	 * @param storageId
+	 *            The unique id of the storage. This could e.g. be the threadId
+	 *            of the thread that will use this storage object
+	 * @param prefetchSize
+	 *            The number of preprocessed elements of each kind to read
+	 *            ahead in the background. If 0, no prefetching is done.
+	 * @param cursors
+	 *            Durable cursors to resume from and record consumption in. If
+	 *            null, consumption starts from the beginning of the storage.
+	 *            The cursors are closed when this storage is shut down.
+	 */
+	public SpdzStorageImpl(ResourcePool rp, int storageId, int prefetchSize,
+			ConsumptionCursors cursors) {
 		this.storage = rp.getStorage();
 		int noOfThreadsUsed = rp.getThreadPool().getThreadCount();
 		int noOfParties = rp.getNoOfParties();
@@ -68,13 +106,58 @@ public class SpdzStorageImpl implements SpdzStorage {
 		opened_values = new LinkedList<BigInteger>();
 		closed_values = new LinkedList<SpdzElement>();
 
-		this.supplier = new DataSupplierImpl(storage, storageName,
-				storageId, noOfThreadsUsed, noOfParties);
+		this.cursors = cursors;
+		if (cursors != null) {
+			this.supplier = new DataSupplierImpl(storage, storageName,
+					storageId, noOfThreadsUsed, noOfParties, cursors);
+		} else {
+			this.supplier = new DataSupplierImpl(storage, storageName,
+					storageId, noOfThreadsUsed, noOfParties);
+		}
+		if (prefetchSize > 0) {
+			this.supplier = new PrefetchingDataSupplier(this.supplier,
+					prefetchSize, noOfParties);
+		}
+	}
+
+	/**
+	 * 
+	 * @param rp
+	 *            the resourcePool given to the protocol suite.
+	 * @param supplier
+	 *            The supplier of preprocessed data, e.g. a
+	 *            {@link DealerDataSupplier} or a {@link FileDataSupplier}
+	 * @param prefetchSize
+	 *            The number of preprocessed elements of each kind to read
+	 *            ahead in the background. If 0, no prefetching is done.
+	 */
+	public SpdzStorageImpl(ResourcePool rp, DataSupplier supplier,
+			int prefetchSize) {
+		this.storage = rp.getStorage();
+		opened_values = new LinkedList<BigInteger>();
+		closed_values = new LinkedList<SpdzElement>();
+		this.dealer = supplier;
+		this.supplier = supplier;
+		if (prefetchSize > 0) {
+			this.supplier = new PrefetchingDataSupplier(this.supplier,
+					prefetchSize, rp.getNoOfParties());
+		}
 	}
 
 	@Override
 	public void shutdown() {
-		// Does nothing..
+		if (supplier instanceof PrefetchingDataSupplier) {
+			((PrefetchingDataSupplier) supplier).shutdown();
+		}
+		if (cursors != null) {
+			cursors.close();
+		}
+		if (dealer instanceof DealerDataSupplier) {
+			((DealerDataSupplier) dealer).shutdown();
+		}
+		if (dealer instanceof FileDataSupplier) {
+			((FileDataSupplier) dealer).shutdown();
+		}
 	}
 
 	@Override
@@ -98,6 +181,16 @@ public class SpdzStorageImpl implements SpdzStorage {
 		closed_values.add(elem);
 	}
 
+	@Override
+	public void addOpenedValues(BigInteger[] vals) {
+		opened_values.addAll(Arrays.asList(vals));
+	}
+
+	@Override
+	public void addClosedValues(SpdzElement[] elems) {
+		closed_values.addAll(Arrays.asList(elems));
+	}
+
 	@Override
 	public List<BigInteger> getOpenedValues() {
 		return opened_values;
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+
+/**
+ * A trusted dealer which knows the MAC key and derives every element from a
+ * seed, the stream it belongs to and its index. As nothing is stored, the
+ * parties may ask for elements in any order and at any pace, and a dealer
+ * restarted with the same seed hands out the same data.
+ * 
+ * Like {@link FakeTripGen}, this is only meant for testing, as the dealer
+ * knows all secrets.
+ */
+public class TrustedDealer implements PreprocessingDealer {
+
+	private static final int TRIPLE = 0;
+	private static final int BIT = 1;
+	private static final int EXP_PIPE = 2;
+	private static final int INPUT_MASK = 3;
+	private static final int SQUARE = 4;
+
+	private final BigInteger mod;
+	private final BigInteger alpha;
+	private final BigInteger[] alphaShares;
+	private final int noOfParties;
+	private final int expPipeLength;
+	private final long seed;
+
+	/**
+	 * @param modulus
+	 *            The modulus of the field
+	 * @param noOfParties
+	 *            The number of parties to deal to
+	 * @param expPipeLength
+	 *            The length of the exp pipes
+	 * @param seed
+	 *            The seed all data is derived from
+	 */
+	public TrustedDealer(BigInteger modulus, int noOfParties,
+			int expPipeLength, long seed) {
+		this.mod = modulus;
+		this.noOfParties = noOfParties;
+		this.expPipeLength = expPipeLength;
+		this.seed = seed;
+		Random rand = new Random(seed);
+		this.alphaShares = new BigInteger[noOfParties];
+		BigInteger alpha = BigInteger.ZERO;
+		for (int i = 0; i < noOfParties; i++) {
+			alphaShares[i] = sample(rand);
+			alpha = alpha.add(alphaShares[i]);
+		}
+		this.alpha = alpha.mod(mod);
+	}
+
+	@Override
+	public BigInteger getModulus() {
+		return mod;
+	}
+
+	@Override
+	public BigInteger getSSK(int partyId) {
+		return alphaShares[partyId - 1];
+	}
+
+	@Override
+	public int getExpPipeLength() {
+		return expPipeLength;
+	}
+
+	@Override
+	public SpdzTriple getTriple(int partyId, int threadId, long index) {
+		Random rand = randomFor(TRIPLE, threadId, 0, index);
+		BigInteger a = sample(rand);
+		BigInteger b = sample(rand);
+		BigInteger c = a.multiply(b).mod(mod);
+		return new SpdzTriple(share(a, partyId, rand),
+				share(b, partyId, rand), share(c, partyId, rand));
+	}
+
+	@Override
+	public SpdzSquare getSquare(int partyId, int threadId, long index) {
+		Random rand = randomFor(SQUARE, threadId, 0, index);
+		BigInteger a = sample(rand);
+		BigInteger aa = a.multiply(a).mod(mod);
+		return new SpdzSquare(share(a, partyId, rand),
+				share(aa, partyId, rand));
+	}
+
+	@Override
+	public SpdzSInt getBit(int partyId, int threadId, long index) {
+		Random rand = randomFor(BIT, threadId, 0, index);
+		BigInteger bit = rand.nextBoolean() ? BigInteger.ONE : BigInteger.ZERO;
+		return new SpdzSInt(share(bit, partyId, rand));
+	}
+
+	@Override
+	public SpdzSInt[] getExpPipe(int partyId, int threadId, long index) {
+		Random rand = randomFor(EXP_PIPE, threadId, 0, index);
+		BigInteger r;
+		do {
+			r = sample(rand);
+		} while (r.signum() == 0);
+		SpdzSInt[] expPipe = new SpdzSInt[expPipeLength];
+		expPipe[0] = new SpdzSInt(share(r.modInverse(mod), partyId, rand));
+		BigInteger exp = BigInteger.ONE;
+		for (int i = 1; i < expPipeLength; i++) {
+			exp = exp.multiply(r).mod(mod);
+			expPipe[i] = new SpdzSInt(share(exp, partyId, rand));
+		}
+		return expPipe;
+	}
+
+	@Override
+	public SpdzInputMask getInputMask(int partyId, int threadId,
+			int towardPlayerID, long index) {
+		Random rand = randomFor(INPUT_MASK, threadId, towardPlayerID, index);
+		BigInteger mask = sample(rand);
+		SpdzElement share = share(mask, partyId, rand);
+		if (partyId == towardPlayerID) {
+			return new SpdzInputMask(share, mask);
+		}
+		return new SpdzInputMask(share);
+	}
+
+	/**
+	 * The randomness of a single element, such that all parties derive the
+	 * same value independently of the order in which they ask for elements.
+	 */
+	private Random randomFor(int kind, int threadId, int towardPlayerID,
+			long index) {
+		long h = seed;
+		h = 31 * h + kind;
+		h = 31 * h + threadId;
+		h = 31 * h + towardPlayerID;
+		h = 31 * h + index;
+		// Spread the bits, as Random only uses the lower 48 bits of the seed.
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return new Random(h);
+	}
+
+	/**
+	 * Computes an additive sharing of the value and its MAC, and returns the
+	 * share of the given party. The randomness of the sharing is drawn for all
+	 * parties, so it is consumed in the same way whoever asks.
+	 */
+	private SpdzElement share(BigInteger value, int partyId, Random rand) {
+		BigInteger mac = value.multiply(alpha).mod(mod);
+		SpdzElement res = null;
+		for (int i = 1; i < noOfParties; i++) {
+			BigInteger valShare = sample(rand);
+			BigInteger macShare = sample(rand);
+			value = value.subtract(valShare);
+			mac = mac.subtract(macShare);
+			if (i == partyId) {
+				res = new SpdzElement(valShare, macShare);
+			}
+		}
+		if (partyId == noOfParties) {
+			res = new SpdzElement(value.mod(mod), mac.mod(mod));
+		}
+		return res;
+	}
+
+	private BigInteger sample(Random rand) {
+		BigInteger result;
+		do {
+			result = new BigInteger(mod.bitLength(), rand);
+		} while (result.compareTo(mod) >= 0);
+		return result;
+	}
+}
@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.utils;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.KnownSIntProtocol;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.AddProtocol;
+import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.lib.field.integer.SubtractCircuit;
+import dk.alexandra.fresco.lib.helper.HalfCookedNativeProtocol;
+import dk.alexandra.fresco.lib.math.inv.LocalInversionCircuit;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+
+/**
+ * A SpdzFactory whose protocols do no communication or cryptography. Instead
+ * they record the preprocessed data the real SPDZ gates would have consumed,
+ * and fill their outputs with dummy values so that protocol producers can
+ * keep producing protocols.
+ * 
+ * Note that the dummy values are all the same. Applications whose control
+ * flow depends on opened values (e.g., the LP solver) will therefore follow
+ * one particular path, which may not be the one taken on real inputs.
+ */
+class DryRunSpdzFactory extends SpdzFactory {
+
+	private static final BigInteger DUMMY = BigInteger.ONE;
+
+	private final PreprocessingDemand demand;
+
+	DryRunSpdzFactory(PreprocessingDemand demand, BigInteger modulus, int pID,
+			int maxBitLength) {
+		super(null, modulus, pID, maxBitLength);
+		this.demand = demand;
+	}
+
+	private static SpdzElement dummyElement() {
+		return new SpdzElement(BigInteger.ZERO, BigInteger.ZERO);
+	}
+
+	private static SpdzSInt dummySInt() {
+		return new SpdzSInt(dummyElement());
+	}
+
+	/**
+	 * A native protocol standing in for a SPDZ gate. It takes as many rounds
+	 * as the gate it replaces and consumes the same preprocessed data.
+	 */
+	class DryRunProtocol extends HalfCookedNativeProtocol implements
+			KnownSIntProtocol, AddProtocol, SubtractCircuit, MultProtocol,
+			LocalInversionCircuit, CloseIntProtocol, OpenIntProtocol {
+
+		private final Value[] outputs;
+		private final int rounds;
+		private final int triples;
+		private final int squares;
+		private final int maskPlayer;
+		private final int masks;
+
+		DryRunProtocol(Value[] outputs, int rounds, int triples,
+				int maskPlayer, int masks) {
+			this(outputs, rounds, triples, 0, maskPlayer, masks);
+		}
+
+		DryRunProtocol(Value[] outputs, int rounds, int triples, int squares,
+				int maskPlayer, int masks) {
+			this.outputs = outputs;
+			this.rounds = rounds;
+			this.triples = triples;
+			this.squares = squares;
+			this.maskPlayer = maskPlayer;
+			this.masks = masks;
+		}
+
+		DryRunProtocol(Value... outputs) {
+			this(outputs, 0, 0, 0, 0);
+		}
+
+		@Override
+		public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+				SCENetwork network) {
+			if (round == 0) {
+				demand.addTriples(triples);
+				demand.addSquares(squares);
+				if (maskPlayer > 0) {
+					demand.addInputMasks(maskPlayer, masks);
+				}
+			}
+			if (round < rounds) {
+				return EvaluationStatus.HAS_MORE_ROUNDS;
+			}
+			for (Value output : outputs) {
+				if (output instanceof SpdzSInt) {
+					((SpdzSInt) output).value = dummyElement();
+				} else if (output instanceof OInt) {
+					((OInt) output).setValue(DUMMY);
+				}
+			}
+			return EvaluationStatus.IS_DONE;
+		}
+
+		@Override
+		public Value[] getInputValues() {
+			return null;
+		}
+
+		@Override
+		public Value[] getOutputValues() {
+			return outputs;
+		}
+	}
+
+	@Override
+	public KnownSIntProtocol getSInt(int i, SInt si) {
+		return new DryRunProtocol(si);
+	}
+
+	@Override
+	public KnownSIntProtocol getSInt(BigInteger value, SInt sValue) {
+		return new DryRunProtocol(sValue);
+	}
+
+	@Override
+	public SInt getSqrtOfMaxValue() {
+		return dummySInt();
+	}
+
+	@Override
+	public SInt getRandomSecretSharedBit() {
+		demand.addBits(1);
+		return dummySInt();
+	}
+
+	@Override
+	public SInt[] getExponentiationPipe() {
+		return getExponentiationPipe(Util.EXP_PIPE_SIZE);
+	}
+
+	@Override
+	public SInt[] getExponentiationPipe(int length) {
+		demand.addExpPipe(length);
+		SInt[] pipe = new SInt[length];
+		for (int i = 0; i < length; i++) {
+			pipe[i] = dummySInt();
+		}
+		return pipe;
+	}
+
+	@Override
+	public OInt[] getExpFromOInt(OInt value, int maxBitSize) {
+		OInt[] res = new OInt[maxBitSize];
+		for (int i = 0; i < maxBitSize; i++) {
+			res[i] = new SpdzOInt(DUMMY);
+		}
+		return res;
+	}
+
+	@Override
+	public SInt getRandomSInt() {
+		demand.addTriples(1);
+		return dummySInt();
+	}
+
+	@Override
+	public OInt getOInt(BigInteger i) {
+		return new SpdzOInt(i);
+	}
+
+	@Override
+	public OInt getRandomOInt() {
+		return new SpdzOInt(DUMMY);
+	}
+
+	@Override
+	public AddProtocol getAddCircuit(SInt a, SInt b, SInt out) {
+		return new DryRunProtocol(out);
+	}
+
+	@Override
+	public AddProtocol getAddCircuit(SInt a, OInt b, SInt out) {
+		return new DryRunProtocol(out);
+	}
+
+	@Override
+	public SubtractCircuit getSubtractCircuit(SInt a, SInt b, SInt out) {
+		return new DryRunProtocol(out);
+	}
+
+	@Override
+	public SubtractCircuit getSubtractCircuit(OInt a, SInt b, SInt out) {
+		return new DryRunProtocol(out);
+	}
+
+	@Override
+	public MultProtocol getMultCircuit(SInt a, SInt b, SInt out) {
+		return new DryRunProtocol(new Value[] { out }, 1, 1, 0, 0);
+	}
+
+	@Override
+	public MultProtocol getSquareCircuit(SInt a, SInt out) {
+		return new DryRunProtocol(new Value[] { out }, 1, 0, 1, 0, 0);
+	}
+
+	@Override
+	public MultProtocol getMultCircuit(OInt a, SInt b, SInt out) {
+		return new DryRunProtocol(out);
+	}
+
+	@Override
+	public ProtocolProducer getMultCircuit(SInt[] a, SInt[] b, SInt[] out) {
+		return new DryRunProtocol(out, 1, out.length, 0, 0);
+	}
+
+	@Override
+	public LocalInversionCircuit getLocalInversionCircuit(OInt in, OInt out) {
+		return new DryRunProtocol(out);
+	}
+
+	@Override
+	public SInt getSInt(int i) {
+		return dummySInt();
+	}
+
+	@Override
+	public SInt getSInt(BigInteger b) {
+		return dummySInt();
+	}
+
+	@Override
+	public CloseIntProtocol getCloseCircuit(BigInteger open, SInt closed,
+			int targetID) {
+		return new DryRunProtocol(new Value[] { closed }, 2, 0, targetID, 1);
+	}
+
+	@Override
+	public CloseIntProtocol getCloseCircuit(int source, OInt open, SInt closed) {
+		return new DryRunProtocol(new Value[] { closed }, 2, 0, source, 1);
+	}
+
+	@Override
+	public ProtocolProducer getCloseCircuit(BigInteger[] open, SInt[] closed,
+			int targetID) {
+		return new DryRunProtocol(closed, 2, 0, targetID, closed.length);
+	}
+
+	@Override
+	public OpenIntProtocol getOpenCircuit(int target, SInt closed, OInt open) {
+		return new DryRunProtocol(new Value[] { open }, 1, 0, target, 1);
+	}
+
+	@Override
+	public OpenIntProtocol getOpenCircuit(SInt closed, OInt open) {
+		return new DryRunProtocol(new Value[] { open }, 1, 0, 0, 0);
+	}
+}
@@ -26,256 +26,471 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz.utils;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.storage.InputMaskSeed;
+
 /**
  * Checks that the different components of the preprocessed data is correct.
  * That is, that no malformed triples, inputmasks etc. exists.
  * 
- * NB: CURRENTLY DOES NOT WORK. NEEDS TO CREATE SPDZ STORAGE FROM SCRATCH AND
- * GET PREPRO DATA FROM THAT. DO NOT TRY TO FETCH FROM SCE.
+ * The validator reads the files of all parties, as written by FakeTripGen, from
+ * a single directory. The files are memory-mapped and checked in chunks by a
+ * pool of threads, so the data never has to pass through a storage. Every
+ * element is opened by summing the shares of all parties and its mac is
+ * checked against the global key, which is the sum of the key shares found in
+ * the global data files. The validator reports the first bad index of each
+ * kind of data, which makes it possible to truncate the files to their valid
+ * prefix.
  * 
  * @author Kasper Damgaard
  *
  */
 public class PreprocessedDataValidator {
 
-	private static String dataPath;
-	private static int numberOfPlayers;
-	private static int numberOfTriples;
-	private static int numberOfInputMasks;
-	private static int numberOfExpPipes;
-	private static int numberOfBits;
-/*
-	private abstract static class ThreadWithFixture extends TestThread {
+	// The number of records checked by one task.
+	private static final int CHUNK_RECORDS = 1 << 14;
+
+	private final File dir;
+	private final int noOfParties;
+	private final int noOfThreads;
+	private final BigInteger modulus;
+	private final BigInteger alpha;
+	private final int expPipeLength;
+	private final int size;
 
-		protected SCE sce;
-		private String runtime;
+	/**
+	 * The result of validating one kind of preprocessed data.
+	 */
+	public static class Report {
+
+		public final String kind;
+		public final long records;
+		public final long bytes;
+		public final long millis;
+		/**
+		 * The index of the first record that is not correct, or -1 if all
+		 * records are correct.
+		 */
+		public final long firstBadIndex;
+
+		private Report(String kind, long records, long bytes, long millis,
+				long firstBadIndex) {
+			this.kind = kind;
+			this.records = records;
+			this.bytes = bytes;
+			this.millis = millis;
+			this.firstBadIndex = firstBadIndex;
+		}
+
+		public boolean isValid() {
+			return firstBadIndex < 0;
+		}
 
 		@Override
-		public void setUp() throws IOException {
-			sce = SCE.getInstance(conf.getMyId());
-			sce.resetInstance();
-			sce.setSCEConfiguration(new TestSCEConfiguration(runtime,
-					new SequentialEvaluator(), 3, conf));
+		public String toString() {
+			long time = Math.max(1, millis);
+			String result = isValid() ? "all correct" : "first bad index "
+					+ firstBadIndex;
+			return "Checked " + records + " " + kind + " in " + millis
+					+ " ms (" + (records * 1000 / time) + " " + kind + "/s, "
+					+ (bytes * 1000 / time / (1024 * 1024)) + " MB/s): "
+					+ result;
 		}
 	}
-*/
-	private static final int ARGS_BEFORE_ADDR = 3 + 4;
 
-	public static void main(String[] args) {
-		boolean single;
-		String[] remoteAddrs;
+	/**
+	 * Checks whether the opened values of a record satisfy the relation they
+	 * are supposed to.
+	 */
+	private interface Relation {
 
-		if (args.length < ARGS_BEFORE_ADDR) {
-			usage();
-			return;
-		} else {
-			try {
-				single = Boolean.parseBoolean(args[2]);
-			} catch (Exception e) {
-				usage();
-				return;
-			}
-			if (!single) {
-				if (args.length <= ARGS_BEFORE_ADDR) {
-					usage();
-					return;
-				}
-			}
-		}
-		numberOfPlayers = Integer.parseInt(args[1]);
-		dataPath = args[0];
-		numberOfTriples = Integer.parseInt(args[3]);
-		numberOfInputMasks = Integer.parseInt(args[4]);
-		numberOfBits = Integer.parseInt(args[5]);
-		numberOfExpPipes = Integer.parseInt(args[6]);
+		/**
+		 * @param values
+		 *            the opened elements of the record.
+		 * @param realValue
+		 *            the value stored next to the share of the owner of the
+		 *            record, or null if the record has no owner.
+		 */
+		boolean holds(BigInteger[] values, BigInteger realValue);
+	}
 
-		if (!single) {
-			remoteAddrs = new String[args.length - ARGS_BEFORE_ADDR];
-			for (int i = ARGS_BEFORE_ADDR; i < args.length; i++) {
-				remoteAddrs[i] = args[i];
+	/**
+	 * Creates a validator for the data in the given directory. Reads the
+	 * global data files of all parties.
+	 * 
+	 * @param dir
+	 *            the directory holding the files of all parties.
+	 * @param noOfParties
+	 *            the number of parties the data was generated for.
+	 * @param noOfThreads
+	 *            the number of threads to check the data with.
+	 */
+	public PreprocessedDataValidator(File dir, int noOfParties,
+			int noOfThreads) {
+		this.dir = dir;
+		this.noOfParties = noOfParties;
+		this.noOfThreads = noOfThreads;
+		BigInteger mod = null;
+		BigInteger alphaSum = BigInteger.ZERO;
+		int pipeLength = Util.EXP_PIPE_SIZE;
+		for (int i = 0; i < noOfParties; i++) {
+			File f = new File(dir, "Global-data-p-P" + i);
+			try (Scanner reader = new Scanner(f)) {
+				BigInteger partyMod = new BigInteger(reader.next());
+				if (mod != null && !mod.equals(partyMod)) {
+					throw new MPCException("Party " + (i + 1)
+							+ " uses a different modulus");
+				}
+				mod = partyMod;
+				alphaSum = alphaSum.add(new BigInteger(reader.next()));
+				if (reader.hasNextInt()) {
+					pipeLength = reader.nextInt();
+				}
+			} catch (FileNotFoundException e) {
+				throw new MPCException("Could not read " + f, e);
 			}
-			multipleWay(remoteAddrs);
-		} else {
-			singleWay();
 		}
+		this.modulus = mod;
+		this.alpha = alphaSum.mod(mod);
+		this.expPipeLength = pipeLength;
+		byte[] bytes = mod.toByteArray();
+		this.size = (bytes[0] == 0) ? bytes.length - 1 : bytes.length;
 	}
-	
-	private static void singleWay() {
-		throw new RuntimeException("Not implemented yet");
-	}
-/*
-	private static void singleWay() {
-		TestThreadRunner.run(new TestThreadFactory() {
-			@Override
-			public TestThread next(NetworkConfiguration conf) {
-				return new ThreadWithFixture() {
+
+	public Report validateTriples() {
+		return validate("triples", partyFiles("Triples-p-P", ""), 3, -1,
+				new Relation() {
 					@Override
-					public void test() throws Exception {
+					public boolean holds(BigInteger[] values,
+							BigInteger realValue) {
+						return values[0].multiply(values[1]).mod(modulus)
+								.equals(values[2]);
+					}
+				});
+	}
 
-						OInt[] outputs1 = new OInt[numberOfTriples];
-						OInt[] outputs2 = new OInt[numberOfTriples];
-						OInt[] outputs3 = new OInt[numberOfTriples];
+	public Report validateSquares() {
+		return validate("squares", partyFiles("Squares-p-P", ""), 2, -1,
+				new Relation() {
+					@Override
+					public boolean holds(BigInteger[] values,
+							BigInteger realValue) {
+						return values[0].multiply(values[0]).mod(modulus)
+								.equals(values[1]);
+					}
+				});
+	}
 
-						ParallelGateProducer par = new ParallelGateProducer();
-						// Check triples
-						System.out.println("Starting checks of triples");
-						for (int i = 0; i < numberOfTriples; i++) {
-							SpdzTriple triple = supplier.getNextTriple();
-							outputs1[i] = new SpdzOInt();
-							outputs2[i] = new SpdzOInt();
-							outputs3[i] = new SpdzOInt();
-							SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(
-									new SpdzSInt(triple.getA()), outputs1[i]);
-							SpdzOutputToAllGate o2 = new SpdzOutputToAllGate(
-									new SpdzSInt(triple.getB()), outputs2[i]);
-							SpdzOutputToAllGate o3 = new SpdzOutputToAllGate(
-									new SpdzSInt(triple.getC()), outputs3[i]);
-							par.append(o1);
-							par.append(o2);
-							par.append(o3);
-						}
+	public Report validateBits() {
+		return validate("bits", partyFiles("Bits-p-P", ""), 1, -1,
+				new Relation() {
+					@Override
+					public boolean holds(BigInteger[] values,
+							BigInteger realValue) {
+						return values[0].equals(BigInteger.ZERO)
+								|| values[0].equals(BigInteger.ONE);
+					}
+				});
+	}
 
-						evaluator.eval(par);
-						for (int i = 0; i < numberOfTriples; i++) {
-							BigInteger ab = outputs1[i].getValue()
-									.multiply(outputs2[i].getValue())
-									.mod(Util.getModulus());
-							if (!Util.convertRepresentation(ab).equals(
-									outputs3[i].getValue())) {
-								System.out.println("Triple no. " + i
-										+ " was not correct");
-							}
+	/**
+	 * Checks that each exp pipe has the form R^-1, R, R^2, ...
+	 */
+	public Report validateExpPipes() {
+		return validate("exp pipes", partyFiles("Exp-pipe-p-P", ""),
+				expPipeLength, -1, new Relation() {
+					@Override
+					public boolean holds(BigInteger[] values,
+							BigInteger realValue) {
+						BigInteger r = values[1];
+						if (!values[0].multiply(r).mod(modulus)
+								.equals(BigInteger.ONE)) {
+							return false;
 						}
-						System.out.println("Done checking triples");
-						System.out.println("Starting checks of Input masks");
-						// Check input masks
-						for (int towardsPlayerId = 1; towardsPlayerId <= numberOfPlayers; towardsPlayerId++) {
-							BigInteger[] values = new BigInteger[numberOfInputMasks];
-							OInt[] outputs = new OInt[numberOfInputMasks];
-							par = new ParallelGateProducer();
-							for (int i = 0; i < numberOfInputMasks; i++) {
-								SpdzInputMask mask = supplier
-										.getNextInputMask(towardsPlayerId);
-								if (conf.getMyId() == towardsPlayerId) {
-									values[i] = mask.getRealValue();
-								}
-								outputs[i] = new SpdzOInt();
-								SpdzSInt number = new SpdzSInt(mask.getMask());
-								SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(
-										number, outputs[i]);
-								par.append(o1);
-							}
-							evaluator.eval(par);
-							for (int i = 0; i < numberOfInputMasks; i++) {
-								if (conf.getMyId() == towardsPlayerId) {
-									if (!Util.convertRepresentation(values[i])
-											.equals(outputs[i].getValue())) {
-										System.out.println("Input no. " + i
-												+ " was not correct");
-									}
-								}
+						for (int i = 2; i < values.length; i++) {
+							if (!values[i - 1].multiply(r).mod(modulus)
+									.equals(values[i])) {
+								return false;
 							}
-							System.out.println("Checked masks towards player "
-									+ towardsPlayerId);
 						}
-						System.out.println("Done checking Input masks");
-						System.out.println("Starting checks of Bits");
-						// Check bits
-						for (int i = 0; i < numberOfBits; i++) {
-							SpdzSInt bit = supplier.getNextBit();
+						return true;
+					}
+				});
+	}
 
-							SpdzOInt output1 = new SpdzOInt();
-							SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(
-									bit, output1);
-							SequentialProtocolProducer prod = new SequentialProtocolProducer(
-									o1);
+	/**
+	 * Checks that the masks toward the given party open to the real values
+	 * known by that party. The shares of parties with an
+	 * {@link InputMaskSeed} are derived from the seed.
+	 */
+	public Report validateInputMasks(int towardPlayerId) {
+		InputMaskSeed[] seeds = new InputMaskSeed[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			seeds[i] = InputMaskSeed.read(new File(dir, InputMaskSeed
+					.filename(i, towardPlayerId - 1)), modulus);
+		}
+		return validate("input masks toward " + towardPlayerId,
+				partyFiles("Inputs-p-P", "-" + (towardPlayerId - 1)), seeds, 1,
+				towardPlayerId - 1, new Relation() {
+					@Override
+					public boolean holds(BigInteger[] values,
+							BigInteger realValue) {
+						return values[0].equals(realValue);
+					}
+				});
+	}
 
-							evaluator.eval(prod);
+	/**
+	 * Validates all kinds of preprocessed data. Square pairs are optional and
+	 * only validated if present.
+	 */
+	public List<Report> validateAll() {
+		List<Report> reports = new ArrayList<Report>();
+		reports.add(validateTriples());
+		if (new File(dir, "Squares-p-P0").exists()) {
+			reports.add(validateSquares());
+		}
+		for (int i = 1; i <= noOfParties; i++) {
+			reports.add(validateInputMasks(i));
+		}
+		reports.add(validateBits());
+		reports.add(validateExpPipes());
+		return reports;
+	}
 
-							if (!output1.value.equals(BigInteger.ONE)
-									&& !output1.value.equals(BigInteger.ZERO)) {
-								System.out.println("Bit no " + i
-										+ " was not correct");
-							}
-						}
+	private File[] partyFiles(String prefix, String suffix) {
+		File[] files = new File[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			files[i] = new File(dir, prefix + i + suffix);
+		}
+		return files;
+	}
 
-						System.out.println("Done checking Bits");
-						System.out.println("Starting checks of ExpPipes");
-						// Check expPipe
-						for (int i = 0; i < numberOfExpPipes; i++) {
-							SpdzSInt[] expPipe = supplier.getNextExpPipe();
-							if (!checkExpCircuit(evaluator, expPipe)) {
-								System.out.println("Exp Pipe no " + i
-										+ " was not correct");
-							}
-						}
-						System.out.println("Done checking ExpPipes");
-						network.shutdown();
+	/**
+	 * Checks all records in the given files in parallel.
+	 * 
+	 * @param kind
+	 *            the kind of data, used for reporting.
+	 * @param files
+	 *            the file of each party.
+	 * @param elementsPerRecord
+	 *            the number of share and mac pairs in a record.
+	 * @param owner
+	 *            the index of the party whose records are followed by a real
+	 *            value, or -1 if there is no such party.
+	 * @param relation
+	 *            the relation the opened values must satisfy.
+	 */
+	private Report validate(String kind, File[] files,
+			int elementsPerRecord, int owner, Relation relation) {
+		return validate(kind, files, new InputMaskSeed[noOfParties],
+				elementsPerRecord, owner, relation);
+	}
+
+	/**
+	 * As {@link #validate(String, File[], int, int, Relation)}, but the
+	 * shares of the parties with a seed are derived from it rather than read
+	 * from their file. Seeds only hold records of a single element.
+	 */
+	private Report validate(String kind, File[] files,
+			final InputMaskSeed[] seeds, final int elementsPerRecord,
+			final int owner, final Relation relation) {
+		long start = System.currentTimeMillis();
+		final int[] recordBytes = new int[noOfParties];
+		long totalBytes = 0;
+		int reference = -1;
+		for (int i = 0; i < noOfParties; i++) {
+			if (seeds[i] != null) {
+				continue;
+			}
+			recordBytes[i] = (elementsPerRecord * 2 + (i == owner ? 1 : 0))
+					* size;
+			if (!files[i].exists()) {
+				throw new MPCException("Could not find " + files[i]);
+			}
+			totalBytes += files[i].length();
+			if (reference < 0) {
+				reference = i;
+			}
+		}
+		if (reference < 0) {
+			throw new MPCException("No party has a file of " + kind);
+		}
+		final long records = files[reference].length() / recordBytes[reference];
+		for (int i = 0; i < noOfParties; i++) {
+			if (seeds[i] != null) {
+				if (seeds[i].getCount() != records) {
+					throw new MPCException("The " + kind + " of party "
+							+ (i + 1) + " do not match the " + records
+							+ " of party " + (reference + 1));
+				}
+			} else if (files[i].length() != records * recordBytes[i]) {
+				throw new MPCException("The " + kind + " of party " + (i + 1)
+						+ " do not match the " + records + " of party "
+						+ (reference + 1));
+			}
+		}
+		final FileChannel[] channels = new FileChannel[noOfParties];
+		final AtomicLong firstBad = new AtomicLong(Long.MAX_VALUE);
+		ExecutorService executor = Executors.newFixedThreadPool(noOfThreads);
+		try {
+			for (int i = 0; i < noOfParties; i++) {
+				if (seeds[i] == null) {
+					channels[i] = new RandomAccessFile(files[i], "r")
+							.getChannel();
+				}
+			}
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (long first = 0; first < records; first += CHUNK_RECORDS) {
+				final long chunkFirst = first;
+				final int amount = (int) Math.min(CHUNK_RECORDS, records
+						- first);
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						checkChunk(channels, seeds, recordBytes, chunkFirst,
+								amount, elementsPerRecord, owner, relation,
+								firstBad);
+						return null;
 					}
-				};
+				}));
 			}
-		}, numberOfPlayers);
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (IOException | ExecutionException e) {
+			throw new MPCException("Could not validate the " + kind, e);
+		} catch (InterruptedException e) {
+			throw new MPCException("Interrupted while validating the " + kind,
+					e);
+		} finally {
+			executor.shutdownNow();
+			for (FileChannel channel : channels) {
+				if (channel != null) {
+					try {
+						channel.close();
+					} catch (IOException e) {
+						// Nothing to do, the channel was only read.
+					}
+				}
+			}
+		}
+		long bad = firstBad.get();
+		return new Report(kind, records, totalBytes, System.currentTimeMillis()
+				- start, bad == Long.MAX_VALUE ? -1 : bad);
 	}
 
-	private static boolean checkExpCircuit(ProtocolEvaluator evaluator,
-			SInt[] outputs) {
-		BigInteger[] openedVals = new BigInteger[outputs.length];
-		for (int i = 0; i < outputs.length; i++) {
-			SpdzOInt output1 = new SpdzOInt();
-			SpdzOutputToAllGate o1 = new SpdzOutputToAllGate(outputs[i],
-					output1);
-			SequentialProtocolProducer prod = new SequentialProtocolProducer(o1);
-
-			evaluator.eval(prod);
-			openedVals[i] = output1.getValue();
-		}
-		BigInteger R = openedVals[1];
-		BigInteger nextR = R;
-		BigInteger R_inv = openedVals[0];
-		if (!BigInteger.ONE.equals(R.multiply(R_inv).mod(Util.getModulus()))) {
-			return false;
+	private void checkChunk(FileChannel[] channels, InputMaskSeed[] seeds,
+			int[] recordBytes, long first, int amount, int elementsPerRecord,
+			int owner, Relation relation, AtomicLong firstBad)
+			throws IOException {
+		if (first >= firstBad.get()) {
+			// An earlier record is already known to be bad.
+			return;
 		}
-		for (int i = 2; i < outputs.length; i++) {
-			nextR = R.multiply(nextR).mod(Util.getModulus());
-			if (!Util.convertRepresentation(nextR).equals(openedVals[i])) {
-				return false;
+		MappedByteBuffer[] buffers = new MappedByteBuffer[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			if (channels[i] == null) {
+				continue;
 			}
+			buffers[i] = channels[i].map(FileChannel.MapMode.READ_ONLY, first
+					* recordBytes[i], (long) amount * recordBytes[i]);
 		}
-		BigInteger[] Ms = Util.getClearExpPipe(R);
-		for (int i = 0; i < Ms.length; i++) {
-			if (!Util.convertRepresentation(Ms[i]).equals(openedVals[i + 1])) {
-				return false;
+		byte[] array = new byte[size];
+		BigInteger[] shares = new BigInteger[elementsPerRecord];
+		BigInteger[] macs = new BigInteger[elementsPerRecord];
+		for (int r = 0; r < amount; r++) {
+			BigInteger realValue = null;
+			for (int e = 0; e < elementsPerRecord; e++) {
+				shares[e] = BigInteger.ZERO;
+				macs[e] = BigInteger.ZERO;
+			}
+			for (int i = 0; i < noOfParties; i++) {
+				if (seeds[i] != null) {
+					BigInteger[] derived = seeds[i].get(first + r);
+					shares[0] = shares[0].add(derived[0]);
+					macs[0] = macs[0].add(derived[1]);
+					continue;
+				}
+				for (int e = 0; e < elementsPerRecord; e++) {
+					buffers[i].get(array);
+					shares[e] = shares[e].add(new BigInteger(1, array));
+					buffers[i].get(array);
+					macs[e] = macs[e].add(new BigInteger(1, array));
+				}
+				if (i == owner) {
+					buffers[i].get(array);
+					realValue = new BigInteger(1, array);
+				}
+			}
+			boolean correct = true;
+			for (int e = 0; e < elementsPerRecord && correct; e++) {
+				shares[e] = shares[e].mod(modulus);
+				correct = shares[e].multiply(alpha).mod(modulus)
+						.equals(macs[e].mod(modulus));
+			}
+			if (!correct || !relation.holds(shares, realValue)) {
+				long index = first + r;
+				long current;
+				while (index < (current = firstBad.get())
+						&& !firstBad.compareAndSet(current, index)) {
+					// Retry until no earlier bad index is recorded.
+				}
+				return;
 			}
 		}
-		return true;
 	}
-*/
-	private static void multipleWay(String[] addrs) {
-		throw new RuntimeException("Not implemented yet");
+
+	public static void main(String[] args) {
+		if (args.length < 2 || args.length > 3) {
+			usage();
+			return;
+		}
+		File dir = new File(args[0]);
+		int noOfParties = Integer.parseInt(args[1]);
+		int noOfThreads = (args.length == 3) ? Integer.parseInt(args[2])
+				: Runtime.getRuntime().availableProcessors();
+		PreprocessedDataValidator validator = new PreprocessedDataValidator(
+				dir, noOfParties, noOfThreads);
+		boolean valid = true;
+		for (Report report : validator.validateAll()) {
+			System.out.println(report);
+			valid &= report.isValid();
+		}
+		if (!valid) {
+			System.exit(1);
+		}
 	}
-	
 
 	public static void usage() {
 		System.out.println("Usage:");
 		System.out
 				.println("Validator does validation of preprocessed data. To do so, you must supply it with:");
-		System.out.println("dataPath=*A path to the preprocessed data*");
-		System.out
-				.println("numberOfPlayers=*The amount of players in the Spdz Setup - must also be specified even if single=true*");
-		System.out
-				.println("single=*Boolean for running this on a single machine (requires all data to be at the data path) or between multiple machines*");
-		System.out
-				.println("numberOfTriples=*The amount of triples that you would like to check.");
-		System.out
-				.println("numberOfInputMasks=*The amount of Input masks that you would like to check.");
 		System.out
-				.println("numberOfBits=*The amount of Bits that you would like to check.");
+				.println("dataPath=*A path to the preprocessed data of all parties, as written by FakeTripGen*");
 		System.out
-				.println("numberOfExpPipes=*The amount of Exp pipes that you would like to check.");
+				.println("numberOfPlayers=*The amount of players in the Spdz Setup*");
 		System.out
-				.println("If single=false, you must specify the remote addresses and ports of the other parties (as e.g. 127.0.0.1:8080)");
+				.println("numberOfThreads=*Optional, the amount of threads to check the data with. Defaults to the number of processors*");
 		System.out.println("Thus, a valid run would look something like:");
 		System.out
-				.println("java -jar preprocessedDataValidator.jar triples/spdz2_byte 2 true 1000000 100000 10000 1000");
+				.println("java -cp fresco.jar dk.alexandra.fresco.suite.spdz.utils.PreprocessedDataValidator triples/spdz2_byte 2 8");
 	}
 }
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.utils;
+
+import java.util.Arrays;
+
+/**
+ * The amount of SPDZ preprocessed data consumed by an application, as
+ * estimated by {@link SpdzDemandEstimator}. All parties consume the same
+ * amount of triples, squares, bits and exp pipes, and the same amount of input
+ * masks towards each inputter, so the numbers hold for every party.
+ */
+public class PreprocessingDemand {
+
+	private int triples;
+	private int squares;
+	private int bits;
+	private int expPipes;
+	private int maxExpPipeLength;
+	private final int[] inputMasks;
+	private int rounds;
+	private int nativeProtocols;
+
+	public PreprocessingDemand(int noOfParties) {
+		this.inputMasks = new int[noOfParties];
+	}
+
+	void addTriples(int amount) {
+		this.triples += amount;
+	}
+
+	void addSquares(int amount) {
+		this.squares += amount;
+	}
+
+	void addBits(int amount) {
+		this.bits += amount;
+	}
+
+	void addExpPipe(int length) {
+		this.expPipes++;
+		this.maxExpPipeLength = Math.max(this.maxExpPipeLength, length);
+	}
+
+	void addInputMasks(int towardPlayerID, int amount) {
+		this.inputMasks[towardPlayerID - 1] += amount;
+	}
+
+	void addBatch(int protocols, int rounds) {
+		this.nativeProtocols += protocols;
+		this.rounds += rounds;
+	}
+
+	/**
+	 * @return the number of multiplication triples needed
+	 */
+	public int getTriples() {
+		return triples;
+	}
+
+	/**
+	 * @return the number of square pairs needed
+	 */
+	public int getSquares() {
+		return squares;
+	}
+
+	/**
+	 * @return the number of random shared bits needed
+	 */
+	public int getBits() {
+		return bits;
+	}
+
+	/**
+	 * @return the number of exp pipes needed
+	 */
+	public int getExpPipes() {
+		return expPipes;
+	}
+
+	/**
+	 * @return the length of the longest exp pipe requested, i.e., the length
+	 *         the exp pipes must be generated with
+	 */
+	public int getMaxExpPipeLength() {
+		return maxExpPipeLength;
+	}
+
+	/**
+	 * @param towardPlayerID
+	 *            the id of the inputting player
+	 * @return the number of input masks needed towards the given player
+	 */
+	public int getInputMasks(int towardPlayerID) {
+		return inputMasks[towardPlayerID - 1];
+	}
+
+	/**
+	 * @return the largest number of input masks needed towards any single
+	 *         player, i.e., the number of masks that must be generated per
+	 *         player
+	 */
+	public int getMaxInputMasks() {
+		int max = 0;
+		for (int masks : inputMasks) {
+			max = Math.max(max, masks);
+		}
+		return max;
+	}
+
+	/**
+	 * @return the number of communication rounds used when evaluating the
+	 *         application with a batched evaluator
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * @return the number of native protocols evaluated
+	 */
+	public int getNativeProtocols() {
+		return nativeProtocols;
+	}
+
+	@Override
+	public String toString() {
+		return "PreprocessingDemand [triples=" + triples + ", squares="
+				+ squares + ", bits=" + bits
+				+ ", expPipes=" + expPipes + ", maxExpPipeLength="
+				+ maxExpPipeLength + ", inputMasks="
+				+ Arrays.toString(inputMasks) + ", rounds=" + rounds
+				+ ", nativeProtocols=" + nativeProtocols + "]";
+	}
+}
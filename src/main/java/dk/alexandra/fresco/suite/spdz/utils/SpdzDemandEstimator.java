@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz.utils;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+
+/**
+ * Estimates the SPDZ preprocessed data an application needs by doing a dry
+ * run of it. The application's protocol producer is walked in batches the
+ * same way the batched evaluators do it, but the native protocols are
+ * produced by a factory that only counts the triples, bits, exp pipes and
+ * input masks the real gates would consume. There is no network
+ * communication and no cryptography involved, so the estimate is cheap
+ * compared to running the application.
+ * 
+ * The result can be used to generate exactly the needed preprocessed data,
+ * e.g., using FakeTripGen or InitializeStorage.
+ * 
+ * The estimate is for a single evaluation thread. When an application is
+ * split over several threads, each thread consumes data from its own share
+ * of the storage, so the total is the sum of the estimates of the parts run
+ * by each thread.
+ */
+public class SpdzDemandEstimator {
+
+	private static final int DEFAULT_BATCH_SIZE = 4096;
+
+	/**
+	 * Quit if more than this amount of empty batches are returned in a row
+	 * from the protocol producer.
+	 */
+	private static final int MAX_EMPTY_BATCHES_IN_A_ROW = 10;
+
+	/**
+	 * Estimates the demand of an application using the default batch size of
+	 * the evaluators.
+	 * 
+	 * @param app
+	 *            the application to estimate
+	 * @param myId
+	 *            the id of the party to do the dry run as
+	 * @param noOfParties
+	 *            the number of parties running the application
+	 * @param modulus
+	 *            the modulus the application will be run with
+	 * @param maxBitLength
+	 *            the maxBitLength the SpdzFactory will be configured with
+	 * @return the estimated demand
+	 */
+	public static PreprocessingDemand estimate(Application app, int myId,
+			int noOfParties, BigInteger modulus, int maxBitLength) {
+		return estimate(app, myId, noOfParties, modulus, maxBitLength,
+				DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Estimates the demand of an application. The number of rounds depends on
+	 * the batch size used by the evaluator.
+	 * 
+	 * @param app
+	 *            the application to estimate
+	 * @param myId
+	 *            the id of the party to do the dry run as
+	 * @param noOfParties
+	 *            the number of parties running the application
+	 * @param modulus
+	 *            the modulus the application will be run with
+	 * @param maxBitLength
+	 *            the maxBitLength the SpdzFactory will be configured with
+	 * @param maxBatchSize
+	 *            the maximum batch size of the evaluator
+	 * @return the estimated demand
+	 */
+	public static PreprocessingDemand estimate(Application app, int myId,
+			int noOfParties, BigInteger modulus, int maxBitLength,
+			int maxBatchSize) {
+		PreprocessingDemand demand = new PreprocessingDemand(noOfParties);
+		DryRunSpdzFactory factory = new DryRunSpdzFactory(demand, modulus,
+				myId, maxBitLength);
+		ProtocolProducer producer = app.prepareApplication(factory);
+		NativeProtocol[] batch = new NativeProtocol[maxBatchSize];
+		int zeroBatches = 0;
+		do {
+			int numOfProtocolsInBatch = producer.getNextProtocols(batch, 0);
+			int batchRounds = 0;
+			for (int i = 0; i < numOfProtocolsInBatch; i++) {
+				if (!(batch[i] instanceof DryRunSpdzFactory.DryRunProtocol)) {
+					throw new MPCException("Cannot do a dry run of "
+							+ batch[i] + " as it was not produced by the "
+							+ "factory given to the application");
+				}
+				int round = 0;
+				while (batch[i].evaluate(round, null, null) == EvaluationStatus.HAS_MORE_ROUNDS) {
+					round++;
+				}
+				batchRounds = Math.max(batchRounds, round);
+				batch[i] = null;
+			}
+			demand.addBatch(numOfProtocolsInBatch, batchRounds);
+			if (numOfProtocolsInBatch == 0) {
+				zeroBatches++;
+			} else {
+				zeroBatches = 0;
+			}
+			if (zeroBatches > MAX_EMPTY_BATCHES_IN_A_ROW) {
+				throw new MPCException("Number of empty batches in a row reached "
+						+ MAX_EMPTY_BATCHES_IN_A_ROW
+						+ "; probably there is a bug in your protocol producer.");
+			}
+		} while (producer.hasNextProtocols());
+		return demand;
+	}
+}
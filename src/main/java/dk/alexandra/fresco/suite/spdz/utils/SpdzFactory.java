@@ -29,6 +29,7 @@ package dk.alexandra.fresco.suite.spdz.utils;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.value.KnownSIntProtocol;
 import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
@@ -48,11 +49,14 @@ import dk.alexandra.fresco.suite.spdz.datatypes.SpdzOInt;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzAddGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzInputGate;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzInputVectorGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzKnownSIntGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzLocalInversionGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultGate;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzMultVectorGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputToAllGate;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzSquareGate;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractGate;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorage;
 
@@ -63,6 +67,7 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 	private SpdzStorage storage;
 	private SecureRandom rand;
 	private int pID;
+	private BigInteger modulus;
 
 	/**
 	 * 
@@ -76,9 +81,24 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 	 */
 	//TODO: Make SpdzProvider decoupled from the storage.
 	public SpdzFactory(SpdzStorage storage, int pID, int maxBitLength) {
+		this(storage, storage.getSupplier().getModulus(), pID, maxBitLength);
+	}
+
+	/**
+	 * 
+	 * @param storage
+	 * @param modulus
+	 *            The modulus of the SPDZ instance the protocols are evaluated
+	 *            by.
+	 * @param pID
+	 * @param maxBitLength
+	 */
+	public SpdzFactory(SpdzStorage storage, BigInteger modulus, int pID,
+			int maxBitLength) {
 		this.maxBitLength = maxBitLength;
 		rand = new SecureRandom();
 		this.storage = storage;
+		this.modulus = modulus;
 		this.pID = pID;
 	}
 
@@ -112,7 +132,7 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 	public SInt getSqrtOfMaxValue() {
 		SpdzElement elm;
 		BigInteger two = BigInteger.valueOf(2);
-		BigInteger max = Util.getModulus().subtract(BigInteger.ONE).divide(two);
+		BigInteger max = modulus.subtract(BigInteger.ONE).divide(two);
 		int bitlength = max.bitLength();
 		BigInteger approxMaxSqrt = two.pow(bitlength / 2);
 
@@ -136,9 +156,15 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 		return this.storage.getSupplier().getNextExpPipe();
 	}
 
+	@Override
+	public SInt[] getExponentiationPipe(int length) {
+		return this.storage.getSupplier().getNextExpPipe(length);
+	}
+
 	@Override
 	public OInt[] getExpFromOInt(OInt value, int maxBitSize) {
-		BigInteger[] res = Util.getClearExpPipe(value.getValue());
+		BigInteger[] res = Util.getClearExpPipe(value.getValue(), maxBitSize,
+				modulus);
 		OInt[] expPipe = new OInt[res.length];
 		for (int i = 0; i < res.length; i++) {
 			expPipe[i] = new SpdzOInt(res[i]);
@@ -158,13 +184,13 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 
 	@Override
 	public OInt getOInt(BigInteger i) {
-		return new SpdzOInt(i.mod(Util.getModulus()));
+		return new SpdzOInt(i.mod(modulus));
 	}
 
 	@Override
 	public OInt getRandomOInt() {
 		return new SpdzOInt(new BigInteger(
-				Util.getModulus().toByteArray().length, rand));
+				modulus.toByteArray().length, rand));
 	}
 
 	@Override
@@ -197,11 +223,30 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 		return new SpdzMultGate(a, b, out);
 	}
 
+	@Override
+	public ProtocolProducer getMultCircuit(SInt[] a, SInt[] b, SInt[] out) {
+		return new SpdzMultVectorGate(a, b, out);
+	}
+
+	/**
+	 * Squares a value using a preprocessed square pair rather than a triple,
+	 * which opens one value instead of two. The preprocessed data must
+	 * contain square pairs.
+	 */
+	public MultProtocol getSquareCircuit(SInt a, SInt out) {
+		return new SpdzSquareGate(a, out);
+	}
+
 	@Override
 	public int getMaxBitLength() {
 		return this.maxBitLength;
 	}
 
+	@Override
+	public BigInteger getModulus() {
+		return this.modulus;
+	}
+
 	/****************************************
 	 * Native gates or circuits to Spdz *
 	 ****************************************/
@@ -215,7 +260,7 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 	@Deprecated
 	public SInt getSInt(int i) {
 
-		BigInteger b = BigInteger.valueOf(i).mod(Util.getModulus());
+		BigInteger b = BigInteger.valueOf(i).mod(modulus);
 		SpdzElement elm;
 		if (pID == 1) {
 			elm = new SpdzElement(b, b.multiply(this.storage.getSSK()));
@@ -229,7 +274,7 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 	@Override
 	@Deprecated
 	public SInt getSInt(BigInteger b) {
-		b = b.mod(Util.getModulus());
+		b = b.mod(modulus);
 		SpdzElement elm;
 		if (pID == 1) {
 			elm = new SpdzElement(b, b.multiply(this.storage.getSSK()));
@@ -255,6 +300,12 @@ public class SpdzFactory implements BasicNumericFactory, PreprocessedNumericBitF
 		return new SpdzInputGate(open, closed, source);
 	}
 
+	@Override
+	public ProtocolProducer getCloseCircuit(BigInteger[] open, SInt[] closed,
+			int targetID) {
+		return new SpdzInputVectorGate(open, closed, targetID);
+	}
+
 	@Override
 	public OpenIntProtocol getOpenCircuit(int target, SInt closed, OInt open) {
 		return new SpdzOutputGate(closed, open, target);
@@ -52,23 +52,19 @@ import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
  */
 public class Util {
 	
-	private static BigInteger p = null; //Should be set by an initiation call
-	private static BigInteger p_half;
-	public static int size = 0; //should be set by an initiation call
-	public static int EXP_PIPE_SIZE = 200+1; //R^-1, R, R^2, ..., R^200		
+	// Default length of an exp pipe: R^-1, R, R^2, ..., R^200. Pipes of
+	// other lengths can be generated, see FakeTripGen.
+	public static int EXP_PIPE_SIZE = 200+1;
 	
 	public static final String ENCODING = "UTF-8";	
 	
-	public static BigInteger getModulus() {
-		if(p == null) {
-			throw new IllegalStateException("You need to set the modulus before you can retrieve it.");
-		}
-		return p;
-	}
-
-	public static void setModulus(BigInteger p) {
-		Util.p = p;
-		Util.p_half = p.divide(BigInteger.valueOf(2));
+	/**
+	 * Returns the number of bytes used to store an element of the field given
+	 * by the modulus, i.e., the length of the modulus without a sign byte.
+	 */
+	public static int sizeOf(BigInteger modulus) {
+		byte[] bytes = modulus.toByteArray();
+		return (bytes[0] == 0) ? bytes.length - 1 : bytes.length;
 	}
 
 	private MessageDigest H;
@@ -95,10 +91,15 @@ public class Util {
 //		return is;
 //	}
 	
-	public static BigInteger convertRepresentation(BigInteger b) {
-		BigInteger actual = b.mod(p);
-		if (actual.compareTo(p_half) > 0) {
-			actual = actual.subtract(p);
+	/**
+	 * Converts an element of the field given by the modulus to its signed
+	 * representation, i.e., elements above half the modulus are negative.
+	 */
+	public static BigInteger convertRepresentation(BigInteger b,
+			BigInteger modulus) {
+		BigInteger actual = b.mod(modulus);
+		if (actual.compareTo(modulus.shiftRight(1)) > 0) {
+			actual = actual.subtract(modulus);
 		}
 		return actual;
 	}
@@ -114,28 +115,32 @@ public class Util {
 	}
 	
 	/**
-	 * Returns the numbers: M, M^2, M^3, ..., M^maxExp
+	 * Returns the numbers: M, M^2, M^3, ..., M^maxExp modulo the given modulus
 	 * @param M
+	 * @param maxExp the highest power to compute
+	 * @param modulus
 	 * @return
 	 */
-	public static BigInteger[] getClearExpPipe(BigInteger M){
-		BigInteger[] Ms = new BigInteger[EXP_PIPE_SIZE-1];
+	public static BigInteger[] getClearExpPipe(BigInteger M, int maxExp,
+			BigInteger modulus){
+		BigInteger[] Ms = new BigInteger[maxExp];
 		Ms[0] = M;
 		for(int i = 1; i < Ms.length; i++){
-			Ms[i] = Ms[i-1].multiply(M).mod(p);
+			Ms[i] = Ms[i-1].multiply(M).mod(modulus);
 		}
 		return Ms;
 	}
 	
 	/**
 	 * Returns the coefficients of a polynomial of degree l such that f(1) = 1
-	 * and f(n) = 0 for n=2,3,...,l+1 in Z_p. The first element in the array is
-	 * the coefficient of the term with the highest degree.
+	 * and f(n) = 0 for n=2,3,...,l+1 in Z_modulus. The first element in the
+	 * array is the coefficient of the term with the highest degree.
 	 * 
 	 * @param l
+	 * @param modulus
 	 * @return
 	 */
-	public static BigInteger[] constructPolynomial(int l) {
+	public static BigInteger[] constructPolynomial(int l, BigInteger modulus) {
 		BigInteger[] coefficients = new BigInteger[2];
 		BigInteger[] oldCoefficients;
 		
@@ -165,11 +170,11 @@ public class Util {
 		// (x-2)(x-3)...(x-(l+1)) so f(1) = (-1)(-2)(-3)...(-l)
 		BigInteger f = BigInteger.ONE;
 		for (i=1; i<=l; i++)
-			f = f.multiply(BigInteger.valueOf(i)).negate().mod(p);
-		f = f.modInverse(p);
+			f = f.multiply(BigInteger.valueOf(i)).negate().mod(modulus);
+		f = f.modInverse(modulus);
 		
 		for (i=0; i<coefficients.length; i++)
-			coefficients[i] = coefficients[i].multiply(f).mod(p);
+			coefficients[i] = coefficients[i].multiply(f).mod(modulus);
 		
 		return coefficients;
 	}
@@ -243,17 +248,17 @@ public class Util {
 		return vector;
 	}
 	
-	public static BigInteger[][] randomFill(BigInteger[][] matrix, int bitLenght, Random rand) {
+	public static BigInteger[][] randomFill(BigInteger[][] matrix, int bitLenght, Random rand, BigInteger modulus) {
 		for(BigInteger[] vector: matrix) {
-			vector = randomFill(vector, bitLenght, rand);
+			vector = randomFill(vector, bitLenght, rand, modulus);
 		}
 		return matrix;
 	}
 	
-	public static BigInteger[] randomFill(BigInteger[] vector, int bitLength, Random rand) {
+	public static BigInteger[] randomFill(BigInteger[] vector, int bitLength, Random rand, BigInteger modulus) {
 		for(int i = 0; i < vector.length; i++) {
 			vector[i] = new BigInteger(bitLength, rand); 
-			vector[i] = vector[i].subtract(BigInteger.valueOf(2).pow(bitLength-1)).mod(dk.alexandra.fresco.suite.spdz.utils.Util.p);
+			vector[i] = vector[i].subtract(BigInteger.valueOf(2).pow(bitLength-1)).mod(modulus);
 		}
 		return vector;
 	}
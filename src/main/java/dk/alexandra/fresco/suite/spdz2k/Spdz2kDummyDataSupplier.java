@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kElement;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kInputMask;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+
+/**
+ * Preprocessed data for the SPDZ2k suite, computed on the fly by every party
+ * from a seed known to all of them. Each value and all its shares and MAC
+ * shares are derived from AES applied to the index of the value, and each
+ * party keeps its own share.
+ *
+ * This is NOT secure, since every party can compute the shares of the
+ * others, just like the preprocessing of
+ * {@link dk.alexandra.fresco.suite.spdz.storage.FakeTripGen}. It lets the
+ * online phase be tested and benchmarked without an offline phase, and the
+ * suite only uses it when
+ * {@link dk.alexandra.fresco.suite.spdz2k.configuration.Spdz2kConfiguration#useDummyPreprocessing()}
+ * is set.
+ *
+ * The index of a value is reserved when the protocol using it is built, in
+ * the same order by all parties, and the value is computed when the protocol
+ * is evaluated, possibly by another thread.
+ */
+public class Spdz2kDummyDataSupplier {
+
+	private static final int KEY = 0;
+	private static final int TRIPLE = 1;
+	private static final int INPUT_MASK = 2;
+	private static final int RANDOM = 3;
+
+	private final int myId;
+	private final int noOfParties;
+	private final byte[] seed;
+	private final UInt128 key;
+	private final UInt128 keyShare;
+	private final AtomicLong nextIndex = new AtomicLong();
+
+	private final ThreadLocal<Cipher> cipher = new ThreadLocal<Cipher>() {
+		@Override
+		protected Cipher initialValue() {
+			try {
+				Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+				cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(seed, "AES"));
+				return cipher;
+			} catch (GeneralSecurityException e) {
+				throw new MPCException("AES is needed for the SPDZ2k dummy data",
+						e);
+			}
+		}
+	};
+
+	/**
+	 * @param seed
+	 *            16 bytes known to all parties.
+	 */
+	public Spdz2kDummyDataSupplier(int myId, int noOfParties, byte[] seed) {
+		this.myId = myId;
+		this.noOfParties = noOfParties;
+		this.seed = seed.clone();
+		UInt128 key = UInt128.ZERO;
+		UInt128 keyShare = null;
+		for (int pId = 1; pId <= noOfParties; pId++) {
+			// The key shares are elements of Z_2^s.
+			UInt128 share = new Stream(KEY, pId).next().mask(
+					Spdz2kProtocolSuite.SECURITY_PARAMETER);
+			key = key.add(share);
+			if (pId == myId) {
+				keyShare = share;
+			}
+		}
+		this.key = key;
+		this.keyShare = keyShare;
+	}
+
+	/**
+	 * Returns this party's share of the MAC key alpha.
+	 */
+	public UInt128 getKeyShare() {
+		return keyShare;
+	}
+
+	/**
+	 * Reserves the index of the next preprocessed value.
+	 */
+	public long nextIndex() {
+		return nextIndex.getAndIncrement();
+	}
+
+	public Spdz2kTriple getTriple(long index) {
+		Stream stream = new Stream(TRIPLE, index);
+		UInt128 a = stream.next();
+		UInt128 b = stream.next();
+		return new Spdz2kTriple(share(stream, a), share(stream, b), share(
+				stream, a.multiply(b)));
+	}
+
+	/**
+	 * Returns a random value known to the given party only.
+	 */
+	public Spdz2kInputMask getInputMask(long index, int inputter) {
+		Stream stream = new Stream(INPUT_MASK, index);
+		UInt128 r = stream.next();
+		return new Spdz2kInputMask(share(stream, r), (myId == inputter) ? r
+				: null);
+	}
+
+	/**
+	 * Returns a random value known to no party.
+	 */
+	public Spdz2kElement getRandom(long index) {
+		Stream stream = new Stream(RANDOM, index);
+		return share(stream, stream.next());
+	}
+
+	/**
+	 * Draws random shares of the value and its MAC for all parties but the
+	 * last, who gets the rest, and returns the shares of this party.
+	 */
+	private Spdz2kElement share(Stream stream, UInt128 value) {
+		UInt128 mac = key.multiply(value);
+		Spdz2kElement mine = null;
+		for (int pId = 1; pId < noOfParties; pId++) {
+			Spdz2kElement share = new Spdz2kElement(stream.next(), stream.next());
+			value = value.subtract(share.getShare());
+			mac = mac.subtract(share.getMac());
+			if (pId == myId) {
+				mine = share;
+			}
+		}
+		return (mine == null) ? new Spdz2kElement(value, mac) : mine;
+	}
+
+	/**
+	 * The blocks AES(index, type, counter) for increasing counters.
+	 */
+	private class Stream {
+
+		private final ByteBuffer in = ByteBuffer.allocate(16);
+		private final byte[] out = new byte[16];
+		private int counter = 0;
+
+		Stream(int type, long index) {
+			in.putLong(0, index).putInt(8, type);
+		}
+
+		UInt128 next() {
+			in.putInt(12, counter++);
+			try {
+				cipher.get().doFinal(in.array(), 0, 16, out);
+			} catch (GeneralSecurityException e) {
+				throw new MPCException("Could not derive the SPDZ2k dummy data", e);
+			}
+			ByteBuffer block = ByteBuffer.wrap(out);
+			return new UInt128(block.getLong(), block.getLong());
+		}
+	}
+}
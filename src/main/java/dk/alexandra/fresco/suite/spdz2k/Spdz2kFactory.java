@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k;
+
+import java.math.BigInteger;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.value.KnownSIntProtocol;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.field.integer.AddProtocol;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.lib.field.integer.SubtractCircuit;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kElement;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kOInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kAddGate;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kAddPublicGate;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kInputGate;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kKnownSIntGate;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kMultGate;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kMultPublicGate;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kOutputGate;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kSubtractGate;
+
+/**
+ * Produces the protocols of the SPDZ2k suite. All arithmetic is modulo 2^k,
+ * so values wrap around as in Java ints or longs for k = 32 or 64. As Z_2^k
+ * is not a field, there is no inversion, and only {@link BasicNumericFactory}
+ * is offered.
+ */
+public class Spdz2kFactory implements BasicNumericFactory {
+
+	private int myId;
+	private Spdz2kProtocolSuite suite;
+	private Spdz2kDummyDataSupplier supplier;
+
+	public Spdz2kFactory(int myId, Spdz2kProtocolSuite suite) {
+		this.myId = myId;
+		this.suite = suite;
+		this.supplier = suite.getSupplier();
+	}
+
+	@Override
+	public Spdz2kSInt getSInt() {
+		return new Spdz2kSInt();
+	}
+
+	@Override
+	public Spdz2kSInt getSInt(BigInteger i) {
+		return new Spdz2kSInt(Spdz2kElement.known(UInt128.valueOf(i),
+				suite.getKeyShare(), myId));
+	}
+
+	@Override
+	public Spdz2kSInt getSInt(int i) {
+		return this.getSInt(BigInteger.valueOf(i));
+	}
+
+	@Override
+	public KnownSIntProtocol getSInt(int i, SInt si) {
+		return this.getSInt(BigInteger.valueOf(i), si);
+	}
+
+	@Override
+	public KnownSIntProtocol getSInt(BigInteger i, SInt si) {
+		return new Spdz2kKnownSIntGate(si, i, suite);
+	}
+
+	@Override
+	public Spdz2kSInt getRandomSInt() {
+		throw new MPCException("Not implemented yet");
+	}
+
+	@Override
+	public Spdz2kOInt getOInt() {
+		return new Spdz2kOInt();
+	}
+
+	@Override
+	public Spdz2kOInt getOInt(BigInteger i) {
+		return new Spdz2kOInt(i);
+	}
+
+	@Override
+	public OInt getRandomOInt() {
+		throw new MPCException("Not implemented yet");
+	}
+
+	@Override
+	public AddProtocol getAddCircuit(SInt a, SInt b, SInt out) {
+		return new Spdz2kAddGate(a, b, out);
+	}
+
+	@Override
+	public AddProtocol getAddCircuit(SInt input, OInt openInput, SInt out) {
+		return new Spdz2kAddPublicGate(openInput, input, out, false, suite);
+	}
+
+	@Override
+	public SubtractCircuit getSubtractCircuit(SInt a, SInt b, SInt out) {
+		return new Spdz2kSubtractGate(a, b, out);
+	}
+
+	@Override
+	public SubtractCircuit getSubtractCircuit(OInt a, SInt b, SInt out) {
+		return new Spdz2kAddPublicGate(a, b, out, true, suite);
+	}
+
+	@Override
+	public MultProtocol getMultCircuit(SInt a, SInt b, SInt out) {
+		return new Spdz2kMultGate(a, b, out, suite, supplier.nextIndex());
+	}
+
+	@Override
+	public MultProtocol getMultCircuit(OInt a, SInt b, SInt out) {
+		return new Spdz2kMultPublicGate(a, b, out);
+	}
+
+	@Override
+	public CloseIntProtocol getCloseCircuit(int source, OInt open, SInt closed) {
+		return new Spdz2kInputGate(open, closed, source, suite,
+				supplier.nextIndex());
+	}
+
+	@Override
+	public CloseIntProtocol getCloseCircuit(BigInteger open, SInt closed,
+			int targetID) {
+		return getCloseCircuit(targetID, this.getOInt(open), closed);
+	}
+
+	@Override
+	public ProtocolProducer getCloseCircuit(BigInteger[] open, SInt[] closed,
+			int targetID) {
+		ParallelProtocolProducer par = new ParallelProtocolProducer();
+		for (int i = 0; i < closed.length; i++) {
+			OInt o = (open == null) ? null : this.getOInt(open[i]);
+			par.append(getCloseCircuit(targetID, o, closed[i]));
+		}
+		return par;
+	}
+
+	@Override
+	public OpenIntProtocol getOpenCircuit(SInt closed, OInt open) {
+		return getOpenCircuit(-1, closed, open);
+	}
+
+	@Override
+	public OpenIntProtocol getOpenCircuit(int target, SInt closed, OInt open) {
+		return new Spdz2kOutputGate(target, closed, open, suite,
+				supplier.nextIndex());
+	}
+
+	@Override
+	public int getMaxBitLength() {
+		return suite.getBitLength();
+	}
+
+	@Override
+	public SInt getSqrtOfMaxValue() {
+		return this.getSInt(BigInteger.ONE.shiftLeft(suite.getBitLength() / 2));
+	}
+
+	public int getMyId() {
+		return this.myId;
+	}
+}
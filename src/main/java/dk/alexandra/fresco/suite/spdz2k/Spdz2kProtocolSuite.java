@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import dk.alexandra.fresco.suite.spdz2k.configuration.Spdz2kConfiguration;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+
+/**
+ * The SPDZ2k suite of one party (Cramer et al., CRYPTO 2018): SPDZ over the
+ * ring Z_2^k instead of a prime field, for k of at most 64. Values are
+ * shared additively modulo 2^(k+s) with MACs alpha * x modulo 2^(k+s), where
+ * the MAC key alpha is shared in Z_2^s. Every share and MAC fits in two
+ * longs, so arithmetic uses no BigIntegers, and computations that wrap
+ * around at 2^k need no reduction at all.
+ *
+ * Opened values are checked in batches: when more than a threshold of
+ * protocols have been evaluated, and when the evaluation is finished, the
+ * parties toss a coin to get random coefficients, and check that the random
+ * linear combination of the opened values matches that of their MACs.
+ */
+public class Spdz2kProtocolSuite implements ProtocolSuite {
+
+	/**
+	 * The statistical security parameter s, so a cheating party passes a MAC
+	 * check with probability about 2^-s.
+	 */
+	public static final int SECURITY_PARAMETER = 64;
+
+	private static final int MAC_CHECK_THRESHOLD = 100000;
+
+	private ResourcePool rp;
+	private int bitLength;
+	private Spdz2kDummyDataSupplier supplier;
+	private final Queue<UInt128[]> openedValues = new ConcurrentLinkedQueue<UInt128[]>();
+	private int gatesEvaluated;
+
+	@Override
+	public void init(ResourcePool resourcePool, ProtocolSuiteConfiguration conf) {
+		Spdz2kConfiguration spdz2kConf = (Spdz2kConfiguration) conf;
+		this.rp = resourcePool;
+		this.bitLength = spdz2kConf.getBitLength();
+		if (bitLength < 1 || bitLength > Spdz2kConfiguration.MAX_BIT_LENGTH) {
+			throw new MPCException("The SPDZ2k suite requires a bit length of 1 to "
+					+ Spdz2kConfiguration.MAX_BIT_LENGTH + ", not " + bitLength);
+		}
+		if (!spdz2kConf.useDummyPreprocessing()) {
+			throw new MPCException("The SPDZ2k suite has no secure preprocessing "
+					+ "yet. Set spdz2k.dummyPreprocessing=true to run it with the "
+					+ "insecure dummy preprocessing, in tests only.");
+		}
+		Reporter.warn("The SPDZ2k suite uses the insecure dummy preprocessing, "
+				+ "where every party knows the shares of the others.");
+		this.supplier = new Spdz2kDummyDataSupplier(rp.getMyId(),
+				rp.getNoOfParties(), agreeOnSeed());
+	}
+
+	/**
+	 * Party 1 samples the seed of the dummy preprocessing and sends it to
+	 * the others.
+	 */
+	private byte[] agreeOnSeed() {
+		Network network = rp.getNetwork();
+		try {
+			if (rp.getMyId() == 1) {
+				byte[] seed = new byte[16];
+				rp.getSecureRandom().nextBytes(seed);
+				for (int pId = 2; pId <= rp.getNoOfParties(); pId++) {
+					network.send("0", pId, seed);
+				}
+				return seed;
+			}
+			return network.receive("0", 1);
+		} catch (IOException e) {
+			throw new MPCException("Could not agree on the SPDZ2k seed.", e);
+		}
+	}
+
+	@Override
+	public void synchronize(int gatesEvaluated) throws MPCException {
+		this.gatesEvaluated += gatesEvaluated;
+		if (this.gatesEvaluated > MAC_CHECK_THRESHOLD) {
+			macCheck();
+			this.gatesEvaluated = 0;
+		}
+	}
+
+	@Override
+	public void finishedEval() {
+		macCheck();
+		this.gatesEvaluated = 0;
+	}
+
+	@Override
+	public void destroy() {
+
+	}
+
+	/**
+	 * Returns the bit length k of the ring.
+	 */
+	public int getBitLength() {
+		return this.bitLength;
+	}
+
+	/**
+	 * Returns the preprocessed data, available once the suite has been
+	 * initialized.
+	 */
+	public Spdz2kDummyDataSupplier getSupplier() {
+		return this.supplier;
+	}
+
+	public UInt128 getKeyShare() {
+		return this.supplier.getKeyShare();
+	}
+
+	/**
+	 * Reduces modulo 2^(k+s), as done before a share leaves this party.
+	 */
+	public UInt128 reduce(UInt128 x) {
+		return x.mask(bitLength + SECURITY_PARAMETER);
+	}
+
+	/**
+	 * Returns the value of Z_2^k represented by x as an integer in [0, 2^k).
+	 */
+	public BigInteger toValue(UInt128 x) {
+		return x.mask(bitLength).toBigInteger();
+	}
+
+	/**
+	 * Records an opened value for the next MAC check.
+	 *
+	 * @param tag
+	 *            a tag identifying the opening, the same at all parties and
+	 *            different for all openings between two MAC checks.
+	 * @param value
+	 *            the opened value, modulo 2^(k+s).
+	 * @param macShare
+	 *            this party's share of the MAC of the opened value.
+	 */
+	public void addOpenedValue(UInt128 tag, UInt128 value, UInt128 macShare) {
+		openedValues.add(new UInt128[] { tag, value, macShare });
+	}
+
+	/**
+	 * Checks the MACs of the values opened since the last check. With chi_j
+	 * random coefficients in Z_2^s, y the opened values and m_i the MAC
+	 * shares of party i, every party commits to and opens
+	 * z_i = sum_j chi_j * m_ij - alpha_i * sum_j chi_j * y_j, and the parties
+	 * check that the z_i sum to 0 modulo 2^(k+s).
+	 */
+	private void macCheck() {
+		Cipher coefficients;
+		try {
+			coefficients = Cipher.getInstance("AES/ECB/NoPadding");
+			coefficients.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(
+					tossCoin(), "AES"));
+		} catch (GeneralSecurityException e) {
+			throw new MPCException("AES is needed for the SPDZ2k MAC check", e);
+		}
+		UInt128 y = UInt128.ZERO;
+		UInt128 m = UInt128.ZERO;
+		ByteBuffer in = ByteBuffer.allocate(16);
+		byte[] out = new byte[16];
+		UInt128[] opened;
+		while ((opened = openedValues.poll()) != null) {
+			in.putLong(0, opened[0].getHigh()).putLong(8, opened[0].getLow());
+			try {
+				coefficients.doFinal(in.array(), 0, 16, out);
+			} catch (GeneralSecurityException e) {
+				throw new MPCException("Could not compute the MAC check coefficients", e);
+			}
+			UInt128 chi = UInt128.valueOf(ByteBuffer.wrap(out).getLong());
+			y = y.add(chi.multiply(opened[1]));
+			m = m.add(chi.multiply(opened[2]));
+		}
+		UInt128 z = reduce(m.subtract(getKeyShare().multiply(y)));
+		UInt128 sum = UInt128.ZERO;
+		for (byte[] zi : commitAndOpen(ByteBuffer.allocate(16)
+				.putLong(z.getHigh()).putLong(z.getLow()).array())) {
+			ByteBuffer buffer = ByteBuffer.wrap(zi);
+			sum = sum.add(new UInt128(buffer.getLong(), buffer.getLong()));
+		}
+		if (!reduce(sum).equals(UInt128.ZERO)) {
+			throw new MPCException(
+					"The SPDZ2k MAC check failed. Some party has cheated.");
+		}
+	}
+
+	/**
+	 * Returns 16 random bytes that no party could choose, as the XOR of
+	 * committed random bytes of all parties.
+	 */
+	private byte[] tossCoin() {
+		byte[] mine = new byte[16];
+		rp.getSecureRandom().nextBytes(mine);
+		byte[] coin = new byte[16];
+		for (byte[] theirs : commitAndOpen(mine)) {
+			for (int i = 0; i < coin.length; i++) {
+				coin[i] ^= theirs[i];
+			}
+		}
+		return coin;
+	}
+
+	/**
+	 * Sends a hash of the value and a random nonce to the other parties, and
+	 * then the value and nonce. Returns the values of all parties, indexed
+	 * by party id - 1, after checking them against the hashes.
+	 */
+	private byte[][] commitAndOpen(byte[] value) {
+		int myId = rp.getMyId();
+		int noOfParties = rp.getNoOfParties();
+		Network network = rp.getNetwork();
+		byte[] opening = new byte[value.length + 16];
+		System.arraycopy(value, 0, opening, 0, value.length);
+		byte[] nonce = new byte[16];
+		rp.getSecureRandom().nextBytes(nonce);
+		System.arraycopy(nonce, 0, opening, value.length, 16);
+		byte[][] commitments = new byte[noOfParties][];
+		byte[][] values = new byte[noOfParties][];
+		try {
+			for (int pId = 1; pId <= noOfParties; pId++) {
+				if (pId != myId) {
+					network.send("0", pId, hash(opening));
+				}
+			}
+			for (int pId = 1; pId <= noOfParties; pId++) {
+				if (pId != myId) {
+					commitments[pId - 1] = network.receive("0", pId);
+				}
+			}
+			for (int pId = 1; pId <= noOfParties; pId++) {
+				if (pId != myId) {
+					network.send("0", pId, opening);
+				}
+			}
+			for (int pId = 1; pId <= noOfParties; pId++) {
+				if (pId == myId) {
+					values[pId - 1] = value;
+					continue;
+				}
+				byte[] theirs = network.receive("0", pId);
+				if (theirs.length != opening.length
+						|| !Arrays.equals(hash(theirs), commitments[pId - 1])) {
+					throw new MPCException("Party " + pId
+							+ " opened a commitment to another value.");
+				}
+				values[pId - 1] = Arrays.copyOf(theirs, value.length);
+			}
+		} catch (IOException e) {
+			throw new MPCException("Could not complete the SPDZ2k MAC check.", e);
+		}
+		return values;
+	}
+
+	private static byte[] hash(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			throw new MPCException("SHA-256 is needed for the SPDZ2k MAC check", e);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.configuration;
+
+import java.util.Properties;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.configuration.SCEConfiguration;
+
+public interface Spdz2kConfiguration extends ProtocolSuiteConfiguration {
+
+	public static final int MAX_BIT_LENGTH = 64;
+
+	/**
+	 * @return The bit length k of the ring Z_2^k computed in, at most 64.
+	 *         Defaults to 64, so values wrap around like Java longs.
+	 */
+	default int getBitLength() {
+		return MAX_BIT_LENGTH;
+	}
+
+	/**
+	 * @return Whether the suite may use the insecure dummy preprocessing of
+	 *         {@link dk.alexandra.fresco.suite.spdz2k.Spdz2kDummyDataSupplier},
+	 *         which is the only preprocessing so far. It is meant for tests
+	 *         only, and defaults to false, so the suite refuses to run unless
+	 *         it is set explicitly.
+	 */
+	default boolean useDummyPreprocessing() {
+		return false;
+	}
+
+	public static Spdz2kConfiguration fromCmdArgs(SCEConfiguration sceConf,
+			String[] args) throws ParseException {
+		Options options = new Options();
+
+		options.addOption(Option.builder("D")
+				.desc("The bit length k of the ring Z_2^k, at most 64. Defaults to 64.")
+				.longOpt("spdz2k.bitLength")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		options.addOption(Option.builder("D")
+				.desc("Set to true to use the insecure dummy preprocessing, for tests only. Defaults to false.")
+				.longOpt("spdz2k.dummyPreprocessing")
+				.required(false)
+				.hasArgs()
+				.build());
+
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = parser.parse(options, args);
+
+		Properties p = cmd.getOptionProperties("D");
+		try {
+			final int bitLength = Integer.parseInt(p.getProperty(
+					"spdz2k.bitLength", "" + MAX_BIT_LENGTH));
+			if (bitLength < 1 || bitLength > MAX_BIT_LENGTH) {
+				throw new ParseException("spdz2k.bitLength must be between 1 and "
+						+ MAX_BIT_LENGTH);
+			}
+			final boolean dummyPreprocessing = Boolean.parseBoolean(p
+					.getProperty("spdz2k.dummyPreprocessing", "false"));
+			return new Spdz2kConfiguration() {
+
+				@Override
+				public int getBitLength() {
+					return bitLength;
+				}
+
+				@Override
+				public boolean useDummyPreprocessing() {
+					return dummyPreprocessing;
+				}
+			};
+		} catch (NumberFormatException e) {
+			throw new ParseException("Invalid spdz2k option value: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * One party's additive share of a value x and of its MAC alpha * x, both
+ * computed modulo 2^128. Only the low k + s bits are meaningful, and they
+ * are the only bits ever sent to other parties.
+ */
+public class Spdz2kElement implements Serializable {
+
+	private static final long serialVersionUID = -3172953146209937817L;
+
+	private final UInt128 share;
+	private final UInt128 mac;
+
+	public Spdz2kElement(UInt128 share, UInt128 mac) {
+		this.share = share;
+		this.mac = mac;
+	}
+
+	/**
+	 * Reads an element written by {@link #toByteArray()}.
+	 */
+	public Spdz2kElement(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		this.share = new UInt128(buffer.getLong(), buffer.getLong());
+		this.mac = new UInt128(buffer.getLong(), buffer.getLong());
+	}
+
+	public UInt128 getShare() {
+		return share;
+	}
+
+	public UInt128 getMac() {
+		return mac;
+	}
+
+	public Spdz2kElement add(Spdz2kElement other) {
+		return new Spdz2kElement(share.add(other.share), mac.add(other.mac));
+	}
+
+	public Spdz2kElement subtract(Spdz2kElement other) {
+		return new Spdz2kElement(share.subtract(other.share),
+				mac.subtract(other.mac));
+	}
+
+	public Spdz2kElement multiply(UInt128 constant) {
+		return new Spdz2kElement(share.multiply(constant),
+				mac.multiply(constant));
+	}
+
+	/**
+	 * Adds a public constant. Party 1 adds it to its share, and every party
+	 * adds its share of the MAC of the constant.
+	 *
+	 * @param keyShare
+	 *            this party's share of the MAC key alpha.
+	 */
+	public Spdz2kElement add(UInt128 constant, UInt128 keyShare, int myId) {
+		UInt128 s = (myId == 1) ? share.add(constant) : share;
+		return new Spdz2kElement(s, mac.add(keyShare.multiply(constant)));
+	}
+
+	/**
+	 * Returns the sharing of a public constant.
+	 */
+	public static Spdz2kElement known(UInt128 constant, UInt128 keyShare,
+			int myId) {
+		return new Spdz2kElement(UInt128.ZERO, UInt128.ZERO).add(constant,
+				keyShare, myId);
+	}
+
+	public byte[] toByteArray() {
+		return ByteBuffer.allocate(32).putLong(share.getHigh())
+				.putLong(share.getLow()).putLong(mac.getHigh())
+				.putLong(mac.getLow()).array();
+	}
+
+	@Override
+	public String toString() {
+		return "Spdz2kElement(share " + share + ", mac " + mac + ")";
+	}
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * An element of the ring Z_2^128, held as two longs. Addition, subtraction
+ * and multiplication wrap around at 128 bits, so for any l of at most 128
+ * they compute in Z_2^l when the results are reduced with {@link #mask(int)}.
+ */
+public final class UInt128 implements Serializable {
+
+	private static final long serialVersionUID = 5460318794421506932L;
+
+	public static final UInt128 ZERO = new UInt128(0, 0);
+	public static final UInt128 ONE = new UInt128(0, 1);
+
+	private final long high;
+	private final long low;
+
+	public UInt128(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * Returns the element whose low 64 bits are the given value, read as an
+	 * unsigned number.
+	 */
+	public static UInt128 valueOf(long low) {
+		return new UInt128(0, low);
+	}
+
+	/**
+	 * Returns the given integer modulo 2^128, so negative integers are
+	 * mapped to their two's complement.
+	 */
+	public static UInt128 valueOf(BigInteger value) {
+		return new UInt128(value.shiftRight(64).longValue(), value.longValue());
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	public UInt128 add(UInt128 other) {
+		long l = low + other.low;
+		long carry = Long.compareUnsigned(l, low) < 0 ? 1 : 0;
+		return new UInt128(high + other.high + carry, l);
+	}
+
+	public UInt128 subtract(UInt128 other) {
+		long borrow = Long.compareUnsigned(low, other.low) < 0 ? 1 : 0;
+		return new UInt128(high - other.high - borrow, low - other.low);
+	}
+
+	public UInt128 negate() {
+		return ZERO.subtract(this);
+	}
+
+	public UInt128 multiply(UInt128 other) {
+		long h = multiplyHigh(low, other.low) + high * other.low + low
+				* other.high;
+		return new UInt128(h, low * other.low);
+	}
+
+	/**
+	 * Shifts left by 0 to 127 bits.
+	 */
+	public UInt128 shiftLeft(int bits) {
+		if (bits == 0) {
+			return this;
+		} else if (bits < 64) {
+			return new UInt128(high << bits | low >>> (64 - bits), low << bits);
+		} else {
+			return new UInt128(low << (bits - 64), 0);
+		}
+	}
+
+	/**
+	 * Keeps the given number of low bits, reducing modulo 2^bits.
+	 */
+	public UInt128 mask(int bits) {
+		if (bits >= 128) {
+			return this;
+		} else if (bits > 64) {
+			return new UInt128(high & (-1L >>> (128 - bits)), low);
+		} else if (bits == 64) {
+			return new UInt128(0, low);
+		} else {
+			return new UInt128(0, low & (-1L >>> (64 - bits)));
+		}
+	}
+
+	/**
+	 * Returns the element as an integer in [0, 2^128).
+	 */
+	public BigInteger toBigInteger() {
+		BigInteger h = new BigInteger(Long.toUnsignedString(high));
+		return h.shiftLeft(64).or(new BigInteger(Long.toUnsignedString(low)));
+	}
+
+	/**
+	 * The high 64 bits of the unsigned 128-bit product of x and y.
+	 */
+	static long multiplyHigh(long x, long y) {
+		long x0 = x & 0xFFFFFFFFL, x1 = x >>> 32;
+		long y0 = y & 0xFFFFFFFFL, y1 = y >>> 32;
+		long t = x1 * y0 + ((x0 * y0) >>> 32);
+		long w1 = x0 * y1 + (t & 0xFFFFFFFFL);
+		return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof UInt128)) {
+			return false;
+		}
+		UInt128 other = (UInt128) obj;
+		return high == other.high && low == other.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(high) * 31 + Long.hashCode(low);
+	}
+
+	@Override
+	public String toString() {
+		return toBigInteger().toString();
+	}
+}
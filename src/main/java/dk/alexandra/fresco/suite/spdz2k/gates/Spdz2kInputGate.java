@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.gates;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.CloseIntProtocol;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kProtocolSuite;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kInputMask;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+
+/**
+ * The inputter broadcasts its input minus an input mask r it knows, and all
+ * parties add this to their shares of r.
+ */
+public class Spdz2kInputGate extends Spdz2kNativeProtocol implements
+		CloseIntProtocol {
+
+	private OInt input;
+	private Spdz2kSInt output;
+	private int inputter;
+	private Spdz2kProtocolSuite suite;
+	private long index;
+	private Spdz2kInputMask mask;
+
+	/**
+	 * @param index
+	 *            the index of the input mask to use.
+	 */
+	public Spdz2kInputGate(OInt in, SInt out, int inputter,
+			Spdz2kProtocolSuite suite, long index) {
+		this.input = in;
+		this.output = (Spdz2kSInt) out;
+		this.inputter = inputter;
+		this.suite = suite;
+		this.index = index;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		switch (round) {
+		case 0:
+			mask = suite.getSupplier().getInputMask(index, inputter);
+			if (inputter == resourcePool.getMyId()) {
+				UInt128 x = UInt128.valueOf(input.getValue()).mask(
+						suite.getBitLength());
+				network.sendToAll(suite.reduce(x.subtract(mask.getRealValue())));
+			}
+			network.expectInputFromPlayer(inputter);
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			UInt128 difference = network.receive(inputter);
+			output.value = mask.getMask().add(difference, suite.getKeyShare(),
+					resourcePool.getMyId());
+			mask = null;
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Spdz2kInputGate(" + input + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] {};
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { output };
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.gates;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.MultProtocol;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kProtocolSuite;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kElement;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+
+/**
+ * Multiplies with a triple (a, b, c) by opening e = x - a and d = y - b
+ * modulo 2^(k+s), which are uniformly random as a and b are, and computing
+ * c + e * b + d * a + e * d.
+ */
+public class Spdz2kMultGate extends Spdz2kNativeProtocol implements
+		MultProtocol {
+
+	private Spdz2kSInt in1, in2, out;
+	private Spdz2kProtocolSuite suite;
+	private long index;
+	private Spdz2kTriple triple;
+	private Spdz2kElement epsilon, delta;
+
+	/**
+	 * @param index
+	 *            the index of the triple to use.
+	 */
+	public Spdz2kMultGate(SInt in1, SInt in2, SInt out,
+			Spdz2kProtocolSuite suite, long index) {
+		this.in1 = (Spdz2kSInt) in1;
+		this.in2 = (Spdz2kSInt) in2;
+		this.out = (Spdz2kSInt) out;
+		this.suite = suite;
+		this.index = index;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		switch (round) {
+		case 0:
+			triple = suite.getSupplier().getTriple(index);
+			epsilon = in1.value.subtract(triple.getA());
+			delta = in2.value.subtract(triple.getB());
+			network.sendToAll(suite.reduce(epsilon.getShare()));
+			network.sendToAll(suite.reduce(delta.getShare()));
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			int noOfParties = resourcePool.getNoOfParties();
+			UInt128 e = UInt128.ZERO;
+			UInt128 d = UInt128.ZERO;
+			for (int pId = 1; pId <= noOfParties; pId++) {
+				e = e.add(network.<UInt128> receive(pId));
+				d = d.add(network.<UInt128> receive(pId));
+			}
+			e = suite.reduce(e);
+			d = suite.reduce(d);
+			out.value = triple.getC().add(triple.getB().multiply(e))
+					.add(triple.getA().multiply(d))
+					.add(e.multiply(d), suite.getKeyShare(),
+							resourcePool.getMyId());
+			suite.addOpenedValue(tag(index, 0), e, epsilon.getMac());
+			suite.addOpenedValue(tag(index, 1), d, delta.getMac());
+			triple = null;
+			epsilon = null;
+			delta = null;
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Spdz2kMultGate(" + in1 + "," + in2 + "," + out + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { in1, in2 };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { out };
+	}
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.gates;
+
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.lib.helper.HalfCookedNativeProtocol;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kProtocolSuite;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+
+public abstract class Spdz2kNativeProtocol extends HalfCookedNativeProtocol {
+
+	/**
+	 * The tag of the given opening of a protocol that uses the preprocessed
+	 * value with the given index. Tags tell the MAC check which random
+	 * coefficient to use for an opened value, whatever order the parties
+	 * opened the values in.
+	 */
+	protected static UInt128 tag(long index, int opening) {
+		return new UInt128(index, opening);
+	}
+
+	/**
+	 * Receives a share from every party and returns their sum modulo
+	 * 2^(k+s).
+	 */
+	protected static UInt128 receiveSum(SCENetwork network, int noOfParties,
+			Spdz2kProtocolSuite suite) {
+		UInt128 sum = UInt128.ZERO;
+		for (int pId = 1; pId <= noOfParties; pId++) {
+			sum = sum.add(network.<UInt128> receive(pId));
+		}
+		return suite.reduce(sum);
+	}
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.gates;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.field.integer.OpenIntProtocol;
+import dk.alexandra.fresco.suite.spdz2k.Spdz2kProtocolSuite;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kElement;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kInputMask;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+
+/**
+ * Opens a secret value x of Z_2^k to all parties or to a target party.
+ *
+ * The shares of x modulo 2^(k+s) would reveal more than x, e.g. the carries
+ * of the products that computed it. To all parties we therefore open
+ * x + 2^k * r for a random r, and to a target party x - r for an input mask
+ * r of the target. Both are MAC checked like any other opened value.
+ */
+public class Spdz2kOutputGate extends Spdz2kNativeProtocol implements
+		OpenIntProtocol {
+
+	private Spdz2kSInt input;
+	private OInt output;
+	private int targetId;
+	private Spdz2kProtocolSuite suite;
+	private long index;
+	private Spdz2kInputMask mask;
+	private Spdz2kElement masked;
+
+	/**
+	 * @param targetId
+	 *            the party to open to, or -1 to open to all parties.
+	 * @param index
+	 *            the index of the random value or input mask to use.
+	 */
+	public Spdz2kOutputGate(int targetId, SInt in, OInt out,
+			Spdz2kProtocolSuite suite, long index) {
+		this.targetId = targetId;
+		this.input = (Spdz2kSInt) in;
+		this.output = out;
+		this.suite = suite;
+		this.index = index;
+	}
+
+	@Override
+	public EvaluationStatus evaluate(int round, ResourcePool resourcePool,
+			SCENetwork network) {
+		switch (round) {
+		case 0:
+			if (targetId == -1) {
+				Spdz2kElement r = suite.getSupplier().getRandom(index);
+				masked = input.value.add(r.multiply(UInt128.ONE
+						.shiftLeft(suite.getBitLength())));
+			} else {
+				mask = suite.getSupplier().getInputMask(index, targetId);
+				masked = input.value.subtract(mask.getMask());
+			}
+			network.sendToAll(suite.reduce(masked.getShare()));
+			network.expectInputFromAll();
+			return EvaluationStatus.HAS_MORE_ROUNDS;
+		case 1:
+			UInt128 value = receiveSum(network, resourcePool.getNoOfParties(),
+					suite);
+			suite.addOpenedValue(tag(index, 0), value, masked.getMac());
+			if (targetId == -1) {
+				output.setValue(suite.toValue(value));
+			} else if (targetId == resourcePool.getMyId()) {
+				output.setValue(suite.toValue(value.add(mask.getRealValue())));
+			}
+			mask = null;
+			masked = null;
+			return EvaluationStatus.IS_DONE;
+		default:
+			throw new MPCException("Cannot evaluate rounds larger than 1.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Spdz2kOutputGate(" + input + "," + output + ")";
+	}
+
+	@Override
+	public Value[] getInputValues() {
+		return new Value[] { input };
+	}
+
+	@Override
+	public Value[] getOutputValues() {
+		return new Value[] { output };
+	}
+}
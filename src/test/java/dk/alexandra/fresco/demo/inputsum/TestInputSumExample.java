@@ -58,7 +58,7 @@ public class TestInputSumExample {
 		public void setUp() throws IOException {
 			BatchedParallelEvaluator evaluator = new BatchedParallelEvaluator();
 			Storage storage = new InMemoryStorage();
-			sce = SCEFactory.getSCEFromConfiguration((new TestSCEConfiguration(BgwProtocolSuite.getInstance(), evaluator, 3, 3, conf.netConf, storage, true)));
+			sce = SCEFactory.getSCEFromConfiguration((new TestSCEConfiguration(new BgwProtocolSuite(), evaluator, 3, 3, conf.netConf, storage, true)));
 		}
 
 	}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFieldPrf {
+
+	private static final BigInteger MODULUS = new BigInteger(
+			"6703903964971298549787012499102923063739682910296196688861780721860882015036773488400937149083451713845015929093243025426876941405973284973216824503042159");
+
+	private static final byte[] KEY = new byte[16];
+
+	@Test
+	public void testElementsAreDeterministicAndInTheField() {
+		BigInteger[] a = FieldPrf.elements(KEY, 5, 3, MODULUS);
+		BigInteger[] b = FieldPrf.elements(KEY, 5, 3, MODULUS);
+		Assert.assertArrayEquals(a, b);
+		for (BigInteger x : a) {
+			Assert.assertTrue(x.signum() >= 0 && x.compareTo(MODULUS) < 0);
+		}
+		Assert.assertNotEquals(a[0], a[1]);
+		Assert.assertNotEquals(a[1], a[2]);
+	}
+
+	@Test
+	public void testFirstElementIsTheSingleElement() {
+		Assert.assertEquals(FieldPrf.element(KEY, 7, MODULUS),
+				FieldPrf.elements(KEY, 7, 2, MODULUS)[0]);
+	}
+
+	@Test
+	public void testIndicesAndKeysGiveDifferentElements() {
+		byte[] otherKey = new byte[16];
+		otherKey[0] = 1;
+		Assert.assertNotEquals(FieldPrf.element(KEY, 0, MODULUS),
+				FieldPrf.element(KEY, 1, MODULUS));
+		Assert.assertNotEquals(FieldPrf.element(KEY, 0, MODULUS),
+				FieldPrf.element(otherKey, 0, MODULUS));
+	}
+}
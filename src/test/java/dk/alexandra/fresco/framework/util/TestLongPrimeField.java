@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestLongPrimeField {
+
+	private void testField(BigInteger modulus) {
+		LongPrimeField field = LongPrimeField.forModulus(modulus);
+		assertNotNull(field);
+		Random rand = new Random(42);
+		long p = modulus.longValue();
+		long[] edges = new long[] { 0, 1, 2, p - 2, p - 1 };
+		for (long a : edges) {
+			for (long b : edges) {
+				assertEquals(BigInteger.valueOf(a)
+						.multiply(BigInteger.valueOf(b)).mod(modulus)
+						.longValue(), field.multiply(a, b));
+			}
+		}
+		for (int i = 0; i < 10000; i++) {
+			BigInteger a = new BigInteger(modulus.bitLength() + 8, rand)
+					.mod(modulus);
+			BigInteger b = new BigInteger(modulus.bitLength() + 8, rand)
+					.mod(modulus);
+			long la = field.toElement(a);
+			long lb = field.toElement(b);
+			assertEquals(a.multiply(b).mod(modulus).longValue(),
+					field.multiply(la, lb));
+			assertEquals(a.add(b).mod(modulus).longValue(), field.add(la, lb));
+			assertEquals(a.subtract(b).mod(modulus).longValue(),
+					field.subtract(la, lb));
+		}
+		for (int i = 0; i < 1000; i++) {
+			long r = field.random(rand);
+			assertTrue(r >= 0 && r < p);
+			if (r != 0) {
+				assertEquals(1, field.multiply(r, field.invert(r)));
+			}
+			long root = field.sqrt(field.multiply(r, r));
+			assertEquals(field.multiply(r, r), field.multiply(root, root));
+		}
+	}
+
+	@Test
+	public void testMersenne61() {
+		testField(BigInteger.ONE.shiftLeft(61).subtract(BigInteger.ONE));
+	}
+
+	@Test
+	public void testBarrett() {
+		testField(BigInteger.ONE.shiftLeft(60).nextProbablePrime());
+		testField(BigInteger.valueOf(2147483647));
+		testField(BigInteger.valueOf(8191));
+		// p - 1 = 2^16, so the roots need the general algorithm.
+		testField(BigInteger.valueOf(65537));
+	}
+
+	@Test
+	public void testOnlySmallModuli() {
+		assertNull(LongPrimeField.forModulus(new BigInteger(
+				"618970019642690137449562111")));
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestModularReducer {
+
+	private static final BigInteger MERSENNE_61 = BigInteger.ONE.shiftLeft(61)
+			.subtract(BigInteger.ONE);
+	private static final BigInteger PSEUDO_MERSENNE_127 = BigInteger.ONE
+			.shiftLeft(127).subtract(BigInteger.valueOf(1)).subtract(
+					BigInteger.valueOf(0x2000));
+	private static final BigInteger GENERIC = new BigInteger(
+			"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+
+	private void assertReducesLikeMod(BigInteger modulus) {
+		ModularReducer reducer = ModularReducer.forModulus(modulus);
+		Random rand = new Random(42);
+		int bits = modulus.bitLength();
+		BigInteger[] edges = new BigInteger[] { BigInteger.ZERO, BigInteger.ONE,
+				modulus.subtract(BigInteger.ONE), modulus,
+				modulus.add(BigInteger.ONE), modulus.multiply(modulus),
+				modulus.multiply(modulus).subtract(BigInteger.ONE),
+				modulus.negate(), BigInteger.ONE.negate() };
+		for (BigInteger x : edges) {
+			assertEquals(x.mod(modulus), reducer.reduce(x));
+		}
+		for (int i = 0; i < 1000; i++) {
+			BigInteger x = new BigInteger(2 * bits + 3, rand);
+			if (i % 2 == 1) {
+				x = x.negate();
+			}
+			assertEquals(x.mod(modulus), reducer.reduce(x));
+		}
+	}
+
+	@Test
+	public void testMersenne() {
+		assertTrue(ModularReducer.forModulus(MERSENNE_61).isSpecial());
+		assertReducesLikeMod(MERSENNE_61);
+	}
+
+	@Test
+	public void testPseudoMersenne() {
+		assertTrue(ModularReducer.forModulus(PSEUDO_MERSENNE_127).isSpecial());
+		assertReducesLikeMod(PSEUDO_MERSENNE_127);
+	}
+
+	@Test
+	public void testGeneric() {
+		assertFalse(ModularReducer.forModulus(GENERIC).isSpecial());
+		assertReducesLikeMod(GENERIC);
+	}
+
+	@Test
+	public void testCachedPerModulus() {
+		assertTrue(ModularReducer.forModulus(MERSENNE_61) == ModularReducer
+				.forModulus(new BigInteger(MERSENNE_61.toString())));
+		assertEquals(GENERIC, ModularReducer.forModulus(GENERIC).getModulus());
+	}
+}
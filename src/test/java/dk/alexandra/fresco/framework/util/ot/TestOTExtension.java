@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.framework.util.ot;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.network.Network;
+
+public class TestOTExtension {
+
+	private static final int SENDER = 1;
+	private static final int RECEIVER = 2;
+
+	/**
+	 * Two ends of an in-memory connection. The matrix the receiver sends can
+	 * be tampered with, to act as a receiver using inconsistent choices.
+	 */
+	private static class Pipe {
+		final BlockingQueue<Serializable> toSender = new LinkedBlockingQueue<Serializable>();
+		final BlockingQueue<Serializable> toReceiver = new LinkedBlockingQueue<Serializable>();
+		volatile boolean tamper;
+
+		Network end(final int me) {
+			return new Network() {
+				@Override
+				public void connect(int timeoutMillis) {
+				}
+
+				@Override
+				public void send(String channel, int partyId, Serializable data) {
+					if (tamper && me == RECEIVER && data instanceof long[][]) {
+						long[][] u = (long[][]) data;
+						// Flip the choice of the first OT in half the columns.
+						for (int i = 0; i < 64; i++) {
+							u[i][0] ^= 1L;
+						}
+					}
+					(me == SENDER ? toReceiver : toSender).add(data);
+				}
+
+				@SuppressWarnings("unchecked")
+				@Override
+				public <T extends Serializable> T receive(String channel,
+						int partyId) throws IOException {
+					try {
+						return (T) (me == SENDER ? toSender : toReceiver).take();
+					} catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+	}
+
+	private long[][][] sent;
+	private long[][] received;
+
+	private void run(final Pipe pipe, final boolean[] choices) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<long[][][]> sender = executor.submit(new Callable<long[][][]>() {
+				@Override
+				public long[][][] call() throws IOException {
+					Network network = pipe.end(SENDER);
+					SecureRandom rand = new SecureRandom();
+					return new OTExtensionSender(network, "0", RECEIVER,
+							new BaseOT(network, "0", rand), rand)
+							.extend(choices.length);
+				}
+			});
+			Future<long[][]> receiver = executor.submit(new Callable<long[][]>() {
+				@Override
+				public long[][] call() throws IOException {
+					Network network = pipe.end(RECEIVER);
+					SecureRandom rand = new SecureRandom();
+					return new OTExtensionReceiver(network, "0", SENDER,
+							new BaseOT(network, "0", rand), rand)
+							.extend(choices);
+				}
+			});
+			received = receiver.get();
+			sent = sender.get();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testReceiverGetsChosenKeys() throws Exception {
+		boolean[] choices = new boolean[300];
+		SecureRandom rand = new SecureRandom();
+		for (int j = 0; j < choices.length; j++) {
+			choices[j] = rand.nextBoolean();
+		}
+		run(new Pipe(), choices);
+		assertEquals(choices.length, sent.length);
+		assertEquals(choices.length, received.length);
+		for (int j = 0; j < choices.length; j++) {
+			assertArrayEquals(sent[j][choices[j] ? 1 : 0], received[j]);
+			assertFalse(Arrays.equals(sent[j][choices[j] ? 0 : 1], received[j]));
+		}
+	}
+
+	@Test
+	public void testInconsistentReceiverIsCaught() throws Exception {
+		Pipe pipe = new Pipe();
+		pipe.tamper = true;
+		try {
+			run(pipe, new boolean[100]);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof MPCException);
+			return;
+		}
+		throw new AssertionError("The correlation check passed");
+	}
+
+	@Test(expected = MPCException.class)
+	public void testElementOutsideSubgroupIsRejected() {
+		// p - 1 has order 2.
+		BaseOT.checkElement(BaseOT.P.subtract(BigInteger.ONE), 2);
+	}
+
+	@Test(expected = MPCException.class)
+	public void testIdentityIsRejected() {
+		BaseOT.checkElement(BigInteger.ONE, 2);
+	}
+}
@@ -43,9 +43,12 @@ import dk.alexandra.fresco.framework.value.OInt;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
 import dk.alexandra.fresco.lib.helper.CopyProtocolImpl;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
 import dk.alexandra.fresco.lib.helper.builder.NumericIOBuilder;
 import dk.alexandra.fresco.lib.helper.builder.NumericProtocolBuilder;
 import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductFactory;
+import dk.alexandra.fresco.lib.math.linalg.InnerProductFactoryImpl;
 
 
 /**
@@ -190,6 +193,47 @@ public class BasicArithmeticTests {
 		}
 	};
 
+	public static class TestInputArrayFromOtherParty extends TestThreadFactory {
+
+		@Override
+		public TestThread next(final TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int[] openInputs = new int[] { 3, 1, 4, 1, 5, 9, 2,
+							6, 5, 3, 5, 8, 9, 7, 9, 3, 2, 3, 8, 4, 6 };
+					final int inputter = 2;
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 4915034427736153022L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BasicNumericFactory prov = (BasicNumericFactory) provider;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(
+									prov);
+							// Only the inputter knows the values.
+							SInt[] inputs;
+							if (conf.getMyId() == inputter) {
+								inputs = createInputs(ioBuilder, openInputs,
+										inputter);
+							} else {
+								inputs = ioBuilder.inputArray(
+										openInputs.length, inputter);
+							}
+							this.outputs = ioBuilder.outputArray(inputs);
+							return ioBuilder.getCircuit();
+						}
+					};
+					sce.runApplication(app);
+
+					checkOutputs(openInputs, app.getOutputs());
+				}
+			};
+		}
+	};
+
 	public static class TestSumAndMult extends TestThreadFactory {
 		@Override
 		public TestThread next(TestThreadConfiguration conf) {
@@ -324,4 +368,126 @@ public class BasicArithmeticTests {
 		}
 	}
 
+
+	public static class TestVectorMult extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int length = 100;
+					final int[] left = new int[length];
+					final int[] right = new int[length];
+					for (int i = 0; i < length; i++) {
+						left[i] = i;
+						right[i] = 2 * i + 1;
+					}
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -2398474529836532164L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BasicNumericFactory prov = (BasicNumericFactory) provider;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(
+									prov);
+							SInt[] leftInputs = createInputs(ioBuilder, left, 1);
+							SInt[] rightInputs = createInputs(ioBuilder, right,
+									2);
+							ProtocolProducer inputs = ioBuilder.getCircuit();
+							ioBuilder.reset();
+
+							NumericProtocolBuilder builder = new NumericProtocolBuilder(
+									prov);
+							SInt[] products = builder.mult(leftInputs,
+									rightInputs);
+							ProtocolProducer circ = builder.getCircuit();
+
+							this.outputs = ioBuilder.outputArray(products);
+							ProtocolProducer outputs = ioBuilder.getCircuit();
+
+							return new SequentialProtocolProducer(inputs,
+									circ, outputs);
+						}
+					};
+					sce.runApplication(app);
+
+					int[] expected = new int[length];
+					for (int i = 0; i < length; i++) {
+						expected[i] = left[i] * right[i];
+					}
+					checkOutputs(expected, app.getOutputs());
+				}
+			};
+		}
+	}
+
+	public static class TestInnerProduct extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new ThreadWithFixture() {
+				@Override
+				public void test() throws Exception {
+					final int length = 50;
+					final int[] left = new int[length];
+					final int[] right = new int[length];
+					for (int i = 0; i < length; i++) {
+						left[i] = i;
+						right[i] = 3 * i + 2;
+					}
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 6021787394818741732L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BasicNumericFactory prov = (BasicNumericFactory) provider;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(
+									prov);
+							SInt[] leftInputs = createInputs(ioBuilder, left, 1);
+							SInt[] rightInputs = createInputs(ioBuilder, right,
+									2);
+							ProtocolProducer inputs = ioBuilder.getCircuit();
+							ioBuilder.reset();
+
+							OInt[] publicRight = new OInt[length];
+							for (int i = 0; i < length; i++) {
+								publicRight[i] = prov.getOInt(BigInteger
+										.valueOf(right[i]));
+							}
+							InnerProductFactory ipf = new InnerProductFactoryImpl(
+									prov);
+							SInt secret = prov.getSInt();
+							SInt mixed = prov.getSInt();
+							ProtocolProducer products = new ParallelProtocolProducer(
+									ipf.getInnerProductCircuit(leftInputs,
+											rightInputs, secret),
+									ipf.getInnerProductCircuit(leftInputs,
+											publicRight, mixed));
+
+							this.outputs = ioBuilder.outputArray(new SInt[] {
+									secret, mixed });
+							ProtocolProducer outputs = ioBuilder.getCircuit();
+
+							return new SequentialProtocolProducer(inputs,
+									products, outputs);
+						}
+					};
+					sce.runApplication(app);
+
+					int expected = 0;
+					for (int i = 0; i < length; i++) {
+						expected += left[i] * right[i];
+					}
+					checkOutputs(new int[] { expected, expected },
+							app.getOutputs());
+				}
+			};
+		}
+	}
+
 }
@@ -71,6 +71,23 @@ public class ComparisonTests {
 	 *
 	 */
 	public static class TestCompareLT extends TestThreadFactory {
+
+		private final int securityParameter;
+
+		public TestCompareLT() {
+			this(80);
+		}
+
+		/**
+		 * @param securityParameter
+		 *            the statistical security parameter of the comparison,
+		 *            which must leave room for the max bit length of the
+		 *            suite in its field.
+		 */
+		public TestCompareLT(int securityParameter) {
+			this.securityParameter = securityParameter;
+		}
+
 		@Override
 		public TestThread next(TestThreadConfiguration conf) {
 			return new ThreadWithFixture() {
@@ -94,7 +111,7 @@ public class ComparisonTests {
 							SequentialProtocolProducer seq = new SequentialProtocolProducer();
 
 							ComparisonProtocolFactoryImpl compFactory = new ComparisonProtocolFactoryImpl(
-									80, bnFactory, localInvFactory,
+									securityParameter, bnFactory, localInvFactory,
 									numericBitFactory, expFromOIntFactory,
 									expFactory);
 							
@@ -131,6 +148,23 @@ public class ComparisonTests {
 	 *
 	 */
 	public static class TestCompareEQ extends TestThreadFactory {
+
+		private final int securityParameter;
+
+		public TestCompareEQ() {
+			this(80);
+		}
+
+		/**
+		 * @param securityParameter
+		 *            the statistical security parameter of the comparison,
+		 *            which must leave room for the max bit length of the
+		 *            suite in its field.
+		 */
+		public TestCompareEQ(int securityParameter) {
+			this.securityParameter = securityParameter;
+		}
+
 		@Override
 		public TestThread next(TestThreadConfiguration conf) {
 			return new ThreadWithFixture() {
@@ -154,7 +188,7 @@ public class ComparisonTests {
 							SequentialProtocolProducer seq = new SequentialProtocolProducer();
 
 							ComparisonProtocolFactoryImpl compFactory = new ComparisonProtocolFactoryImpl(
-									80, bnFactory, localInvFactory,
+									securityParameter, bnFactory, localInvFactory,
 									numericBitFactory, expFromOIntFactory,
 									expFactory);
 							
@@ -69,6 +69,41 @@ public class LPSolverTests {
 	}
 
 	public static class TestLPSolver extends TestThreadFactory {
+
+		private final int securityParameter;
+		private final String program;
+		private final String pattern;
+
+		public TestLPSolver() {
+			this(80);
+		}
+
+		/**
+		 * @param securityParameter
+		 *            the statistical security parameter of the comparisons,
+		 *            which must leave room for the max bit length of the
+		 *            suite in its field.
+		 */
+		public TestLPSolver(int securityParameter) {
+			this(securityParameter, "program7.csv", "pattern7.csv");
+		}
+
+		/**
+		 * @param securityParameter
+		 *            as above
+		 * @param program
+		 *            the LP program in src/test/resources/lp
+		 * @param pattern
+		 *            the pattern of the program, telling which party gives
+		 *            each of its values
+		 */
+		public TestLPSolver(int securityParameter, String program,
+				String pattern) {
+			this.securityParameter = securityParameter;
+			this.program = program;
+			this.pattern = pattern;
+		}
+
 		@Override
 		public TestThread next(TestThreadConfiguration conf) {
 			return new ThreadWithFixture() {
@@ -86,9 +121,9 @@ public class LPSolverTests {
 							PreprocessedNumericBitFactory numericBitFactory = (PreprocessedNumericBitFactory) provider;
 							ExpFromOIntFactory expFromOIntFactory = (ExpFromOIntFactory) provider;
 							PreprocessedExpPipeFactory expFactory = (PreprocessedExpPipeFactory) provider;
-							LPFactory lpFactory = new LPFactoryImpl(80, bnFactory, localInvFactory, numericBitFactory, expFromOIntFactory, expFactory);
-							File pattern = new File("src/test/resources/lp/pattern7.csv");
-							File program = new File("src/test/resources/lp/program7.csv");
+							LPFactory lpFactory = new LPFactoryImpl(securityParameter, bnFactory, localInvFactory, numericBitFactory, expFromOIntFactory, expFactory);
+							File pattern = new File("src/test/resources/lp/" + TestLPSolver.this.pattern);
+							File program = new File("src/test/resources/lp/" + TestLPSolver.this.program);
 							LPInputReader inputreader = null;
 							try {
 								inputreader = PlainLPInputReader
@@ -26,6 +26,7 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.bgw;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -33,24 +34,36 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import dk.alexandra.fresco.SlowTest;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.TestApplication;
 import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.sce.SCE;
+import dk.alexandra.fresco.framework.sce.SCEFactory;
 import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
 import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
+import dk.alexandra.fresco.suite.bgw.integer.BgwPackedSInt;
 
 
 /**
@@ -60,6 +73,36 @@ import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
 public class TestBgwBasicArithmetic {
 
 	private void runTest(TestThreadFactory f, int noPlayers, final int threshold, EvaluationStrategy evalStrategy) throws Exception {
+		runTest(f, noPlayers, threshold, evalStrategy, new BigInteger(
+				"618970019642690137449562111"), 9000);
+	}
+
+	private void runTest(TestThreadFactory f, int noPlayers,
+			final int threshold, EvaluationStrategy evalStrategy,
+			final BigInteger modulus, int basePort) throws Exception {
+		runTest(f, noPlayers, threshold, evalStrategy, modulus, basePort, 0);
+	}
+
+	private void runTest(TestThreadFactory f, int noPlayers,
+			final int threshold, EvaluationStrategy evalStrategy,
+			final BigInteger modulus, int basePort, final int doubleSharings)
+			throws Exception {
+		runTest(f, noPlayers, threshold, evalStrategy, modulus, basePort,
+				doubleSharings, 1);
+	}
+
+	private void runTest(TestThreadFactory f, int noPlayers,
+			final int threshold, EvaluationStrategy evalStrategy,
+			final BigInteger modulus, int basePort, final int doubleSharings,
+			final int packingFactor) throws Exception {
+		runTest(f, noPlayers, threshold, evalStrategy, modulus, basePort,
+				doubleSharings, packingFactor, 0);
+	}
+
+	private void runTest(TestThreadFactory f, int noPlayers,
+			final int threshold, EvaluationStrategy evalStrategy,
+			final BigInteger modulus, int basePort, final int doubleSharings,
+			final int packingFactor, final int randomSharings) throws Exception {
 		Level logLevel = Level.FINE;
 		Reporter.init(logLevel);
 		
@@ -67,7 +110,7 @@ public class TestBgwBasicArithmetic {
 		// here instead of relying on ephemeral ports which are often > 9999.
 		List<Integer> ports = new ArrayList<Integer>(noPlayers);
 		for (int i=1; i<=noPlayers; i++) {
-			ports.add(9000 + i);
+			ports.add(basePort + i);
 		}
 		
 		Map<Integer, NetworkConfiguration> netConf = TestConfiguration.getNetworkConfigurations(noPlayers, ports,logLevel);
@@ -83,7 +126,22 @@ public class TestBgwBasicArithmetic {
 
 				@Override
 				public BigInteger getModulus() {
-					return new BigInteger("618970019642690137449562111");
+					return modulus;
+				}
+
+				@Override
+				public int getDoubleSharings() {
+					return doubleSharings;
+				}
+
+				@Override
+				public int getPackingFactor() {
+					return packingFactor;
+				}
+
+				@Override
+				public int getRandomSharings() {
+					return randomSharings;
 				}
 			};
 			NetworkConfiguration net = netConf.get(playerId);
@@ -99,6 +157,35 @@ public class TestBgwBasicArithmetic {
 		TestThreadRunner.run(f, conf);
 	}
 
+	/**
+	 * Runs two computations with different moduli at the same time in this
+	 * JVM.
+	 */
+	@Test
+	public void test_SimpleMultAndAdd_Two_Moduli_Concurrently() throws Exception {
+		final Exception[] failure = new Exception[1];
+		Thread other = new Thread() {
+			@Override
+			public void run() {
+				try {
+					runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(), 3,
+							1, EvaluationStrategy.SEQUENTIAL, BigInteger
+									.valueOf(2).pow(61)
+									.subtract(BigInteger.ONE), 9100);
+				} catch (Exception e) {
+					failure[0] = e;
+				}
+			}
+		};
+		other.start();
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(), 5, 2,
+				EvaluationStrategy.SEQUENTIAL);
+		other.join();
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+	}
+
 	@Test
 	public void test_Copy_3_1_Sequential() throws Exception {
 		runTest(new BasicArithmeticTests.TestCopyProtocol(), 3, 1,
@@ -208,6 +295,209 @@ public class TestBgwBasicArithmetic {
 		runTest(new BasicArithmeticTests.TestLotsOfInputs(), 5, 2, EvaluationStrategy.PARALLEL_BATCHED);
 	}
 	
+	// ======= Double sharing multiplication =======
+
+	private static final BigInteger DEFAULT_MODULUS = new BigInteger(
+			"618970019642690137449562111");
+
+	@Test
+	public void test_simple_arithmetic_DoubleSharings_Sequential_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(), 5, 2,
+				EvaluationStrategy.SEQUENTIAL, DEFAULT_MODULUS, 9000, 10);
+	}
+
+	@Test
+	public void test_vector_mult_DoubleSharings_ParallelBatched_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(), 3, 1,
+				EvaluationStrategy.PARALLEL_BATCHED, DEFAULT_MODULUS, 9000, 1000);
+	}
+
+	/**
+	 * Fewer double sharings than multiplications, so the rest reshare the
+	 * product.
+	 */
+	@Test
+	public void test_moderate_arithmetic_Few_DoubleSharings_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), 3, 1,
+				EvaluationStrategy.SEQUENTIAL, DEFAULT_MODULUS, 9000, 3);
+	}
+
+	// ======= Inner product =======
+
+	@Test
+	public void test_inner_product_Sequential_5_2() throws Exception {
+		runTest(new BasicArithmeticTests.TestInnerProduct(), 5, 2, EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_inner_product_DoubleSharings_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestInnerProduct(), 3, 1,
+				EvaluationStrategy.SEQUENTIAL, DEFAULT_MODULUS, 9000, 1);
+	}
+
+	// ======= Packed sharing =======
+
+	/**
+	 * Computes a * b + a on vectors of k values packed into one sharing.
+	 */
+	private static class TestPackedMultAndAdd extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf,
+							conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					final int k = ((BgwConfiguration) conf.protocolSuiteConf)
+							.getPackingFactor();
+					final BigInteger[] a = new BigInteger[k];
+					final BigInteger[] b = new BigInteger[k];
+					for (int j = 0; j < k; j++) {
+						a[j] = BigInteger.valueOf(10 + j);
+						b[j] = BigInteger.valueOf(100 * j + 7);
+					}
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 3518437218396741093L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BgwFactory bgw = (BgwFactory) provider;
+							Assert.assertEquals(k, bgw.getPackingFactor());
+							BgwPackedSInt sa = bgw.getPackedSInt();
+							BgwPackedSInt sb = bgw.getPackedSInt();
+							BgwPackedSInt product = bgw.getPackedSInt();
+							BgwPackedSInt sum = bgw.getPackedSInt();
+							this.outputs = new OInt[k];
+							for (int j = 0; j < k; j++) {
+								this.outputs[j] = bgw.getOInt();
+							}
+							return new SequentialProtocolProducer(
+									new ParallelProtocolProducer(
+											bgw.getPackedCloseCircuit(1, a, sa),
+											bgw.getPackedCloseCircuit(2, b, sb)),
+									bgw.getPackedMultCircuit(sa, sb, product),
+									bgw.getPackedAddCircuit(product, sa, sum),
+									bgw.getPackedOpenCircuit(sum, this.outputs));
+						}
+					};
+					sce.runApplication(app);
+					for (int j = 0; j < k; j++) {
+						Assert.assertEquals(a[j].multiply(b[j]).add(a[j]),
+								app.getOutputs()[j].getValue());
+					}
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_packed_mult_and_add_Sequential_5_2_packing_2() throws Exception {
+		runTest(new TestPackedMultAndAdd(), 5, 2, EvaluationStrategy.SEQUENTIAL,
+				DEFAULT_MODULUS, 9000, 0, 2);
+	}
+
+	@Test
+	public void test_packed_mult_and_add_ParallelBatched_7_3_packing_3() throws Exception {
+		runTest(new TestPackedMultAndAdd(), 7, 3,
+				EvaluationStrategy.PARALLEL_BATCHED, DEFAULT_MODULUS, 9000, 0, 3);
+	}
+
+	// ======= Random sharings =======
+
+	/**
+	 * Masks an input with random values and checks that opening the masked
+	 * input and the mask gives back the input.
+	 */
+	private static class TestRandomMasking extends TestThreadFactory {
+
+		private static final int COUNT = 20;
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf,
+							conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					final BigInteger x = BigInteger.valueOf(42);
+					final BigInteger modulus = ((BgwConfiguration) conf.protocolSuiteConf)
+							.getModulus();
+					final OInt[] masks = new OInt[COUNT];
+					final OInt[] masked = new OInt[COUNT];
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -2861310913628734122L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BgwFactory bgw = (BgwFactory) provider;
+							SInt input = bgw.getSInt();
+							ParallelProtocolProducer random = new ParallelProtocolProducer();
+							ParallelProtocolProducer open = new ParallelProtocolProducer();
+							for (int i = 0; i < COUNT; i++) {
+								SInt r = bgw.getSInt();
+								SInt sum = bgw.getSInt();
+								masks[i] = bgw.getOInt();
+								masked[i] = bgw.getOInt();
+								random.append(bgw.getRandomIntGate(r));
+								open.append(new SequentialProtocolProducer(
+										bgw.getAddCircuit(input, r, sum),
+										new ParallelProtocolProducer(
+												bgw.getOpenCircuit(r, masks[i]),
+												bgw.getOpenCircuit(sum, masked[i]))));
+							}
+							return new SequentialProtocolProducer(
+									bgw.getCloseCircuit(1, bgw.getOInt(x), input),
+									random, open);
+						}
+					};
+					sce.runApplication(app);
+					for (int i = 0; i < COUNT; i++) {
+						Assert.assertEquals(x, masked[i].getValue()
+								.subtract(masks[i].getValue()).mod(modulus));
+					}
+					Assert.assertNotEquals(masks[0].getValue(),
+							masks[1].getValue());
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_random_masking_RandomSharings_Sequential_5_2() throws Exception {
+		runTest(new TestRandomMasking(), 5, 2, EvaluationStrategy.SEQUENTIAL,
+				DEFAULT_MODULUS, 9000, 0, 1, TestRandomMasking.COUNT);
+	}
+
+	/**
+	 * Fewer random sharings than random values, so the rest use
+	 * pseudo-random secret sharing.
+	 */
+	@Test
+	public void test_random_masking_Few_RandomSharings_ParallelBatched_3_1() throws Exception {
+		runTest(new TestRandomMasking(), 3, 1,
+				EvaluationStrategy.PARALLEL_BATCHED, DEFAULT_MODULUS, 9000, 0,
+				1, 5);
+	}
+
 	// ======= Mult and sum =======
 	
 	@Test
@@ -219,4 +509,14 @@ public class TestBgwBasicArithmetic {
 	public void test_moderate_arithmetic_Sequential_3_1() throws Exception {
 		runTest(new BasicArithmeticTests.TestSumAndMult(), 3, 1, EvaluationStrategy.SEQUENTIAL);
 	}
+
+	@Test
+	public void test_vector_mult_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(), 3, 1, EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_input_array_from_other_party_Sequential_3_1() throws Exception {
+		runTest(new BasicArithmeticTests.TestInputArrayFromOtherParty(), 3, 1, EvaluationStrategy.SEQUENTIAL);
+	}
 }
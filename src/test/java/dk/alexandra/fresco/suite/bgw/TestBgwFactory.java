@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.value.SInt;
+
+public class TestBgwFactory {
+
+	private static final BigInteger MODULUS = new BigInteger(
+			"618970019642690137449562111");
+
+	private final BgwFactory factory = new BgwFactory(1, 3, 1, MODULUS);
+
+	private SInt[] sints(int n) {
+		SInt[] res = new SInt[n];
+		for (int i = 0; i < n; i++) {
+			res[i] = factory.getSInt();
+		}
+		return res;
+	}
+
+	@Test(expected = MPCException.class)
+	public void testMultVectorsOfDifferentLengths() {
+		factory.getMultCircuit(sints(3), sints(2), sints(3));
+	}
+
+	@Test
+	public void testMultVectorsWithLongerRighthandVector() {
+		SInt[] out = sints(2);
+		ProtocolProducer mult = factory.getMultCircuit(sints(2), sints(3), out);
+		NativeProtocol[] protocols = new NativeProtocol[10];
+		Assert.assertEquals(2, mult.getNextProtocols(protocols, 0));
+		Assert.assertFalse(mult.hasNextProtocols());
+	}
+
+	@Test(expected = MPCException.class)
+	public void testMultVectorOutputOfDifferentLength() {
+		factory.getMultCircuit(sints(3), sints(3), sints(4));
+	}
+
+	@Test(expected = MPCException.class)
+	public void testInputArrayOfDifferentLength() {
+		factory.getCloseCircuit(new BigInteger[] { BigInteger.ONE }, sints(2),
+				1);
+	}
+}
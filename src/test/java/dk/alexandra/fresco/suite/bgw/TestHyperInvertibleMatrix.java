@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHyperInvertibleMatrix {
+
+	private static final BigInteger MODULUS = new BigInteger(
+			"618970019642690137449562111");
+
+	/**
+	 * Whether the square submatrix with the rows and columns in the bit masks
+	 * is invertible, by Gaussian elimination.
+	 */
+	private boolean invertible(HyperInvertibleMatrix m, int rows, int columns) {
+		int size = Integer.bitCount(rows);
+		BigInteger[][] a = new BigInteger[size][size];
+		int r = 0;
+		for (int i = 0; i < m.size(); i++) {
+			if ((rows & (1 << i)) == 0) {
+				continue;
+			}
+			int c = 0;
+			for (int j = 0; j < m.size(); j++) {
+				if ((columns & (1 << j)) != 0) {
+					a[r][c++] = m.get(i, j);
+				}
+			}
+			r++;
+		}
+		for (int col = 0; col < size; col++) {
+			int pivot = col;
+			while (pivot < size && a[pivot][col].signum() == 0) {
+				pivot++;
+			}
+			if (pivot == size) {
+				return false;
+			}
+			BigInteger[] tmp = a[col];
+			a[col] = a[pivot];
+			a[pivot] = tmp;
+			BigInteger inv = a[col][col].modInverse(MODULUS);
+			for (int i = col + 1; i < size; i++) {
+				BigInteger f = a[i][col].multiply(inv).mod(MODULUS);
+				for (int j = col; j < size; j++) {
+					a[i][j] = a[i][j].subtract(f.multiply(a[col][j]))
+							.mod(MODULUS);
+				}
+			}
+		}
+		return true;
+	}
+
+	@Test
+	public void testEverySquareSubmatrixIsInvertible() {
+		int n = 5;
+		HyperInvertibleMatrix m = new HyperInvertibleMatrix(n, MODULUS);
+		for (int rows = 1; rows < (1 << n); rows++) {
+			for (int columns = 1; columns < (1 << n); columns++) {
+				if (Integer.bitCount(rows) == Integer.bitCount(columns)) {
+					Assert.assertTrue(invertible(m, rows, columns));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testApplyIsLinear() {
+		HyperInvertibleMatrix m = new HyperInvertibleMatrix(3, MODULUS);
+		BigInteger[] x = new BigInteger[] { BigInteger.valueOf(1),
+				BigInteger.valueOf(2), BigInteger.valueOf(3) };
+		// The values 1, 2, 3 in the points 1, 2, 3 lie on the line y = x, so
+		// the matrix maps them to its values in 4, 5, 6.
+		BigInteger[] y = m.apply(x, 3);
+		Assert.assertEquals(BigInteger.valueOf(4), y[0]);
+		Assert.assertEquals(BigInteger.valueOf(5), y[1]);
+		Assert.assertEquals(BigInteger.valueOf(6), y[2]);
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+
+public class TestPackedShamir {
+
+	private static final BigInteger MODULUS = new BigInteger(
+			"618970019642690137449562111");
+
+	private BigInteger[] values(int k, int offset) {
+		BigInteger[] values = new BigInteger[k];
+		for (int j = 0; j < k; j++) {
+			values[j] = BigInteger.valueOf(offset + 3 * j);
+		}
+		return values;
+	}
+
+	@Test
+	public void testShareAndReconstruct() {
+		PackedShamir packed = new PackedShamir(7, 3, 1, MODULUS);
+		Assert.assertEquals(3, packed.getDegree());
+		BigInteger[] secrets = values(3, 5);
+		ShamirShare[] shares = packed.share(secrets, ShareGenerator.current());
+		Assert.assertArrayEquals(secrets, packed.reconstruct(shares));
+	}
+
+	@Test
+	public void testLocalProductHasDegreeTwoD() {
+		PackedShamir packed = new PackedShamir(7, 3, 1, MODULUS);
+		BigInteger[] a = values(3, 5);
+		BigInteger[] b = values(3, 11);
+		ShamirShare[] sa = packed.share(a, ShareGenerator.current());
+		ShamirShare[] sb = packed.share(b, ShareGenerator.current());
+		ShamirShare[] product = new ShamirShare[sa.length];
+		for (int i = 0; i < sa.length; i++) {
+			product[i] = sa[i].mult(sb[i], MODULUS);
+		}
+		BigInteger[] res = packed.reconstructProduct(product);
+		for (int j = 0; j < 3; j++) {
+			Assert.assertEquals(a[j].multiply(b[j]), res[j]);
+		}
+	}
+
+	@Test
+	public void testMaxThreshold() {
+		Assert.assertEquals(1, PackedShamir.maxThreshold(5, 2));
+		Assert.assertEquals(1, PackedShamir.maxThreshold(7, 3));
+		Assert.assertEquals(0, PackedShamir.maxThreshold(5, 3));
+	}
+
+	@Test(expected = MPCException.class)
+	public void testTooFewParties() {
+		new PackedShamir(5, 3, 1, MODULUS);
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPrss {
+
+	private static final BigInteger MODULUS = new BigInteger(
+			"618970019642690137449562111");
+
+	private Prss[] setup(int noOfParties, int threshold) {
+		Random rand = new Random(42);
+		Map<Integer, byte[]> allKeys = new HashMap<Integer, byte[]>();
+		for (int set = 0; set < (1 << noOfParties); set++) {
+			byte[] key = new byte[16];
+			rand.nextBytes(key);
+			allKeys.put(set, key);
+		}
+		ShamirShare.setPrimeNumber(MODULUS);
+		Prss[] prss = new Prss[noOfParties];
+		for (int i = 1; i <= noOfParties; i++) {
+			Map<Integer, byte[]> keys = new HashMap<Integer, byte[]>();
+			for (int set : Prss.subsetsContaining(i, noOfParties, noOfParties
+					- threshold)) {
+				keys.put(set, allKeys.get(set));
+			}
+			prss[i - 1] = new Prss(i, noOfParties, threshold, MODULUS, keys);
+		}
+		return prss;
+	}
+
+	/**
+	 * Interpolates in 0 from the shares of the parties in the bit mask.
+	 */
+	private BigInteger interpolate(ShamirShare[] shares, int parties) {
+		BigInteger result = BigInteger.ZERO;
+		for (int i = 1; i <= shares.length; i++) {
+			if ((parties & (1 << (i - 1))) == 0) {
+				continue;
+			}
+			BigInteger num = BigInteger.ONE;
+			BigInteger den = BigInteger.ONE;
+			for (int j = 1; j <= shares.length; j++) {
+				if (j != i && (parties & (1 << (j - 1))) != 0) {
+					num = num.multiply(BigInteger.valueOf(-j));
+					den = den.multiply(BigInteger.valueOf(i - j));
+				}
+			}
+			result = result.add(shares[i - 1].getField().multiply(num)
+					.multiply(den.modInverse(MODULUS)));
+		}
+		return result.mod(MODULUS);
+	}
+
+	private void testConsistentSharing(int noOfParties, int threshold) {
+		Prss[] prss = setup(noOfParties, threshold);
+		BigInteger previous = null;
+		for (long index = 0; index < 5; index++) {
+			ShamirShare[] shares = new ShamirShare[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				shares[i] = prss[i].share(index);
+				Assert.assertEquals(i + 1, shares[i].getPoint());
+			}
+			BigInteger secret = ShamirShare.recombine(shares, noOfParties);
+			// Every set of t + 1 parties must agree on the secret, so the
+			// shares lie on a polynomial of degree t.
+			for (int set = 0; set < (1 << noOfParties); set++) {
+				if (Integer.bitCount(set) == threshold + 1) {
+					Assert.assertEquals(secret, interpolate(shares, set));
+				}
+			}
+			Assert.assertNotEquals(previous, secret);
+			previous = secret;
+		}
+	}
+
+	@Test
+	public void testSharing_3_1() {
+		testConsistentSharing(3, 1);
+	}
+
+	@Test
+	public void testSharing_5_2() {
+		testConsistentSharing(5, 2);
+	}
+
+	@Test
+	public void testSharing_7_3() {
+		testConsistentSharing(7, 3);
+	}
+
+	@Test
+	public void testIndicesAreReservedInOrder() {
+		Prss prss = setup(3, 1)[0];
+		Assert.assertEquals(0, prss.nextIndex());
+		Assert.assertEquals(1, prss.nextIndex());
+	}
+
+	@Test
+	public void testSubsets() {
+		// Sets of two out of four parties that contain party 2.
+		Assert.assertEquals(3, Prss.subsetsContaining(2, 4, 2).size());
+		for (int set : Prss.subsetsContaining(2, 4, 2)) {
+			Assert.assertTrue((set & 2) != 0);
+		}
+		Assert.assertEquals(2, Prss.dealerOf(2 | 8));
+	}
+}
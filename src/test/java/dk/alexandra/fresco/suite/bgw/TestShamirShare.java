@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.bgw;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestShamirShare {
+
+	private static final BigInteger MODULUS = new BigInteger(
+			"618970019642690137449562111");
+
+	@Test
+	public void testRecombineFromEverySubset() {
+		int noOfParties = 5;
+		int threshold = 2;
+		BigInteger secret = BigInteger.valueOf(1234567);
+		ShamirShare[] shares = ShamirShare.createShares(secret, noOfParties,
+				threshold, MODULUS);
+		Assert.assertEquals(secret,
+				ShamirShare.recombine(shares, noOfParties, MODULUS));
+		for (int set = 0; set < (1 << noOfParties); set++) {
+			if (Integer.bitCount(set) != threshold + 1) {
+				continue;
+			}
+			int[] parties = new int[threshold + 1];
+			ShamirShare[] subset = new ShamirShare[threshold + 1];
+			int inx = 0;
+			for (int i = 1; i <= noOfParties; i++) {
+				if ((set & (1 << (i - 1))) != 0) {
+					parties[inx] = i;
+					subset[inx++] = shares[i - 1];
+				}
+			}
+			Assert.assertEquals(secret, ShamirShare.recombine(subset, parties,
+					threshold, MODULUS));
+		}
+	}
+
+	@Test
+	public void testRecombineEvenNumberOfParties() {
+		BigInteger secret = BigInteger.valueOf(42);
+		ShamirShare[] shares = ShamirShare.createShares(secret, 4, 1, MODULUS);
+		Assert.assertEquals(secret, ShamirShare.recombine(shares, 4, MODULUS));
+	}
+
+	@Test
+	public void testSeedIsPerThread() throws Exception {
+		byte[] seed = new byte[] { 1, 2, 3 };
+		ShamirShare.setRandomSeed(seed);
+		final BigInteger first = ShamirShare.createShares(BigInteger.ZERO, 3,
+				1, MODULUS)[0].getField();
+		ShamirShare.setRandomSeed(seed);
+		Assert.assertEquals(first, ShamirShare.createShares(BigInteger.ZERO,
+				3, 1, MODULUS)[0].getField());
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<BigInteger>> results = new ArrayList<Future<BigInteger>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<BigInteger>() {
+					@Override
+					public BigInteger call() {
+						BigInteger secret = BigInteger.valueOf(7);
+						BigInteger last = null;
+						for (int j = 0; j < 1000; j++) {
+							ShamirShare[] shares = ShamirShare.createShares(
+									secret, 5, 2, MODULUS);
+							Assert.assertEquals(secret,
+									ShamirShare.recombine(shares, 5, MODULUS));
+							last = shares[0].getField();
+						}
+						return last;
+					}
+				}));
+			}
+			for (Future<BigInteger> result : results) {
+				Assert.assertNotEquals(first, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void testLongField(BigInteger modulus) {
+		Assert.assertNotNull(LongShamir.forModulus(modulus));
+		Random rand = new Random(42);
+		BigInteger secret = modulus.subtract(BigInteger.TEN);
+		ShamirShare[] shares = ShamirShare.createShares(secret, 7, 3, modulus);
+		for (ShamirShare share : shares) {
+			Assert.assertTrue(share.getField().compareTo(modulus) < 0);
+		}
+		Assert.assertEquals(secret, ShamirShare.recombine(shares, 7, modulus));
+		Assert.assertEquals(secret, ShamirShare.recombine(
+				new ShamirShare[] { shares[6], shares[1], shares[3], shares[4] },
+				new int[] { 7, 2, 4, 5 }, 3, modulus));
+
+		// Long valued shares: arithmetic, resharing and the wire format.
+		BigInteger x = new BigInteger(modulus.bitLength() + 8, rand)
+				.mod(modulus);
+		ShamirShare share = new ShamirShare(3, x, modulus);
+		ShamirShare other = new ShamirShare(3, secret, modulus);
+		Assert.assertEquals(x.add(secret).mod(modulus),
+				share.add(other, modulus).getField());
+		Assert.assertEquals(x.subtract(secret).mod(modulus),
+				share.subtract(other, modulus).getField());
+		Assert.assertEquals(x.multiply(secret).mod(modulus),
+				share.mult(other, modulus).getField());
+		Assert.assertEquals(x, new ShamirShare(share.toByteArray()).getField());
+		ShamirShare[] reshares = ShamirShare.createShares(share, 7, 3, modulus);
+		ShamirShare recombined = ShamirShare.recombine(5,
+				Arrays.asList(reshares), 7, modulus);
+		Assert.assertEquals(5, recombined.getPoint());
+		Assert.assertEquals(x, recombined.getField());
+	}
+
+	@Test
+	public void testLongFieldMersenne61() {
+		testLongField(BigInteger.ONE.shiftLeft(61).subtract(BigInteger.ONE));
+	}
+
+	@Test
+	public void testLongFieldBarrett() {
+		testLongField(BigInteger.ONE.shiftLeft(60).nextProbablePrime());
+		testLongField(BigInteger.valueOf(2147483647));
+		testLongField(BigInteger.valueOf(8191));
+	}
+
+	@Test
+	public void testLongFieldOnlyForSmallModuli() {
+		Assert.assertNull(LongShamir.forModulus(MODULUS));
+	}
+}
@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.dummy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Level;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.TestApplication;
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.sce.SCE;
+import dk.alexandra.fresco.framework.sce.SCEFactory;
+import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.framework.value.OBool;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.lib.crypto.BristolCryptoFactory;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+
+/**
+ * Tests of the bit-sliced values of the dummy protocol suite, running many
+ * instances of a computation in one pass.
+ */
+public class TestDummyBitSliced {
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy, int instances) throws Exception {
+		// The dummy protocol suite has the nice property that it can be run by just one player.
+		int noPlayers = 1;
+		Level logLevel = Level.FINE;
+		Reporter.init(logLevel);
+
+		// Since SCAPI currently does not work with ports > 9999 we use fixed ports
+		// here instead of relying on ephemeral ports which are often > 9999.
+		List<Integer> ports = new ArrayList<Integer>(noPlayers);
+		for (int i=1; i<=noPlayers; i++) {
+			ports.add(9000 + i);
+		}
+
+		Map<Integer, NetworkConfiguration> netConf = TestConfiguration.getNetworkConfigurations(noPlayers, ports, logLevel);
+		Map<Integer, TestThreadConfiguration> conf = new HashMap<Integer, TestThreadConfiguration>();
+		for (int playerId : netConf.keySet()) {
+			TestThreadConfiguration ttc = new TestThreadConfiguration();
+			ttc.netConf = netConf.get(playerId);
+			ttc.protocolSuiteConf = new DummyConfiguration(instances);
+			boolean useSecureConnection = false; // No tests of secure connection here.
+			int noOfVMThreads = 3;
+			int noOfThreads = 3;
+			ProtocolSuite protocolSuite = new DummyProtocolSuite();
+			ProtocolEvaluator evaluator = EvaluationStrategy.fromEnum(evalStrategy);
+			Storage storage = new InMemoryStorage();
+			ttc.sceConf = new TestSCEConfiguration(protocolSuite, evaluator, noOfThreads, noOfVMThreads, ttc.netConf, storage, useSecureConnection);
+			conf.put(playerId, ttc);
+		}
+		TestThreadRunner.run(f, conf);
+	}
+
+	/**
+	 * The bits of the bytes, most significant bit first, as expected by the
+	 * Bristol circuits.
+	 */
+	private static boolean[] toBits(byte[] bytes) {
+		boolean[] bits = new boolean[8 * bytes.length];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = (bytes[i / 8] >>> (7 - i % 8) & 1) == 1;
+		}
+		return bits;
+	}
+
+	/**
+	 * Encrypts a random block under a random key in every instance with the
+	 * Bristol AES circuit, and compares with the JCE.
+	 */
+	private static class AesTest extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf, conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					final int instances = ((DummyConfiguration) conf.protocolSuiteConf).getInstances();
+					Random rand = new Random(42);
+					final boolean[][] plainBits = new boolean[instances][];
+					final boolean[][] keyBits = new boolean[instances][];
+					byte[][] expected = new byte[instances][];
+					for (int j = 0; j < instances; j++) {
+						byte[] plain = new byte[16];
+						byte[] key = new byte[16];
+						rand.nextBytes(plain);
+						rand.nextBytes(key);
+						plainBits[j] = toBits(plain);
+						keyBits[j] = toBits(key);
+						Cipher aes = Cipher.getInstance("AES/ECB/NoPadding");
+						aes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+						expected[j] = aes.doFinal(plain);
+					}
+					final OBool[] opened = new OBool[128];
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 6472046913381947610L;
+
+						@Override
+						public ProtocolProducer prepareApplication(ProtocolFactory provider) {
+							DummyBitSlicedFactory bool = (DummyBitSlicedFactory) provider;
+							// The plaintexts are input, the keys are known constants.
+							SBool[] plain = bool.getSBools(128);
+							ProtocolProducer[] inputs = new ProtocolProducer[128];
+							boolean[] column = new boolean[instances];
+							for (int i = 0; i < 128; i++) {
+								for (int j = 0; j < instances; j++) {
+									column[j] = plainBits[j][i];
+								}
+								inputs[i] = bool.getCloseProtocol(1, bool.getOBool(column), plain[i]);
+							}
+							SBool[] key = bool.getKnownConstantSBools(keyBits);
+							SBool[] cipher = bool.getSBools(128);
+							ProtocolProducer aes = new BristolCryptoFactory(bool).getAesCircuit(plain, key, cipher);
+							ProtocolProducer[] opens = new ProtocolProducer[128];
+							for (int i = 0; i < 128; i++) {
+								opened[i] = bool.getOBool();
+								opens[i] = bool.getOpenProtocol(cipher[i], opened[i]);
+							}
+							return new SequentialProtocolProducer(
+									new ParallelProtocolProducer(inputs), aes,
+									new ParallelProtocolProducer(opens));
+						}
+					};
+					sce.runApplication(app);
+					for (int j = 0; j < instances; j++) {
+						boolean[] actual = new boolean[128];
+						for (int i = 0; i < 128; i++) {
+							actual[i] = ((DummyBitSlicedOBool) opened[i]).getValue(j);
+						}
+						Assert.assertArrayEquals("Instance " + j, toBits(expected[j]), actual);
+					}
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_AES_100_instances_Sequential() throws Exception {
+		runTest(new AesTest(), EvaluationStrategy.SEQUENTIAL, 100);
+	}
+
+	@Test
+	public void test_AES_64_instances_ParallelBatched() throws Exception {
+		runTest(new AesTest(), EvaluationStrategy.PARALLEL_BATCHED, 64);
+	}
+
+	/**
+	 * Checks the gates against the instances one by one, including gates with
+	 * a public input, and that NOT leaves the unused bits of the last word 0.
+	 */
+	private static class GatesTest extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf, conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					final int instances = ((DummyConfiguration) conf.protocolSuiteConf).getInstances();
+					Random rand = new Random(7);
+					final boolean[] a = new boolean[instances];
+					final boolean[] b = new boolean[instances];
+					for (int j = 0; j < instances; j++) {
+						a[j] = rand.nextBoolean();
+						b[j] = rand.nextBoolean();
+					}
+					final OBool[] opened = new OBool[5];
+					final DummyBitSlicedSBool[] not = new DummyBitSlicedSBool[1];
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -1846629713023946418L;
+
+						@Override
+						public ProtocolProducer prepareApplication(ProtocolFactory provider) {
+							DummyBitSlicedFactory bool = (DummyBitSlicedFactory) provider;
+							SBool x = bool.getSBool();
+							SBool y = bool.getSBool();
+							SBool[] res = bool.getSBools(opened.length);
+							not[0] = (DummyBitSlicedSBool) res[2];
+							ProtocolProducer[] opens = new ProtocolProducer[opened.length];
+							for (int i = 0; i < opened.length; i++) {
+								opened[i] = bool.getOBool();
+								opens[i] = bool.getOpenProtocol(res[i], opened[i]);
+							}
+							return new SequentialProtocolProducer(
+									new ParallelProtocolProducer(
+											bool.getCloseProtocol(1, bool.getOBool(a), x),
+											bool.getCloseProtocol(1, bool.getOBool(b), y)),
+									new ParallelProtocolProducer(
+											bool.getXorCircuit(x, y, res[0]),
+											bool.getAndCircuit(x, y, res[1]),
+											bool.getNotCircuit(x, res[2]),
+											bool.getXorCircuit(x, bool.getOBool(b), res[3]),
+											bool.getAndCircuit(x, bool.getKnownConstantOBool(true), res[4])),
+									new ParallelProtocolProducer(opens));
+						}
+					};
+					sce.runApplication(app);
+					for (int j = 0; j < instances; j++) {
+						Assert.assertEquals(a[j] ^ b[j], ((DummyBitSlicedOBool) opened[0]).getValue(j));
+						Assert.assertEquals(a[j] & b[j], ((DummyBitSlicedOBool) opened[1]).getValue(j));
+						Assert.assertEquals(!a[j], ((DummyBitSlicedOBool) opened[2]).getValue(j));
+						Assert.assertEquals(a[j] ^ b[j], ((DummyBitSlicedOBool) opened[3]).getValue(j));
+						Assert.assertEquals(a[j], ((DummyBitSlicedOBool) opened[4]).getValue(j));
+					}
+					long[] words = not[0].getWords();
+					Assert.assertEquals(0, words[words.length - 1] & ~BitSlices.lastWordMask(instances));
+					try {
+						opened[0].getValue();
+						Assert.fail("The instances should differ");
+					} catch (MPCException e) {
+						// Expected.
+					}
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_gates_70_instances_Sequential() throws Exception {
+		runTest(new GatesTest(), EvaluationStrategy.SEQUENTIAL, 70);
+	}
+}
@@ -26,32 +26,69 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.lr15;
 
-
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Scanner;
 import java.util.logging.Level;
 
-import org.junit.Ignore;
+import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.TestThreadRunner;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.sce.SCE;
+import dk.alexandra.fresco.framework.sce.SCEFactory;
+import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.value.OBool;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import dk.alexandra.fresco.suite.lr15.configuration.LR15Configuration;
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Wire;
 
 
 /**
- * Tests the LR15 protocol suite in SCAPI 2.4.0.
+ * Tests the LR15 protocol suite by evaluating AES, with the key of party 1
+ * and the plaintext of party 2, and comparing the output of party 2 with a
+ * plain evaluation of the circuit.
  * 
+ * The suite needs the native libraries of SCAPI, so the test is skipped when
+ * they are not on the library path.
  */
 public class TestScapiLR15 {
 
-	
-	private static void runTest(TestThreadFactory test) {
+	private static final String DIR = "src/test/java/dk/alexandra/fresco/suite/lr15/";
+	private static final String CIRCUIT = DIR + "NigelAes.txt";
+	private static final String[] INPUTS = new String[] {
+			DIR + "AESPartyOneInputs.txt", DIR + "AESPartyTwoInputs.txt" };
+
+	private static boolean nativeLibrariesPresent() {
+		try {
+			System.loadLibrary("ScGarbledCircuitJavaInterface");
+			System.loadLibrary("MaliciousOtExtensionJavaInterface");
+			return true;
+		} catch (UnsatisfiedLinkError e) {
+			return false;
+		}
+	}
+
+	private static void runTest(TestThreadFactory test) throws Exception {
+		Assume.assumeTrue(nativeLibrariesPresent());
 		final int n = 2;
 		// Since SCAPI currently does not work with ports > 9999 we use fixed ports
 		// here instead of relying on ephemeral ports which are often > 9999.
@@ -64,39 +101,119 @@ public class TestScapiLR15 {
 		for (int i : netConf.keySet()) {
 			TestThreadConfiguration ttc = new TestThreadConfiguration();
 			ttc.netConf = netConf.get(i);
+			ttc.protocolSuiteConf = new LR15Configuration() {
+				@Override
+				public String getCircuitFile() {
+					return CIRCUIT;
+				}
+
+				@Override
+				public String getCheatingRecoveryCircuitFile() {
+					return DIR + "UnlockP1Input.txt";
+				}
+
+				@Override
+				public String getCommunicationConfigPath() {
+					return DIR;
+				}
+
+				@Override
+				public int getNumberOfExecutions() {
+					// Small batches, so that the test runs the offline phase
+					// more than once.
+					return 2;
+				}
+			};
+			ProtocolSuite suite = new LR15ProtocolSuite();
+			ProtocolEvaluator evaluator = EvaluationStrategy.fromEnum(EvaluationStrategy.SEQUENTIAL);
+			ttc.sceConf = new TestSCEConfiguration(suite, evaluator, 1, 1, ttc.netConf, new InMemoryStorage(), false);
 			conf.put(i, ttc);
 		}
 		TestThreadRunner.run(test, conf);
 	}
 
+	private static boolean[] readInputs(String file) throws FileNotFoundException {
+		try (Scanner s = new Scanner(new File(file))) {
+			boolean[] res = new boolean[s.nextInt()];
+			for (int i = 0; i < res.length; i++) {
+				res[i] = s.nextInt() == 1;
+			}
+			return res;
+		}
+	}
+
+	private static boolean[] expectedOutput() throws Exception {
+		BooleanCircuit circuit = new BooleanCircuit(new File(CIRCUIT));
+		for (int party = 1; party <= 2; party++) {
+			boolean[] input = readInputs(INPUTS[party - 1]);
+			List<Integer> labels = circuit.getInputWireIndices(party);
+			Map<Integer, Wire> wires = new HashMap<Integer, Wire>();
+			for (int i = 0; i < input.length; i++) {
+				wires.put(labels.get(i), new Wire((byte) (input[i] ? 1 : 0)));
+			}
+			circuit.setInputs(wires, party);
+		}
+		Map<Integer, Wire> wires = circuit.compute();
+		int[] outputs = circuit.getOutputWireIndices();
+		boolean[] res = new boolean[outputs.length];
+		for (int i = 0; i < outputs.length; i++) {
+			res[i] = wires.get(outputs[i]).getValue() == 1;
+		}
+		return res;
+	}
 
-	final TestThreadFactory testOffline = new TestThreadFactory() {
+	final TestThreadFactory testAes = new TestThreadFactory() {
 		@Override
 		public TestThread next(TestThreadConfiguration conf) {
 			return new TestThread() {
+
+				// More executions than a batch of the offline phase holds.
+				final int executions = 3;
+
+				OBool[][] outputs = new OBool[executions][];
+
 				@Override
 				public void test() throws Exception {
-					if (this.conf.getMyId() == 1) {
-						LR15Player1Offline offline1 = new LR15Player1Offline(); // read circuits, etc. 
-						offline1.run(); // do communication stuff
-					} else if (this.conf.getMyId() == 2) {
-						LR15Player2Offline offline2 = new LR15Player2Offline(); // read circuits, etc. 
-						offline2.run(); // do communication stuff
-					} else {
-						throw new Exception("No more than two players");
+					final boolean[] input = readInputs(INPUTS[conf.getMyId() - 1]);
+					Application app = new Application() {
+
+						private static final long serialVersionUID = 4372569471812306127L;
+
+						@Override
+						public ProtocolProducer prepareApplication(ProtocolFactory factory) {
+							LR15Factory fac = (LR15Factory) factory;
+							SequentialProtocolProducer seq = new SequentialProtocolProducer();
+							for (int e = 0; e < executions; e++) {
+								OBool[] in = new OBool[input.length];
+								for (int i = 0; i < in.length; i++) {
+									in[i] = fac.getKnownConstantOBool(input[i]);
+								}
+								outputs[e] = fac.getOBools(fac.getOutputSize());
+								seq.append(fac.getCircuitProtocol(in, outputs[e]));
+							}
+							return seq;
+						}
+					};
+					SCE sce = SCEFactory.getSCEFromConfiguration(conf.sceConf, conf.protocolSuiteConf);
+					sce.runApplication(app);
+					sce.shutdownSCE();
+
+					if (conf.getMyId() == LR15ProtocolSuite.EVALUATOR) {
+						boolean[] expected = expectedOutput();
+						for (int e = 0; e < executions; e++) {
+							for (int i = 0; i < expected.length; i++) {
+								Assert.assertEquals(expected[i], outputs[e][i].getValue());
+							}
+						}
 					}
 				}
 			};
 		}
 	};
 
-	
-
-	
-	@Test @Ignore("Work in progress")
-	public void testLR15Offline() throws Exception {
-		runTest(testOffline);
+	@Test
+	public void test_AES() throws Exception {
+		runTest(testAes);
 	}
-	
 
 }
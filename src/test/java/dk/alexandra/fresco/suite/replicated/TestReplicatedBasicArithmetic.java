@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import dk.alexandra.fresco.SlowTest;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.TestApplication;
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.sce.SCE;
+import dk.alexandra.fresco.framework.sce.SCEFactory;
+import dk.alexandra.fresco.framework.sce.configuration.ProtocolSuiteConfiguration;
+import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import dk.alexandra.fresco.suite.bgw.BgwProtocolSuite;
+import dk.alexandra.fresco.suite.bgw.configuration.BgwConfiguration;
+import dk.alexandra.fresco.suite.replicated.configuration.ReplicatedConfiguration;
+
+/**
+ * Basic arithmetic tests using the replicated protocol suite.
+ */
+public class TestReplicatedBasicArithmetic {
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy)
+			throws Exception {
+		runTest(f, evalStrategy, ReplicatedConfiguration.DEFAULT_MODULUS);
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			final BigInteger modulus) throws Exception {
+		runTest(f, evalStrategy, new ReplicatedProtocolSuite(),
+				new ReplicatedConfiguration() {
+					@Override
+					public BigInteger getModulus() {
+						return modulus;
+					}
+				});
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			ProtocolSuite suite, ProtocolSuiteConfiguration suiteConf)
+			throws Exception {
+		int noPlayers = 3;
+		Level logLevel = Level.FINE;
+		Reporter.init(logLevel);
+
+		// Since SCAPI currently does not work with ports > 9999 we use fixed ports
+		// here instead of relying on ephemeral ports which are often > 9999.
+		List<Integer> ports = new ArrayList<Integer>(noPlayers);
+		for (int i = 1; i <= noPlayers; i++) {
+			ports.add(9000 + i);
+		}
+
+		Map<Integer, NetworkConfiguration> netConf = TestConfiguration.getNetworkConfigurations(noPlayers, ports, logLevel);
+		Map<Integer, TestThreadConfiguration> conf = new HashMap<Integer, TestThreadConfiguration>();
+		for (int playerId : netConf.keySet()) {
+			TestThreadConfiguration ttc = new TestThreadConfiguration();
+			ttc.netConf = netConf.get(playerId);
+			ttc.protocolSuiteConf = suiteConf;
+			NetworkConfiguration net = netConf.get(playerId);
+			boolean useSecureConnection = false; // No tests of secure connection here.
+			ProtocolEvaluator evaluator = EvaluationStrategy.fromEnum(evalStrategy);
+			Storage storage = new InMemoryStorage();
+			int noOfThreads = 1;
+			int noOfVMThreads = 3;
+			ttc.sceConf = new TestSCEConfiguration(suite, evaluator, noOfThreads, noOfVMThreads, net, storage, useSecureConnection);
+			conf.put(playerId, ttc);
+		}
+		TestThreadRunner.run(f, conf);
+	}
+
+	@Test
+	public void test_Input_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestInput(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Copy_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestCopyProtocol(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Lots_Of_Inputs_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_input_array_from_other_party_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestInputArrayFromOtherParty(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_simple_arithmetic_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_moderate_arithmetic_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_vector_mult_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_inner_product_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestInnerProduct(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Lots_Of_Inputs_Parallel() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(), EvaluationStrategy.PARALLEL);
+	}
+
+	@Test
+	public void test_vector_mult_SequentialBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+	}
+
+	@Test
+	public void test_moderate_arithmetic_ParallelBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), EvaluationStrategy.PARALLEL_BATCHED);
+	}
+
+	/**
+	 * A prime without special form, reduced by Barrett reduction.
+	 */
+	@Test
+	public void test_simple_arithmetic_32_bit_prime_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(),
+				EvaluationStrategy.SEQUENTIAL, BigInteger.valueOf(4294967291L));
+	}
+
+	// ======= Random values =======
+
+	/**
+	 * Opens random values and a public value minus each random value, and
+	 * checks that they sum to the public value.
+	 */
+	private static class TestRandomValues extends TestThreadFactory {
+
+		private static final int COUNT = 20;
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf,
+							conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					final BigInteger x = BigInteger.valueOf(42);
+					final BigInteger modulus = ((ReplicatedConfiguration) conf.protocolSuiteConf)
+							.getModulus();
+					final OInt[] randoms = new OInt[COUNT];
+					final OInt[] differences = new OInt[COUNT];
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 6029416245876541263L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							ReplicatedFactory factory = (ReplicatedFactory) provider;
+							ParallelProtocolProducer random = new ParallelProtocolProducer();
+							ParallelProtocolProducer open = new ParallelProtocolProducer();
+							for (int i = 0; i < COUNT; i++) {
+								SInt r = factory.getSInt();
+								SInt difference = factory.getSInt();
+								randoms[i] = factory.getOInt();
+								differences[i] = factory.getOInt();
+								random.append(factory.getRandomIntGate(r));
+								open.append(new SequentialProtocolProducer(
+										factory.getSubtractCircuit(
+												factory.getOInt(x), r,
+												difference),
+										new ParallelProtocolProducer(
+												factory.getOpenCircuit(r,
+														randoms[i]),
+												factory.getOpenCircuit(
+														difference,
+														differences[i]))));
+							}
+							return new SequentialProtocolProducer(random, open);
+						}
+					};
+					sce.runApplication(app);
+					for (int i = 0; i < COUNT; i++) {
+						Assert.assertEquals(x, randoms[i].getValue()
+								.add(differences[i].getValue()).mod(modulus));
+					}
+					Assert.assertNotEquals(randoms[0].getValue(),
+							randoms[1].getValue());
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_random_values_ParallelBatched() throws Exception {
+		runTest(new TestRandomValues(), EvaluationStrategy.PARALLEL_BATCHED);
+	}
+
+	// ======= Comparison with BGW =======
+
+	/**
+	 * Multiplies two input vectors entry by entry and reports the time taken
+	 * by party 1.
+	 */
+	private static class TestMultBenchmark extends TestThreadFactory {
+
+		private final int length;
+
+		public TestMultBenchmark(int length) {
+			this.length = length;
+		}
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf,
+							conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -4519625047287316472L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BasicNumericFactory prov = (BasicNumericFactory) provider;
+							SInt[] a = new SInt[length];
+							SInt[] b = new SInt[length];
+							SInt[] c = new SInt[length];
+							this.outputs = new OInt[length];
+							BigInteger[] open = new BigInteger[length];
+							ParallelProtocolProducer outputs = new ParallelProtocolProducer();
+							for (int i = 0; i < length; i++) {
+								a[i] = prov.getSInt();
+								b[i] = prov.getSInt();
+								c[i] = prov.getSInt();
+								open[i] = BigInteger.valueOf(i);
+								this.outputs[i] = prov.getOInt();
+								outputs.append(prov.getOpenCircuit(c[i],
+										this.outputs[i]));
+							}
+							return new SequentialProtocolProducer(
+									new ParallelProtocolProducer(
+											prov.getCloseCircuit(open, a, 1),
+											prov.getCloseCircuit(open, b, 2)),
+									prov.getMultCircuit(a, b, c), outputs);
+						}
+					};
+					long start = System.nanoTime();
+					sce.runApplication(app);
+					long millis = (System.nanoTime() - start) / 1000000;
+					if (conf.netConf.getMyId() == 1) {
+						Reporter.info(length + " multiplications using "
+								+ conf.sceConf.getProtocolSuiteName()
+								+ " took " + millis + " ms");
+					}
+					for (int i = 0; i < length; i++) {
+						Assert.assertEquals(BigInteger.valueOf((long) i * i),
+								app.getOutputs()[i].getValue());
+					}
+				}
+			};
+		}
+	}
+
+	/**
+	 * Runs the same multiplications with 3 party BGW, with threshold 1 and a
+	 * field of the same size, and with the replicated suite.
+	 */
+	@Test
+	@Category(SlowTest.class)
+	public void test_mult_benchmark_against_BGW_ParallelBatched() throws Exception {
+		int length = 10000;
+		runTest(new TestMultBenchmark(length), EvaluationStrategy.PARALLEL_BATCHED,
+				new BgwProtocolSuite(), new BgwConfiguration() {
+					@Override
+					public int getThreshold() {
+						return 1;
+					}
+
+					@Override
+					public BigInteger getModulus() {
+						return ReplicatedConfiguration.DEFAULT_MODULUS;
+					}
+				});
+		runTest(new TestMultBenchmark(length), EvaluationStrategy.PARALLEL_BATCHED);
+	}
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.replicated;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import dk.alexandra.fresco.SlowTest;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.lib.arithmetic.LPSolverTests;
+
+/**
+ * Runs the LP solver on the replicated protocol suite. The long comparisons
+ * of the solver compare numbers of twice the max bit length, which must fit
+ * in the field of 61 bits with the security parameter, so the test uses a
+ * small program.
+ */
+public class TestReplicatedLPSolver {
+
+	private static final int MAX_BIT_LENGTH = 20;
+	private static final int SECURITY_PARAMETER = 20;
+
+	@Category(SlowTest.class)
+	@Test
+	public void test_LPSolver_Sequential() throws Exception {
+		TestReplicatedComparison.runTest(new LPSolverTests.TestLPSolver(
+				SECURITY_PARAMETER, "program1.csv", "pattern1.csv"),
+				EvaluationStrategy.SEQUENTIAL, MAX_BIT_LENGTH, 200000, 2000);
+	}
+}
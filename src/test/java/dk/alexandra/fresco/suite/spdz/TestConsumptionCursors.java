@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.util.logging.Level;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.ConsumptionCursors;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
+
+public class TestConsumptionCursors {
+
+	private static final String NAME = SpdzStorageConstants.STORAGE_NAME_PREFIX + 1;
+	private static final int AMOUNT = 20;
+	private static final int BLOCK_SIZE = 3;
+	private static final byte[] DATA_SET = new byte[ConsumptionCursors.DATA_SET_ID_BYTES];
+
+	private Storage storage;
+	private File file;
+
+	@BeforeClass
+	public static void initReporter() {
+		Reporter.init(Level.INFO);
+	}
+
+	/**
+	 * Stores elements whose value is their storage counter.
+	 */
+	@Before
+	public void setup() throws IOException {
+		storage = new InMemoryStorage();
+		for (int i = 0; i < AMOUNT; i++) {
+			SpdzElement e = new SpdzElement(BigInteger.valueOf(i),
+					BigInteger.valueOf(i));
+			storage.putObject(NAME, SpdzStorageConstants.TRIPLE_KEY_PREFIX + i,
+					new SpdzTriple(e, e, e));
+			storage.putObject(NAME, SpdzStorageConstants.BIT_KEY_PREFIX + i,
+					new SpdzSInt(e));
+			storage.putObject(NAME, SpdzStorageConstants.INPUT_KEY_PREFIX + 2
+					+ "_" + i, new SpdzInputMask(e));
+		}
+		file = File.createTempFile("cursors", null);
+		file.delete();
+	}
+
+	@After
+	public void cleanup() {
+		file.delete();
+	}
+
+	private ConsumptionCursors open(int storageId, int noOfThreads) {
+		return open(DATA_SET, storageId, noOfThreads);
+	}
+
+	private ConsumptionCursors open(byte[] dataSet, int storageId,
+			int noOfThreads) {
+		return new ConsumptionCursors(file, dataSet, storageId, noOfThreads,
+				2, BLOCK_SIZE);
+	}
+
+	private DataSupplier supplier(ConsumptionCursors cursors, int storageId,
+			int noOfThreads) {
+		return new DataSupplierImpl(storage, NAME, storageId, noOfThreads, 2,
+				cursors);
+	}
+
+	private static int value(SpdzTriple t) {
+		return t.getA().getShare().intValue();
+	}
+
+	@Test
+	public void testResumesAfterReservedBlock() {
+		ConsumptionCursors cursors = open(0, 1);
+		DataSupplier supplier = supplier(cursors, 0, 1);
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals(i, value(supplier.getNextTriple()));
+		}
+		Assert.assertEquals(0, supplier.getNextBit().value.getShare().intValue());
+		cursors.close();
+
+		// Triples 4 and 5 were reserved but never used, and are skipped.
+		cursors = open(0, 1);
+		supplier = supplier(cursors, 0, 1);
+		Assert.assertEquals(6, value(supplier.getNextTriple()));
+		Assert.assertEquals(3, supplier.getNextBit().value.getShare().intValue());
+		Assert.assertEquals(0, supplier.getNextInputMask(2).getMask()
+				.getShare().intValue());
+		cursors.close();
+	}
+
+	@Test
+	public void testNoElementIsSuppliedTwiceWithoutClose() {
+		// Reopening without closing models a crash, as the file contents
+		// only change through the mapping.
+		int highest = -1;
+		for (int run = 0; run < 4; run++) {
+			DataSupplier supplier = supplier(open(0, 1), 0, 1);
+			for (int i = 0; i < run; i++) {
+				int v = value(supplier.getNextTriple());
+				Assert.assertTrue(v > highest);
+				highest = v;
+			}
+		}
+	}
+
+	@Test
+	public void testThreadCounters() {
+		ConsumptionCursors cursors = open(1, 2);
+		DataSupplier supplier = supplier(cursors, 1, 2);
+		Assert.assertEquals(1, value(supplier.getNextTriple()));
+		Assert.assertEquals(3, value(supplier.getNextTriple()));
+		cursors.close();
+		cursors = open(1, 2);
+		Assert.assertEquals(1 + 2 * BLOCK_SIZE,
+				cursors.getPosition(ConsumptionCursors.TRIPLES));
+		cursors.close();
+	}
+
+	@Test
+	public void testAdvanceTo() {
+		ConsumptionCursors cursors = open(0, 1);
+		long[] other = cursors.getPositions();
+		other[ConsumptionCursors.BITS] = 9;
+		cursors.advanceTo(other);
+		cursors.close();
+		cursors = open(0, 1);
+		Assert.assertEquals(9, cursors.getPosition(ConsumptionCursors.BITS));
+		Assert.assertEquals(0, cursors.getPosition(ConsumptionCursors.TRIPLES));
+		cursors.close();
+	}
+
+	@Test(expected = MPCException.class)
+	public void testOtherThreadLayout() {
+		open(0, 1).close();
+		open(0, 2);
+	}
+
+	@Test
+	public void testOtherDataSetStartsOver() {
+		ConsumptionCursors cursors = open(0, 1);
+		DataSupplier supplier = supplier(cursors, 0, 1);
+		supplier.getNextTriple();
+		cursors.close();
+		byte[] regenerated = DATA_SET.clone();
+		regenerated[0] = 1;
+		cursors = open(regenerated, 0, 2);
+		Assert.assertEquals(0, cursors.getPosition(ConsumptionCursors.TRIPLES));
+		cursors.close();
+		// The cursors are now bound to the new data.
+		cursors = open(regenerated, 0, 2);
+		Assert.assertEquals(0, cursors.getPosition(ConsumptionCursors.TRIPLES));
+		cursors.close();
+		cursors = open(0, 1);
+		Assert.assertEquals(0, cursors.getPosition(ConsumptionCursors.TRIPLES));
+		cursors.close();
+	}
+
+	private void writeHeader(int magic, int second) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.writeInt(magic);
+			raf.writeInt(second);
+			// The rest of a file in the first format: thread layout and
+			// positions.
+			raf.writeInt(1);
+			raf.writeInt(2);
+			for (int i = 0; i < 6; i++) {
+				raf.writeLong(5);
+			}
+		}
+	}
+
+	@Test
+	public void testUnversionedFileIsRejected() throws IOException {
+		writeHeader(0x53504355, 0);
+		try {
+			open(0, 1);
+			Assert.fail("An unversioned cursor file was accepted");
+		} catch (MPCException e) {
+			Assert.assertTrue(e.getMessage().contains("older version"));
+		}
+	}
+
+	@Test
+	public void testOtherVersionIsRejected() throws IOException {
+		ConsumptionCursors cursors = open(0, 1);
+		cursors.close();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(4);
+			raf.writeInt(ConsumptionCursors.FORMAT_VERSION + 1);
+		}
+		try {
+			open(0, 1);
+			Assert.fail("A cursor file of another version was accepted");
+		} catch (MPCException e) {
+			Assert.assertTrue(e.getMessage().contains("format version"));
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.logging.Level;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.DealerDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.DealerServer;
+import dk.alexandra.fresco.suite.spdz.storage.TrustedDealer;
+
+public class TestDealerDataSupplier {
+
+	private static final BigInteger MOD = new BigInteger(
+			"6703903964971298549787012499102923063739682910296196688861780721860882015036773488400937149083451713845015929093243025426876941405973284973216824503042159");
+	private static final int PARTIES = 3;
+	private static final int BATCH_SIZE = 3;
+
+	private static DealerServer server;
+	private static DealerDataSupplier[] suppliers;
+	private static BigInteger alpha;
+
+	@BeforeClass
+	public static void startDealer() throws IOException {
+		Reporter.init(Level.INFO);
+		server = new DealerServer(new TrustedDealer(MOD, PARTIES, 5, 42), 0);
+		suppliers = new DealerDataSupplier[PARTIES];
+		alpha = BigInteger.ZERO;
+		for (int i = 0; i < PARTIES; i++) {
+			suppliers[i] = new DealerDataSupplier("localhost",
+					server.getPort(), i + 1, 0, PARTIES, BATCH_SIZE);
+			alpha = alpha.add(suppliers[i].getSSK());
+		}
+		alpha = alpha.mod(MOD);
+	}
+
+	@AfterClass
+	public static void stopDealer() throws IOException {
+		for (DealerDataSupplier s : suppliers) {
+			s.shutdown();
+		}
+		server.close();
+	}
+
+	/**
+	 * Opens a sharing and checks its MAC.
+	 */
+	private static BigInteger open(SpdzElement[] shares) {
+		BigInteger value = BigInteger.ZERO;
+		BigInteger mac = BigInteger.ZERO;
+		for (SpdzElement e : shares) {
+			value = value.add(e.getShare());
+			mac = mac.add(e.getMac());
+		}
+		value = value.mod(MOD);
+		Assert.assertEquals(value.multiply(alpha).mod(MOD), mac.mod(MOD));
+		return value;
+	}
+
+	@Test
+	public void testModulus() {
+		for (DealerDataSupplier s : suppliers) {
+			Assert.assertEquals(MOD, s.getModulus());
+		}
+	}
+
+	@Test
+	public void testTriplesAcrossBatches() {
+		BigInteger previous = null;
+		for (int i = 0; i < 2 * BATCH_SIZE + 1; i++) {
+			SpdzElement[] a = new SpdzElement[PARTIES];
+			SpdzElement[] b = new SpdzElement[PARTIES];
+			SpdzElement[] c = new SpdzElement[PARTIES];
+			for (int p = 0; p < PARTIES; p++) {
+				SpdzTriple t = suppliers[p].getNextTriple();
+				a[p] = t.getA();
+				b[p] = t.getB();
+				c[p] = t.getC();
+			}
+			BigInteger openA = open(a);
+			Assert.assertEquals(openA.multiply(open(b)).mod(MOD), open(c));
+			Assert.assertNotEquals(previous, openA);
+			previous = openA;
+		}
+	}
+
+	@Test
+	public void testSquares() {
+		for (int i = 0; i < BATCH_SIZE + 1; i++) {
+			SpdzElement[] a = new SpdzElement[PARTIES];
+			SpdzElement[] aa = new SpdzElement[PARTIES];
+			for (int p = 0; p < PARTIES; p++) {
+				SpdzSquare s = suppliers[p].getNextSquare();
+				a[p] = s.getA();
+				aa[p] = s.getB();
+			}
+			Assert.assertEquals(open(a).pow(2).mod(MOD), open(aa));
+		}
+	}
+
+	@Test
+	public void testBits() {
+		for (int i = 0; i < 2 * BATCH_SIZE; i++) {
+			SpdzElement[] bit = new SpdzElement[PARTIES];
+			for (int p = 0; p < PARTIES; p++) {
+				bit[p] = suppliers[p].getNextBit().value;
+			}
+			BigInteger value = open(bit);
+			Assert.assertTrue(value.equals(BigInteger.ZERO)
+					|| value.equals(BigInteger.ONE));
+		}
+	}
+
+	@Test
+	public void testExpPipes() {
+		SpdzSInt[][] pipes = new SpdzSInt[PARTIES][];
+		for (int p = 0; p < PARTIES; p++) {
+			pipes[p] = suppliers[p].getNextExpPipe(4);
+			Assert.assertEquals(4, pipes[p].length);
+		}
+		BigInteger[] values = new BigInteger[4];
+		for (int i = 0; i < 4; i++) {
+			SpdzElement[] shares = new SpdzElement[PARTIES];
+			for (int p = 0; p < PARTIES; p++) {
+				shares[p] = pipes[p][i].value;
+			}
+			values[i] = open(shares);
+		}
+		Assert.assertEquals(BigInteger.ONE, values[0].multiply(values[1])
+				.mod(MOD));
+		Assert.assertEquals(values[1].pow(3).mod(MOD), values[3]);
+	}
+
+	@Test
+	public void testInputMasks() {
+		for (int toward = 1; toward <= PARTIES; toward++) {
+			for (int i = 0; i < BATCH_SIZE + 1; i++) {
+				SpdzElement[] shares = new SpdzElement[PARTIES];
+				BigInteger real = null;
+				for (int p = 0; p < PARTIES; p++) {
+					SpdzInputMask mask = suppliers[p].getNextInputMask(toward);
+					shares[p] = mask.getMask();
+					if (p + 1 == toward) {
+						real = mask.getRealValue();
+					} else {
+						Assert.assertNull(mask.getRealValue());
+					}
+				}
+				Assert.assertEquals(real, open(shares));
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl;
+import dk.alexandra.fresco.suite.spdz.storage.InitializeStorage;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
+
+public class TestExpPipeLength {
+
+	private static final int noOfParties = 2;
+	private static final int pipeLength = 8;
+
+	private DataSupplier[] createSuppliers(Storage storage) {
+		DataSupplier[] suppliers = new DataSupplier[noOfParties];
+		for (int i = 0; i < noOfParties; i++) {
+			suppliers[i] = new DataSupplierImpl(storage,
+					SpdzStorageConstants.STORAGE_NAME_PREFIX + (i + 1), 0, 1,
+					noOfParties);
+		}
+		return suppliers;
+	}
+
+	private BigInteger open(SpdzSInt[] shares, BigInteger modulus) {
+		BigInteger res = BigInteger.ZERO;
+		for (SpdzSInt share : shares) {
+			res = res.add(share.value.getShare());
+		}
+		return res.mod(modulus);
+	}
+
+	@Test
+	public void testPrefixOfShortPipes() {
+		Storage storage = new InMemoryStorage();
+		InitializeStorage.initStorage(new Storage[] { storage }, noOfParties,
+				0, 0, 0, 3, pipeLength);
+		DataSupplier[] suppliers = createSuppliers(storage);
+		BigInteger modulus = suppliers[0].getModulus();
+
+		SpdzSInt[][] pipes = new SpdzSInt[noOfParties][];
+		for (int i = 0; i < noOfParties; i++) {
+			pipes[i] = suppliers[i].getNextExpPipe(3);
+			Assert.assertEquals(3, pipes[i].length);
+		}
+		BigInteger rInv = open(new SpdzSInt[] { pipes[0][0], pipes[1][0] },
+				modulus);
+		BigInteger r = open(new SpdzSInt[] { pipes[0][1], pipes[1][1] },
+				modulus);
+		BigInteger r2 = open(new SpdzSInt[] { pipes[0][2], pipes[1][2] },
+				modulus);
+		Assert.assertEquals(BigInteger.ONE, rInv.multiply(r).mod(modulus));
+		Assert.assertEquals(r.multiply(r).mod(modulus), r2);
+
+		// The full pipe is still available
+		Assert.assertEquals(pipeLength, suppliers[0].getNextExpPipe().length);
+	}
+
+	@Test(expected = MPCException.class)
+	public void testPrefixLongerThanPipe() {
+		Storage storage = new InMemoryStorage();
+		InitializeStorage.initStorage(new Storage[] { storage }, noOfParties,
+				0, 0, 0, 1, pipeLength);
+		createSuppliers(storage)[0].getNextExpPipe(pipeLength + 1);
+	}
+}
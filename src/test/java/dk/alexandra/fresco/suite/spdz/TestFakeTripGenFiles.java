@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.ConsumptionCursors;
+import dk.alexandra.fresco.suite.spdz.storage.DataRetrieverImpl;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl;
+import dk.alexandra.fresco.suite.spdz.storage.FakeTripGen;
+import dk.alexandra.fresco.suite.spdz.storage.InputMaskSeed;
+import dk.alexandra.fresco.suite.spdz.storage.FileDataSupplier;
+
+/**
+ * Checks that the files written by FakeTripGen can be read by
+ * DataRetrieverImpl and FileDataSupplier and contain correct SPDZ sharings.
+ */
+public class TestFakeTripGenFiles {
+
+	private static final int noOfParties = 2;
+	private static final BigInteger modulus = new BigInteger(
+			"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+
+	private BigInteger alpha;
+
+	private BigInteger open(SpdzElement... shares) {
+		BigInteger value = BigInteger.ZERO;
+		BigInteger mac = BigInteger.ZERO;
+		for (SpdzElement share : shares) {
+			value = value.add(share.getShare());
+			mac = mac.add(share.getMac());
+		}
+		value = value.mod(modulus);
+		Assert.assertEquals(value.multiply(alpha).mod(modulus), mac.mod(modulus));
+		return value;
+	}
+
+	private File generate() throws IOException {
+		File dir = Files.createTempDirectory("fresco-fake-trip-gen").toFile();
+		FakeTripGen.main(new String[] { "-m=" + modulus, "-t=1000",
+				"-i=50", "-b=200", "-e=10", "-l=5", "-p=" + noOfParties,
+				"-d=" + dir.getAbsolutePath(), "-w=3", "-s=150" });
+		return dir;
+	}
+
+	private void delete(File dir) {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testGeneratedFilesAreReadable() throws IOException {
+		File dir = generate();
+		try {
+			Storage storage = new InMemoryStorage();
+			DataSupplier[] suppliers = new DataSupplier[noOfParties];
+			for (int i = 0; i < noOfParties; i++) {
+				String storageName = "fake-trip-gen-" + (i + 1);
+				new DataRetrieverImpl(new ResourcePoolImpl(i + 1, noOfParties,
+						null, storage, null, null, null, null),
+						dir.getAbsolutePath(), storageName).fetchAll();
+				suppliers[i] = new DataSupplierImpl(storage, storageName, 0,
+						1, noOfParties);
+			}
+			checkSuppliers(suppliers);
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void testGeneratedFilesAreStreamed() throws IOException {
+		File dir = generate();
+		FileDataSupplier[] suppliers = new FileDataSupplier[noOfParties];
+		try {
+			for (int i = 0; i < noOfParties; i++) {
+				String path = dir.getAbsolutePath();
+				ConsumptionCursors cursors = new ConsumptionCursors(new File(
+						dir, "cursors" + (i + 1)), FileDataSupplier.dataSetId(
+						path, i + 1), 0, 1, noOfParties,
+						ConsumptionCursors.DEFAULT_BLOCK_SIZE);
+				suppliers[i] = new FileDataSupplier(path, i + 1, 1,
+						noOfParties, cursors);
+			}
+			checkSuppliers(suppliers);
+		} finally {
+			for (FileDataSupplier supplier : suppliers) {
+				if (supplier != null) {
+					supplier.shutdown();
+				}
+			}
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void testOnlyTheInputterStoresMasks() throws IOException {
+		File dir = generate();
+		try {
+			for (int party = 0; party < noOfParties; party++) {
+				for (int inputter = 0; inputter < noOfParties; inputter++) {
+					File masks = new File(dir, "Inputs-p-P" + party + "-"
+							+ inputter);
+					File seed = new File(dir, InputMaskSeed.filename(party,
+							inputter));
+					Assert.assertEquals(party == inputter, masks.exists());
+					Assert.assertEquals(party != inputter, seed.exists());
+					if (party != inputter) {
+						// The number of masks and the seed.
+						Assert.assertEquals(8 + 16, seed.length());
+					}
+				}
+			}
+		} finally {
+			delete(dir);
+		}
+	}
+
+	private void checkSuppliers(DataSupplier[] suppliers) {
+		alpha = BigInteger.ZERO;
+		for (int i = 0; i < noOfParties; i++) {
+			Assert.assertEquals(modulus, suppliers[i].getModulus());
+			alpha = alpha.add(suppliers[i].getSSK());
+		}
+		alpha = alpha.mod(modulus);
+
+		for (int t = 0; t < 1000; t++) {
+			SpdzTriple t1 = suppliers[0].getNextTriple();
+			SpdzTriple t2 = suppliers[1].getNextTriple();
+			BigInteger a = open(t1.getA(), t2.getA());
+			BigInteger b = open(t1.getB(), t2.getB());
+			BigInteger c = open(t1.getC(), t2.getC());
+			Assert.assertEquals(a.multiply(b).mod(modulus), c);
+		}
+		for (int i = 0; i < 150; i++) {
+			SpdzSquare s1 = suppliers[0].getNextSquare();
+			SpdzSquare s2 = suppliers[1].getNextSquare();
+			BigInteger a = open(s1.getA(), s2.getA());
+			Assert.assertEquals(a.multiply(a).mod(modulus),
+					open(s1.getB(), s2.getB()));
+		}
+		for (int i = 0; i < 200; i++) {
+			BigInteger bit = open(suppliers[0].getNextBit().value,
+					suppliers[1].getNextBit().value);
+			Assert.assertTrue(bit.equals(BigInteger.ZERO)
+					|| bit.equals(BigInteger.ONE));
+		}
+		for (int i = 0; i < 10; i++) {
+			SpdzSInt[] p1 = suppliers[0].getNextExpPipe();
+			SpdzSInt[] p2 = suppliers[1].getNextExpPipe();
+			Assert.assertEquals(5, p1.length);
+			BigInteger rInv = open(p1[0].value, p2[0].value);
+			BigInteger r = open(p1[1].value, p2[1].value);
+			Assert.assertEquals(BigInteger.ONE, rInv.multiply(r).mod(modulus));
+			Assert.assertEquals(r.pow(4).mod(modulus),
+					open(p1[4].value, p2[4].value));
+		}
+		for (int inputter = 1; inputter <= noOfParties; inputter++) {
+			for (int i = 0; i < 50; i++) {
+				SpdzInputMask m1 = suppliers[0].getNextInputMask(inputter);
+				SpdzInputMask m2 = suppliers[1].getNextInputMask(inputter);
+				BigInteger mask = open(m1.getMask(), m2.getMask());
+				SpdzInputMask own = (inputter == 1) ? m1 : m2;
+				Assert.assertEquals(mask, own.getRealValue());
+			}
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.network.ScapiNetworkImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.offline.MascotPreprocessor;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplierImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageConstants;
+
+public class TestMascot {
+
+	/**
+	 * A prime which is 1 mod 8, such that the square roots needed for bits
+	 * are not trivial.
+	 */
+	private static final BigInteger MOD = new BigInteger(
+			"170141183460469231731687303715884105793");
+	private static final String NAME = SpdzStorageConstants.STORAGE_NAME_PREFIX;
+	private static final int THREADS = 2;
+	private static final int TRIPLES = 7;
+	private static final int SQUARES = 4;
+	private static final int BITS = 5;
+	private static final int MASKS = 3;
+	private static final int EXP_PIPES = 2;
+	private static final int EXP_PIPE_LENGTH = 5;
+
+	private final Map<Integer, Storage> storages = new ConcurrentHashMap<Integer, Storage>();
+
+	private void run(int noOfParties) throws Exception {
+		List<Integer> ports = new ArrayList<Integer>(noOfParties);
+		for (int i = 1; i <= noOfParties; i++) {
+			ports.add(9000 + i);
+		}
+		Map<Integer, NetworkConfiguration> netConf = TestConfiguration
+				.getNetworkConfigurations(noOfParties, ports, Level.INFO);
+		Map<Integer, TestThreadConfiguration> conf = new HashMap<Integer, TestThreadConfiguration>();
+		for (int i : netConf.keySet()) {
+			TestThreadConfiguration ttc = new TestThreadConfiguration();
+			ttc.netConf = netConf.get(i);
+			conf.put(i, ttc);
+		}
+		TestThreadRunner.run(new TestThreadFactory() {
+			@Override
+			public TestThread next(TestThreadConfiguration conf) {
+				return new TestThread() {
+					@Override
+					public void test() throws Exception {
+						Reporter.init(Level.INFO);
+						ScapiNetworkImpl network = new ScapiNetworkImpl(
+								conf.netConf, THREADS);
+						network.connect(10000);
+						Storage storage = new InMemoryStorage();
+						new MascotPreprocessor(network, conf.getMyId(),
+								conf.getNoOfParties(), MOD, new SecureRandom())
+								.fillStorage(storage, NAME + conf.getMyId(),
+										THREADS, TRIPLES, SQUARES, BITS,
+										MASKS, EXP_PIPES, EXP_PIPE_LENGTH);
+						network.close();
+						storages.put(conf.getMyId(), storage);
+					}
+				};
+			}
+		}, conf);
+		check(noOfParties);
+	}
+
+	/**
+	 * Opens the data of all parties as each thread would read it, and checks
+	 * values and MACs.
+	 */
+	private void check(int noOfParties) {
+		DataSupplier[][] suppliers = new DataSupplier[THREADS][noOfParties];
+		BigInteger alpha = BigInteger.ZERO;
+		for (int p = 0; p < noOfParties; p++) {
+			for (int t = 0; t < THREADS; t++) {
+				suppliers[t][p] = new DataSupplierImpl(storages.get(p + 1),
+						NAME + (p + 1), t, THREADS, noOfParties);
+			}
+			Assert.assertEquals(MOD, suppliers[0][p].getModulus());
+			alpha = alpha.add(suppliers[0][p].getSSK());
+		}
+		alpha = alpha.mod(MOD);
+		for (DataSupplier[] s : suppliers) {
+			for (int i = 0; i < TRIPLES; i++) {
+				SpdzElement[][] shares = new SpdzElement[3][noOfParties];
+				for (int p = 0; p < noOfParties; p++) {
+					SpdzTriple t = s[p].getNextTriple();
+					shares[0][p] = t.getA();
+					shares[1][p] = t.getB();
+					shares[2][p] = t.getC();
+				}
+				Assert.assertEquals(open(shares[0], alpha).multiply(
+						open(shares[1], alpha)).mod(MOD), open(shares[2], alpha));
+			}
+			for (int i = 0; i < SQUARES; i++) {
+				SpdzElement[][] shares = new SpdzElement[2][noOfParties];
+				for (int p = 0; p < noOfParties; p++) {
+					SpdzSquare square = s[p].getNextSquare();
+					shares[0][p] = square.getA();
+					shares[1][p] = square.getB();
+				}
+				Assert.assertEquals(open(shares[0], alpha).pow(2).mod(MOD),
+						open(shares[1], alpha));
+			}
+			for (int i = 0; i < BITS; i++) {
+				SpdzElement[] shares = new SpdzElement[noOfParties];
+				for (int p = 0; p < noOfParties; p++) {
+					SpdzSInt bit = s[p].getNextBit();
+					shares[p] = bit.value;
+				}
+				BigInteger bit = open(shares, alpha);
+				Assert.assertTrue(bit.equals(BigInteger.ZERO)
+						|| bit.equals(BigInteger.ONE));
+			}
+			for (int i = 0; i < EXP_PIPES; i++) {
+				SpdzElement[][] shares = new SpdzElement[EXP_PIPE_LENGTH][noOfParties];
+				for (int p = 0; p < noOfParties; p++) {
+					SpdzSInt[] pipe = s[p].getNextExpPipe();
+					Assert.assertEquals(EXP_PIPE_LENGTH, pipe.length);
+					for (int e = 0; e < EXP_PIPE_LENGTH; e++) {
+						shares[e][p] = pipe[e].value;
+					}
+				}
+				BigInteger r = open(shares[1], alpha);
+				Assert.assertEquals(r.modInverse(MOD), open(shares[0], alpha));
+				for (int e = 2; e < EXP_PIPE_LENGTH; e++) {
+					Assert.assertEquals(r.pow(e).mod(MOD), open(shares[e], alpha));
+				}
+			}
+			for (int toward = 1; toward <= noOfParties; toward++) {
+				for (int i = 0; i < MASKS; i++) {
+					SpdzElement[] shares = new SpdzElement[noOfParties];
+					BigInteger real = null;
+					for (int p = 0; p < noOfParties; p++) {
+						SpdzInputMask mask = s[p].getNextInputMask(toward);
+						shares[p] = mask.getMask();
+						if (p + 1 == toward) {
+							real = mask.getRealValue();
+						} else {
+							Assert.assertNull(mask.getRealValue());
+						}
+					}
+					Assert.assertEquals(real, open(shares, alpha));
+				}
+			}
+		}
+	}
+
+	private static BigInteger open(SpdzElement[] shares, BigInteger alpha) {
+		BigInteger value = BigInteger.ZERO;
+		BigInteger mac = BigInteger.ZERO;
+		for (SpdzElement e : shares) {
+			value = value.add(e.getShare());
+			mac = mac.add(e.getMac());
+		}
+		value = value.mod(MOD);
+		Assert.assertEquals(value.multiply(alpha).mod(MOD), mac.mod(MOD));
+		return value;
+	}
+
+	@Test
+	public void testTwoParties() throws Exception {
+		run(2);
+	}
+
+	@Test
+	public void testThreeParties() throws Exception {
+		run(3);
+	}
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+import java.util.logging.Level;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzElement;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSquare;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.DataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.PrefetchingDataSupplier;
+
+public class TestPrefetchingDataSupplier {
+
+	@BeforeClass
+	public static void initReporter() {
+		Reporter.init(Level.INFO);
+	}
+
+	/**
+	 * Supplies a fixed amount of elements, numbered consecutively.
+	 */
+	private static class CountingSupplier implements DataSupplier {
+
+		private final int amount;
+		private int triples, squares, bits, expPipes;
+		private int[] inputMasks = new int[2];
+
+		public CountingSupplier(int amount) {
+			this.amount = amount;
+		}
+
+		private SpdzElement element(int i) {
+			return new SpdzElement(BigInteger.valueOf(i), BigInteger.valueOf(i));
+		}
+
+		@Override
+		public SpdzTriple getNextTriple() {
+			if (triples == amount) {
+				throw new MPCException("Triple no. " + triples
+						+ " was not present in the storage");
+			}
+			int i = triples++;
+			return new SpdzTriple(element(i), element(i), element(i));
+		}
+
+		@Override
+		public SpdzTriple[] getNextTriples(int amount) {
+			SpdzTriple[] res = new SpdzTriple[amount];
+			for (int i = 0; i < amount; i++) {
+				res[i] = getNextTriple();
+			}
+			return res;
+		}
+
+		@Override
+		public SpdzSquare getNextSquare() {
+			if (squares == amount) {
+				throw new MPCException("Square no. " + squares
+						+ " was not present in the storage");
+			}
+			int i = squares++;
+			return new SpdzSquare(element(i), element(i));
+		}
+
+		@Override
+		public SpdzSInt[] getNextExpPipe() {
+			if (expPipes == amount) {
+				throw new MPCException("expPipe no. " + expPipes
+						+ " was not present in the storage");
+			}
+			return new SpdzSInt[] { new SpdzSInt(element(expPipes++)) };
+		}
+
+		@Override
+		public SpdzSInt[] getNextExpPipe(int length) {
+			return getNextExpPipe();
+		}
+
+		@Override
+		public SpdzInputMask getNextInputMask(int towardPlayerID) {
+			if (inputMasks[towardPlayerID - 1] == amount) {
+				throw new MPCException("Mask was not present in the storage");
+			}
+			return new SpdzInputMask(
+					element(inputMasks[towardPlayerID - 1]++));
+		}
+
+		@Override
+		public SpdzSInt getNextBit() {
+			if (bits == amount) {
+				throw new MPCException("Bit no. " + bits
+						+ " was not present in the storage");
+			}
+			return new SpdzSInt(element(bits++));
+		}
+
+		@Override
+		public BigInteger getModulus() {
+			return BigInteger.valueOf(7);
+		}
+
+		@Override
+		public BigInteger getSSK() {
+			return BigInteger.ONE;
+		}
+	}
+
+	@Test
+	public void testOrderIsPreserved() {
+		int amount = 1000;
+		PrefetchingDataSupplier supplier = new PrefetchingDataSupplier(
+				new CountingSupplier(amount), 10, 2);
+		try {
+			for (int i = 0; i < amount; i++) {
+				Assert.assertEquals(BigInteger.valueOf(i), supplier
+						.getNextTriple().getA().getShare());
+				Assert.assertEquals(BigInteger.valueOf(i), supplier
+						.getNextBit().value.getShare());
+				Assert.assertEquals(BigInteger.valueOf(i), supplier
+						.getNextInputMask(2).getMask().getShare());
+			}
+			Assert.assertEquals(BigInteger.valueOf(0),
+					supplier.getNextInputMask(1).getMask().getShare());
+			Assert.assertEquals(BigInteger.valueOf(0),
+					supplier.getNextExpPipe()[0].value.getShare());
+			Assert.assertEquals(BigInteger.valueOf(7), supplier.getModulus());
+		} finally {
+			supplier.shutdown();
+		}
+	}
+
+	@Test
+	public void testRunningOutIsReported() {
+		PrefetchingDataSupplier supplier = new PrefetchingDataSupplier(
+				new CountingSupplier(3), 10, 2);
+		try {
+			for (int i = 0; i < 3; i++) {
+				supplier.getNextTriple();
+			}
+			supplier.getNextTriple();
+			Assert.fail("Expected the supplier to run out of triples");
+		} catch (MPCException e) {
+			Assert.assertTrue(e.getCause().getMessage()
+					.startsWith("Triple no. 3"));
+		} finally {
+			supplier.shutdown();
+		}
+	}
+
+	/**
+	 * An unexpected exception stops the background thread, which must not
+	 * leave the evaluating threads waiting for data.
+	 */
+	@Test(timeout = 10000)
+	public void testFailureOfSourceIsReported() {
+		PrefetchingDataSupplier supplier = new PrefetchingDataSupplier(
+				new CountingSupplier(1000) {
+					@Override
+					public SpdzSquare getNextSquare() {
+						throw new IllegalStateException("Storage is broken");
+					}
+				}, 10, 2);
+		try {
+			supplier.getNextBit();
+			for (int i = 0; i < 1000; i++) {
+				supplier.getNextTriple();
+			}
+			Assert.fail("Expected the failure of the source to be reported");
+		} catch (MPCException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		} finally {
+			supplier.shutdown();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.suite.spdz.storage.FakeTripGen;
+import dk.alexandra.fresco.suite.spdz.utils.PreprocessedDataValidator;
+import dk.alexandra.fresco.suite.spdz.utils.PreprocessedDataValidator.Report;
+
+public class TestPreprocessedDataValidator {
+
+	private static final int noOfParties = 3;
+	private static final BigInteger modulus = new BigInteger(
+			"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+	// The modulus takes 64 bytes.
+	private static final int size = 64;
+
+	private File dir;
+
+	@Before
+	public void generate() throws IOException {
+		dir = Files.createTempDirectory("fresco-validator").toFile();
+		FakeTripGen.main(new String[] { "-m=" + modulus, "-t=40000",
+				"-i=100", "-b=300", "-e=20", "-l=6", "-p=" + noOfParties,
+				"-d=" + dir.getAbsolutePath(), "-w=2", "-s=50" });
+	}
+
+	@After
+	public void cleanUp() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	private void flipByte(String filename, long position) throws IOException {
+		try (RandomAccessFile f = new RandomAccessFile(new File(dir,
+				filename), "rw")) {
+			f.seek(position);
+			int b = f.read();
+			f.seek(position);
+			f.write(b ^ 1);
+		}
+	}
+
+	@Test
+	public void testValidData() {
+		PreprocessedDataValidator validator = new PreprocessedDataValidator(
+				dir, noOfParties, 4);
+		for (Report report : validator.validateAll()) {
+			Assert.assertTrue(report.toString(), report.isValid());
+		}
+		Assert.assertEquals(40000, validator.validateTriples().records);
+		Assert.assertEquals(20, validator.validateExpPipes().records);
+		Assert.assertEquals(100, validator.validateInputMasks(2).records);
+		Assert.assertEquals(50, validator.validateSquares().records);
+	}
+
+	@Test
+	public void testFindsFirstBadTriple() throws IOException {
+		// Corrupt the c share of triple 30000 and the a mac of triple 35000.
+		flipByte("Triples-p-P1", 30000L * 6 * size + 4 * size + 10);
+		flipByte("Triples-p-P2", 35000L * 6 * size + size + 10);
+		Report report = new PreprocessedDataValidator(dir, noOfParties, 4)
+				.validateTriples();
+		Assert.assertEquals(30000, report.firstBadIndex);
+		Assert.assertEquals(40000, report.records);
+	}
+
+	@Test
+	public void testFindsBadMasksAndBits() throws IOException {
+		// The real value of the masks toward party 2 follows the mac.
+		flipByte("Inputs-p-P1-1", 7 * 3 * size + 2 * size + 5);
+		flipByte("Bits-p-P0", 250 * 2 * size + 3);
+		PreprocessedDataValidator validator = new PreprocessedDataValidator(
+				dir, noOfParties, 2);
+		Assert.assertEquals(7, validator.validateInputMasks(2).firstBadIndex);
+		Assert.assertTrue(validator.validateInputMasks(1).isValid());
+		Assert.assertEquals(250, validator.validateBits().firstBadIndex);
+		flipByte("Squares-p-P2", 12 * 4 * size + 3 * size + 1);
+		Assert.assertEquals(12, validator.validateSquares().firstBadIndex);
+	}
+
+	@Test(expected = MPCException.class)
+	public void testTruncatedFile() throws IOException {
+		try (RandomAccessFile f = new RandomAccessFile(new File(dir,
+				"Exp-pipe-p-P1"), "rw")) {
+			f.setLength(f.length() - 1);
+		}
+		new PreprocessedDataValidator(dir, noOfParties, 2).validateExpPipes();
+	}
+}
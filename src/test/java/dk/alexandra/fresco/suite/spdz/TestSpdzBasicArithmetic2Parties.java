@@ -26,35 +26,50 @@
  *******************************************************************************/
 package dk.alexandra.fresco.suite.spdz;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import dk.alexandra.fresco.IntegrationTest;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.TestApplication;
 import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.sce.SCE;
+import dk.alexandra.fresco.framework.sce.SCEFactory;
 import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
 import dk.alexandra.fresco.framework.sce.resources.storage.MySQLStorage;
 import dk.alexandra.fresco.framework.sce.resources.storage.StorageStrategy;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.builder.NumericIOBuilder;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfiguration;
 import dk.alexandra.fresco.suite.spdz.configuration.SpdzConfigurationFromProperties;
 import dk.alexandra.fresco.suite.spdz.evaluation.strategy.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.storage.InitializeStorage;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzFactory;
+import dk.alexandra.fresco.suite.spdz.utils.Util;
 
 /**
  * Basic arithmetic tests using the SPDZ protocol suite with 2 parties. Have to
@@ -68,6 +83,21 @@ public class TestSpdzBasicArithmetic2Parties {
 
 	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
 			StorageStrategy storageStrategy) throws Exception {
+		dk.alexandra.fresco.framework.sce.resources.storage.Storage storage = null;
+		switch (storageStrategy) {
+		case IN_MEMORY:
+			storage = inMemStore;
+			break;
+		case MYSQL:
+			storage = mySQLStore;
+			break;
+		}
+		runTest(f, evalStrategy, storage, 9000);
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			dk.alexandra.fresco.framework.sce.resources.storage.Storage storage,
+			int basePort) throws Exception {
 		Level logLevel = Level.FINE;
 		Reporter.init(logLevel);
 
@@ -76,7 +106,7 @@ public class TestSpdzBasicArithmetic2Parties {
 		// here instead of relying on ephemeral ports which are often > 9999.
 		List<Integer> ports = new ArrayList<Integer>(noOfParties);
 		for (int i = 1; i <= noOfParties; i++) {
-			ports.add(9000 + i);
+			ports.add(basePort + i);
 		}
 
 		Map<Integer, NetworkConfiguration> netConf = TestConfiguration
@@ -97,18 +127,9 @@ public class TestSpdzBasicArithmetic2Parties {
 													// here.
 			int noOfVMThreads = 3;
 			int noOfThreads = 3;
-			ProtocolSuite suite = SpdzProtocolSuite.getInstance(playerId);
+			ProtocolSuite suite = new SpdzProtocolSuite();
 			ProtocolEvaluator evaluator = EvaluationStrategy
 					.fromEnum(evalStrategy);
-			dk.alexandra.fresco.framework.sce.resources.storage.Storage storage = null;
-			switch (storageStrategy) {
-			case IN_MEMORY:
-				storage = inMemStore;
-				break;
-			case MYSQL:
-				storage = mySQLStore;
-				break;
-			}
 			ttc.sceConf = new TestSCEConfiguration(suite, evaluator,
 					noOfThreads, noOfVMThreads, ttc.netConf, storage,
 					useSecureConnection);
@@ -133,7 +154,121 @@ public class TestSpdzBasicArithmetic2Parties {
 		// inMemStore, mySQLStore };
 		dk.alexandra.fresco.framework.sce.resources.storage.Storage[] storages = new dk.alexandra.fresco.framework.sce.resources.storage.Storage[] { inMemStore };
 		InitializeStorage.initStorage(storages, noOfParties, 10000, 1000,
-				10000, 100);
+				10000, 100, Util.EXP_PIPE_SIZE, 1000);
+	}
+
+	/**
+	 * Squares the inputs using square pairs and compares with the squares
+	 * computed using triples.
+	 */
+	private static class TestSquare extends TestThreadFactory {
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+				@Override
+				public void test() throws Exception {
+					final int[] openInputs = new int[] { 0, 1, -2, 3, 12345,
+							-67890 };
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 5263818472645371094L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							SpdzFactory prov = (SpdzFactory) provider;
+							NumericIOBuilder ioBuilder = new NumericIOBuilder(
+									prov);
+							BigInteger[] values = new BigInteger[openInputs.length];
+							for (int i = 0; i < values.length; i++) {
+								values[i] = BigInteger.valueOf(openInputs[i]);
+							}
+							SInt[] inputs = ioBuilder.inputArray(values, 1);
+							ProtocolProducer inp = ioBuilder.getCircuit();
+							ioBuilder.reset();
+							ParallelProtocolProducer squares = new ParallelProtocolProducer();
+							SInt[] squared = new SInt[inputs.length];
+							SInt[] multiplied = new SInt[inputs.length];
+							for (int i = 0; i < inputs.length; i++) {
+								squared[i] = prov.getSInt();
+								multiplied[i] = prov.getSInt();
+								squares.append(prov.getSquareCircuit(
+										inputs[i], squared[i]));
+								squares.append(prov.getMultCircuit(inputs[i],
+										inputs[i], multiplied[i]));
+							}
+							OInt[] out1 = ioBuilder.outputArray(squared);
+							OInt[] out2 = ioBuilder.outputArray(multiplied);
+							this.outputs = new OInt[2 * inputs.length];
+							System.arraycopy(out1, 0, outputs, 0, out1.length);
+							System.arraycopy(out2, 0, outputs, out1.length,
+									out2.length);
+							return new SequentialProtocolProducer(inp,
+									squares, ioBuilder.getCircuit());
+						}
+					};
+					SCE sce = SCEFactory.getSCEFromConfiguration(conf.sceConf,
+							conf.protocolSuiteConf);
+					sce.runApplication(app);
+					for (int i = 0; i < openInputs.length; i++) {
+						BigInteger expected = BigInteger.valueOf(openInputs[i])
+								.pow(2);
+						Assert.assertEquals(expected,
+								app.getOutputs()[i].getValue());
+						Assert.assertEquals(expected, app.getOutputs()[i
+								+ openInputs.length].getValue());
+					}
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_Square_Sequential() throws Exception {
+		runTest(new TestSquare(), EvaluationStrategy.SEQUENTIAL,
+				StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Square_ParallelBatched() throws Exception {
+		runTest(new TestSquare(), EvaluationStrategy.PARALLEL_BATCHED,
+				StorageStrategy.IN_MEMORY);
+	}
+
+	/**
+	 * Runs two computations with different moduli at the same time in this
+	 * JVM. The second one copies values, which serializes them.
+	 */
+	@Test
+	public void test_Two_Moduli_Concurrently() throws Exception {
+		final InMemoryStorage otherStore = new InMemoryStorage();
+		InitializeStorage.initStorage(
+				new dk.alexandra.fresco.framework.sce.resources.storage.Storage[] { otherStore },
+				noOfParties, 100, 100, 100, 0, Util.EXP_PIPE_SIZE, 0,
+				BigInteger.valueOf(2).pow(127).subtract(BigInteger.ONE));
+		final Exception[] failure = new Exception[1];
+		Thread other = new Thread() {
+			@Override
+			public void run() {
+				try {
+					runTest(new BasicArithmeticTests.TestCopyProtocol(),
+							EvaluationStrategy.SEQUENTIAL, otherStore, 9100);
+					runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(),
+							EvaluationStrategy.SEQUENTIAL, otherStore, 9100);
+				} catch (Exception e) {
+					failure[0] = e;
+				}
+			}
+		};
+		other.start();
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+		runTest(new BasicArithmeticTests.TestCopyProtocol(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+		other.join();
+		if (failure[0] != null) {
+			throw failure[0];
+		}
 	}
 
 	@Test
@@ -191,6 +326,24 @@ public class TestSpdzBasicArithmetic2Parties {
 				StorageStrategy.IN_MEMORY);
 	}
 
+	@Test
+	public void test_Vector_Mult_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Vector_Mult_ParallelBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(),
+				EvaluationStrategy.PARALLEL_BATCHED, StorageStrategy.IN_MEMORY);
+	}
+
+	@Test
+	public void test_Input_Array_From_Other_Party_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestInputArrayFromOtherParty(),
+				EvaluationStrategy.SEQUENTIAL, StorageStrategy.IN_MEMORY);
+	}
+
 	// TODO: Test with different security parameters.
 
 	@Category(IntegrationTest.class)
@@ -87,7 +87,7 @@ public class TestSpdzComparison {
 													// here.
 			int noOfVMThreads = 3;
 			int noOfThreads = 3;
-			ProtocolSuite suite = SpdzProtocolSuite.getInstance(playerId);
+			ProtocolSuite suite = new SpdzProtocolSuite();
 			ProtocolEvaluator evaluator = EvaluationStrategy
 					.fromEnum(evalStrategy);
 			dk.alexandra.fresco.framework.sce.resources.storage.Storage storage = null;
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.compare.ComparisonProtocolFactoryImpl;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.helper.builder.ComparisonProtocolBuilder;
+import dk.alexandra.fresco.lib.helper.builder.NumericIOBuilder;
+import dk.alexandra.fresco.lib.helper.builder.NumericProtocolBuilder;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.lib.math.PreprocessedNumericBitFactory;
+import dk.alexandra.fresco.lib.math.exp.ExpFromOIntFactory;
+import dk.alexandra.fresco.lib.math.exp.PreprocessedExpPipeFactory;
+import dk.alexandra.fresco.lib.math.inv.LocalInversionFactory;
+import dk.alexandra.fresco.suite.spdz.utils.PreprocessingDemand;
+import dk.alexandra.fresco.suite.spdz.utils.SpdzDemandEstimator;
+
+public class TestSpdzDemandEstimator {
+
+	private static final BigInteger modulus = new BigInteger(
+			"6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+
+	@Test
+	public void testCountsPreprocessedData() {
+		Application app = new Application() {
+
+			private static final long serialVersionUID = -2950263417519376543L;
+
+			@Override
+			public ProtocolProducer prepareApplication(ProtocolFactory provider) {
+				BasicNumericFactory factory = (BasicNumericFactory) provider;
+				NumericIOBuilder ioBuilder = new NumericIOBuilder(factory);
+				SInt[] left = ioBuilder.inputArray(10, 1);
+				SInt[] right = ioBuilder.inputArray(10, 2);
+				SInt single = ioBuilder.input(BigInteger.ONE, 2);
+				ProtocolProducer inputs = ioBuilder.getCircuit();
+				ioBuilder.reset();
+
+				NumericProtocolBuilder builder = new NumericProtocolBuilder(
+						factory);
+				SInt[] products = builder.mult(left, right);
+				SInt product = builder.mult(products[0], single);
+				ProtocolProducer circ = builder.getCircuit();
+
+				((PreprocessedNumericBitFactory) provider)
+						.getRandomSecretSharedBit();
+				((PreprocessedExpPipeFactory) provider)
+						.getExponentiationPipe(5);
+
+				ioBuilder.outputArray(products);
+				ioBuilder.output(product);
+				ProtocolProducer outputs = ioBuilder.getCircuit();
+				return new SequentialProtocolProducer(inputs, circ, outputs);
+			}
+		};
+		PreprocessingDemand demand = SpdzDemandEstimator.estimate(app, 1, 2,
+				modulus, 150);
+		Assert.assertEquals(11, demand.getTriples());
+		Assert.assertEquals(1, demand.getBits());
+		Assert.assertEquals(1, demand.getExpPipes());
+		Assert.assertEquals(5, demand.getMaxExpPipeLength());
+		Assert.assertEquals(10, demand.getInputMasks(1));
+		Assert.assertEquals(11, demand.getInputMasks(2));
+		Assert.assertEquals(11, demand.getMaxInputMasks());
+		Assert.assertTrue(demand.getRounds() > 0);
+	}
+
+	@Test
+	public void testComparisonCanBeDryRun() {
+		Application app = new Application() {
+
+			private static final long serialVersionUID = 6001489338364457820L;
+
+			@Override
+			public ProtocolProducer prepareApplication(ProtocolFactory provider) {
+				BasicNumericFactory bnFactory = (BasicNumericFactory) provider;
+				ComparisonProtocolFactoryImpl compFactory = new ComparisonProtocolFactoryImpl(
+						80, bnFactory, (LocalInversionFactory) provider,
+						(PreprocessedNumericBitFactory) provider,
+						(ExpFromOIntFactory) provider,
+						(PreprocessedExpPipeFactory) provider);
+				NumericIOBuilder ioBuilder = new NumericIOBuilder(bnFactory);
+				ComparisonProtocolBuilder compBuilder = new ComparisonProtocolBuilder(
+						compFactory, bnFactory);
+				SequentialProtocolProducer seq = new SequentialProtocolProducer();
+				SInt x = ioBuilder.input(BigInteger.valueOf(3), 1);
+				SInt y = ioBuilder.input(BigInteger.valueOf(5), 1);
+				seq.append(ioBuilder.getCircuit());
+				SInt lt = compBuilder.compare(x, y);
+				SInt eq = compBuilder.compareEqual(x, y);
+				ioBuilder.output(lt);
+				ioBuilder.output(eq);
+				seq.append(compBuilder.getCircuit());
+				seq.append(ioBuilder.getCircuit());
+				return seq;
+			}
+		};
+		PreprocessingDemand demand = SpdzDemandEstimator.estimate(app, 1, 2,
+				modulus, 150);
+		Assert.assertTrue(demand.getTriples() > 0);
+		Assert.assertTrue(demand.getBits() > 0);
+		Assert.assertTrue(demand.getExpPipes() > 0);
+		Assert.assertEquals(2, demand.getInputMasks(1));
+		Assert.assertEquals(0, demand.getInputMasks(2));
+	}
+}
@@ -88,7 +88,7 @@ public class TestSpdzLPSolver2Parties {
 												// here.
 			int noOfVMThreads = 3;
 			int noOfThreads = 3;
-			ProtocolSuite suite = SpdzProtocolSuite.getInstance(playerId);
+			ProtocolSuite suite = new SpdzProtocolSuite();
 			ProtocolEvaluator evaluator = EvaluationStrategy.fromEnum(evalStrategy);			
 			Storage storage = null;
 			switch (storageStrategy) {
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dk.alexandra.fresco.framework.MPCException;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolFactory;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.Reporter;
+import dk.alexandra.fresco.framework.TestApplication;
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.TestConfiguration;
+import dk.alexandra.fresco.framework.network.SCENetwork;
+import dk.alexandra.fresco.framework.sce.SCE;
+import dk.alexandra.fresco.framework.sce.SCEFactory;
+import dk.alexandra.fresco.framework.sce.configuration.TestSCEConfiguration;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.framework.value.OInt;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.framework.value.Value;
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericFactory;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.sequential.SequentialProtocolProducer;
+import dk.alexandra.fresco.suite.spdz2k.configuration.Spdz2kConfiguration;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kElement;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt128;
+import dk.alexandra.fresco.suite.spdz2k.gates.Spdz2kNativeProtocol;
+
+/**
+ * Basic arithmetic tests using the SPDZ2k protocol suite.
+ */
+public class TestSpdz2kBasicArithmetic {
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy)
+			throws Exception {
+		runTest(f, evalStrategy, 2, Spdz2kConfiguration.MAX_BIT_LENGTH);
+	}
+
+	private void runTest(TestThreadFactory f, EvaluationStrategy evalStrategy,
+			int noPlayers, final int bitLength) throws Exception {
+		Level logLevel = Level.FINE;
+		Reporter.init(logLevel);
+
+		// Since SCAPI currently does not work with ports > 9999 we use fixed ports
+		// here instead of relying on ephemeral ports which are often > 9999.
+		List<Integer> ports = new ArrayList<Integer>(noPlayers);
+		for (int i = 1; i <= noPlayers; i++) {
+			ports.add(9000 + i);
+		}
+
+		Map<Integer, NetworkConfiguration> netConf = TestConfiguration.getNetworkConfigurations(noPlayers, ports, logLevel);
+		Map<Integer, TestThreadConfiguration> conf = new HashMap<Integer, TestThreadConfiguration>();
+		for (int playerId : netConf.keySet()) {
+			TestThreadConfiguration ttc = new TestThreadConfiguration();
+			ttc.netConf = netConf.get(playerId);
+			ttc.protocolSuiteConf = new Spdz2kConfiguration() {
+				@Override
+				public int getBitLength() {
+					return bitLength;
+				}
+
+				@Override
+				public boolean useDummyPreprocessing() {
+					return true;
+				}
+			};
+			NetworkConfiguration net = netConf.get(playerId);
+			boolean useSecureConnection = false; // No tests of secure connection here.
+			ProtocolEvaluator evaluator = EvaluationStrategy.fromEnum(evalStrategy);
+			Storage storage = new InMemoryStorage();
+			int noOfThreads = 1;
+			int noOfVMThreads = 3;
+			ttc.sceConf = new TestSCEConfiguration(new Spdz2kProtocolSuite(), evaluator, noOfThreads, noOfVMThreads, net, storage, useSecureConnection);
+			conf.put(playerId, ttc);
+		}
+		TestThreadRunner.run(f, conf);
+	}
+
+	@Test
+	public void test_Input_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestInput(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Copy_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestCopyProtocol(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Lots_Of_Inputs_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_input_array_from_other_party_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestInputArrayFromOtherParty(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_simple_arithmetic_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_moderate_arithmetic_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_vector_mult_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	@Test
+	public void test_Lots_Of_Inputs_Parallel() throws Exception {
+		runTest(new BasicArithmeticTests.TestLotsOfInputs(), EvaluationStrategy.PARALLEL);
+	}
+
+	@Test
+	public void test_vector_mult_SequentialBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestVectorMult(), EvaluationStrategy.SEQUENTIAL_BATCHED);
+	}
+
+	@Test
+	public void test_moderate_arithmetic_ParallelBatched() throws Exception {
+		runTest(new BasicArithmeticTests.TestSumAndMult(), EvaluationStrategy.PARALLEL_BATCHED);
+	}
+
+	@Test
+	public void test_simple_arithmetic_3_parties_Sequential() throws Exception {
+		runTest(new BasicArithmeticTests.TestSimpleMultAndAdd(),
+				EvaluationStrategy.SEQUENTIAL, 3, Spdz2kConfiguration.MAX_BIT_LENGTH);
+	}
+
+	// ======= Wrap around =======
+
+	/**
+	 * Computes x * y + z on inputs of party 1 and 2, and checks that the
+	 * result wraps around like Java arithmetic on ints or longs.
+	 */
+	private static class TestWrapAround extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf,
+							conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					int bitLength = ((Spdz2kConfiguration) conf.protocolSuiteConf)
+							.getBitLength();
+					final long[][] inputs = {
+							{ Long.MAX_VALUE, 3, -7 },
+							{ Integer.MAX_VALUE, Integer.MAX_VALUE, 2 },
+							{ -1, -1, Long.MIN_VALUE },
+							{ 0x123456789L, 0x987654321L, 0 } };
+					final OInt[] results = new OInt[inputs.length];
+					final OInt[] bareInputs = new OInt[inputs.length];
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = 3850962474210457316L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BasicNumericFactory factory = (BasicNumericFactory) provider;
+							ParallelProtocolProducer par = new ParallelProtocolProducer();
+							for (int i = 0; i < inputs.length; i++) {
+								SInt x = factory.getSInt();
+								SInt y = factory.getSInt();
+								SInt xy = factory.getSInt();
+								SInt res = factory.getSInt();
+								results[i] = factory.getOInt();
+								bareInputs[i] = factory.getOInt();
+								par.append(new SequentialProtocolProducer(
+										new ParallelProtocolProducer(
+												factory.getCloseCircuit(1,
+														factory.getOInt(BigInteger.valueOf(inputs[i][0])),
+														x),
+												factory.getCloseCircuit(2,
+														factory.getOInt(BigInteger.valueOf(inputs[i][1])),
+														y)),
+										factory.getMultCircuit(x, y, xy),
+										factory.getAddCircuit(xy,
+												factory.getOInt(BigInteger.valueOf(inputs[i][2])),
+												res),
+										new ParallelProtocolProducer(
+												factory.getOpenCircuit(res, results[i]),
+												factory.getOpenCircuit(1, x, bareInputs[i]))));
+							}
+							return par;
+						}
+					};
+					sce.runApplication(app);
+					BigInteger modulus = BigInteger.ONE.shiftLeft(bitLength);
+					for (int i = 0; i < inputs.length; i++) {
+						long expected = inputs[i][0] * inputs[i][1] + inputs[i][2];
+						if (bitLength == 32) {
+							expected = (int) expected;
+						}
+						Assert.assertEquals(BigInteger.valueOf(expected).mod(modulus),
+								results[i].getValue());
+						if (conf.getMyId() == 1) {
+							Assert.assertEquals(BigInteger.valueOf(inputs[i][0]).mod(modulus),
+									bareInputs[i].getValue());
+						}
+					}
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_wrap_around_64_bits_Sequential() throws Exception {
+		runTest(new TestWrapAround(), EvaluationStrategy.SEQUENTIAL, 2, 64);
+	}
+
+	@Test
+	public void test_wrap_around_32_bits_SequentialBatched() throws Exception {
+		runTest(new TestWrapAround(), EvaluationStrategy.SEQUENTIAL_BATCHED, 2, 32);
+	}
+
+	// ======= MAC check =======
+
+	/**
+	 * Party 2 adds one to its share of an input before it is opened, without
+	 * fixing the MAC, and all parties should detect this.
+	 */
+	private static class TestCheatingIsDetected extends TestThreadFactory {
+
+		@Override
+		public TestThread next(TestThreadConfiguration conf) {
+			return new TestThread() {
+
+				private SCE sce;
+
+				@Override
+				public void setUp() throws IOException {
+					sce = SCEFactory.getSCEFromConfiguration(conf.sceConf,
+							conf.protocolSuiteConf);
+				}
+
+				@Override
+				public void test() throws Exception {
+					TestApplication app = new TestApplication() {
+
+						private static final long serialVersionUID = -2931473640563398813L;
+
+						@Override
+						public ProtocolProducer prepareApplication(
+								ProtocolFactory provider) {
+							BasicNumericFactory factory = (BasicNumericFactory) provider;
+							final SInt x = factory.getSInt();
+							Spdz2kNativeProtocol cheat = new Spdz2kNativeProtocol() {
+
+								@Override
+								public EvaluationStatus evaluate(int round,
+										ResourcePool resourcePool,
+										SCENetwork network) {
+									if (resourcePool.getMyId() == 2) {
+										Spdz2kElement e = ((Spdz2kSInt) x).value;
+										((Spdz2kSInt) x).value = new Spdz2kElement(
+												e.getShare().add(UInt128.ONE),
+												e.getMac());
+									}
+									return EvaluationStatus.IS_DONE;
+								}
+
+								@Override
+								public Value[] getInputValues() {
+									return new Value[] { x };
+								}
+
+								@Override
+								public Value[] getOutputValues() {
+									return new Value[] { x };
+								}
+							};
+							return new SequentialProtocolProducer(
+									factory.getCloseCircuit(1,
+											factory.getOInt(BigInteger.TEN), x),
+									cheat,
+									factory.getOpenCircuit(x, factory.getOInt()));
+						}
+					};
+					try {
+						sce.runApplication(app);
+						Assert.fail("The MAC check should have failed");
+					} catch (MPCException e) {
+						Assert.assertTrue(e.getMessage().contains("MAC check failed"));
+					}
+				}
+			};
+		}
+	}
+
+	@Test
+	public void test_cheating_is_detected_Sequential() throws Exception {
+		runTest(new TestCheatingIsDetected(), EvaluationStrategy.SEQUENTIAL);
+	}
+
+	/**
+	 * The dummy preprocessing is insecure, so it must be asked for.
+	 */
+	@Test(expected = MPCException.class)
+	public void test_dummy_preprocessing_is_required() {
+		new Spdz2kProtocolSuite().init(null, new Spdz2kConfiguration() {
+		});
+	}
+}
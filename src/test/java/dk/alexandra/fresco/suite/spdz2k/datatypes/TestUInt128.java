@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2015 FRESCO (http://github.com/aicis/fresco).
+ *
+ * This file is part of the FRESCO project.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * FRESCO uses SCAPI - http://crypto.biu.ac.il/SCAPI, Crypto++, Miracl, NTL,
+ * and Bouncy Castle. Please see these projects for any further licensing issues.
+ *******************************************************************************/
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestUInt128 {
+
+	private static final BigInteger TWO_128 = BigInteger.ONE.shiftLeft(128);
+
+	@Test
+	public void testArithmeticAgreesWithBigInteger() {
+		Random rand = new Random(42);
+		for (int i = 0; i < 1000; i++) {
+			BigInteger a = new BigInteger(128, rand);
+			BigInteger b = new BigInteger(rand.nextInt(129), rand);
+			UInt128 x = UInt128.valueOf(a);
+			UInt128 y = UInt128.valueOf(b);
+			Assert.assertEquals(a, x.toBigInteger());
+			Assert.assertEquals(a.add(b).mod(TWO_128), x.add(y).toBigInteger());
+			Assert.assertEquals(a.subtract(b).mod(TWO_128), x.subtract(y)
+					.toBigInteger());
+			Assert.assertEquals(a.multiply(b).mod(TWO_128), x.multiply(y)
+					.toBigInteger());
+			int bits = rand.nextInt(128);
+			Assert.assertEquals(a.shiftLeft(bits).mod(TWO_128), x
+					.shiftLeft(bits).toBigInteger());
+			Assert.assertEquals(a.mod(BigInteger.ONE.shiftLeft(bits + 1)), x
+					.mask(bits + 1).toBigInteger());
+		}
+	}
+
+	@Test
+	public void testNegativeValuesAreTwosComplement() {
+		UInt128 minusOne = UInt128.valueOf(BigInteger.ONE.negate());
+		Assert.assertEquals(TWO_128.subtract(BigInteger.ONE),
+				minusOne.toBigInteger());
+		Assert.assertEquals(UInt128.ZERO, minusOne.add(UInt128.ONE));
+		Assert.assertEquals(minusOne, UInt128.ONE.negate());
+	}
+
+	@Test
+	public void testMultiplyHighOfExtremes() {
+		BigInteger max = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+		Assert.assertEquals(max.multiply(max).shiftRight(64).longValue(),
+				UInt128.multiplyHigh(-1L, -1L));
+		Assert.assertEquals(0, UInt128.multiplyHigh(-1L, 1L));
+	}
+}